@@ -0,0 +1,3 @@
+#!/bin/sh
+# Разрешает реплике подключаться к основному серверу для потоковой репликации.
+echo "host replication all all scram-sha-256" >> "$PGDATA/pg_hba.conf"
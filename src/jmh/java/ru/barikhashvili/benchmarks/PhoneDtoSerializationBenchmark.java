@@ -0,0 +1,138 @@
+package ru.barikhashvili.benchmarks;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.openjdk.jmh.annotations.*;
+import ru.barikhashvili.dto.PhoneDTO;
+import ru.barikhashvili.dto.PhoneVariantDTO;
+import ru.barikhashvili.dto.VariantDTO;
+import ru.barikhashvili.dto.specs.*;
+import ru.barikhashvili.entities.specs.enums.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Сравнивает размер ответа и скорость кодирования/декодирования списка PhoneDTO в форматах JSON, CBOR и Smile.
+ * Размер закодированного списка для каждого формата выводится в лог JMH перед началом измерений.
+ *
+ * <p>Запуск: {@code mvn -P benchmark test-compile exec:exec}</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PhoneDtoSerializationBenchmark {
+    private static final TypeReference<List<PhoneDTO>> PHONE_LIST_TYPE = new TypeReference<>() {
+    };
+
+    @Param({"100", "1000"})
+    int phoneCount;
+
+    @Param({"JSON", "CBOR", "SMILE"})
+    String format;
+
+    ObjectMapper objectMapper;
+    List<PhoneDTO> phones;
+    byte[] encodedPhones;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        objectMapper = switch (format) {
+            case "JSON" -> JsonMapper.builder().build();
+            case "CBOR" -> CBORMapper.builder().build();
+            case "SMILE" -> SmileMapper.builder().build();
+            default -> throw new IllegalArgumentException("Unknown format: " + format);
+        };
+        objectMapper.registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+        phones = IntStream.range(0, phoneCount)
+                .mapToObj(PhoneDtoSerializationBenchmark::createPhone)
+                .toList();
+        encodedPhones = objectMapper.writeValueAsBytes(phones);
+
+        System.out.printf("%nPayload size [%s, %d phones]: %d bytes%n", format, phoneCount, encodedPhones.length);
+    }
+
+    @Benchmark
+    public byte[] encode() throws Exception {
+        return objectMapper.writeValueAsBytes(phones);
+    }
+
+    @Benchmark
+    public List<PhoneDTO> decode() throws Exception {
+        return objectMapper.readValue(encodedPhones, PHONE_LIST_TYPE);
+    }
+
+    private static PhoneDTO createPhone(int index) {
+        var country = CountryDTO.of(index % 10, "Country " + index % 10);
+        var manufacturer = ManufacturerDTO.builder()
+                .id(index % 50)
+                .name("Manufacturer " + index % 50)
+                .country(country)
+                .build();
+
+        var display = new DisplayDTO();
+        display.setId(index);
+        display.setDiagonal(new BigDecimal("6.71"));
+        display.setRefreshRate(120);
+        display.setDisplayType(DisplayType.AMOLED);
+        display.setResolution(ResolutionDTO.of(index, 1440, 3120));
+        display.setPpi(new BigDecimal("512.11"));
+
+        var cameras = IntStream.range(0, 3)
+                .mapToObj(cameraIndex -> CameraDTO.of((long) index * 3 + cameraIndex,
+                        CameraType.values()[cameraIndex], cameraIndex == 0,
+                        CameraSensorDTO.of(cameraIndex, "Sensor " + cameraIndex,
+                                new BigDecimal("50.00"), "1/1.31", "1.22µm")))
+                .toList();
+
+        var specification = PhoneSpecificationDTO.builder()
+                .id((long) index)
+                .networkType(NetworkType.FREQUENCY_5G)
+                .simCount(2)
+                .hasWifi(true)
+                .hasNfc(true)
+                .hasBluetooth(true)
+                .height(new BigDecimal("163.90"))
+                .width(new BigDecimal("75.90"))
+                .thickness(new BigDecimal("8.70"))
+                .weight(new BigDecimal("210.00"))
+                .material(MaterialType.ALUMINUM)
+                .chargerType(ChargerType.USB_TYPE_C)
+                .operatingSystem(OperatingSystemDTO.builder().id(1).name("Android").version("14").build())
+                .display(display)
+                .processor(ProcessorDTO.of(1, "Google Tensor G3", 4, 9, new BigDecimal("2.91"), 13095))
+                .battery(BatteryDTO.of(1, 5050, BatteryType.LI_ION))
+                .cameras(cameras)
+                .build();
+
+        var phoneVariants = IntStream.range(0, 4)
+                .mapToObj(variantIndex -> PhoneVariantDTO.of(null,
+                        VariantDTO.of(variantIndex, 128 << (variantIndex % 3), 8 + variantIndex * 4,
+                                Color.values()[variantIndex]),
+                        variantIndex * 7 + 3,
+                        new BigDecimal("79990.00").add(BigDecimal.valueOf(variantIndex * 10000L))))
+                .toList();
+
+        return PhoneDTO.builder()
+                .id((long) index)
+                .manufacturer(manufacturer)
+                .model("Phone " + index)
+                .specification(specification)
+                .releaseDate(LocalDateTime.of(2023, 10, 4, 0, 0))
+                .phoneVariants(phoneVariants)
+                .build();
+    }
+}
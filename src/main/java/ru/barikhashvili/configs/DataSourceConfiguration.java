@@ -0,0 +1,60 @@
+package ru.barikhashvili.configs;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Создает пул соединений основного сервера (настройки spring.datasource) и пулы соединений реплик,
+ * адреса которых перечислены в свойстве phone-store.datasource.replica-urls. Реплики используют те же
+ * имя пользователя и пароль, что и основной сервер, и такой же размер пула, если он задан свойством
+ * spring.datasource.hikari.maximum-pool-size (иначе Hikari использует размер по умолчанию). Если адреса
+ * реплик не указаны, все запросы выполняются на основном сервере.
+ */
+@Configuration
+public class DataSourceConfiguration {
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(
+            HikariDataSource primaryDataSource,
+            DataSourceProperties properties,
+            @Value("${phone-store.datasource.replica-urls:}") List<String> replicaUrls) {
+        var replicaDataSources = IntStream.range(0, replicaUrls.size())
+                .mapToObj(index -> {
+                    var replicaDataSource = properties.initializeDataSourceBuilder()
+                            .type(HikariDataSource.class)
+                            .url(replicaUrls.get(index).trim())
+                            .build();
+                    replicaDataSource.setPoolName("replica-" + (index + 1));
+                    if (primaryDataSource.getMaximumPoolSize() > 0) {
+                        replicaDataSource.setMaximumPoolSize(primaryDataSource.getMaximumPoolSize());
+                    }
+                    replicaDataSource.setReadOnly(true);
+                    return replicaDataSource;
+                })
+                .toList();
+        return new ReplicaRoutingDataSource(primaryDataSource, replicaDataSources);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+}
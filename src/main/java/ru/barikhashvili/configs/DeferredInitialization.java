@@ -0,0 +1,52 @@
+package ru.barikhashvili.configs;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+
+/**
+ * Создает в фоновом потоке после готовности приложения синглтоны, помеченные {@code @Lazy}. Такие бины
+ * не нужны для обработки первых запросов и не задерживают запуск, но создаются заранее, чтобы их
+ * инициализация не попадала во время ответа на первый использующий их запрос.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
+public class DeferredInitialization {
+    ConfigurableListableBeanFactory beanFactory;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void handleApplicationReady() {
+        var initializer = new Thread(this::initializeLazySingletons, "deferred-init");
+        initializer.setDaemon(true);
+        initializer.start();
+    }
+
+    private void initializeLazySingletons() {
+        var startedAt = System.nanoTime();
+        var lazySingletons = Arrays.stream(beanFactory.getBeanDefinitionNames())
+                .filter(beanName -> {
+                    var beanDefinition = beanFactory.getBeanDefinition(beanName);
+                    return beanDefinition.isLazyInit() && beanDefinition.isSingleton() && !beanDefinition.isAbstract();
+                })
+                .toList();
+        for (var beanName : lazySingletons) {
+            try {
+                beanFactory.getBean(beanName);
+            } catch (RuntimeException exception) {
+                log.warn("Deferred initialization of bean '{}' failed, it will be created on first use", beanName,
+                        exception);
+            }
+        }
+        log.info("Initialized {} deferred beans in {} ms", lazySingletons.size(),
+                (System.nanoTime() - startedAt) / 1_000_000);
+    }
+}
@@ -0,0 +1,28 @@
+package ru.barikhashvili.configs;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Регистрирует бинарные форматы CBOR (application/cbor) и Smile (application/x-jackson-smile).
+ * Формат ответа выбирается по заголовку Accept, JSON остается форматом по умолчанию.
+ * Конвертеры создаются из того же Jackson2ObjectMapperBuilder, что и JSON конвертер,
+ * поэтому DTO сериализуются одинаково во всех форматах.
+ */
+@Configuration
+public class MessageConverterConfiguration {
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+}
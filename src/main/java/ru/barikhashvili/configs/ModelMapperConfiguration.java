@@ -5,6 +5,7 @@ import org.modelmapper.ModelMapper;
 import org.modelmapper.PropertyMap;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.context.annotation.Primary;
 import ru.barikhashvili.dto.PhoneDTO;
 import ru.barikhashvili.dto.PhoneVariantDTO;
@@ -35,7 +36,12 @@ public class ModelMapperConfiguration {
         return modelMapper;
     }
 
+    /**
+     * Маппер для частичного изменения данных нужен только запросам PATCH, поэтому создается не при запуске
+     * приложения, а при первом обращении или в фоне после готовности приложения (см. DeferredInitialization).
+     */
     @Bean
+    @Lazy
     public ModelMapper nullableModelMapper() {
         var nullableModelMapper = new ModelMapper();
 
@@ -82,6 +88,7 @@ public class ModelMapperConfiguration {
             @Override
             protected void configure() {
                 skip(destination.getId());
+                skip(destination.getPerformanceScore());
             }
         });
 
@@ -97,6 +104,7 @@ public class ModelMapperConfiguration {
             protected void configure() {
                 skip(destination.getId());
                 skip(destination.getResolution());
+                skip(destination.getPpi());
             }
         });
 
@@ -124,6 +132,7 @@ public class ModelMapperConfiguration {
                 skip(destination.getProcessor());
                 skip(destination.getBattery());
                 skip(destination.getCameras());
+                skip(destination.getVersion());
             }
         });
 
@@ -148,6 +157,7 @@ public class ModelMapperConfiguration {
                 skip(destination.getSpecification());
                 skip(destination.getManufacturer());
                 skip(destination.getPhoneVariants());
+                skip(destination.getVersion());
             }
         });
     }
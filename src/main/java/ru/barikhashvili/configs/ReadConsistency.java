@@ -0,0 +1,68 @@
+package ru.barikhashvili.configs;
+
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.regex.Pattern;
+
+/**
+ * Позиции журнала WAL (LSN), по которым проверяется, что реплика уже содержит изменения,
+ * зафиксированные на основном сервере. Клиент получает позицию своей последней записи в заголовке
+ * ответа {@value #LSN_HEADER} и может передать ее в том же заголовке следующего запроса, чтобы
+ * чтение было выполнено только на реплике, которая уже применила эту запись, или на основном сервере.
+ */
+public final class ReadConsistency {
+    public static final String LSN_HEADER = "X-Catalog-LSN";
+
+    private static final Pattern LSN_PATTERN = Pattern.compile("([0-9A-Fa-f]{1,8})/([0-9A-Fa-f]{1,8})");
+    private static final String WRITE_COMMITTED_ATTRIBUTE = ReadConsistency.class.getName() + ".WRITE_COMMITTED";
+
+    private ReadConsistency() {
+    }
+
+    /**
+     * Возвращает позицию WAL, переданную клиентом в заголовке текущего запроса.
+     *
+     * @return позиция WAL или 0, если заголовок отсутствует, указан в неверном формате или поток
+     * не обрабатывает HTTP запрос.
+     */
+    public static long getRequiredLsn() {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)) {
+            return 0;
+        }
+        var lsn = attributes.getRequest().getHeader(LSN_HEADER);
+        return lsn == null ? 0 : parseLsn(lsn);
+    }
+
+    public static void markWriteCommitted() {
+        var attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null) {
+            attributes.setAttribute(WRITE_COMMITTED_ATTRIBUTE, Boolean.TRUE, RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+
+    public static boolean isWriteCommitted() {
+        var attributes = RequestContextHolder.getRequestAttributes();
+        return attributes != null
+                && attributes.getAttribute(WRITE_COMMITTED_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) != null;
+    }
+
+    /**
+     * Преобразует текстовое представление pg_lsn (например, {@code 16/B374D848}) в число.
+     *
+     * @param lsn текстовое представление позиции WAL.
+     * @return позиция WAL или 0, если строка имеет неверный формат.
+     */
+    public static long parseLsn(String lsn) {
+        var matcher = LSN_PATTERN.matcher(lsn);
+        if (!matcher.matches()) {
+            return 0;
+        }
+        return Long.parseLong(matcher.group(1), 16) << 32 | Long.parseLong(matcher.group(2), 16);
+    }
+
+    public static String formatLsn(long lsn) {
+        return Long.toHexString(lsn >>> 32).toUpperCase() + "/" + Long.toHexString(lsn & 0xFFFFFFFFL).toUpperCase();
+    }
+}
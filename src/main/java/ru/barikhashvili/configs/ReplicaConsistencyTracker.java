@@ -0,0 +1,80 @@
+package ru.barikhashvili.configs;
+
+import jakarta.persistence.EntityManager;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.HibernateException;
+import org.hibernate.Session;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.barikhashvili.events.CatalogChangedEvent;
+import ru.barikhashvili.events.RemoteCatalogChangedEvent;
+
+/**
+ * Обновляет позицию последней записи в ReplicaRoutingDataSource один раз после фиксации каждой
+ * транзакции, изменившей каталог, и после получения изменений других экземпляров приложения.
+ * Позиция записи транзакции читается перед фиксацией через ее собственное соединение (после сброса
+ * изменений), а публикуется только после успешной фиксации. Запись о фиксации следует в WAL сразу
+ * за прочитанной позицией.
+ * Обработчик изменений других экземпляров выполняется раньше обработчиков кэшей, чтобы кэши
+ * перечитывали данные только с реплик, уже применивших эти изменения.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
+public class ReplicaConsistencyTracker {
+    ReplicaRoutingDataSource replicaRoutingDataSource;
+    EntityManager entityManager;
+
+    @EventListener
+    public void handleCatalogChanged(CatalogChangedEvent event) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()
+                || TransactionSynchronizationManager.hasResource(this)) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(this, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            long writeLsn = -1;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                if (!replicaRoutingDataSource.hasReplicas()) {
+                    return;
+                }
+                entityManager.flush();
+                try {
+                    writeLsn = entityManager.unwrap(Session.class)
+                            .doReturningWork(replicaRoutingDataSource::readPrimaryInsertLsn);
+                } catch (HibernateException exception) {
+                    log.warn("Failed to read the primary WAL position: {}", exception.getMessage());
+                }
+            }
+
+            @Override
+            public void afterCommit() {
+                if (writeLsn >= 0) {
+                    replicaRoutingDataSource.observeWriteLsn(writeLsn);
+                }
+                ReadConsistency.markWriteCommitted();
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(ReplicaConsistencyTracker.this);
+            }
+        });
+    }
+
+    @EventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void handleRemoteCatalogChanged(RemoteCatalogChangedEvent event) {
+        replicaRoutingDataSource.observePrimaryLsn();
+    }
+}
@@ -0,0 +1,173 @@
+package ru.barikhashvili.configs;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Направляет соединения транзакций {@code @Transactional(readOnly = true)} на реплики по очереди,
+ * а остальные соединения - на основной сервер. Должен использоваться через LazyConnectionDataSourceProxy,
+ * чтобы соединение запрашивалось после того, как признак readOnly транзакции уже установлен.
+ *
+ * <p>Реплика выбирается, только если она уже применила журнал WAL до позиции последней записи, известной
+ * этому экземпляру приложения (своей или полученной через шину инвалидации), и до позиции, переданной
+ * клиентом в заголовке {@value ReadConsistency#LSN_HEADER}. Позиция каждой реплики запоминается, поэтому
+ * запрос к реплике выполняется только если запомненной позиции недостаточно. Если ни одна реплика
+ * не подходит или недоступна, используется основной сервер.</p>
+ */
+@Slf4j
+@FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
+public class ReplicaRoutingDataSource extends AbstractDataSource implements Closeable {
+    private static final String PRIMARY_LSN_QUERY = "SELECT pg_current_wal_lsn() - CAST('0/0' AS pg_lsn)";
+    private static final String INSERT_LSN_QUERY = "SELECT pg_current_wal_insert_lsn() - CAST('0/0' AS pg_lsn)";
+    private static final String REPLAY_LSN_QUERY = "SELECT pg_last_wal_replay_lsn() - CAST('0/0' AS pg_lsn)";
+
+    DataSource primaryDataSource;
+    List<Replica> replicas;
+    AtomicInteger nextReplica = new AtomicInteger();
+    AtomicLong lastWriteLsn = new AtomicLong();
+
+    public ReplicaRoutingDataSource(DataSource primaryDataSource, List<? extends DataSource> replicaDataSources) {
+        this.primaryDataSource = primaryDataSource;
+        this.replicas = replicaDataSources.stream()
+                .map(Replica::new)
+                .toList();
+    }
+
+    public boolean hasReplicas() {
+        return !replicas.isEmpty();
+    }
+
+    public long getLastWriteLsn() {
+        return lastWriteLsn.get();
+    }
+
+    /**
+     * Читает позицию вставки в WAL основного сервера через соединение транзакции, изменившей данные.
+     * Вызывается перед фиксацией транзакции после сброса изменений, поэтому позиция включает все записанные
+     * транзакцией строки, а второе соединение с основным сервером не требуется.
+     *
+     * @param connection соединение текущей транзакции с основным сервером.
+     * @return позиция WAL или -1, если реплики не настроены.
+     * @throws SQLException если позицию не удалось прочитать.
+     */
+    public long readPrimaryInsertLsn(Connection connection) throws SQLException {
+        if (replicas.isEmpty()) {
+            return -1;
+        }
+        return queryLsn(connection, INSERT_LSN_QUERY);
+    }
+
+    /**
+     * Запоминает позицию WAL зафиксированной записи, поэтому следующие чтения этого экземпляра
+     * не попадут на реплику, которая еще не применила изменение.
+     *
+     * @param lsn позиция WAL, прочитанная методом {@link #readPrimaryInsertLsn(Connection)}.
+     */
+    public void observeWriteLsn(long lsn) {
+        lastWriteLsn.accumulateAndGet(lsn, Math::max);
+    }
+
+    /**
+     * Запоминает текущую позицию WAL основного сервера, запрашивая ее через отдельное соединение.
+     * Вызывается после получения изменений других экземпляров приложения вне транзакции.
+     */
+    public void observePrimaryLsn() {
+        if (replicas.isEmpty()) {
+            return;
+        }
+        try (var connection = primaryDataSource.getConnection()) {
+            var primaryLsn = queryLsn(connection, PRIMARY_LSN_QUERY);
+            lastWriteLsn.accumulateAndGet(primaryLsn, Math::max);
+        } catch (SQLException exception) {
+            log.warn("Failed to read the primary WAL position: {}", exception.getMessage());
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (replicas.isEmpty() || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return primaryDataSource.getConnection();
+        }
+
+        var requiredLsn = Math.max(lastWriteLsn.get(), ReadConsistency.getRequiredLsn());
+        var firstReplica = Math.floorMod(nextReplica.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            var replica = replicas.get((firstReplica + i) % replicas.size());
+            try {
+                var connection = replica.getConnection(requiredLsn);
+                if (connection != null) {
+                    return connection;
+                }
+            } catch (SQLException exception) {
+                log.warn("Replica is unavailable, trying the next one: {}", exception.getMessage());
+            }
+        }
+        return primaryDataSource.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return primaryDataSource.getConnection(username, password);
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (var replica : replicas) {
+            if (replica.dataSource instanceof Closeable closeableDataSource) {
+                closeableDataSource.close();
+            }
+        }
+    }
+
+    private static long queryLsn(Connection connection, String query) throws SQLException {
+        try (var statement = connection.createStatement();
+             var resultSet = statement.executeQuery(query)) {
+            resultSet.next();
+            var lsn = resultSet.getLong(1);
+            return resultSet.wasNull() ? -1 : lsn;
+        }
+    }
+
+    @FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
+    private static final class Replica {
+        DataSource dataSource;
+        AtomicLong replayedLsn = new AtomicLong();
+
+        Replica(DataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+
+        /**
+         * Возвращает соединение с репликой, если она применила WAL до указанной позиции, иначе null.
+         */
+        Connection getConnection(long requiredLsn) throws SQLException {
+            var connection = dataSource.getConnection();
+            if (replayedLsn.get() >= requiredLsn) {
+                return connection;
+            }
+            try {
+                var lsn = replayedLsn.accumulateAndGet(queryLsn(connection, REPLAY_LSN_QUERY), Math::max);
+                if (lsn >= requiredLsn) {
+                    return connection;
+                }
+            } catch (SQLException exception) {
+                connection.close();
+                throw exception;
+            }
+            connection.close();
+            return null;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package ru.barikhashvili.configs;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Включает выполнение периодических задач, например публикацию ленты изменений каталога.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfiguration {
+}
@@ -0,0 +1,45 @@
+package ru.barikhashvili.configs;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.support.ServletRequestHandledEvent;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Сообщает время от запуска JVM до обработки первого запроса к API каталога (запросы actuator
+ * не учитываются). Время публикуется в лог и метрикой application.first.request.time и позволяет
+ * сравнивать запуск в обычном режиме и в режиме быстрого запуска (AOT и AppCDS).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
+public class StartupTimeReporter {
+    private static final String API_PATH_PREFIX = "/api/";
+
+    MeterRegistry meterRegistry;
+    AtomicBoolean firstRequestHandled = new AtomicBoolean();
+
+    @EventListener
+    public void handleRequestHandled(ServletRequestHandledEvent event) {
+        if (firstRequestHandled.get() || !event.getRequestUrl().startsWith(API_PATH_PREFIX)
+                || !firstRequestHandled.compareAndSet(false, true)) {
+            return;
+        }
+        var firstRequestTime = ManagementFactory.getRuntimeMXBean().getUptime();
+        TimeGauge.builder("application.first.request.time", () -> firstRequestTime, TimeUnit.MILLISECONDS)
+                .description("Time from JVM start until the first catalog API request was handled")
+                .register(meterRegistry);
+        log.info("First API request {} handled {} ms after JVM start ({} ms processing)",
+                event.getRequestUrl(), firstRequestTime, event.getProcessingTimeMillis());
+    }
+}
@@ -1,6 +1,6 @@
 package ru.barikhashvili.controllers;
 
-import jakarta.transaction.Transactional;
+import jakarta.validation.Valid;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
@@ -11,6 +11,7 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.util.UriComponentsBuilder;
 import ru.barikhashvili.dto.specs.BatteryDTO;
 import ru.barikhashvili.services.CrudService;
+import ru.barikhashvili.services.UpsertService;
 
 import java.util.List;
 
@@ -21,9 +22,10 @@ import java.util.List;
 @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
 public class BatteryController {
     CrudService<BatteryDTO, Integer> batteryService;
+    UpsertService<BatteryDTO> batteryUpsertService;
 
     @PostMapping
-    public ResponseEntity<BatteryDTO> handleAddBattery(@RequestBody BatteryDTO batteryDTO) {
+    public ResponseEntity<BatteryDTO> handleAddBattery(@Valid @RequestBody BatteryDTO batteryDTO) {
         var persistentBattery = batteryService.saveEntity(batteryDTO);
         var newBatteryURI = UriComponentsBuilder
                 .fromPath("/api/v1/batteries/{id}")
@@ -38,15 +40,12 @@ public class BatteryController {
     }
 
     @GetMapping("{id}")
-    @Transactional
     public ResponseEntity<BatteryDTO> handleGetBattery(@PathVariable Integer id) {
         var batteryDTO = batteryService.getEntityById(id);
 
         log.info("Received phone battery with ID: {}", batteryDTO.getId());
 
-        return ResponseEntity.ok()
-                .contentType(MediaType.APPLICATION_JSON)
-                .body(batteryDTO);
+        return ResponseEntity.ok(batteryDTO);
     }
 
     @GetMapping
@@ -55,9 +54,16 @@ public class BatteryController {
 
         log.info("Received a complete list of all phone batteries");
 
-        return ResponseEntity.ok()
-                .contentType(MediaType.APPLICATION_JSON)
-                .body(allBatteriesDTO);
+        return ResponseEntity.ok(allBatteriesDTO);
+    }
+
+    @GetMapping(params = "ids")
+    public ResponseEntity<List<BatteryDTO>> handleGetBatteriesByIds(@RequestParam List<Integer> ids) {
+        var requestedBatteriesDTO = batteryService.getEntitiesByIds(ids);
+
+        log.info("Received phone batteries with IDs: {}", ids);
+
+        return ResponseEntity.ok(requestedBatteriesDTO);
     }
 
     @DeleteMapping(value = "{id}")
@@ -71,10 +77,43 @@ public class BatteryController {
                 .body(removedBatteryDTO);
     }
 
+    @DeleteMapping(params = "ids")
+    public ResponseEntity<List<BatteryDTO>> handleDeleteBatteriesByIds(@RequestParam List<Integer> ids) {
+        var removedBatteriesDTO = batteryService.removeEntitiesByIds(ids);
+
+        log.info("Removed phone batteries with IDs: {}", ids);
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(removedBatteriesDTO);
+    }
+
+    @PutMapping
+    public ResponseEntity<BatteryDTO> handleUpsertBattery(@Valid @RequestBody BatteryDTO batteryDTO) {
+        var upsertedBattery = batteryUpsertService.upsertEntity(batteryDTO);
+        var persistentBattery = upsertedBattery.entity();
+
+        log.info("Upserted a phone battery by natural key. ID: {}, inserted: {}",
+                persistentBattery.getId(), upsertedBattery.inserted());
+
+        if (upsertedBattery.inserted()) {
+            var newBatteryURI = UriComponentsBuilder
+                    .fromPath("/api/v1/batteries/{id}")
+                    .build(java.util.Map.of("id", persistentBattery.getId()));
+            return ResponseEntity
+                    .created(newBatteryURI)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(persistentBattery);
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(persistentBattery);
+    }
+
     @PutMapping(value = "{id}")
     public ResponseEntity<BatteryDTO> handleEditBattery(
             @PathVariable Integer id,
-            @RequestBody BatteryDTO batteryDTO) {
+            @Valid @RequestBody BatteryDTO batteryDTO) {
         var editedBatteryDTO = batteryService.editEntity(id, batteryDTO);
 
         log.info("Battery details have been completely changed. Battery ID: {}", editedBatteryDTO.getId());
@@ -87,7 +126,7 @@ public class BatteryController {
     @PatchMapping(value = "{id}")
     public ResponseEntity<BatteryDTO> handleEditPartOfBattery(
             @PathVariable Integer id,
-            @RequestBody BatteryDTO batteryDTO) {
+            @Valid @RequestBody BatteryDTO batteryDTO) {
         var editedBatteryDTO = batteryService.editPartOfEntity(id, batteryDTO);
 
         log.info("Partially changed battery data. Battery ID: {}", editedBatteryDTO.getId());
@@ -1,6 +1,6 @@
 package ru.barikhashvili.controllers;
 
-import jakarta.transaction.Transactional;
+import jakarta.validation.Valid;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
@@ -11,6 +11,7 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.util.UriComponentsBuilder;
 import ru.barikhashvili.dto.specs.CameraDTO;
 import ru.barikhashvili.services.CrudService;
+import ru.barikhashvili.services.UpsertService;
 
 import java.util.List;
 
@@ -21,9 +22,10 @@ import java.util.List;
 @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
 public class CameraController {
     CrudService<CameraDTO, Long> cameraService;
+    UpsertService<CameraDTO> cameraUpsertService;
 
     @PostMapping
-    public ResponseEntity<CameraDTO> handleAddCamera(@RequestBody CameraDTO cameraDTO) {
+    public ResponseEntity<CameraDTO> handleAddCamera(@Valid @RequestBody CameraDTO cameraDTO) {
         var persistentCamera = cameraService.saveEntity(cameraDTO);
         var newCameraURI = UriComponentsBuilder
                 .fromPath("/api/v1/cameras/{id}")
@@ -38,15 +40,12 @@ public class CameraController {
     }
 
     @GetMapping("{id}")
-    @Transactional
     public ResponseEntity<CameraDTO> handleGetCamera(@PathVariable Long id) {
         var cameraDTO = cameraService.getEntityById(id);
 
         log.info("Received phone camera with ID: {}", cameraDTO.getId());
 
-        return ResponseEntity.ok()
-                .contentType(MediaType.APPLICATION_JSON)
-                .body(cameraDTO);
+        return ResponseEntity.ok(cameraDTO);
     }
 
     @GetMapping
@@ -55,9 +54,16 @@ public class CameraController {
 
         log.info("Received a complete list of all phone cameras");
 
-        return ResponseEntity.ok()
-                .contentType(MediaType.APPLICATION_JSON)
-                .body(allCamerasDTO);
+        return ResponseEntity.ok(allCamerasDTO);
+    }
+
+    @GetMapping(params = "ids")
+    public ResponseEntity<List<CameraDTO>> handleGetCamerasByIds(@RequestParam List<Long> ids) {
+        var requestedCamerasDTO = cameraService.getEntitiesByIds(ids);
+
+        log.info("Received phone cameras with IDs: {}", ids);
+
+        return ResponseEntity.ok(requestedCamerasDTO);
     }
 
     @DeleteMapping(value = "{id}")
@@ -71,10 +77,43 @@ public class CameraController {
                 .body(removedCameraDTO);
     }
 
+    @DeleteMapping(params = "ids")
+    public ResponseEntity<List<CameraDTO>> handleDeleteCamerasByIds(@RequestParam List<Long> ids) {
+        var removedCamerasDTO = cameraService.removeEntitiesByIds(ids);
+
+        log.info("Removed phone cameras with IDs: {}", ids);
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(removedCamerasDTO);
+    }
+
+    @PutMapping
+    public ResponseEntity<CameraDTO> handleUpsertCamera(@Valid @RequestBody CameraDTO cameraDTO) {
+        var upsertedCamera = cameraUpsertService.upsertEntity(cameraDTO);
+        var persistentCamera = upsertedCamera.entity();
+
+        log.info("Upserted a camera by natural key. ID: {}, inserted: {}",
+                persistentCamera.getId(), upsertedCamera.inserted());
+
+        if (upsertedCamera.inserted()) {
+            var newCameraURI = UriComponentsBuilder
+                    .fromPath("/api/v1/cameras/{id}")
+                    .build(java.util.Map.of("id", persistentCamera.getId()));
+            return ResponseEntity
+                    .created(newCameraURI)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(persistentCamera);
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(persistentCamera);
+    }
+
     @PutMapping(value = "{id}")
     public ResponseEntity<CameraDTO> handleEditCamera(
             @PathVariable Long id,
-            @RequestBody CameraDTO cameraDTO) {
+            @Valid @RequestBody CameraDTO cameraDTO) {
         var editedCameraDTO = cameraService.editEntity(id, cameraDTO);
 
         log.info("Camera details have been completely changed. Camera ID: {}", editedCameraDTO.getId());
@@ -87,7 +126,7 @@ public class CameraController {
     @PatchMapping(value = "{id}")
     public ResponseEntity<CameraDTO> handleEditPartOfCamera(
             @PathVariable Long id,
-            @RequestBody CameraDTO cameraDTO) {
+            @Valid @RequestBody CameraDTO cameraDTO) {
         var editedCameraDTO = cameraService.editPartOfEntity(id, cameraDTO);
 
         log.info("Partially changed camera data. Camera ID: {}", editedCameraDTO.getId());
@@ -1,17 +1,23 @@
 package ru.barikhashvili.controllers;
 
-import jakarta.transaction.Transactional;
+import jakarta.validation.Valid;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.util.UriComponentsBuilder;
 import ru.barikhashvili.dto.specs.CameraSensorDTO;
+import ru.barikhashvili.dto.specs.CameraSensorPageDTO;
+import ru.barikhashvili.dto.specs.CameraSensorUsageDTO;
 import ru.barikhashvili.services.CrudService;
+import ru.barikhashvili.services.UpsertService;
+import ru.barikhashvili.services.impl.CameraSensorSearchService;
 
+import java.math.BigDecimal;
 import java.util.List;
 
 @RestController
@@ -21,9 +27,11 @@ import java.util.List;
 @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
 public class CameraSensorController {
     CrudService<CameraSensorDTO, Integer> cameraSensorService;
+    UpsertService<CameraSensorDTO> cameraSensorUpsertService;
+    CameraSensorSearchService cameraSensorSearchService;
 
     @PostMapping
-    public ResponseEntity<CameraSensorDTO> handleAddCameraSensor(@RequestBody CameraSensorDTO cameraSensorDTO) {
+    public ResponseEntity<CameraSensorDTO> handleAddCameraSensor(@Valid @RequestBody CameraSensorDTO cameraSensorDTO) {
         var persistentCameraSensor = cameraSensorService.saveEntity(cameraSensorDTO);
         var newCameraSensorURI = UriComponentsBuilder
                 .fromPath("/api/v1/camera-sensors/{id}")
@@ -38,15 +46,12 @@ public class CameraSensorController {
     }
 
     @GetMapping("{id}")
-    @Transactional
     public ResponseEntity<CameraSensorDTO> handleGetCameraSensor(@PathVariable Integer id) {
         var cameraSensorDTO = cameraSensorService.getEntityById(id);
 
         log.info("Received phone camera sensor with ID: {}", cameraSensorDTO.getId());
 
-        return ResponseEntity.ok()
-                .contentType(MediaType.APPLICATION_JSON)
-                .body(cameraSensorDTO);
+        return ResponseEntity.ok(cameraSensorDTO);
     }
 
     @GetMapping
@@ -55,9 +60,42 @@ public class CameraSensorController {
 
         log.info("Received a complete list of all phone camera sensors");
 
-        return ResponseEntity.ok()
-                .contentType(MediaType.APPLICATION_JSON)
-                .body(allCameraSensorsDTO);
+        return ResponseEntity.ok(allCameraSensorsDTO);
+    }
+
+    @GetMapping("search")
+    public ResponseEntity<CameraSensorPageDTO> handleSearchCameraSensors(
+            @RequestParam(required = false) BigDecimal minMegapixels,
+            @RequestParam(required = false) BigDecimal maxMegapixels,
+            @RequestParam(defaultValue = "ASC") Sort.Direction direction,
+            @RequestParam(required = false) BigDecimal afterMegapixels,
+            @RequestParam(required = false) Integer afterId,
+            @RequestParam(defaultValue = "20") int limit) {
+        var cameraSensorPage = cameraSensorSearchService.findByMegapixels(
+                minMegapixels, maxMegapixels, direction, afterMegapixels, afterId, limit);
+
+        log.info("Received {} phone camera sensors with megapixels from {} to {}",
+                cameraSensorPage.getSensors().size(), minMegapixels, maxMegapixels);
+
+        return ResponseEntity.ok(cameraSensorPage);
+    }
+
+    @GetMapping(value = "specification-counts", params = "ids")
+    public ResponseEntity<List<CameraSensorUsageDTO>> handleGetSpecificationCounts(@RequestParam List<Integer> ids) {
+        var specificationCounts = cameraSensorSearchService.getSpecificationCounts(ids);
+
+        log.info("Received specification counts of phone camera sensors with IDs: {}", ids);
+
+        return ResponseEntity.ok(specificationCounts);
+    }
+
+    @GetMapping(params = "ids")
+    public ResponseEntity<List<CameraSensorDTO>> handleGetCameraSensorsByIds(@RequestParam List<Integer> ids) {
+        var requestedCameraSensorsDTO = cameraSensorService.getEntitiesByIds(ids);
+
+        log.info("Received phone camera sensors with IDs: {}", ids);
+
+        return ResponseEntity.ok(requestedCameraSensorsDTO);
     }
 
     @DeleteMapping(value = "{id}")
@@ -71,10 +109,43 @@ public class CameraSensorController {
                 .body(removedCameraSensorDTO);
     }
 
+    @DeleteMapping(params = "ids")
+    public ResponseEntity<List<CameraSensorDTO>> handleDeleteCameraSensorsByIds(@RequestParam List<Integer> ids) {
+        var removedCameraSensorsDTO = cameraSensorService.removeEntitiesByIds(ids);
+
+        log.info("Removed phone camera sensors with IDs: {}", ids);
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(removedCameraSensorsDTO);
+    }
+
+    @PutMapping
+    public ResponseEntity<CameraSensorDTO> handleUpsertCameraSensor(@Valid @RequestBody CameraSensorDTO cameraSensorDTO) {
+        var upsertedCameraSensor = cameraSensorUpsertService.upsertEntity(cameraSensorDTO);
+        var persistentCameraSensor = upsertedCameraSensor.entity();
+
+        log.info("Upserted a camera sensor by natural key. ID: {}, inserted: {}",
+                persistentCameraSensor.getId(), upsertedCameraSensor.inserted());
+
+        if (upsertedCameraSensor.inserted()) {
+            var newCameraSensorURI = UriComponentsBuilder
+                    .fromPath("/api/v1/camera-sensors/{id}")
+                    .build(java.util.Map.of("id", persistentCameraSensor.getId()));
+            return ResponseEntity
+                    .created(newCameraSensorURI)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(persistentCameraSensor);
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(persistentCameraSensor);
+    }
+
     @PutMapping(value = "{id}")
     public ResponseEntity<CameraSensorDTO> handleEditCameraSensor(
             @PathVariable Integer id,
-            @RequestBody CameraSensorDTO cameraSensorDTO) {
+            @Valid @RequestBody CameraSensorDTO cameraSensorDTO) {
         var editedCameraSensorDTO = cameraSensorService.editEntity(id, cameraSensorDTO);
 
         log.info("Camera sensor details have been completely changed. Camera sensor ID: {}", editedCameraSensorDTO.getId());
@@ -87,7 +158,7 @@ public class CameraSensorController {
     @PatchMapping(value = "{id}")
     public ResponseEntity<CameraSensorDTO> handleEditPartOfCameraSensor(
             @PathVariable Integer id,
-            @RequestBody CameraSensorDTO cameraSensorDTO) {
+            @Valid @RequestBody CameraSensorDTO cameraSensorDTO) {
         var editedCameraSensorDTO = cameraSensorService.editPartOfEntity(id, cameraSensorDTO);
 
         log.info("Partially changed camera sensor data. Camera sensor ID: {}", editedCameraSensorDTO.getId());
@@ -0,0 +1,33 @@
+package ru.barikhashvili.controllers;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import ru.barikhashvili.dto.CatalogChangeFeedDTO;
+import ru.barikhashvili.services.outbox.CatalogOutboxService;
+
+@RestController
+@RequestMapping("/api/v1/changes/")
+@RequiredArgsConstructor
+@Slf4j
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class CatalogChangeController {
+    CatalogOutboxService catalogOutboxService;
+
+    @GetMapping
+    public ResponseEntity<CatalogChangeFeedDTO> handleGetChanges(
+            @RequestParam(defaultValue = "0") long after,
+            @RequestParam(defaultValue = "100") int limit) {
+        var changeFeed = catalogOutboxService.getChanges(after, limit);
+
+        log.info("Received {} catalog changes after offset {}", changeFeed.getChanges().size(), after);
+
+        return ResponseEntity.ok(changeFeed);
+    }
+}
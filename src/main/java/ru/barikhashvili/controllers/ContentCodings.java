@@ -0,0 +1,60 @@
+package ru.barikhashvili.controllers;
+
+import java.util.Locale;
+
+/**
+ * Разбирает заголовок Accept-Encoding с учетом весов (q-values): кодирование с весом 0 клиент не принимает.
+ */
+final class ContentCodings {
+    private static final String GZIP = "gzip";
+    private static final String X_GZIP = "x-gzip";
+    private static final String ANY_CODING = "*";
+
+    private ContentCodings() {
+    }
+
+    /**
+     * Проверяет, принимает ли клиент ответ, сжатый gzip. Вес gzip (или x-gzip) определяет результат,
+     * если кодирование указано явно, иначе используется вес "*". Некорректный вес считается равным 0.
+     *
+     * @param acceptEncoding значение заголовка Accept-Encoding или null.
+     * @return true, если вес gzip больше 0.
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null || acceptEncoding.isBlank()) {
+            return false;
+        }
+
+        Double gzipWeight = null;
+        Double anyWeight = null;
+        for (var element : acceptEncoding.split(",")) {
+            var parts = element.split(";");
+            var coding = parts[0].trim().toLowerCase(Locale.ROOT);
+            if (GZIP.equals(coding) || X_GZIP.equals(coding)) {
+                gzipWeight = gzipWeight == null ? weight(parts) : Math.max(gzipWeight, weight(parts));
+            } else if (ANY_CODING.equals(coding)) {
+                anyWeight = weight(parts);
+            }
+        }
+
+        var effectiveWeight = gzipWeight != null ? gzipWeight : anyWeight;
+        return effectiveWeight != null && effectiveWeight > 0;
+    }
+
+    private static double weight(String[] parts) {
+        for (var i = 1; i < parts.length; i++) {
+            var parameter = parts[i].trim();
+            var separator = parameter.indexOf('=');
+            if (separator < 0 || !"q".equalsIgnoreCase(parameter.substring(0, separator).trim())) {
+                continue;
+            }
+            try {
+                var weight = Double.parseDouble(parameter.substring(separator + 1).trim());
+                return weight >= 0 && weight <= 1 ? weight : 0;
+            } catch (NumberFormatException e) {
+                return 0;
+            }
+        }
+        return 1;
+    }
+}
@@ -1,6 +1,6 @@
 package ru.barikhashvili.controllers;
 
-import jakarta.transaction.Transactional;
+import jakarta.validation.Valid;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
@@ -11,6 +11,7 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.util.UriComponentsBuilder;
 import ru.barikhashvili.dto.specs.CountryDTO;
 import ru.barikhashvili.services.CrudService;
+import ru.barikhashvili.services.UpsertService;
 
 import java.util.List;
 
@@ -21,9 +22,10 @@ import java.util.List;
 @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
 public class CountryController {
     CrudService<CountryDTO, Integer> countryService;
+    UpsertService<CountryDTO> countryUpsertService;
 
     @PostMapping
-    public ResponseEntity<CountryDTO> handleAddCountry(@RequestBody CountryDTO countryDTO) {
+    public ResponseEntity<CountryDTO> handleAddCountry(@Valid @RequestBody CountryDTO countryDTO) {
         var persistentCountry = countryService.saveEntity(countryDTO);
         var newCountryURI = UriComponentsBuilder
                 .fromPath("/api/v1/countries/{id}")
@@ -38,15 +40,12 @@ public class CountryController {
     }
 
     @GetMapping("{id}")
-    @Transactional
     public ResponseEntity<CountryDTO> handleGetCountry(@PathVariable Integer id) {
         var countryDTO = countryService.getEntityById(id);
 
         log.info("Received manufacturer country with ID: {}", countryDTO.getId());
 
-        return ResponseEntity.ok()
-                .contentType(MediaType.APPLICATION_JSON)
-                .body(countryDTO);
+        return ResponseEntity.ok(countryDTO);
     }
 
     @GetMapping
@@ -55,9 +54,16 @@ public class CountryController {
 
         log.info("Received a complete list of all manufacturer countries");
 
-        return ResponseEntity.ok()
-                .contentType(MediaType.APPLICATION_JSON)
-                .body(allCountriesDTO);
+        return ResponseEntity.ok(allCountriesDTO);
+    }
+
+    @GetMapping(params = "ids")
+    public ResponseEntity<List<CountryDTO>> handleGetCountriesByIds(@RequestParam List<Integer> ids) {
+        var requestedCountriesDTO = countryService.getEntitiesByIds(ids);
+
+        log.info("Received manufacturer countries with IDs: {}", ids);
+
+        return ResponseEntity.ok(requestedCountriesDTO);
     }
 
     @DeleteMapping(value = "{id}")
@@ -71,10 +77,43 @@ public class CountryController {
                 .body(removedCountryDTO);
     }
 
+    @DeleteMapping(params = "ids")
+    public ResponseEntity<List<CountryDTO>> handleDeleteCountriesByIds(@RequestParam List<Integer> ids) {
+        var removedCountriesDTO = countryService.removeEntitiesByIds(ids);
+
+        log.info("Removed manufacturer countries with IDs: {}", ids);
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(removedCountriesDTO);
+    }
+
+    @PutMapping
+    public ResponseEntity<CountryDTO> handleUpsertCountry(@Valid @RequestBody CountryDTO countryDTO) {
+        var upsertedCountry = countryUpsertService.upsertEntity(countryDTO);
+        var persistentCountry = upsertedCountry.entity();
+
+        log.info("Upserted a country by natural key. ID: {}, inserted: {}",
+                persistentCountry.getId(), upsertedCountry.inserted());
+
+        if (upsertedCountry.inserted()) {
+            var newCountryURI = UriComponentsBuilder
+                    .fromPath("/api/v1/countries/{id}")
+                    .build(java.util.Map.of("id", persistentCountry.getId()));
+            return ResponseEntity
+                    .created(newCountryURI)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(persistentCountry);
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(persistentCountry);
+    }
+
     @PutMapping(value = "{id}")
     public ResponseEntity<CountryDTO> handleEditCountry(
             @PathVariable Integer id,
-            @RequestBody CountryDTO countryDTO) {
+            @Valid @RequestBody CountryDTO countryDTO) {
         var editedCountryDTO = countryService.editEntity(id, countryDTO);
 
         log.info("Country details have been completely changed. Country ID: {}", countryDTO.getId());
@@ -87,7 +126,7 @@ public class CountryController {
     @PatchMapping(value = "{id}")
     public ResponseEntity<CountryDTO> handleEditPartOfCountry(
             @PathVariable Integer id,
-            @RequestBody CountryDTO countryDTO) {
+            @Valid @RequestBody CountryDTO countryDTO) {
         var editedCountryDTO = countryService.editPartOfEntity(id, countryDTO);
 
         log.info("Partially changed country data. Country ID: {}", editedCountryDTO.getId());
@@ -1,17 +1,22 @@
 package ru.barikhashvili.controllers;
 
-import jakarta.transaction.Transactional;
+import jakarta.validation.Valid;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.util.UriComponentsBuilder;
 import ru.barikhashvili.dto.specs.DisplayDTO;
+import ru.barikhashvili.dto.specs.DisplayPageDTO;
 import ru.barikhashvili.services.CrudService;
+import ru.barikhashvili.services.UpsertService;
+import ru.barikhashvili.services.impl.DisplaySearchService;
 
+import java.math.BigDecimal;
 import java.util.List;
 
 @RestController
@@ -21,9 +26,11 @@ import java.util.List;
 @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
 public class DisplayController {
     CrudService<DisplayDTO, Integer> displayService;
+    UpsertService<DisplayDTO> displayUpsertService;
+    DisplaySearchService displaySearchService;
 
     @PostMapping
-    public ResponseEntity<DisplayDTO> handleAddDisplay(@RequestBody DisplayDTO displayDTO) {
+    public ResponseEntity<DisplayDTO> handleAddDisplay(@Valid @RequestBody DisplayDTO displayDTO) {
         var persistentDisplay = displayService.saveEntity(displayDTO);
         var newDisplayURI = UriComponentsBuilder
                 .fromPath("/api/v1/displays/{id}")
@@ -38,15 +45,12 @@ public class DisplayController {
     }
 
     @GetMapping("{id}")
-    @Transactional
     public ResponseEntity<DisplayDTO> handleGetDisplay(@PathVariable Integer id) {
         var displayDTO = displayService.getEntityById(id);
 
         log.info("Received phone display with ID: {}", displayDTO.getId());
 
-        return ResponseEntity.ok()
-                .contentType(MediaType.APPLICATION_JSON)
-                .body(displayDTO);
+        return ResponseEntity.ok(displayDTO);
     }
 
     @GetMapping
@@ -55,9 +59,32 @@ public class DisplayController {
 
         log.info("Received a complete list of all phone displays");
 
-        return ResponseEntity.ok()
-                .contentType(MediaType.APPLICATION_JSON)
-                .body(allDisplaysDTO);
+        return ResponseEntity.ok(allDisplaysDTO);
+    }
+
+    @GetMapping("search")
+    public ResponseEntity<DisplayPageDTO> handleSearchDisplays(
+            @RequestParam(required = false) BigDecimal minPpi,
+            @RequestParam(required = false) BigDecimal maxPpi,
+            @RequestParam(defaultValue = "ASC") Sort.Direction direction,
+            @RequestParam(required = false) BigDecimal afterPpi,
+            @RequestParam(required = false) Integer afterId,
+            @RequestParam(defaultValue = "20") int limit) {
+        var displayPage = displaySearchService.findByPpi(minPpi, maxPpi, direction, afterPpi, afterId, limit);
+
+        log.info("Received {} phone displays with pixel density from {} to {}",
+                displayPage.getDisplays().size(), minPpi, maxPpi);
+
+        return ResponseEntity.ok(displayPage);
+    }
+
+    @GetMapping(params = "ids")
+    public ResponseEntity<List<DisplayDTO>> handleGetDisplaysByIds(@RequestParam List<Integer> ids) {
+        var requestedDisplaysDTO = displayService.getEntitiesByIds(ids);
+
+        log.info("Received phone displays with IDs: {}", ids);
+
+        return ResponseEntity.ok(requestedDisplaysDTO);
     }
 
     @DeleteMapping(value = "{id}")
@@ -71,10 +98,43 @@ public class DisplayController {
                 .body(removedDisplayDTO);
     }
 
+    @DeleteMapping(params = "ids")
+    public ResponseEntity<List<DisplayDTO>> handleDeleteDisplaysByIds(@RequestParam List<Integer> ids) {
+        var removedDisplaysDTO = displayService.removeEntitiesByIds(ids);
+
+        log.info("Removed phone displays with IDs: {}", ids);
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(removedDisplaysDTO);
+    }
+
+    @PutMapping
+    public ResponseEntity<DisplayDTO> handleUpsertDisplay(@Valid @RequestBody DisplayDTO displayDTO) {
+        var upsertedDisplay = displayUpsertService.upsertEntity(displayDTO);
+        var persistentDisplay = upsertedDisplay.entity();
+
+        log.info("Upserted a display by natural key. ID: {}, inserted: {}",
+                persistentDisplay.getId(), upsertedDisplay.inserted());
+
+        if (upsertedDisplay.inserted()) {
+            var newDisplayURI = UriComponentsBuilder
+                    .fromPath("/api/v1/displays/{id}")
+                    .build(java.util.Map.of("id", persistentDisplay.getId()));
+            return ResponseEntity
+                    .created(newDisplayURI)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(persistentDisplay);
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(persistentDisplay);
+    }
+
     @PutMapping(value = "{id}")
     public ResponseEntity<DisplayDTO> handleEditDisplay(
             @PathVariable Integer id,
-            @RequestBody DisplayDTO displayDTO) {
+            @Valid @RequestBody DisplayDTO displayDTO) {
         var editedDisplayDTO = displayService.editEntity(id, displayDTO);
 
         log.info("Display details have been completely changed. Display ID: {}", editedDisplayDTO.getId());
@@ -87,7 +147,7 @@ public class DisplayController {
     @PatchMapping(value = "{id}")
     public ResponseEntity<DisplayDTO> handleEditPartOfDisplay(
             @PathVariable Integer id,
-            @RequestBody DisplayDTO displayDTO) {
+            @Valid @RequestBody DisplayDTO displayDTO) {
         var editedDisplayDTO = displayService.editPartOfEntity(id, displayDTO);
 
         log.info("Partially changed display data. Display ID: {}", editedDisplayDTO.getId());
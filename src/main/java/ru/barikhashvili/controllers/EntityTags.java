@@ -0,0 +1,48 @@
+package ru.barikhashvili.controllers;
+
+import ru.barikhashvili.exceptions.PreconditionFailedException;
+
+/**
+ * Преобразует версии сущностей (столбец version) в значения заголовка ETag и обратно.
+ * ETag сущности имеет вид {@code "<версия>"} и изменяется при каждом изменении сущности.
+ */
+final class EntityTags {
+    private static final String ANY_TAG = "*";
+
+    private EntityTags() {
+    }
+
+    /**
+     * Возвращает значение ETag для указанной версии сущности.
+     *
+     * @param version версия сущности.
+     * @return строгий ETag в кавычках.
+     */
+    static String toETag(long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * Извлекает ожидаемую версию сущности из заголовка If-Match.
+     * Слабые ETag (W/"...") не подходят для условной записи и считаются несовпадающими.
+     *
+     * @param ifMatch значение заголовка If-Match или null.
+     * @return ожидаемая версия или null, если заголовок не передан или равен "*".
+     * @throws PreconditionFailedException если значение заголовка не является ETag сущности.
+     */
+    static Long parseIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ANY_TAG.equals(ifMatch.trim())) {
+            return null;
+        }
+
+        var tag = ifMatch.trim();
+        if (tag.length() < 3 || !tag.startsWith("\"") || !tag.endsWith("\"")) {
+            throw new PreconditionFailedException("If-Match does not contain a strong entity tag: " + ifMatch);
+        }
+        try {
+            return Long.valueOf(tag.substring(1, tag.length() - 1));
+        } catch (NumberFormatException e) {
+            throw new PreconditionFailedException("If-Match does not contain an entity version: " + ifMatch);
+        }
+    }
+}
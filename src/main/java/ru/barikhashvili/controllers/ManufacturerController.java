@@ -1,6 +1,6 @@
 package ru.barikhashvili.controllers;
 
-import jakarta.transaction.Transactional;
+import jakarta.validation.Valid;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
@@ -11,6 +11,7 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.util.UriComponentsBuilder;
 import ru.barikhashvili.dto.specs.ManufacturerDTO;
 import ru.barikhashvili.services.CrudService;
+import ru.barikhashvili.services.UpsertService;
 
 import java.util.List;
 
@@ -21,9 +22,10 @@ import java.util.List;
 @RequiredArgsConstructor
 public class ManufacturerController {
     CrudService<ManufacturerDTO, Integer> manufacturerService;
+    UpsertService<ManufacturerDTO> manufacturerUpsertService;
 
     @PostMapping
-    public ResponseEntity<ManufacturerDTO> handleAddManufacturer(@RequestBody ManufacturerDTO manufacturerDTO) {
+    public ResponseEntity<ManufacturerDTO> handleAddManufacturer(@Valid @RequestBody ManufacturerDTO manufacturerDTO) {
         var persistentManufacturer = manufacturerService.saveEntity(manufacturerDTO);
         var newManufacturerURI = UriComponentsBuilder
                 .fromPath("/api/v1/manufacturers/{id}")
@@ -38,15 +40,12 @@ public class ManufacturerController {
     }
 
     @GetMapping("{id}")
-    @Transactional
     public ResponseEntity<ManufacturerDTO> handleGetManufacturer(@PathVariable Integer id) {
         var manufacturerDTO = manufacturerService.getEntityById(id);
 
         log.info("Received phone manufacturer with ID: {}", manufacturerDTO.getId());
 
-        return ResponseEntity.ok()
-                .contentType(MediaType.APPLICATION_JSON)
-                .body(manufacturerDTO);
+        return ResponseEntity.ok(manufacturerDTO);
     }
 
     @GetMapping
@@ -55,9 +54,16 @@ public class ManufacturerController {
 
         log.info("Received a complete list of all phone manufacturers");
 
-        return ResponseEntity.ok()
-                .contentType(MediaType.APPLICATION_JSON)
-                .body(allManufacturersDTO);
+        return ResponseEntity.ok(allManufacturersDTO);
+    }
+
+    @GetMapping(params = "ids")
+    public ResponseEntity<List<ManufacturerDTO>> handleGetManufacturersByIds(@RequestParam List<Integer> ids) {
+        var requestedManufacturersDTO = manufacturerService.getEntitiesByIds(ids);
+
+        log.info("Received phone manufacturers with IDs: {}", ids);
+
+        return ResponseEntity.ok(requestedManufacturersDTO);
     }
 
     @DeleteMapping(value = "{id}")
@@ -71,10 +77,43 @@ public class ManufacturerController {
                 .body(removedManufacturerDTO);
     }
 
+    @DeleteMapping(params = "ids")
+    public ResponseEntity<List<ManufacturerDTO>> handleDeleteManufacturersByIds(@RequestParam List<Integer> ids) {
+        var removedManufacturersDTO = manufacturerService.removeEntitiesByIds(ids);
+
+        log.info("Removed phone manufacturers with IDs: {}", ids);
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(removedManufacturersDTO);
+    }
+
+    @PutMapping
+    public ResponseEntity<ManufacturerDTO> handleUpsertManufacturer(@Valid @RequestBody ManufacturerDTO manufacturerDTO) {
+        var upsertedManufacturer = manufacturerUpsertService.upsertEntity(manufacturerDTO);
+        var persistentManufacturer = upsertedManufacturer.entity();
+
+        log.info("Upserted a manufacturer by natural key. ID: {}, inserted: {}",
+                persistentManufacturer.getId(), upsertedManufacturer.inserted());
+
+        if (upsertedManufacturer.inserted()) {
+            var newManufacturerURI = UriComponentsBuilder
+                    .fromPath("/api/v1/manufacturers/{id}")
+                    .build(java.util.Map.of("id", persistentManufacturer.getId()));
+            return ResponseEntity
+                    .created(newManufacturerURI)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(persistentManufacturer);
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(persistentManufacturer);
+    }
+
     @PutMapping(value = "{id}")
     public ResponseEntity<ManufacturerDTO> handleEditManufacturer(
             @PathVariable Integer id,
-            @RequestBody ManufacturerDTO manufacturerDTO) {
+            @Valid @RequestBody ManufacturerDTO manufacturerDTO) {
         var editedManufacturerDTO = manufacturerService.editEntity(id, manufacturerDTO);
 
         log.info("Manufacturer details have been completely changed. Manufacturer ID: {}", manufacturerDTO.getId());
@@ -87,7 +126,7 @@ public class ManufacturerController {
     @PatchMapping(value = "{id}")
     public ResponseEntity<ManufacturerDTO> handleEditPartOfManufacturer(
             @PathVariable Integer id,
-            @RequestBody ManufacturerDTO manufacturerDTO) {
+            @Valid @RequestBody ManufacturerDTO manufacturerDTO) {
         var editedManufacturerDTO = manufacturerService.editPartOfEntity(id, manufacturerDTO);
 
         log.info("Partially changed manufacturer data. Manufacturer ID: {}", editedManufacturerDTO.getId());
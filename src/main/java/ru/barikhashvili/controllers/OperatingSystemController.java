@@ -1,6 +1,6 @@
 package ru.barikhashvili.controllers;
 
-import jakarta.transaction.Transactional;
+import jakarta.validation.Valid;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
@@ -11,6 +11,7 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.util.UriComponentsBuilder;
 import ru.barikhashvili.dto.specs.OperatingSystemDTO;
 import ru.barikhashvili.services.CrudService;
+import ru.barikhashvili.services.UpsertService;
 
 import java.util.List;
 
@@ -21,9 +22,10 @@ import java.util.List;
 @RequiredArgsConstructor
 public class OperatingSystemController {
     CrudService<OperatingSystemDTO, Integer> operatingSystemService;
+    UpsertService<OperatingSystemDTO> operatingSystemUpsertService;
 
     @PostMapping
-    public ResponseEntity<OperatingSystemDTO> handlerAddOperatingSystem(@RequestBody OperatingSystemDTO operatingSystemDTO) {
+    public ResponseEntity<OperatingSystemDTO> handlerAddOperatingSystem(@Valid @RequestBody OperatingSystemDTO operatingSystemDTO) {
         var persistentOperatingSystem = operatingSystemService.saveEntity(operatingSystemDTO);
         var newOperatingSystemURI = UriComponentsBuilder
                 .fromPath("/api/v1/operating-systems/{id}")
@@ -38,15 +40,12 @@ public class OperatingSystemController {
     }
 
     @GetMapping("{id}")
-    @Transactional
     public ResponseEntity<OperatingSystemDTO> handleGetOperatingSystem(@PathVariable Integer id) {
         var operatingSystemDTO = operatingSystemService.getEntityById(id);
 
         log.info("Received phone operating system with ID: {}", operatingSystemDTO.getId());
 
-        return ResponseEntity.ok()
-                .contentType(MediaType.APPLICATION_JSON)
-                .body(operatingSystemDTO);
+        return ResponseEntity.ok(operatingSystemDTO);
     }
 
     @GetMapping
@@ -55,9 +54,16 @@ public class OperatingSystemController {
 
         log.info("Received a complete list of all phone operating systems");
 
-        return ResponseEntity.ok()
-                .contentType(MediaType.APPLICATION_JSON)
-                .body(allOperatingSystemsDTO);
+        return ResponseEntity.ok(allOperatingSystemsDTO);
+    }
+
+    @GetMapping(params = "ids")
+    public ResponseEntity<List<OperatingSystemDTO>> handleGetOperatingSystemsByIds(@RequestParam List<Integer> ids) {
+        var requestedOperatingSystemsDTO = operatingSystemService.getEntitiesByIds(ids);
+
+        log.info("Received phone operating systems with IDs: {}", ids);
+
+        return ResponseEntity.ok(requestedOperatingSystemsDTO);
     }
 
     @DeleteMapping(value = "{id}")
@@ -71,10 +77,43 @@ public class OperatingSystemController {
                 .body(removedOperatingSystemDTO);
     }
 
+    @DeleteMapping(params = "ids")
+    public ResponseEntity<List<OperatingSystemDTO>> handleDeleteOperatingSystemsByIds(@RequestParam List<Integer> ids) {
+        var removedOperatingSystemsDTO = operatingSystemService.removeEntitiesByIds(ids);
+
+        log.info("Removed phone operating systems with IDs: {}", ids);
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(removedOperatingSystemsDTO);
+    }
+
+    @PutMapping
+    public ResponseEntity<OperatingSystemDTO> handleUpsertOperatingSystem(@Valid @RequestBody OperatingSystemDTO operatingSystemDTO) {
+        var upsertedOperatingSystem = operatingSystemUpsertService.upsertEntity(operatingSystemDTO);
+        var persistentOperatingSystem = upsertedOperatingSystem.entity();
+
+        log.info("Upserted an operating system by natural key. ID: {}, inserted: {}",
+                persistentOperatingSystem.getId(), upsertedOperatingSystem.inserted());
+
+        if (upsertedOperatingSystem.inserted()) {
+            var newOperatingSystemURI = UriComponentsBuilder
+                    .fromPath("/api/v1/operating-systems/{id}")
+                    .build(java.util.Map.of("id", persistentOperatingSystem.getId()));
+            return ResponseEntity
+                    .created(newOperatingSystemURI)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(persistentOperatingSystem);
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(persistentOperatingSystem);
+    }
+
     @PutMapping(value = "{id}")
     public ResponseEntity<OperatingSystemDTO> handleEditOperatingSystem(
             @PathVariable Integer id,
-            @RequestBody OperatingSystemDTO operatingSystemDTO) {
+            @Valid @RequestBody OperatingSystemDTO operatingSystemDTO) {
         var editedOperatingSystemDTO = operatingSystemService.editEntity(id, operatingSystemDTO);
 
         log.info("Operating system details have been completely changed. Operating system ID: {}", operatingSystemDTO.getId());
@@ -87,7 +126,7 @@ public class OperatingSystemController {
     @PatchMapping(value = "{id}")
     public ResponseEntity<OperatingSystemDTO> handleEditPartOfOperatingSystem(
             @PathVariable Integer id,
-            @RequestBody OperatingSystemDTO operatingSystemDTO) {
+            @Valid @RequestBody OperatingSystemDTO operatingSystemDTO) {
         var editedOperatingSystemDTO = operatingSystemService.editPartOfEntity(id, operatingSystemDTO);
 
         log.info("Partially changed operating system data. Operating system ID: {}", operatingSystemDTO.getId());
@@ -1,18 +1,36 @@
 package ru.barikhashvili.controllers;
 
-import jakarta.transaction.Transactional;
+import jakarta.validation.Valid;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.util.UriComponentsBuilder;
 import ru.barikhashvili.dto.PhoneDTO;
 import ru.barikhashvili.services.CrudService;
-
+import ru.barikhashvili.services.FieldSelectiveService;
+import ru.barikhashvili.services.catalog.PhoneCatalogSnapshotService;
+import ru.barikhashvili.services.catalog.PhoneQuery;
+import ru.barikhashvili.services.catalog.PhoneQueryCache;
+import ru.barikhashvili.services.export.PhoneVariantExportService;
+import ru.barikhashvili.services.impl.PhoneRankingService;
+import ru.barikhashvili.services.imports.PhoneImportResult;
+import ru.barikhashvili.services.imports.PhoneImportService;
+import ru.barikhashvili.services.utils.BatchEntityLoader;
+import ru.barikhashvili.services.utils.CatalogFileFormat;
+
+import java.io.InputStream;
+import java.math.BigDecimal;
 import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/v1/phones/")
@@ -21,9 +39,15 @@ import java.util.List;
 @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
 public class PhoneController {
     CrudService<PhoneDTO, Long> phoneService;
+    FieldSelectiveService<PhoneDTO, Long> phoneFieldSelectiveService;
+    PhoneCatalogSnapshotService phoneCatalogSnapshotService;
+    PhoneQueryCache phoneQueryCache;
+    PhoneVariantExportService phoneVariantExportService;
+    PhoneImportService phoneImportService;
+    PhoneRankingService phoneRankingService;
 
     @PostMapping
-    public ResponseEntity<PhoneDTO> handleAddPhone(@RequestBody PhoneDTO phoneDTO) {
+    public ResponseEntity<PhoneDTO> handleAddPhone(@Valid @RequestBody PhoneDTO phoneDTO) {
         var persistentPhone = phoneService.saveEntity(phoneDTO);
         var newPhoneURI = UriComponentsBuilder
                 .fromPath("/api/v1/phones/{id}")
@@ -36,26 +60,116 @@ public class PhoneController {
     }
 
     @GetMapping("{id}")
-    @Transactional
-    public ResponseEntity<PhoneDTO> handleGetPhone(@PathVariable Long id) {
-        var phoneDTO = phoneService.getEntityById(id);
+    public ResponseEntity<PhoneDTO> handleGetPhone(
+            @PathVariable Long id,
+            @RequestParam(required = false) Set<String> fields) {
+        var phoneDTO = fields == null || fields.isEmpty()
+                ? phoneService.getEntityById(id)
+                : phoneFieldSelectiveService.getEntityById(id, fields);
 
-        log.info("Received phone data with ID: {}", phoneDTO.getId());
+        log.info("Received phone data with ID: {}", id);
 
         return ResponseEntity.ok()
-                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(EntityTags.toETag(phoneDTO.getVersion()))
                 .body(phoneDTO);
     }
 
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE, params = {"!fields", "!ids"})
+    public ResponseEntity<byte[]> handleGetPhoneCatalogSnapshot(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            WebRequest request) {
+        var snapshot = phoneCatalogSnapshotService.getSnapshot();
+        if (request.checkNotModified(snapshot.eTag())) {
+            return null;
+        }
+
+        log.info("Received a complete list of all phones from catalog snapshot {}", snapshot.contentHash());
+
+        var response = ResponseEntity.ok()
+                .eTag(snapshot.eTag())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .contentType(MediaType.APPLICATION_JSON);
+        if (ContentCodings.acceptsGzip(acceptEncoding)) {
+            return response
+                    .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                    .body(snapshot.gzippedJson());
+        }
+        return response.body(snapshot.json());
+    }
+
     @GetMapping
-    public ResponseEntity<List<PhoneDTO>> handleGetAllPhones() {
-        var allPhonesDTO = phoneService.getAllEntities();
+    public ResponseEntity<List<PhoneDTO>> handleGetAllPhones(@RequestParam(required = false) Set<String> fields) {
+        var allPhonesDTO = fields == null || fields.isEmpty()
+                ? phoneQueryCache.getPhones(PhoneQuery.all(), phoneService::getAllEntities)
+                : phoneQueryCache.getPhones(PhoneQuery.withFields(fields),
+                        () -> phoneFieldSelectiveService.getAllEntities(fields));
 
         log.info("Received a complete list of all phones");
 
+        return ResponseEntity.ok(allPhonesDTO);
+    }
+
+    @GetMapping("top-by-processor-performance")
+    public ResponseEntity<List<PhoneDTO>> handleGetTopPhonesByProcessorPerformance(
+            @RequestParam(defaultValue = "10") int limit) {
+        var topPhonesDTO = phoneRankingService.getTopByProcessorPerformance(limit);
+
+        log.info("Received {} phones with the most performant processors", topPhonesDTO.size());
+
+        return ResponseEntity.ok(topPhonesDTO);
+    }
+
+    @GetMapping("search")
+    public ResponseEntity<List<PhoneDTO>> handleSearchPhonesByDisplayPpi(
+            @RequestParam(required = false) BigDecimal minPpi,
+            @RequestParam(required = false) BigDecimal maxPpi,
+            @RequestParam(defaultValue = "ASC") Sort.Direction direction,
+            @RequestParam(defaultValue = "20") int limit) {
+        var foundPhonesDTO = phoneRankingService.getByDisplayPpi(minPpi, maxPpi, direction, limit);
+
+        log.info("Received {} phones with display pixel density from {} to {}", foundPhonesDTO.size(), minPpi, maxPpi);
+
+        return ResponseEntity.ok(foundPhonesDTO);
+    }
+
+    @GetMapping(params = "ids")
+    public ResponseEntity<List<PhoneDTO>> handleGetPhonesByIds(@RequestParam List<Long> ids) {
+        BatchEntityLoader.checkIds(ids);
+        var requestedPhonesDTO = phoneQueryCache.getPhones(PhoneQuery.byIds(ids),
+                () -> phoneService.getEntitiesByIds(ids));
+
+        log.info("Received phones with IDs: {}", ids);
+
+        return ResponseEntity.ok(requestedPhonesDTO);
+    }
+
+    @GetMapping("export")
+    public ResponseEntity<StreamingResponseBody> handleExportPhoneVariants(
+            @RequestParam(defaultValue = "NDJSON") CatalogFileFormat format) {
+        var exportBody = phoneVariantExportService.exportPhoneVariants(format);
+
+        log.info("Started export of all phone variants in {} format", format);
+
+        var contentDisposition = ContentDisposition.attachment()
+                .filename("phone-variants." + format.getFileExtension())
+                .build();
+        return ResponseEntity.ok()
+                .contentType(format.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, contentDisposition.toString())
+                .body(exportBody);
+    }
+
+    @PostMapping(value = "import", consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<PhoneImportResult> handleImportPhones(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+            InputStream fileStream) {
+        var importResult = phoneImportService.importPhones(fileStream, CatalogFileFormat.fromMediaType(contentType));
+
+        log.info("Imported {} rows from the phone catalog file", importResult.importedRows());
+
         return ResponseEntity.ok()
                 .contentType(MediaType.APPLICATION_JSON)
-                .body(allPhonesDTO);
+                .body(importResult);
     }
 
     @DeleteMapping(value = "{id}")
@@ -69,15 +183,29 @@ public class PhoneController {
                 .body(removedPhoneDTO);
     }
 
+    @DeleteMapping(params = "ids")
+    public ResponseEntity<List<PhoneDTO>> handleDeletePhonesByIds(@RequestParam List<Long> ids) {
+        var removedPhonesDTO = phoneService.removeEntitiesByIds(ids);
+
+        log.info("Removed phones with IDs: {}", ids);
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(removedPhonesDTO);
+    }
+
     @PutMapping(value = "{id}")
     public ResponseEntity<PhoneDTO> handleEditPhone(
             @PathVariable Long id,
-            @RequestBody PhoneDTO phoneDTO) {
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @Valid @RequestBody PhoneDTO phoneDTO) {
+        phoneDTO.setVersion(EntityTags.parseIfMatch(ifMatch));
         var editedPhoneDTO = phoneService.editEntity(id, phoneDTO);
 
         log.info("Phone details have been completely changed. Phone ID: {}", editedPhoneDTO.getId());
 
         return ResponseEntity.ok()
+                .eTag(EntityTags.toETag(editedPhoneDTO.getVersion()))
                 .contentType(MediaType.APPLICATION_JSON)
                 .body(editedPhoneDTO);
     }
@@ -85,12 +213,15 @@ public class PhoneController {
     @PatchMapping(value = "{id}")
     public ResponseEntity<PhoneDTO> handleEditPartOfPhone(
             @PathVariable Long id,
-            @RequestBody PhoneDTO phoneDTO) {
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @Valid @RequestBody PhoneDTO phoneDTO) {
+        phoneDTO.setVersion(EntityTags.parseIfMatch(ifMatch));
         var editedPhoneDTO = phoneService.editPartOfEntity(id, phoneDTO);
 
         log.info("Partially changed phone data. Phone ID: {}", editedPhoneDTO.getId());
 
         return ResponseEntity.ok()
+                .eTag(EntityTags.toETag(editedPhoneDTO.getVersion()))
                 .contentType(MediaType.APPLICATION_JSON)
                 .body(editedPhoneDTO);
     }
@@ -1,18 +1,21 @@
 package ru.barikhashvili.controllers;
 
-import jakarta.transaction.Transactional;
+import jakarta.validation.Valid;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.util.UriComponentsBuilder;
 import ru.barikhashvili.dto.specs.PhoneSpecificationDTO;
 import ru.barikhashvili.services.CrudService;
+import ru.barikhashvili.services.FieldSelectiveService;
 
 import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/v1/specifications/")
@@ -21,9 +24,10 @@ import java.util.List;
 @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
 public class PhoneSpecificationController {
     CrudService<PhoneSpecificationDTO, Long> phoneSpecificationService;
+    FieldSelectiveService<PhoneSpecificationDTO, Long> phoneSpecificationFieldSelectiveService;
 
     @PostMapping
-    public ResponseEntity<PhoneSpecificationDTO> handleAddPhoneSpecification(@RequestBody PhoneSpecificationDTO phoneSpecificationDTO) {
+    public ResponseEntity<PhoneSpecificationDTO> handleAddPhoneSpecification(@Valid @RequestBody PhoneSpecificationDTO phoneSpecificationDTO) {
         var persistentPhoneSpecification = phoneSpecificationService.saveEntity(phoneSpecificationDTO);
         var newPhoneSpecificationURI = UriComponentsBuilder
                 .fromPath("/api/v1/specifications/{id}")
@@ -38,26 +42,38 @@ public class PhoneSpecificationController {
     }
 
     @GetMapping("{id}")
-    @Transactional
-    public ResponseEntity<PhoneSpecificationDTO> handleGetPhoneSpecification(@PathVariable Long id) {
-        var phoneSpecificationDTO = phoneSpecificationService.getEntityById(id);
+    public ResponseEntity<PhoneSpecificationDTO> handleGetPhoneSpecification(
+            @PathVariable Long id,
+            @RequestParam(required = false) Set<String> fields) {
+        var phoneSpecificationDTO = fields == null || fields.isEmpty()
+                ? phoneSpecificationService.getEntityById(id)
+                : phoneSpecificationFieldSelectiveService.getEntityById(id, fields);
 
-        log.info("Received phone specification with ID: {}", phoneSpecificationDTO.getId());
+        log.info("Received phone specification with ID: {}", id);
 
         return ResponseEntity.ok()
-                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(EntityTags.toETag(phoneSpecificationDTO.getVersion()))
                 .body(phoneSpecificationDTO);
     }
 
     @GetMapping
-    public ResponseEntity<List<PhoneSpecificationDTO>> handleGetAllPhoneSpecifications() {
-        var allPhoneSpecificationsDTO = phoneSpecificationService.getAllEntities();
+    public ResponseEntity<List<PhoneSpecificationDTO>> handleGetAllPhoneSpecifications(@RequestParam(required = false) Set<String> fields) {
+        var allPhoneSpecificationsDTO = fields == null || fields.isEmpty()
+                ? phoneSpecificationService.getAllEntities()
+                : phoneSpecificationFieldSelectiveService.getAllEntities(fields);
 
         log.info("Received a complete list of all phone specifications");
 
-        return ResponseEntity.ok()
-                .contentType(MediaType.APPLICATION_JSON)
-                .body(allPhoneSpecificationsDTO);
+        return ResponseEntity.ok(allPhoneSpecificationsDTO);
+    }
+
+    @GetMapping(params = "ids")
+    public ResponseEntity<List<PhoneSpecificationDTO>> handleGetPhoneSpecificationsByIds(@RequestParam List<Long> ids) {
+        var requestedPhoneSpecificationsDTO = phoneSpecificationService.getEntitiesByIds(ids);
+
+        log.info("Received phone specifications with IDs: {}", ids);
+
+        return ResponseEntity.ok(requestedPhoneSpecificationsDTO);
     }
 
     @DeleteMapping(value = "{id}")
@@ -71,15 +87,29 @@ public class PhoneSpecificationController {
                 .body(removedPhoneSpecificationDTO);
     }
 
+    @DeleteMapping(params = "ids")
+    public ResponseEntity<List<PhoneSpecificationDTO>> handleDeletePhoneSpecificationsByIds(@RequestParam List<Long> ids) {
+        var removedPhoneSpecificationsDTO = phoneSpecificationService.removeEntitiesByIds(ids);
+
+        log.info("Removed phone specifications with IDs: {}", ids);
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(removedPhoneSpecificationsDTO);
+    }
+
     @PutMapping(value = "{id}")
     public ResponseEntity<PhoneSpecificationDTO> handleEditPhoneSpecification(
             @PathVariable Long id,
-            @RequestBody PhoneSpecificationDTO phoneSpecificationDTO) {
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @Valid @RequestBody PhoneSpecificationDTO phoneSpecificationDTO) {
+        phoneSpecificationDTO.setVersion(EntityTags.parseIfMatch(ifMatch));
         var editedPhoneSpecificationDTO = phoneSpecificationService.editEntity(id, phoneSpecificationDTO);
 
         log.info("Specification details have been completely changed. Specification ID: {}", editedPhoneSpecificationDTO.getId());
 
         return ResponseEntity.ok()
+                .eTag(EntityTags.toETag(editedPhoneSpecificationDTO.getVersion()))
                 .contentType(MediaType.APPLICATION_JSON)
                 .body(editedPhoneSpecificationDTO);
     }
@@ -87,12 +117,15 @@ public class PhoneSpecificationController {
     @PatchMapping(value = "{id}")
     public ResponseEntity<PhoneSpecificationDTO> handleEditPartOfPhoneSpecification(
             @PathVariable Long id,
-            @RequestBody PhoneSpecificationDTO phoneSpecificationDTO) {
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @Valid @RequestBody PhoneSpecificationDTO phoneSpecificationDTO) {
+        phoneSpecificationDTO.setVersion(EntityTags.parseIfMatch(ifMatch));
         var editedPhoneSpecificationDTO = phoneSpecificationService.editPartOfEntity(id, phoneSpecificationDTO);
 
         log.info("Partially changed specification data. Specification ID: {}", editedPhoneSpecificationDTO.getId());
 
         return ResponseEntity.ok()
+                .eTag(EntityTags.toETag(editedPhoneSpecificationDTO.getVersion()))
                 .contentType(MediaType.APPLICATION_JSON)
                 .body(editedPhoneSpecificationDTO);
     }
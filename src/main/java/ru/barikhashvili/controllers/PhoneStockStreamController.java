@@ -0,0 +1,30 @@
+package ru.barikhashvili.controllers;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.barikhashvili.services.stream.PhoneStockStreamService;
+
+@RestController
+@RequestMapping("/api/v1/phones/stock-stream")
+@RequiredArgsConstructor
+@Slf4j
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class PhoneStockStreamController {
+    PhoneStockStreamService phoneStockStreamService;
+
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter handleSubscribeToStockChanges(
+            @RequestParam(required = false) Long phoneId,
+            @RequestParam(required = false) Integer manufacturerId) {
+        log.info("Subscribing to stock changes of phone {} and manufacturer {}", phoneId, manufacturerId);
+        return phoneStockStreamService.subscribe(phoneId, manufacturerId);
+    }
+}
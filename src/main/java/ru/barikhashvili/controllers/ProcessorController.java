@@ -1,6 +1,6 @@
 package ru.barikhashvili.controllers;
 
-import jakarta.transaction.Transactional;
+import jakarta.validation.Valid;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
@@ -11,6 +11,7 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.util.UriComponentsBuilder;
 import ru.barikhashvili.dto.specs.ProcessorDTO;
 import ru.barikhashvili.services.CrudService;
+import ru.barikhashvili.services.UpsertService;
 
 import java.util.List;
 
@@ -21,9 +22,10 @@ import java.util.List;
 @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
 public class ProcessorController {
     CrudService<ProcessorDTO, Integer> processorService;
+    UpsertService<ProcessorDTO> processorUpsertService;
 
     @PostMapping
-    public ResponseEntity<ProcessorDTO> handleAddProcessor(@RequestBody ProcessorDTO processorDTO) {
+    public ResponseEntity<ProcessorDTO> handleAddProcessor(@Valid @RequestBody ProcessorDTO processorDTO) {
         var persistentProcessor = processorService.saveEntity(processorDTO);
         var newProcessorURI = UriComponentsBuilder
                 .fromPath("/api/v1/processors/{id}")
@@ -38,15 +40,12 @@ public class ProcessorController {
     }
 
     @GetMapping("{id}")
-    @Transactional
     public ResponseEntity<ProcessorDTO> handleGetProcessor(@PathVariable Integer id) {
         var processorDTO = processorService.getEntityById(id);
 
         log.info("Received phone processor with ID: {}", processorDTO.getId());
 
-        return ResponseEntity.ok()
-                .contentType(MediaType.APPLICATION_JSON)
-                .body(processorDTO);
+        return ResponseEntity.ok(processorDTO);
     }
 
     @GetMapping
@@ -55,9 +54,16 @@ public class ProcessorController {
 
         log.info("Received a complete list of all phone processors");
 
-        return ResponseEntity.ok()
-                .contentType(MediaType.APPLICATION_JSON)
-                .body(allProcessorsDTO);
+        return ResponseEntity.ok(allProcessorsDTO);
+    }
+
+    @GetMapping(params = "ids")
+    public ResponseEntity<List<ProcessorDTO>> handleGetProcessorsByIds(@RequestParam List<Integer> ids) {
+        var requestedProcessorsDTO = processorService.getEntitiesByIds(ids);
+
+        log.info("Received phone processors with IDs: {}", ids);
+
+        return ResponseEntity.ok(requestedProcessorsDTO);
     }
 
     @DeleteMapping(value = "{id}")
@@ -71,10 +77,43 @@ public class ProcessorController {
                 .body(removedProcessorDTO);
     }
 
+    @DeleteMapping(params = "ids")
+    public ResponseEntity<List<ProcessorDTO>> handleDeleteProcessorsByIds(@RequestParam List<Integer> ids) {
+        var removedProcessorsDTO = processorService.removeEntitiesByIds(ids);
+
+        log.info("Removed phone processors with IDs: {}", ids);
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(removedProcessorsDTO);
+    }
+
+    @PutMapping
+    public ResponseEntity<ProcessorDTO> handleUpsertProcessor(@Valid @RequestBody ProcessorDTO processorDTO) {
+        var upsertedProcessor = processorUpsertService.upsertEntity(processorDTO);
+        var persistentProcessor = upsertedProcessor.entity();
+
+        log.info("Upserted a processor by natural key. ID: {}, inserted: {}",
+                persistentProcessor.getId(), upsertedProcessor.inserted());
+
+        if (upsertedProcessor.inserted()) {
+            var newProcessorURI = UriComponentsBuilder
+                    .fromPath("/api/v1/processors/{id}")
+                    .build(java.util.Map.of("id", persistentProcessor.getId()));
+            return ResponseEntity
+                    .created(newProcessorURI)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(persistentProcessor);
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(persistentProcessor);
+    }
+
     @PutMapping(value = "{id}")
     public ResponseEntity<ProcessorDTO> handleEditProcessor(
             @PathVariable Integer id,
-            @RequestBody ProcessorDTO processorDTO) {
+            @Valid @RequestBody ProcessorDTO processorDTO) {
         var editedProcessorDTO = processorService.editEntity(id, processorDTO);
 
         log.info("Processor details have been completely changed. Processor ID: {}", editedProcessorDTO.getId());
@@ -87,7 +126,7 @@ public class ProcessorController {
     @PatchMapping(value = "{id}")
     public ResponseEntity<ProcessorDTO> handleEditPartOfProcessor(
             @PathVariable Integer id,
-            @RequestBody ProcessorDTO processorDTO) {
+            @Valid @RequestBody ProcessorDTO processorDTO) {
         var editedProcessorDTO = processorService.editPartOfEntity(id, processorDTO);
 
         log.info("Partially changed processor data. Processor ID: {}", editedProcessorDTO.getId());
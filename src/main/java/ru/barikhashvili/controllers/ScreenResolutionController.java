@@ -1,6 +1,6 @@
 package ru.barikhashvili.controllers;
 
-import jakarta.transaction.Transactional;
+import jakarta.validation.Valid;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
@@ -11,6 +11,7 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.util.UriComponentsBuilder;
 import ru.barikhashvili.dto.specs.ResolutionDTO;
 import ru.barikhashvili.services.CrudService;
+import ru.barikhashvili.services.UpsertService;
 
 import java.util.List;
 
@@ -21,9 +22,10 @@ import java.util.List;
 @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
 public class ScreenResolutionController {
     CrudService<ResolutionDTO, Integer> screenResolutionService;
+    UpsertService<ResolutionDTO> screenResolutionUpsertService;
 
     @PostMapping
-    public ResponseEntity<ResolutionDTO> handleAddScreenResolution(@RequestBody ResolutionDTO screenResolutionDTO) {
+    public ResponseEntity<ResolutionDTO> handleAddScreenResolution(@Valid @RequestBody ResolutionDTO screenResolutionDTO) {
         var persistentScreenResolution = screenResolutionService.saveEntity(screenResolutionDTO);
         var newScreenResolutionURI = UriComponentsBuilder
                 .fromPath("/api/v1/screen-resolutions/{id}")
@@ -38,15 +40,12 @@ public class ScreenResolutionController {
     }
 
     @GetMapping("{id}")
-    @Transactional
     public ResponseEntity<ResolutionDTO> handleGetScreenResolution(@PathVariable Integer id) {
         var screenResolutionDTO = screenResolutionService.getEntityById(id);
 
         log.info("Received display resolution with ID: {}", screenResolutionDTO.getId());
 
-        return ResponseEntity.ok()
-                .contentType(MediaType.APPLICATION_JSON)
-                .body(screenResolutionDTO);
+        return ResponseEntity.ok(screenResolutionDTO);
     }
 
     @GetMapping
@@ -55,9 +54,16 @@ public class ScreenResolutionController {
 
         log.info("Received a complete list of all display resolutions");
 
-        return ResponseEntity.ok()
-                .contentType(MediaType.APPLICATION_JSON)
-                .body(allScreenResolutionsDTO);
+        return ResponseEntity.ok(allScreenResolutionsDTO);
+    }
+
+    @GetMapping(params = "ids")
+    public ResponseEntity<List<ResolutionDTO>> handleGetScreenResolutionsByIds(@RequestParam List<Integer> ids) {
+        var requestedScreenResolutionsDTO = screenResolutionService.getEntitiesByIds(ids);
+
+        log.info("Received display resolutions with IDs: {}", ids);
+
+        return ResponseEntity.ok(requestedScreenResolutionsDTO);
     }
 
     @DeleteMapping(value = "{id}")
@@ -71,10 +77,43 @@ public class ScreenResolutionController {
                 .body(removedResolutionDTO);
     }
 
+    @DeleteMapping(params = "ids")
+    public ResponseEntity<List<ResolutionDTO>> handleDeleteScreenResolutionsByIds(@RequestParam List<Integer> ids) {
+        var removedScreenResolutionsDTO = screenResolutionService.removeEntitiesByIds(ids);
+
+        log.info("Removed display resolutions with IDs: {}", ids);
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(removedScreenResolutionsDTO);
+    }
+
+    @PutMapping
+    public ResponseEntity<ResolutionDTO> handleUpsertScreenResolution(@Valid @RequestBody ResolutionDTO screenResolutionDTO) {
+        var upsertedScreenResolution = screenResolutionUpsertService.upsertEntity(screenResolutionDTO);
+        var persistentScreenResolution = upsertedScreenResolution.entity();
+
+        log.info("Upserted a screen resolution by natural key. ID: {}, inserted: {}",
+                persistentScreenResolution.getId(), upsertedScreenResolution.inserted());
+
+        if (upsertedScreenResolution.inserted()) {
+            var newScreenResolutionURI = UriComponentsBuilder
+                    .fromPath("/api/v1/screen-resolutions/{id}")
+                    .build(java.util.Map.of("id", persistentScreenResolution.getId()));
+            return ResponseEntity
+                    .created(newScreenResolutionURI)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(persistentScreenResolution);
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(persistentScreenResolution);
+    }
+
     @PutMapping(value = "{id}")
     public ResponseEntity<ResolutionDTO> handleEditScreenResolution(
             @PathVariable Integer id,
-            @RequestBody ResolutionDTO screenResolutionDTO) {
+            @Valid @RequestBody ResolutionDTO screenResolutionDTO) {
         var editedResolutionDTO = screenResolutionService.editEntity(id, screenResolutionDTO);
 
         log.info("Display resolution details have been completely changed. Resolution ID: {}", editedResolutionDTO.getId());
@@ -87,7 +126,7 @@ public class ScreenResolutionController {
     @PatchMapping(value = "{id}")
     public ResponseEntity<ResolutionDTO> handleEditPartOfScreenResolution(
             @PathVariable Integer id,
-            @RequestBody ResolutionDTO screenResolutionDTO) {
+            @Valid @RequestBody ResolutionDTO screenResolutionDTO) {
         var editedResolutionDTO = screenResolutionService.editPartOfEntity(id, screenResolutionDTO);
 
         log.info("Partially changed display resolution data. Resolution ID: {}", editedResolutionDTO.getId());
@@ -1,6 +1,6 @@
 package ru.barikhashvili.controllers;
 
-import jakarta.transaction.Transactional;
+import jakarta.validation.Valid;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
@@ -11,6 +11,7 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.util.UriComponentsBuilder;
 import ru.barikhashvili.dto.VariantDTO;
 import ru.barikhashvili.services.CrudService;
+import ru.barikhashvili.services.UpsertService;
 
 import java.util.List;
 
@@ -21,9 +22,10 @@ import java.util.List;
 @RequiredArgsConstructor
 public class VariantController {
     CrudService<VariantDTO, Integer> variantService;
+    UpsertService<VariantDTO> variantUpsertService;
 
     @PostMapping
-    public ResponseEntity<VariantDTO> handleAddVariant(@RequestBody VariantDTO variantDTO) {
+    public ResponseEntity<VariantDTO> handleAddVariant(@Valid @RequestBody VariantDTO variantDTO) {
         var persistentVariant = variantService.saveEntity(variantDTO);
         var newVariantURI = UriComponentsBuilder
                 .fromPath("/api/v1/variants/{id}")
@@ -38,15 +40,12 @@ public class VariantController {
     }
 
     @GetMapping("{id}")
-    @Transactional
     public ResponseEntity<VariantDTO> handleGetVariant(@PathVariable Integer id) {
         var variantDTO = variantService.getEntityById(id);
 
         log.info("Received phone variant with ID: {}", variantDTO.getId());
 
-        return ResponseEntity.ok()
-                .contentType(MediaType.APPLICATION_JSON)
-                .body(variantDTO);
+        return ResponseEntity.ok(variantDTO);
     }
 
     @GetMapping
@@ -55,9 +54,16 @@ public class VariantController {
 
         log.info("Received a complete list of all phone variants");
 
-        return ResponseEntity.ok()
-                .contentType(MediaType.APPLICATION_JSON)
-                .body(allVariantsDTO);
+        return ResponseEntity.ok(allVariantsDTO);
+    }
+
+    @GetMapping(params = "ids")
+    public ResponseEntity<List<VariantDTO>> handleGetVariantsByIds(@RequestParam List<Integer> ids) {
+        var requestedVariantsDTO = variantService.getEntitiesByIds(ids);
+
+        log.info("Received phone variants with IDs: {}", ids);
+
+        return ResponseEntity.ok(requestedVariantsDTO);
     }
 
     @DeleteMapping(value = "{id}")
@@ -71,10 +77,43 @@ public class VariantController {
                 .body(removedVariantDTO);
     }
 
+    @DeleteMapping(params = "ids")
+    public ResponseEntity<List<VariantDTO>> handleDeleteVariantsByIds(@RequestParam List<Integer> ids) {
+        var removedVariantsDTO = variantService.removeEntitiesByIds(ids);
+
+        log.info("Removed phone variants with IDs: {}", ids);
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(removedVariantsDTO);
+    }
+
+    @PutMapping
+    public ResponseEntity<VariantDTO> handleUpsertVariant(@Valid @RequestBody VariantDTO variantDTO) {
+        var upsertedVariant = variantUpsertService.upsertEntity(variantDTO);
+        var persistentVariant = upsertedVariant.entity();
+
+        log.info("Upserted a phone variant by natural key. ID: {}, inserted: {}",
+                persistentVariant.getId(), upsertedVariant.inserted());
+
+        if (upsertedVariant.inserted()) {
+            var newVariantURI = UriComponentsBuilder
+                    .fromPath("/api/v1/variants/{id}")
+                    .build(java.util.Map.of("id", persistentVariant.getId()));
+            return ResponseEntity
+                    .created(newVariantURI)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(persistentVariant);
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(persistentVariant);
+    }
+
     @PutMapping(value = "{id}")
     public ResponseEntity<VariantDTO> handleEditVariant(
             @PathVariable Integer id,
-            @RequestBody VariantDTO variantDTO) {
+            @Valid @RequestBody VariantDTO variantDTO) {
         var editedVariantDTO = variantService.editEntity(id, variantDTO);
 
         log.info("Phone variant details have been completely changed. Variant ID: {}", editedVariantDTO.getId());
@@ -87,7 +126,7 @@ public class VariantController {
     @PatchMapping(value = "{id}")
     public ResponseEntity<VariantDTO> handleEditPartOfVariant(
             @PathVariable Integer id,
-            @RequestBody VariantDTO variantDTO) {
+            @Valid @RequestBody VariantDTO variantDTO) {
         var editedVariantDTO = variantService.editPartOfEntity(id, variantDTO);
 
         log.info("Partially changed phone variant data. Variant ID: {}", editedVariantDTO.getId());
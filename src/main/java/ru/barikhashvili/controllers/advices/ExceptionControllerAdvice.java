@@ -1,41 +1,68 @@
 package ru.barikhashvili.controllers.advices;
 
+import jakarta.persistence.OptimisticLockException;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.JDBCException;
 import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import ru.barikhashvili.exceptions.ExportInProgressException;
+import ru.barikhashvili.exceptions.ImportFormatException;
 import ru.barikhashvili.exceptions.InsufficientDataException;
+import ru.barikhashvili.exceptions.PreconditionFailedException;
 import ru.barikhashvili.exceptions.ResourceNotFoundException;
+import ru.barikhashvili.exceptions.ResourcesNotFoundException;
+import ru.barikhashvili.exceptions.UnknownFieldsException;
 
+import java.sql.SQLException;
 import java.util.Map;
+import java.util.TreeMap;
 
 @RestControllerAdvice
 @Slf4j
 public class ExceptionControllerAdvice {
+    private static final String UNIQUE_VIOLATION_SQL_STATE = "23505";
+
     @ExceptionHandler(value = ResourceNotFoundException.class)
     public ResponseEntity<Map<String, String>> handleInvalidAddressExceptions(ResourceNotFoundException exception) {
         log.warn("The resource for the requested id was not found. {}", exception.getMessage());
         return new ResponseEntity<>(generateErrorDetails("Not found"), HttpStatus.NOT_FOUND);
     }
 
+    @ExceptionHandler(value = ResourcesNotFoundException.class)
+    public ResponseEntity<Map<String, Object>> handleMissingResourcesExceptions(ResourcesNotFoundException exception) {
+        log.warn("Some of the resources for the requested ids were not found. {}", exception.getMessage());
+        return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(Map.of("error", "Not found", "missingIds", exception.getMissingIds()));
+    }
+
     @ExceptionHandler(value = ConstraintViolationException.class)
     public ResponseEntity<Map<String, String>> handleConstraintViolationException(ConstraintViolationException exception) {
-        var message = exception.getMessage();
-        if (message != null && message.contains("duplicate key")) {
-            log.warn("The data sent to the request is not unique and is already contained in the database.{}", exception.getMessage());
-            return ResponseEntity.unprocessableEntity()
-                    .contentType(MediaType.APPLICATION_JSON)
-                    .body(generateErrorDetails("Non-unique values found in fields"));
-        } else {
-            log.warn("The data sent in the request body is not valid because it violates the restrictions specified in the database. {}", exception.getMessage());
-            return ResponseEntity.status(HttpStatus.CONFLICT)
-                    .contentType(MediaType.APPLICATION_JSON)
-                    .body(generateErrorDetails("Request contains incorrect values"));
-        }
+        return handleDatabaseConstraintViolation(exception);
+    }
+
+    @ExceptionHandler(value = DataIntegrityViolationException.class)
+    public ResponseEntity<Map<String, String>> handleDataIntegrityViolationException(DataIntegrityViolationException exception) {
+        return handleDatabaseConstraintViolation(exception);
+    }
+
+    @ExceptionHandler(value = MethodArgumentNotValidException.class)
+    public ResponseEntity<Map<String, Object>> handleMethodArgumentNotValidException(MethodArgumentNotValidException exception) {
+        var fieldErrors = new TreeMap<String, String>();
+        exception.getBindingResult().getFieldErrors()
+                .forEach(error -> fieldErrors.putIfAbsent(error.getField(), error.getDefaultMessage()));
+        log.warn("The data sent in the request body violates the restrictions of the fields. {}", fieldErrors);
+        return ResponseEntity.badRequest()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(Map.of("error", "Request contains incorrect values", "fieldErrors", fieldErrors));
     }
 
     @ExceptionHandler(value = HttpMessageNotReadableException.class)
@@ -61,6 +88,75 @@ public class ExceptionControllerAdvice {
                 .body(generateErrorDetails("Insufficient data"));
     }
 
+    @ExceptionHandler(value = UnknownFieldsException.class)
+    public ResponseEntity<Map<String, String>> handleUnknownFieldsException(UnknownFieldsException exception) {
+        log.warn("The requested field selection contains fields that are not present in the response. {}", exception.getMessage());
+        return ResponseEntity.badRequest()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(generateErrorDetails("Unknown fields requested"));
+    }
+
+    @ExceptionHandler(value = ImportFormatException.class)
+    public ResponseEntity<Map<String, String>> handleImportFormatException(ImportFormatException exception) {
+        log.warn("The imported file does not match the expected format. {}", exception.getMessage());
+        return ResponseEntity.badRequest()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(Map.of("error", "Invalid import file", "details", exception.getMessage()));
+    }
+
+    @ExceptionHandler(value = ExportInProgressException.class)
+    public ResponseEntity<Map<String, String>> handleExportInProgressException(ExportInProgressException exception) {
+        log.warn("The export request was rejected because the export limit has been reached. {}", exception.getMessage());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(generateErrorDetails("Export already in progress"));
+    }
+
+    @ExceptionHandler(value = PreconditionFailedException.class)
+    public ResponseEntity<Map<String, String>> handlePreconditionFailedException(PreconditionFailedException exception) {
+        log.warn("The If-Match header does not match the current version of the resource. {}", exception.getMessage());
+        return preconditionFailed();
+    }
+
+    @ExceptionHandler(value = {OptimisticLockingFailureException.class, OptimisticLockException.class})
+    public ResponseEntity<Map<String, String>> handleOptimisticLockingFailureException(RuntimeException exception) {
+        log.warn("The resource was changed by a concurrent request while it was being updated. {}", exception.getMessage());
+        return preconditionFailed();
+    }
+
+    private ResponseEntity<Map<String, String>> preconditionFailed() {
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(generateErrorDetails("Resource has been modified"));
+    }
+
+    private ResponseEntity<Map<String, String>> handleDatabaseConstraintViolation(Exception exception) {
+        var sqlState = extractSqlState(exception);
+        if (UNIQUE_VIOLATION_SQL_STATE.equals(sqlState)) {
+            log.warn("The data sent to the request is not unique and is already contained in the database. {}", exception.getMessage());
+            return ResponseEntity.unprocessableEntity()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(generateErrorDetails("Non-unique values found in fields"));
+        } else {
+            log.warn("The data sent in the request body is not valid because it violates the restrictions specified in the database (SQLState {}). {}", sqlState, exception.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(generateErrorDetails("Request contains incorrect values"));
+        }
+    }
+
+    private String extractSqlState(Throwable exception) {
+        for (var cause = exception; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sqlException && sqlException.getSQLState() != null) {
+                return sqlException.getSQLState();
+            }
+            if (cause instanceof JDBCException jdbcException && jdbcException.getSQLState() != null) {
+                return jdbcException.getSQLState();
+            }
+        }
+        return null;
+    }
+
     private Map<String, String> generateErrorDetails(String message) {
         return Map.of("error", message);
     }
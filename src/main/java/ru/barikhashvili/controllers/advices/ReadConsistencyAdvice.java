@@ -0,0 +1,41 @@
+package ru.barikhashvili.controllers.advices;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+import ru.barikhashvili.configs.ReadConsistency;
+import ru.barikhashvili.configs.ReplicaRoutingDataSource;
+
+/**
+ * Добавляет к ответу на запрос, зафиксировавший изменения каталога, заголовок {@value ReadConsistency#LSN_HEADER}
+ * с позицией WAL основного сервера после фиксации. Заголовок добавляется, только если настроены реплики.
+ */
+@ControllerAdvice
+@RequiredArgsConstructor
+@FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
+public class ReadConsistencyAdvice implements ResponseBodyAdvice<Object> {
+    ReplicaRoutingDataSource replicaRoutingDataSource;
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return replicaRoutingDataSource.hasReplicas();
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (ReadConsistency.isWriteCommitted()) {
+            response.getHeaders().set(ReadConsistency.LSN_HEADER,
+                    ReadConsistency.formatLsn(replicaRoutingDataSource.getLastWriteLsn()));
+        }
+        return body;
+    }
+}
@@ -0,0 +1,23 @@
+package ru.barikhashvili.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import ru.barikhashvili.events.ChangeType;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@AllArgsConstructor(staticName = "of")
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CatalogChangeDTO {
+    Long offset;
+    String entityType;
+    Long entityId;
+    ChangeType changeType;
+    LocalDateTime changedAt;
+}
@@ -0,0 +1,19 @@
+package ru.barikhashvili.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor(staticName = "of")
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CatalogChangeFeedDTO {
+    List<CatalogChangeDTO> changes;
+    Long nextOffset;
+}
@@ -1,6 +1,10 @@
 package ru.barikhashvili.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -8,6 +12,7 @@ import lombok.NoArgsConstructor;
 import ru.barikhashvili.dto.specs.ManufacturerDTO;
 import ru.barikhashvili.dto.specs.PhoneSpecificationDTO;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -19,10 +24,18 @@ import java.util.List;
 @JsonInclude(JsonInclude.Include.NON_NULL)
 public class PhoneDTO {
     Long id;
+    @Valid
     ManufacturerDTO manufacturer;
+    @Size(min = 1, max = 80)
     String model;
+    @Valid
     PhoneSpecificationDTO specification;
     LocalDateTime releaseDate;
+    @Valid
     @Builder.Default
     List<PhoneVariantDTO> phoneVariants = new ArrayList<>();
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    BigDecimal minPrice;
+    @JsonIgnore
+    Long version;
 }
@@ -1,6 +1,10 @@
 package ru.barikhashvili.dto;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Digits;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -15,7 +19,11 @@ import java.math.BigDecimal;
 @JsonInclude(JsonInclude.Include.NON_NULL)
 public class PhoneVariantDTO {
     Long id;
+    @Valid
     VariantDTO variant;
+    @PositiveOrZero
     Integer quantity;
+    @Positive
+    @Digits(integer = 13, fraction = 2)
     BigDecimal price;
 }
@@ -1,6 +1,7 @@
 package ru.barikhashvili.dto;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
+import jakarta.validation.constraints.Positive;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -14,7 +15,9 @@ import ru.barikhashvili.entities.specs.enums.Color;
 @JsonInclude(JsonInclude.Include.NON_NULL)
 public class VariantDTO {
     Integer id;
+    @Positive
     Integer romSize;
+    @Positive
     Integer ramSize;
     Color color;
 }
@@ -1,6 +1,7 @@
 package ru.barikhashvili.dto.specs;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
+import jakarta.validation.constraints.Positive;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -14,6 +15,7 @@ import ru.barikhashvili.entities.specs.enums.BatteryType;
 @JsonInclude(JsonInclude.Include.NON_NULL)
 public class BatteryDTO {
     Integer id;
+    @Positive
     Integer capacity;
     BatteryType batteryType;
 }
@@ -1,6 +1,7 @@
 package ru.barikhashvili.dto.specs;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
+import jakarta.validation.Valid;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -16,5 +17,6 @@ public class CameraDTO {
     Long id;
     CameraType cameraType;
     Boolean hasOpticalStabilization;
+    @Valid
     CameraSensorDTO sensor;
 }
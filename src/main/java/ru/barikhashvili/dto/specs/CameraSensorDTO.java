@@ -1,6 +1,8 @@
 package ru.barikhashvili.dto.specs;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
+import jakarta.validation.constraints.Digits;
+import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -15,8 +17,12 @@ import java.math.BigDecimal;
 @JsonInclude(JsonInclude.Include.NON_NULL)
 public class CameraSensorDTO {
     Integer id;
+    @Size(min = 1, max = 255)
     String sensorName;
+    @Digits(integer = 3, fraction = 2)
     BigDecimal megapixels;
+    @Size(min = 1, max = 10)
     String matrixSize;
+    @Size(min = 1, max = 10)
     String pixelSize;
 }
@@ -0,0 +1,15 @@
+package ru.barikhashvili.dto.specs;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor(staticName = "of")
+@NoArgsConstructor
+public class CameraSensorUsageDTO {
+    Integer sensorId;
+    Long specificationCount;
+}
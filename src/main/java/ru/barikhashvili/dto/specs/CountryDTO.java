@@ -1,6 +1,7 @@
 package ru.barikhashvili.dto.specs;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
+import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -13,5 +14,6 @@ import lombok.NoArgsConstructor;
 @JsonInclude(JsonInclude.Include.NON_NULL)
 public class CountryDTO {
     Integer id;
+    @Size(min = 1, max = 60)
     String name;
 }
@@ -1,5 +1,9 @@
 package ru.barikhashvili.dto.specs;
 
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Digits;
+import jakarta.validation.constraints.Positive;
 import lombok.Data;
 import ru.barikhashvili.entities.specs.enums.DisplayType;
 
@@ -8,8 +12,13 @@ import java.math.BigDecimal;
 @Data
 public class DisplayDTO {
     Integer id;
+    @Positive
     Integer refreshRate;
+    @DecimalMin(value = "0", inclusive = false)
+    @Digits(integer = 3, fraction = 2)
     BigDecimal diagonal;
     DisplayType displayType;
+    @Valid
     ResolutionDTO resolution;
+    BigDecimal ppi;
 }
@@ -0,0 +1,21 @@
+package ru.barikhashvili.dto.specs;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor(staticName = "of")
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class DisplayPageDTO {
+    List<DisplayDTO> displays;
+    BigDecimal nextAfterPpi;
+    Integer nextAfterId;
+}
@@ -1,6 +1,8 @@
 package ru.barikhashvili.dto.specs;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -13,6 +15,8 @@ import lombok.NoArgsConstructor;
 @JsonInclude(JsonInclude.Include.NON_NULL)
 public class ManufacturerDTO {
     Integer id;
+    @Size(min = 1, max = 100)
     String name;
+    @Valid
     CountryDTO country;
 }
@@ -1,6 +1,13 @@
 package ru.barikhashvili.dto.specs;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Digits;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -22,21 +29,42 @@ public class PhoneSpecificationDTO {
     Long id;
 
     NetworkType networkType;
+    @Min(1)
+    @Max(5)
     Integer simCount;
     Boolean hasWifi;
     Boolean hasNfc;
     Boolean hasBluetooth;
+    @DecimalMin(value = "0", inclusive = false)
+    @DecimalMax(value = "200", inclusive = false)
+    @Digits(integer = 3, fraction = 2)
     BigDecimal height;
+    @DecimalMin(value = "0", inclusive = false)
+    @DecimalMax(value = "200", inclusive = false)
+    @Digits(integer = 3, fraction = 2)
     BigDecimal width;
+    @DecimalMin(value = "0", inclusive = false)
+    @DecimalMax(value = "50", inclusive = false)
+    @Digits(integer = 3, fraction = 2)
     BigDecimal thickness;
+    @DecimalMin(value = "0", inclusive = false)
+    @DecimalMax(value = "1000", inclusive = false)
+    @Digits(integer = 3, fraction = 2)
     BigDecimal weight;
     MaterialType material;
     ChargerType chargerType;
 
+    @Valid
     OperatingSystemDTO operatingSystem;
+    @Valid
     DisplayDTO display;
+    @Valid
     ProcessorDTO processor;
+    @Valid
     BatteryDTO battery;
+    @Valid
     @Builder.Default
     List<CameraDTO> cameras = new ArrayList<>();
+    @JsonIgnore
+    Long version;
 }
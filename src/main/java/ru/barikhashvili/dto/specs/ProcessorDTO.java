@@ -1,6 +1,12 @@
 package ru.barikhashvili.dto.specs;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Digits;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -15,8 +21,15 @@ import java.math.BigDecimal;
 @JsonInclude(JsonInclude.Include.NON_NULL)
 public class ProcessorDTO {
     Integer id;
+    @Size(min = 1, max = 100)
     String model;
+    @Min(1)
+    @Max(99)
     Integer technologyNode;
+    @Positive
     Integer cores;
+    @DecimalMin(value = "0", inclusive = false)
+    @Digits(integer = 3, fraction = 2)
     BigDecimal maxFrequency;
+    Integer performanceScore;
 }
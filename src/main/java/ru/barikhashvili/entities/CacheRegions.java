@@ -0,0 +1,66 @@
+package ru.barikhashvili.entities;
+
+/**
+ * Названия регионов кэша второго уровня Hibernate. Размер и время жизни записей каждого региона
+ * задаются в файле hibernate-cache.conf. У каждой справочной сущности свой регион, поэтому записи одной
+ * сущности не вытесняют записи другой, а массовое изменение сущности очищает только ее регион.
+ */
+public final class CacheRegions {
+    /**
+     * Страны.
+     */
+    public static final String COUNTRIES = "countries";
+
+    /**
+     * Производители.
+     */
+    public static final String MANUFACTURERS = "manufacturers";
+
+    /**
+     * Операционные системы.
+     */
+    public static final String OPERATING_SYSTEMS = "operating-systems";
+
+    /**
+     * Процессоры.
+     */
+    public static final String PROCESSORS = "processors";
+
+    /**
+     * Аккумуляторы.
+     */
+    public static final String BATTERIES = "batteries";
+
+    /**
+     * Разрешения экрана.
+     */
+    public static final String SCREEN_RESOLUTIONS = "screen-resolutions";
+
+    /**
+     * Дисплеи.
+     */
+    public static final String DISPLAYS = "displays";
+
+    /**
+     * Сенсоры камер.
+     */
+    public static final String CAMERA_SENSORS = "camera-sensors";
+
+    /**
+     * Камеры.
+     */
+    public static final String CAMERAS = "cameras";
+
+    /**
+     * Вариации телефонов (объем памяти и цвет).
+     */
+    public static final String VARIANTS = "variants";
+
+    /**
+     * Коллекции камер характеристик телефонов.
+     */
+    public static final String SPECIFICATION_CAMERAS = "specification-cameras";
+
+    private CacheRegions() {
+    }
+}
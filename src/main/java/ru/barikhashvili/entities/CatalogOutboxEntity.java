@@ -0,0 +1,39 @@
+package ru.barikhashvili.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+import ru.barikhashvili.events.ChangeType;
+
+import java.time.LocalDateTime;
+
+/**
+ * Запись об изменении каталога, сохраненная в той же транзакции, что и само изменение.
+ * Смещение в ленте изменений назначается записи только после фиксации транзакции, при публикации.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity(name = "catalog_outbox")
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class CatalogOutboxEntity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    Long id;
+
+    @Column(name = "entity_type")
+    String entityType;
+
+    @Column(name = "entity_id")
+    Long entityId;
+
+    @Column(name = "change_type")
+    ChangeType changeType;
+
+    @Column(name = "created_at")
+    LocalDateTime createdAt;
+
+    @Column(name = "feed_offset")
+    Long feedOffset;
+}
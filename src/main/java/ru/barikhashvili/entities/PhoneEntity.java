@@ -3,6 +3,7 @@ package ru.barikhashvili.entities;
 import jakarta.persistence.*;
 import lombok.*;
 import lombok.experimental.FieldDefaults;
+import org.hibernate.annotations.DynamicUpdate;
 import ru.barikhashvili.entities.specs.ManufacturerEntity;
 import ru.barikhashvili.entities.specs.PhoneSpecificationEntity;
 
@@ -15,6 +16,7 @@ import java.util.List;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity(name = "phones")
+@DynamicUpdate
 @ToString(exclude = {"phoneVariants"})
 @FieldDefaults(level = AccessLevel.PRIVATE)
 public class PhoneEntity {
@@ -34,12 +36,10 @@ public class PhoneEntity {
     @Basic
     LocalDateTime releaseDate;
 
-    public void setSpecification(PhoneSpecificationEntity specification) {
-        specification.setPhone(this);
-        this.specification = specification;
-    }
+    @Version
+    Long version;
 
     @Builder.Default
-    @OneToMany(mappedBy = "phone", cascade = CascadeType.ALL)
+    @OneToMany(mappedBy = "phone", cascade = CascadeType.ALL, orphanRemoval = true)
     List<PhoneVariantEntity> phoneVariants = new ArrayList<>();
 }
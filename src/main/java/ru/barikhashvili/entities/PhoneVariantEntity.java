@@ -3,6 +3,7 @@ package ru.barikhashvili.entities;
 import jakarta.persistence.*;
 import lombok.*;
 import lombok.experimental.FieldDefaults;
+import org.hibernate.annotations.DynamicUpdate;
 import ru.barikhashvili.entities.specs.VariantEntity;
 
 import java.math.BigDecimal;
@@ -12,6 +13,7 @@ import java.math.BigDecimal;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity(name = "phones_variants")
+@DynamicUpdate
 @FieldDefaults(level = AccessLevel.PRIVATE)
 public class PhoneVariantEntity {
     @Id
@@ -29,6 +31,9 @@ public class PhoneVariantEntity {
 
     BigDecimal price;
 
+    @Version
+    Long version;
+
     public void setPhone(PhoneEntity phone) {
         phone.getPhoneVariants().add(this);
         this.phone = phone;
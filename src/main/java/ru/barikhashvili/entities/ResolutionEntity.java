@@ -3,6 +3,9 @@ package ru.barikhashvili.entities;
 import jakarta.persistence.*;
 import lombok.*;
 import lombok.experimental.FieldDefaults;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
 import ru.barikhashvili.entities.specs.DisplayEntity;
 
 import java.util.ArrayList;
@@ -13,6 +16,9 @@ import java.util.List;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity(name = "screen_resolutions")
+@DynamicUpdate
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.SCREEN_RESOLUTIONS)
 @FieldDefaults(level = AccessLevel.PRIVATE)
 @ToString(exclude = "displays")
 public class ResolutionEntity {
@@ -3,6 +3,10 @@ package ru.barikhashvili.entities.specs;
 import jakarta.persistence.*;
 import lombok.*;
 import lombok.experimental.FieldDefaults;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
+import ru.barikhashvili.entities.CacheRegions;
 import ru.barikhashvili.entities.specs.enums.CameraType;
 
 import java.util.ArrayList;
@@ -13,6 +17,9 @@ import java.util.List;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity(name = "cameras")
+@DynamicUpdate
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.CAMERAS)
 @FieldDefaults(level = AccessLevel.PRIVATE)
 @ToString(exclude = "specifications")
 public class CameraEntity {
@@ -3,6 +3,10 @@ package ru.barikhashvili.entities.specs;
 import jakarta.persistence.*;
 import lombok.*;
 import lombok.experimental.FieldDefaults;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
+import ru.barikhashvili.entities.CacheRegions;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
@@ -13,6 +17,9 @@ import java.util.List;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity(name = "camera_sensors")
+@DynamicUpdate
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.CAMERA_SENSORS)
 @FieldDefaults(level = AccessLevel.PRIVATE)
 @ToString(exclude = "cameras")
 public class CameraSensorEntity {
@@ -3,6 +3,10 @@ package ru.barikhashvili.entities.specs;
 import jakarta.persistence.*;
 import lombok.*;
 import lombok.experimental.FieldDefaults;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
+import ru.barikhashvili.entities.CacheRegions;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -12,6 +16,9 @@ import java.util.List;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity(name = "countries")
+@DynamicUpdate
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.COUNTRIES)
 @FieldDefaults(level = AccessLevel.PRIVATE)
 @ToString(exclude = "manufacturers")
 public class CountryEntity {
@@ -3,6 +3,10 @@ package ru.barikhashvili.entities.specs;
 import jakarta.persistence.*;
 import lombok.*;
 import lombok.experimental.FieldDefaults;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
+import ru.barikhashvili.entities.CacheRegions;
 import ru.barikhashvili.entities.ResolutionEntity;
 import ru.barikhashvili.entities.specs.enums.DisplayType;
 
@@ -15,6 +19,9 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity(name = "displays")
+@DynamicUpdate
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.DISPLAYS)
 @FieldDefaults(level = AccessLevel.PRIVATE)
 @ToString(exclude = "phoneSpecifications")
 public class DisplayEntity {
@@ -32,6 +39,12 @@ public class DisplayEntity {
     @ManyToOne(fetch = FetchType.LAZY)
     ResolutionEntity resolution;
 
+    /**
+     * Плотность пикселей (PPI), вычисленная по разрешению и диагонали. Хранится в таблице, чтобы фильтровать
+     * и сортировать дисплеи по индексу, и пересчитывается сервисами дисплеев и разрешений экрана.
+     */
+    BigDecimal ppi;
+
     @Builder.Default
     @OneToMany(mappedBy = "display")
     List<PhoneSpecificationEntity> phoneSpecifications = new ArrayList<>();
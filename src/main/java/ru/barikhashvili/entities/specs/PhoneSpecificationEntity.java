@@ -3,7 +3,10 @@ package ru.barikhashvili.entities.specs;
 import jakarta.persistence.*;
 import lombok.*;
 import lombok.experimental.FieldDefaults;
-import ru.barikhashvili.entities.PhoneEntity;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
+import ru.barikhashvili.entities.CacheRegions;
 import ru.barikhashvili.entities.specs.enums.ChargerType;
 import ru.barikhashvili.entities.specs.enums.MaterialType;
 import ru.barikhashvili.entities.specs.enums.NetworkType;
@@ -17,8 +20,9 @@ import java.util.List;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity(name = "phone_specs")
+@DynamicUpdate
 @FieldDefaults(level = AccessLevel.PRIVATE)
-@ToString(exclude = {"cameras", "phone"})
+@ToString(exclude = "cameras")
 public class PhoneSpecificationEntity {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -39,6 +43,9 @@ public class PhoneSpecificationEntity {
     @Enumerated(EnumType.ORDINAL)
     ChargerType chargerType;
 
+    @Version
+    Long version;
+
     @ManyToOne(fetch = FetchType.LAZY)
     OperatingSystemEntity operatingSystem;
 
@@ -53,11 +60,9 @@ public class PhoneSpecificationEntity {
 
     @Builder.Default
     @ManyToMany
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.SPECIFICATION_CAMERAS)
     @JoinTable(name = "specifications_cameras",
             joinColumns = @JoinColumn(name = "specification_id"),
             inverseJoinColumns = @JoinColumn(name = "camera_id"))
     List<CameraEntity> cameras = new ArrayList<>();
-
-    @OneToOne(mappedBy = "specification")
-    PhoneEntity phone;
 }
@@ -3,6 +3,12 @@ package ru.barikhashvili.entities.specs;
 import jakarta.persistence.*;
 import lombok.*;
 import lombok.experimental.FieldDefaults;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.Generated;
+import org.hibernate.generator.EventType;
+import ru.barikhashvili.entities.CacheRegions;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
@@ -13,6 +19,9 @@ import java.util.List;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity(name = "processors")
+@DynamicUpdate
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.PROCESSORS)
 @FieldDefaults(level = AccessLevel.PRIVATE)
 @ToString(exclude = "phoneSpecifications")
 public class ProcessorEntity {
@@ -28,6 +37,15 @@ public class ProcessorEntity {
 
     BigDecimal maxFrequency;
 
+    /**
+     * Оценка производительности процессора: cores * maxFrequency * 1000 / sqrt(technologyNode).
+     * Вычисляется базой данных (генерируемый столбец) при каждом добавлении и изменении процессора
+     * и перечитывается Hibernate после записи.
+     */
+    @Generated(event = {EventType.INSERT, EventType.UPDATE})
+    @Column(insertable = false, updatable = false)
+    Integer performanceScore;
+
     @Builder.Default
     @OneToMany(mappedBy = "processor")
     List<PhoneSpecificationEntity> phoneSpecifications = new ArrayList<>();
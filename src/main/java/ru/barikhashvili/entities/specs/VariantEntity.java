@@ -3,6 +3,10 @@ package ru.barikhashvili.entities.specs;
 import jakarta.persistence.*;
 import lombok.*;
 import lombok.experimental.FieldDefaults;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
+import ru.barikhashvili.entities.CacheRegions;
 import ru.barikhashvili.entities.specs.enums.Color;
 
 @Data
@@ -10,6 +14,9 @@ import ru.barikhashvili.entities.specs.enums.Color;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity(name = "variants")
+@DynamicUpdate
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.VARIANTS)
 @FieldDefaults(level = AccessLevel.PRIVATE)
 public class VariantEntity {
     @Id
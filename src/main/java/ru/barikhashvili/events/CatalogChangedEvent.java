@@ -0,0 +1,23 @@
+package ru.barikhashvili.events;
+
+/**
+ * Событие об изменении данных каталога. Публикуется сервисами внутри транзакции,
+ * в которой сущность была добавлена, изменена или удалена.
+ *
+ * @param entityType класс hibernate сущности, которая была изменена.
+ * @param entityId   уникальный идентификатор измененной сущности или null, если изменено сразу несколько сущностей.
+ * @param changeType тип изменения.
+ */
+public record CatalogChangedEvent(Class<?> entityType, Object entityId, ChangeType changeType) {
+    public static CatalogChangedEvent created(Class<?> entityType, Object entityId) {
+        return new CatalogChangedEvent(entityType, entityId, ChangeType.CREATED);
+    }
+
+    public static CatalogChangedEvent updated(Class<?> entityType, Object entityId) {
+        return new CatalogChangedEvent(entityType, entityId, ChangeType.UPDATED);
+    }
+
+    public static CatalogChangedEvent removed(Class<?> entityType, Object entityId) {
+        return new CatalogChangedEvent(entityType, entityId, ChangeType.REMOVED);
+    }
+}
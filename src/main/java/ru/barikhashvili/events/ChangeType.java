@@ -0,0 +1,7 @@
+package ru.barikhashvili.events;
+
+public enum ChangeType {
+    CREATED,
+    UPDATED,
+    REMOVED
+}
@@ -0,0 +1,18 @@
+package ru.barikhashvili.events;
+
+import java.math.BigDecimal;
+
+/**
+ * Событие об изменении цены или количества варианта телефона. Публикуется сервисом телефонов внутри
+ * транзакции для каждого добавленного, измененного или удаленного варианта. Для удаленного варианта
+ * количество равно 0, а цена равна последней цене варианта.
+ *
+ * @param phoneId        уникальный идентификатор телефона.
+ * @param manufacturerId уникальный идентификатор производителя телефона или null, если производитель удален.
+ * @param variantId      уникальный идентификатор вариации (объем памяти и цвет) телефона.
+ * @param price          цена варианта телефона.
+ * @param quantity       количество варианта телефона.
+ */
+public record PhoneVariantStockChangedEvent(Long phoneId, Integer manufacturerId, Integer variantId,
+                                            BigDecimal price, int quantity) {
+}
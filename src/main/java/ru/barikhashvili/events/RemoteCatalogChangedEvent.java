@@ -0,0 +1,15 @@
+package ru.barikhashvili.events;
+
+import java.util.List;
+
+/**
+ * Событие об изменениях каталога, выполненных другим экземпляром приложения. Публикуется вне транзакции
+ * после получения уведомления PostgreSQL, поэтому локальные кэши обрабатывают его через {@code @EventListener}.
+ *
+ * @param changes           изменения каталога, полученные в одном или нескольких уведомлениях.
+ * @param notificationsLost true, если часть уведомлений могла быть потеряна (соединение для получения
+ *                          уведомлений было восстановлено) или не распознана; в этом случае кэши
+ *                          необходимо очистить полностью.
+ */
+public record RemoteCatalogChangedEvent(List<CatalogChangedEvent> changes, boolean notificationsLost) {
+}
@@ -0,0 +1,7 @@
+package ru.barikhashvili.exceptions;
+
+public class ExportInProgressException extends RuntimeException {
+    public ExportInProgressException(String message) {
+        super(message);
+    }
+}
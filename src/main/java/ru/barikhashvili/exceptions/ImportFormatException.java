@@ -0,0 +1,7 @@
+package ru.barikhashvili.exceptions;
+
+public class ImportFormatException extends RuntimeException {
+    public ImportFormatException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package ru.barikhashvili.exceptions;
+
+public class PreconditionFailedException extends RuntimeException {
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+}
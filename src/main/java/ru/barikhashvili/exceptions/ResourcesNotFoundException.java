@@ -0,0 +1,15 @@
+package ru.barikhashvili.exceptions;
+
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+public class ResourcesNotFoundException extends ResourceNotFoundException {
+    private final List<?> missingIds;
+
+    public ResourcesNotFoundException(String message, List<?> missingIds) {
+        super(message + ". Missing ids: " + missingIds);
+        this.missingIds = List.copyOf(missingIds);
+    }
+}
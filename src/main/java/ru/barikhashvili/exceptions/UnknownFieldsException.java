@@ -0,0 +1,7 @@
+package ru.barikhashvili.exceptions;
+
+public class UnknownFieldsException extends RuntimeException {
+    public UnknownFieldsException(String message) {
+        super(message);
+    }
+}
@@ -1,10 +1,50 @@
 package ru.barikhashvili.repositories;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.barikhashvili.entities.specs.BatteryEntity;
+import ru.barikhashvili.repositories.projections.UpsertResult;
+import ru.barikhashvili.repositories.sql.CatalogJsonSql;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface BatteryRepository extends JpaRepository<BatteryEntity, Integer> {
     List<BatteryEntity> findAllByOrderByCapacity();
+
+    @Query(value = """
+            WITH upserted AS (
+                INSERT INTO batteries (capacity, battery_type)
+                VALUES (:capacity, :batteryType)
+                ON CONFLICT (capacity, battery_type) DO NOTHING
+                RETURNING id)
+            SELECT id, TRUE AS inserted, TRUE AS changed FROM upserted
+            UNION ALL
+            SELECT id, FALSE, FALSE FROM batteries
+            WHERE capacity = :capacity
+              AND battery_type = :batteryType
+            LIMIT 1
+            """, nativeQuery = true)
+    UpsertResult<Integer> upsert(@Param("capacity") int capacity,
+                                 @Param("batteryType") int batteryType);
+
+    /**
+     * Удаляет аккумулятор с указанным id одним запросом DELETE ... RETURNING и возвращает
+     * JSON представление удаленной записи.
+     */
+    @Query(value = "WITH deleted AS (DELETE FROM batteries WHERE id = :id RETURNING *) "
+            + "SELECT CAST(" + CatalogJsonSql.BATTERY + " AS TEXT) FROM deleted b",
+            nativeQuery = true)
+    Optional<String> deleteByIdReturningJson(@Param("id") Integer id);
+
+    /**
+     * Удаляет аккумуляторы с указанными id одним запросом DELETE ... RETURNING и возвращает
+     * JSON представления удаленных записей.
+     */
+    @Query(value = "WITH deleted AS (DELETE FROM batteries WHERE id IN (:ids) RETURNING *) "
+            + "SELECT CAST(" + CatalogJsonSql.BATTERY + " AS TEXT) FROM deleted b",
+            nativeQuery = true)
+    List<String> deleteAllByIdReturningJson(@Param("ids") Collection<Integer> ids);
 }
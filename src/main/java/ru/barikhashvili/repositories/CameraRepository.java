@@ -1,10 +1,52 @@
 package ru.barikhashvili.repositories;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.barikhashvili.entities.specs.CameraEntity;
+import ru.barikhashvili.repositories.projections.UpsertResult;
+import ru.barikhashvili.repositories.sql.CatalogJsonSql;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface CameraRepository extends JpaRepository<CameraEntity, Long> {
     List<CameraEntity> findAllByOrderByIdAsc();
+
+    @Query(value = """
+            WITH upserted AS (
+                INSERT INTO cameras (camera_type, has_optical_stabilization, sensor_id)
+                VALUES (:cameraType, :hasOpticalStabilization, :sensorId)
+                ON CONFLICT (camera_type, has_optical_stabilization, sensor_id) DO NOTHING
+                RETURNING id)
+            SELECT id, TRUE AS inserted, TRUE AS changed FROM upserted
+            UNION ALL
+            SELECT id, FALSE, FALSE FROM cameras
+            WHERE camera_type = :cameraType
+              AND has_optical_stabilization = :hasOpticalStabilization
+              AND sensor_id = :sensorId
+            LIMIT 1
+            """, nativeQuery = true)
+    UpsertResult<Long> upsert(@Param("cameraType") int cameraType,
+                              @Param("hasOpticalStabilization") boolean hasOpticalStabilization,
+                              @Param("sensorId") Integer sensorId);
+
+    /**
+     * Удаляет камеру с указанным id одним запросом DELETE ... RETURNING и возвращает
+     * JSON представление удаленной записи.
+     */
+    @Query(value = "WITH deleted AS (DELETE FROM cameras WHERE id = :id RETURNING *) "
+            + "SELECT CAST(" + CatalogJsonSql.CAMERA + " AS TEXT) FROM deleted ca",
+            nativeQuery = true)
+    Optional<String> deleteByIdReturningJson(@Param("id") Long id);
+
+    /**
+     * Удаляет камеры с указанными id одним запросом DELETE ... RETURNING и возвращает
+     * JSON представления удаленных записей.
+     */
+    @Query(value = "WITH deleted AS (DELETE FROM cameras WHERE id IN (:ids) RETURNING *) "
+            + "SELECT CAST(" + CatalogJsonSql.CAMERA + " AS TEXT) FROM deleted ca",
+            nativeQuery = true)
+    List<String> deleteAllByIdReturningJson(@Param("ids") Collection<Long> ids);
 }
@@ -1,10 +1,116 @@
 package ru.barikhashvili.repositories;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.barikhashvili.entities.specs.CameraSensorEntity;
+import ru.barikhashvili.repositories.projections.SensorSpecificationCount;
+import ru.barikhashvili.repositories.projections.UpsertResult;
+import ru.barikhashvili.repositories.sql.CatalogJsonSql;
 
+import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface CameraSensorRepository extends JpaRepository<CameraSensorEntity, Integer> {
     List<CameraSensorEntity> findAllByOrderByMegapixelsAsc();
+
+    /**
+     * Возвращает первую страницу сенсоров камер с количеством мегапикселей в диапазоне [minMegapixels,
+     * maxMegapixels] в порядке возрастания мегапикселей. Запрос использует индекс по (megapixels, id).
+     */
+    @Query("SELECT s FROM camera_sensors s WHERE s.megapixels BETWEEN :minMegapixels AND :maxMegapixels "
+            + "ORDER BY s.megapixels ASC, s.id ASC")
+    List<CameraSensorEntity> findByMegapixelsRangeAsc(@Param("minMegapixels") BigDecimal minMegapixels,
+                                                      @Param("maxMegapixels") BigDecimal maxMegapixels,
+                                                      Limit limit);
+
+    /**
+     * Возвращает следующую страницу сенсоров камер в порядке возрастания мегапикселей: сенсоры,
+     * расположенные после сенсора с ключом (afterMegapixels, afterId).
+     */
+    @Query("SELECT s FROM camera_sensors s WHERE s.megapixels BETWEEN :minMegapixels AND :maxMegapixels "
+            + "AND (s.megapixels, s.id) > (:afterMegapixels, :afterId) "
+            + "ORDER BY s.megapixels ASC, s.id ASC")
+    List<CameraSensorEntity> findByMegapixelsRangeAscAfter(@Param("minMegapixels") BigDecimal minMegapixels,
+                                                           @Param("maxMegapixels") BigDecimal maxMegapixels,
+                                                           @Param("afterMegapixels") BigDecimal afterMegapixels,
+                                                           @Param("afterId") Integer afterId,
+                                                           Limit limit);
+
+    /**
+     * Возвращает первую страницу сенсоров камер с количеством мегапикселей в диапазоне [minMegapixels,
+     * maxMegapixels] в порядке убывания мегапикселей.
+     */
+    @Query("SELECT s FROM camera_sensors s WHERE s.megapixels BETWEEN :minMegapixels AND :maxMegapixels "
+            + "ORDER BY s.megapixels DESC, s.id DESC")
+    List<CameraSensorEntity> findByMegapixelsRangeDesc(@Param("minMegapixels") BigDecimal minMegapixels,
+                                                       @Param("maxMegapixels") BigDecimal maxMegapixels,
+                                                       Limit limit);
+
+    /**
+     * Возвращает следующую страницу сенсоров камер в порядке убывания мегапикселей: сенсоры,
+     * расположенные после сенсора с ключом (afterMegapixels, afterId).
+     */
+    @Query("SELECT s FROM camera_sensors s WHERE s.megapixels BETWEEN :minMegapixels AND :maxMegapixels "
+            + "AND (s.megapixels, s.id) < (:afterMegapixels, :afterId) "
+            + "ORDER BY s.megapixels DESC, s.id DESC")
+    List<CameraSensorEntity> findByMegapixelsRangeDescAfter(@Param("minMegapixels") BigDecimal minMegapixels,
+                                                            @Param("maxMegapixels") BigDecimal maxMegapixels,
+                                                            @Param("afterMegapixels") BigDecimal afterMegapixels,
+                                                            @Param("afterId") Integer afterId,
+                                                            Limit limit);
+
+    /**
+     * Подсчитывает для каждого из указанных сенсоров количество характеристик телефонов, в которых есть
+     * камера с этим сенсором. Подсчет выполняется одним агрегирующим запросом, коллекции cameras
+     * не инициализируются. Сенсоры, которые не используются ни в одной характеристике, в результат не попадают.
+     */
+    @Query("SELECT c.sensor.id AS sensorId, COUNT(DISTINCT s.id) AS specificationCount "
+            + "FROM phone_specs s JOIN s.cameras c "
+            + "WHERE c.sensor.id IN :sensorIds "
+            + "GROUP BY c.sensor.id")
+    List<SensorSpecificationCount> countSpecificationsBySensorIds(@Param("sensorIds") Collection<Integer> sensorIds);
+
+    @Query(value = """
+            WITH upserted AS (
+                INSERT INTO camera_sensors (sensor_name, megapixels, matrix_size, pixel_size)
+                VALUES (:sensorName, :megapixels, :matrixSize, :pixelSize)
+                ON CONFLICT (sensor_name) DO UPDATE
+                    SET megapixels = EXCLUDED.megapixels,
+                        matrix_size = EXCLUDED.matrix_size,
+                        pixel_size = EXCLUDED.pixel_size
+                    WHERE (camera_sensors.megapixels, camera_sensors.matrix_size, camera_sensors.pixel_size)
+                        IS DISTINCT FROM (EXCLUDED.megapixels, EXCLUDED.matrix_size, EXCLUDED.pixel_size)
+                RETURNING id, xmax = 0 AS inserted)
+            SELECT id, inserted, TRUE AS changed FROM upserted
+            UNION ALL
+            SELECT id, FALSE, FALSE FROM camera_sensors
+            WHERE sensor_name = :sensorName
+            LIMIT 1
+            """, nativeQuery = true)
+    UpsertResult<Integer> upsert(@Param("sensorName") String sensorName,
+                                 @Param("megapixels") BigDecimal megapixels,
+                                 @Param("matrixSize") String matrixSize,
+                                 @Param("pixelSize") String pixelSize);
+
+    /**
+     * Удаляет сенсор камеры с указанным id одним запросом DELETE ... RETURNING и возвращает
+     * JSON представление удаленной записи.
+     */
+    @Query(value = "WITH deleted AS (DELETE FROM camera_sensors WHERE id = :id RETURNING *) "
+            + "SELECT CAST(" + CatalogJsonSql.CAMERA_SENSOR + " AS TEXT) FROM deleted cs",
+            nativeQuery = true)
+    Optional<String> deleteByIdReturningJson(@Param("id") Integer id);
+
+    /**
+     * Удаляет сенсоры камер с указанными id одним запросом DELETE ... RETURNING и возвращает
+     * JSON представления удаленных записей.
+     */
+    @Query(value = "WITH deleted AS (DELETE FROM camera_sensors WHERE id IN (:ids) RETURNING *) "
+            + "SELECT CAST(" + CatalogJsonSql.CAMERA_SENSOR + " AS TEXT) FROM deleted cs",
+            nativeQuery = true)
+    List<String> deleteAllByIdReturningJson(@Param("ids") Collection<Integer> ids);
 }
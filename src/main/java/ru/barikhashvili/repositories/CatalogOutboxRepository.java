@@ -0,0 +1,58 @@
+package ru.barikhashvili.repositories;
+
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import ru.barikhashvili.entities.CatalogOutboxEntity;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface CatalogOutboxRepository extends JpaRepository<CatalogOutboxEntity, Long> {
+    @Query(value = "SELECT pg_try_advisory_xact_lock(:lockKey)", nativeQuery = true)
+    boolean tryLockRelay(@Param("lockKey") long lockKey);
+
+    /**
+     * Назначает следующие по порядку смещения в ленте изменений неопубликованным записям
+     * в порядке их добавления. Вызывается только под блокировкой {@link #tryLockRelay(long)},
+     * поэтому смещения идут подряд и не повторяются.
+     * Подсказка указывает Hibernate, что запрос изменяет только таблицу catalog_outbox; без нее
+     * после каждого изменяющего SQL запроса Hibernate очищает все регионы кэша второго уровня.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "catalog_outbox"))
+    @Query(value = """
+            WITH last_published AS (
+                SELECT COALESCE(MAX(feed_offset), 0) AS feed_offset FROM catalog_outbox
+            ), pending AS (
+                SELECT o.id, lp.feed_offset + ROW_NUMBER() OVER (ORDER BY o.id) AS feed_offset
+                FROM catalog_outbox o CROSS JOIN last_published lp
+                WHERE o.feed_offset IS NULL
+                ORDER BY o.id
+                LIMIT :batchSize
+            )
+            UPDATE catalog_outbox o
+            SET feed_offset = pending.feed_offset
+            FROM pending
+            WHERE o.id = pending.id""", nativeQuery = true)
+    int publishPending(@Param("batchSize") int batchSize);
+
+    List<CatalogOutboxEntity> findByFeedOffsetGreaterThanOrderByFeedOffset(long feedOffset, Limit limit);
+
+    /**
+     * Удаляет опубликованные записи, добавленные раньше указанного момента. Последняя опубликованная
+     * запись сохраняется, так как от нее отсчитываются смещения следующих записей.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "catalog_outbox"))
+    @Query(value = """
+            DELETE FROM catalog_outbox
+            WHERE created_at < :createdBefore
+              AND feed_offset < (SELECT MAX(feed_offset) FROM catalog_outbox)""", nativeQuery = true)
+    int deletePublishedBefore(@Param("createdBefore") LocalDateTime createdBefore);
+}
@@ -1,12 +1,49 @@
 package ru.barikhashvili.repositories;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.barikhashvili.entities.specs.CountryEntity;
+import ru.barikhashvili.repositories.projections.UpsertResult;
+import ru.barikhashvili.repositories.sql.CatalogJsonSql;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface CountryRepository extends JpaRepository<CountryEntity, Integer> {
     List<CountryEntity> findAllByOrderByNameAsc();
     Optional<CountryEntity> findByName(String name);
+
+    @Query(value = """
+            WITH upserted AS (
+                INSERT INTO countries (name)
+                VALUES (:name)
+                ON CONFLICT (name) DO NOTHING
+                RETURNING id)
+            SELECT id, TRUE AS inserted, TRUE AS changed FROM upserted
+            UNION ALL
+            SELECT id, FALSE, FALSE FROM countries
+            WHERE name = :name
+            LIMIT 1
+            """, nativeQuery = true)
+    UpsertResult<Integer> upsert(@Param("name") String name);
+
+    /**
+     * Удаляет страну с указанным id одним запросом DELETE ... RETURNING и возвращает
+     * JSON представление удаленной записи.
+     */
+    @Query(value = "WITH deleted AS (DELETE FROM countries WHERE id = :id RETURNING *) "
+            + "SELECT CAST(" + CatalogJsonSql.COUNTRY + " AS TEXT) FROM deleted c",
+            nativeQuery = true)
+    Optional<String> deleteByIdReturningJson(@Param("id") Integer id);
+
+    /**
+     * Удаляет страны с указанными id одним запросом DELETE ... RETURNING и возвращает
+     * JSON представления удаленных записей.
+     */
+    @Query(value = "WITH deleted AS (DELETE FROM countries WHERE id IN (:ids) RETURNING *) "
+            + "SELECT CAST(" + CatalogJsonSql.COUNTRY + " AS TEXT) FROM deleted c",
+            nativeQuery = true)
+    List<String> deleteAllByIdReturningJson(@Param("ids") Collection<Integer> ids);
 }
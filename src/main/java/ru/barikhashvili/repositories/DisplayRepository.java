@@ -1,10 +1,119 @@
 package ru.barikhashvili.repositories;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.barikhashvili.entities.specs.DisplayEntity;
+import ru.barikhashvili.repositories.projections.UpsertResult;
+import ru.barikhashvili.repositories.sql.CatalogJsonSql;
 
+import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface DisplayRepository extends JpaRepository<DisplayEntity, Integer> {
     List<DisplayEntity> findAllByOrderByDiagonalAscRefreshRateAsc();
+
+    /**
+     * Возвращает первую страницу дисплеев с плотностью пикселей в диапазоне [minPpi, maxPpi] в порядке
+     * возрастания плотности. Запрос использует индекс по (ppi, id), разрешения экрана загружаются тем же запросом.
+     */
+    @Query("SELECT d FROM displays d JOIN FETCH d.resolution WHERE d.ppi BETWEEN :minPpi AND :maxPpi "
+            + "ORDER BY d.ppi ASC, d.id ASC")
+    List<DisplayEntity> findByPpiRangeAsc(@Param("minPpi") BigDecimal minPpi,
+                                          @Param("maxPpi") BigDecimal maxPpi,
+                                          Limit limit);
+
+    /**
+     * Возвращает следующую страницу дисплеев в порядке возрастания плотности пикселей: дисплеи,
+     * расположенные после дисплея с ключом (afterPpi, afterId).
+     */
+    @Query("SELECT d FROM displays d JOIN FETCH d.resolution WHERE d.ppi BETWEEN :minPpi AND :maxPpi "
+            + "AND (d.ppi, d.id) > (:afterPpi, :afterId) "
+            + "ORDER BY d.ppi ASC, d.id ASC")
+    List<DisplayEntity> findByPpiRangeAscAfter(@Param("minPpi") BigDecimal minPpi,
+                                               @Param("maxPpi") BigDecimal maxPpi,
+                                               @Param("afterPpi") BigDecimal afterPpi,
+                                               @Param("afterId") Integer afterId,
+                                               Limit limit);
+
+    /**
+     * Возвращает первую страницу дисплеев с плотностью пикселей в диапазоне [minPpi, maxPpi] в порядке
+     * убывания плотности.
+     */
+    @Query("SELECT d FROM displays d JOIN FETCH d.resolution WHERE d.ppi BETWEEN :minPpi AND :maxPpi "
+            + "ORDER BY d.ppi DESC, d.id DESC")
+    List<DisplayEntity> findByPpiRangeDesc(@Param("minPpi") BigDecimal minPpi,
+                                           @Param("maxPpi") BigDecimal maxPpi,
+                                           Limit limit);
+
+    /**
+     * Возвращает следующую страницу дисплеев в порядке убывания плотности пикселей: дисплеи,
+     * расположенные после дисплея с ключом (afterPpi, afterId).
+     */
+    @Query("SELECT d FROM displays d JOIN FETCH d.resolution WHERE d.ppi BETWEEN :minPpi AND :maxPpi "
+            + "AND (d.ppi, d.id) < (:afterPpi, :afterId) "
+            + "ORDER BY d.ppi DESC, d.id DESC")
+    List<DisplayEntity> findByPpiRangeDescAfter(@Param("minPpi") BigDecimal minPpi,
+                                                @Param("maxPpi") BigDecimal maxPpi,
+                                                @Param("afterPpi") BigDecimal afterPpi,
+                                                @Param("afterId") Integer afterId,
+                                                Limit limit);
+
+    /**
+     * Пересчитывает плотность пикселей всех дисплеев с указанным разрешением экрана одним запросом UPDATE.
+     * Запрос выполняется через HQL, поэтому Hibernate очищает только регион кэша второго уровня дисплеев
+     * ({@link ru.barikhashvili.entities.CacheRegions#DISPLAYS}), а не весь кэш справочных сущностей.
+     *
+     * @param resolutionId   идентификатор измененного разрешения экрана.
+     * @param diagonalPixels длина диагонали разрешения экрана в пикселях.
+     * @return количество обновленных дисплеев.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE displays d SET d.ppi = round(:diagonalPixels / d.diagonal, 2) "
+            + "WHERE d.resolution.id = :resolutionId")
+    int updatePpiByResolutionId(@Param("resolutionId") Integer resolutionId,
+                                @Param("diagonalPixels") BigDecimal diagonalPixels);
+
+    @Query(value = """
+            WITH upserted AS (
+                INSERT INTO displays (diagonal, resolution_id, refresh_rate, display_type, ppi)
+                VALUES (:diagonal, :resolutionId, :refreshRate, :displayType, :ppi)
+                ON CONFLICT (diagonal, resolution_id, refresh_rate, display_type) DO NOTHING
+                RETURNING id)
+            SELECT id, TRUE AS inserted, TRUE AS changed FROM upserted
+            UNION ALL
+            SELECT id, FALSE, FALSE FROM displays
+            WHERE diagonal = CAST(:diagonal AS NUMERIC(5,2))
+              AND resolution_id = :resolutionId
+              AND refresh_rate = :refreshRate
+              AND display_type = :displayType
+            LIMIT 1
+            """, nativeQuery = true)
+    UpsertResult<Integer> upsert(@Param("diagonal") BigDecimal diagonal,
+                                 @Param("resolutionId") Integer resolutionId,
+                                 @Param("refreshRate") int refreshRate,
+                                 @Param("displayType") int displayType,
+                                 @Param("ppi") BigDecimal ppi);
+
+    /**
+     * Удаляет дисплей с указанным id одним запросом DELETE ... RETURNING и возвращает
+     * JSON представление удаленной записи.
+     */
+    @Query(value = "WITH deleted AS (DELETE FROM displays WHERE id = :id RETURNING *) "
+            + "SELECT CAST(" + CatalogJsonSql.DISPLAY + " AS TEXT) FROM deleted d",
+            nativeQuery = true)
+    Optional<String> deleteByIdReturningJson(@Param("id") Integer id);
+
+    /**
+     * Удаляет дисплеи с указанными id одним запросом DELETE ... RETURNING и возвращает
+     * JSON представления удаленных записей.
+     */
+    @Query(value = "WITH deleted AS (DELETE FROM displays WHERE id IN (:ids) RETURNING *) "
+            + "SELECT CAST(" + CatalogJsonSql.DISPLAY + " AS TEXT) FROM deleted d",
+            nativeQuery = true)
+    List<String> deleteAllByIdReturningJson(@Param("ids") Collection<Integer> ids);
 }
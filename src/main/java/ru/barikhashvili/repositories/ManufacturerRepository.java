@@ -1,8 +1,13 @@
 package ru.barikhashvili.repositories;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.barikhashvili.entities.specs.ManufacturerEntity;
+import ru.barikhashvili.repositories.projections.UpsertResult;
+import ru.barikhashvili.repositories.sql.CatalogJsonSql;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -10,4 +15,38 @@ public interface ManufacturerRepository extends JpaRepository<ManufacturerEntity
     List<ManufacturerEntity> findAllByOrderByNameAsc();
 
     Optional<ManufacturerEntity> findByName(String name);
+
+    @Query(value = """
+            WITH upserted AS (
+                INSERT INTO manufacturers (country_id, name)
+                VALUES (:countryId, :name)
+                ON CONFLICT (country_id, name) DO NOTHING
+                RETURNING id)
+            SELECT id, TRUE AS inserted, TRUE AS changed FROM upserted
+            UNION ALL
+            SELECT id, FALSE, FALSE FROM manufacturers
+            WHERE country_id = :countryId
+              AND name = :name
+            LIMIT 1
+            """, nativeQuery = true)
+    UpsertResult<Integer> upsert(@Param("countryId") Integer countryId,
+                                 @Param("name") String name);
+
+    /**
+     * Удаляет производителя с указанным id одним запросом DELETE ... RETURNING и возвращает
+     * JSON представление удаленной записи.
+     */
+    @Query(value = "WITH deleted AS (DELETE FROM manufacturers WHERE id = :id RETURNING *) "
+            + "SELECT CAST(" + CatalogJsonSql.MANUFACTURER + " AS TEXT) FROM deleted m",
+            nativeQuery = true)
+    Optional<String> deleteByIdReturningJson(@Param("id") Integer id);
+
+    /**
+     * Удаляет производителей с указанными id одним запросом DELETE ... RETURNING и возвращает
+     * JSON представления удаленных записей.
+     */
+    @Query(value = "WITH deleted AS (DELETE FROM manufacturers WHERE id IN (:ids) RETURNING *) "
+            + "SELECT CAST(" + CatalogJsonSql.MANUFACTURER + " AS TEXT) FROM deleted m",
+            nativeQuery = true)
+    List<String> deleteAllByIdReturningJson(@Param("ids") Collection<Integer> ids);
 }
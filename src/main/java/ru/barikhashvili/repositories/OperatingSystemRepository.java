@@ -1,10 +1,50 @@
 package ru.barikhashvili.repositories;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.barikhashvili.entities.specs.OperatingSystemEntity;
+import ru.barikhashvili.repositories.projections.UpsertResult;
+import ru.barikhashvili.repositories.sql.CatalogJsonSql;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface OperatingSystemRepository extends JpaRepository<OperatingSystemEntity, Integer> {
     List<OperatingSystemEntity> findAllByOrderByNameAscVersionAsc();
+
+    @Query(value = """
+            WITH upserted AS (
+                INSERT INTO operating_systems (name, version)
+                VALUES (:name, :version)
+                ON CONFLICT (name, version) DO NOTHING
+                RETURNING id)
+            SELECT id, TRUE AS inserted, TRUE AS changed FROM upserted
+            UNION ALL
+            SELECT id, FALSE, FALSE FROM operating_systems
+            WHERE name = :name
+              AND version = :version
+            LIMIT 1
+            """, nativeQuery = true)
+    UpsertResult<Integer> upsert(@Param("name") String name,
+                                 @Param("version") String version);
+
+    /**
+     * Удаляет операционную систему с указанным id одним запросом DELETE ... RETURNING и возвращает
+     * JSON представление удаленной записи.
+     */
+    @Query(value = "WITH deleted AS (DELETE FROM operating_systems WHERE id = :id RETURNING *) "
+            + "SELECT CAST(" + CatalogJsonSql.OPERATING_SYSTEM + " AS TEXT) FROM deleted os",
+            nativeQuery = true)
+    Optional<String> deleteByIdReturningJson(@Param("id") Integer id);
+
+    /**
+     * Удаляет операционные системы с указанными id одним запросом DELETE ... RETURNING и возвращает
+     * JSON представления удаленных записей.
+     */
+    @Query(value = "WITH deleted AS (DELETE FROM operating_systems WHERE id IN (:ids) RETURNING *) "
+            + "SELECT CAST(" + CatalogJsonSql.OPERATING_SYSTEM + " AS TEXT) FROM deleted os",
+            nativeQuery = true)
+    List<String> deleteAllByIdReturningJson(@Param("ids") Collection<Integer> ids);
 }
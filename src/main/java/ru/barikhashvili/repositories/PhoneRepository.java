@@ -1,10 +1,86 @@
 package ru.barikhashvili.repositories;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.barikhashvili.entities.PhoneEntity;
+import ru.barikhashvili.repositories.projections.PhoneSummary;
+import ru.barikhashvili.repositories.sql.CatalogJsonSql;
 
+import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface PhoneRepository extends JpaRepository<PhoneEntity, Long> {
     List<PhoneEntity> findAllByOrderByModelAsc();
+
+    /**
+     * Возвращает столбцы всех телефонов в алфавитном порядке названий моделей. Запрос читает только таблицу
+     * телефонов, связанные сущности представлены идентификаторами.
+     */
+    @Query("SELECT p.id AS id, p.version AS version, p.model AS model, p.releaseDate AS releaseDate, "
+            + "p.manufacturer.id AS manufacturerId, p.specification.id AS specificationId "
+            + "FROM phones p ORDER BY p.model ASC")
+    List<PhoneSummary> findAllSummariesByOrderByModelAsc();
+
+    /**
+     * Возвращает столбцы телефона с указанным id без загрузки связанных сущностей.
+     */
+    @Query("SELECT p.id AS id, p.version AS version, p.model AS model, p.releaseDate AS releaseDate, "
+            + "p.manufacturer.id AS manufacturerId, p.specification.id AS specificationId "
+            + "FROM phones p WHERE p.id = :id")
+    Optional<PhoneSummary> findSummaryById(@Param("id") Long id);
+
+    /**
+     * Возвращает телефоны в порядке убывания оценки производительности процессора. Порядок начинается
+     * с ключа индекса (performance_score DESC, id), поэтому процессоры читаются по индексу без сортировки,
+     * досортировываются только телефоны одного процессора, и запрос останавливается после limit телефонов.
+     */
+    @Query("SELECT p FROM phones p JOIN p.specification s JOIN s.processor pr "
+            + "ORDER BY pr.performanceScore DESC, pr.id ASC, p.id ASC")
+    List<PhoneEntity> findTopByProcessorPerformanceScore(Limit limit);
+
+    /**
+     * Возвращает телефоны, плотность пикселей дисплея которых находится в диапазоне [minPpi, maxPpi],
+     * в порядке возрастания плотности. Дисплеи отбираются по индексу (ppi, id).
+     */
+    @Query("SELECT p FROM phones p JOIN p.specification s JOIN s.display d "
+            + "WHERE d.ppi BETWEEN :minPpi AND :maxPpi "
+            + "ORDER BY d.ppi ASC, p.id ASC")
+    List<PhoneEntity> findByDisplayPpiRangeAsc(@Param("minPpi") BigDecimal minPpi,
+                                               @Param("maxPpi") BigDecimal maxPpi,
+                                               Limit limit);
+
+    /**
+     * Возвращает телефоны, плотность пикселей дисплея которых находится в диапазоне [minPpi, maxPpi],
+     * в порядке убывания плотности.
+     */
+    @Query("SELECT p FROM phones p JOIN p.specification s JOIN s.display d "
+            + "WHERE d.ppi BETWEEN :minPpi AND :maxPpi "
+            + "ORDER BY d.ppi DESC, p.id ASC")
+    List<PhoneEntity> findByDisplayPpiRangeDesc(@Param("minPpi") BigDecimal minPpi,
+                                                @Param("maxPpi") BigDecimal maxPpi,
+                                                Limit limit);
+
+    /**
+     * Удаляет телефон с указанным id вместе с его характеристикой одним запросом DELETE ... RETURNING
+     * и возвращает JSON представление удаленного телефона.
+     */
+    @Query(value = "WITH deleted AS (DELETE FROM phones WHERE id = :id RETURNING *), "
+            + "deleted_specification AS (DELETE FROM phone_specs s USING deleted p WHERE s.id = p.specification_id) "
+            + "SELECT CAST(" + CatalogJsonSql.PHONE + " AS TEXT) FROM deleted p",
+            nativeQuery = true)
+    Optional<String> deleteByIdReturningJson(@Param("id") Long id);
+
+    /**
+     * Удаляет телефоны с указанными id вместе с их характеристиками одним запросом DELETE ... RETURNING
+     * и возвращает JSON представления удаленных телефонов.
+     */
+    @Query(value = "WITH deleted AS (DELETE FROM phones WHERE id IN (:ids) RETURNING *), "
+            + "deleted_specification AS (DELETE FROM phone_specs s USING deleted p WHERE s.id = p.specification_id) "
+            + "SELECT CAST(" + CatalogJsonSql.PHONE + " AS TEXT) FROM deleted p",
+            nativeQuery = true)
+    List<String> deleteAllByIdReturningJson(@Param("ids") Collection<Long> ids);
 }
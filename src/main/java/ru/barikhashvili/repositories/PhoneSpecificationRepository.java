@@ -1,10 +1,33 @@
 package ru.barikhashvili.repositories;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.barikhashvili.entities.specs.PhoneSpecificationEntity;
+import ru.barikhashvili.repositories.sql.CatalogJsonSql;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface PhoneSpecificationRepository extends JpaRepository<PhoneSpecificationEntity, Long> {
     List<PhoneSpecificationEntity> findAllByOrderByIdAsc();
+
+    /**
+     * Удаляет характеристику телефона с указанным id одним запросом DELETE ... RETURNING и возвращает
+     * JSON представление удаленной записи.
+     */
+    @Query(value = "WITH deleted AS (DELETE FROM phone_specs WHERE id = :id RETURNING *) "
+            + "SELECT CAST(" + CatalogJsonSql.SPECIFICATION + " AS TEXT) FROM deleted s",
+            nativeQuery = true)
+    Optional<String> deleteByIdReturningJson(@Param("id") Long id);
+
+    /**
+     * Удаляет характеристики телефонов с указанными id одним запросом DELETE ... RETURNING и возвращает
+     * JSON представления удаленных записей.
+     */
+    @Query(value = "WITH deleted AS (DELETE FROM phone_specs WHERE id IN (:ids) RETURNING *) "
+            + "SELECT CAST(" + CatalogJsonSql.SPECIFICATION + " AS TEXT) FROM deleted s",
+            nativeQuery = true)
+    List<String> deleteAllByIdReturningJson(@Param("ids") Collection<Long> ids);
 }
@@ -1,7 +1,30 @@
 package ru.barikhashvili.repositories;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.barikhashvili.entities.PhoneVariantEntity;
+import ru.barikhashvili.repositories.projections.PhoneMinPrice;
+
+import java.math.BigDecimal;
+import java.util.List;
 
 public interface PhoneVariantRepository extends JpaRepository<PhoneVariantEntity, Long> {
+    @Query("select pv.phone.id as phoneId, min(pv.price) as minPrice from phones_variants pv group by pv.phone.id")
+    List<PhoneMinPrice> findMinPricesOfAllPhones();
+
+    @Query("select min(pv.price) from phones_variants pv where pv.phone.id = :phoneId")
+    BigDecimal findMinPriceByPhoneId(@Param("phoneId") Long phoneId);
+
+    /**
+     * Возвращает варианты всех телефонов вместе с их конфигурациями одним запросом.
+     */
+    @Query("select pv from phones_variants pv join fetch pv.variant order by pv.id")
+    List<PhoneVariantEntity> findAllWithVariants();
+
+    /**
+     * Возвращает варианты телефона с указанным id вместе с их конфигурациями одним запросом.
+     */
+    @Query("select pv from phones_variants pv join fetch pv.variant where pv.phone.id = :phoneId order by pv.id")
+    List<PhoneVariantEntity> findAllWithVariantsByPhoneId(@Param("phoneId") Long phoneId);
 }
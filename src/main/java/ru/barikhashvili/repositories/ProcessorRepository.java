@@ -1,10 +1,57 @@
 package ru.barikhashvili.repositories;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.barikhashvili.entities.specs.ProcessorEntity;
+import ru.barikhashvili.repositories.projections.UpsertResult;
+import ru.barikhashvili.repositories.sql.CatalogJsonSql;
 
+import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface ProcessorRepository extends JpaRepository<ProcessorEntity, Integer> {
     List<ProcessorEntity> findAllByOrderByTechnologyNodeAscModelAsc();
+
+    @Query(value = """
+            WITH upserted AS (
+                INSERT INTO processors (model, cores, max_frequency, technology_node)
+                VALUES (:model, :cores, :maxFrequency, :technologyNode)
+                ON CONFLICT (model) DO UPDATE
+                    SET cores = EXCLUDED.cores,
+                        max_frequency = EXCLUDED.max_frequency,
+                        technology_node = EXCLUDED.technology_node
+                    WHERE (processors.cores, processors.max_frequency, processors.technology_node)
+                        IS DISTINCT FROM (EXCLUDED.cores, EXCLUDED.max_frequency, EXCLUDED.technology_node)
+                RETURNING id, xmax = 0 AS inserted)
+            SELECT id, inserted, TRUE AS changed FROM upserted
+            UNION ALL
+            SELECT id, FALSE, FALSE FROM processors
+            WHERE model = :model
+            LIMIT 1
+            """, nativeQuery = true)
+    UpsertResult<Integer> upsert(@Param("model") String model,
+                                 @Param("cores") int cores,
+                                 @Param("maxFrequency") BigDecimal maxFrequency,
+                                 @Param("technologyNode") int technologyNode);
+
+    /**
+     * Удаляет процессор с указанным id одним запросом DELETE ... RETURNING и возвращает
+     * JSON представление удаленной записи.
+     */
+    @Query(value = "WITH deleted AS (DELETE FROM processors WHERE id = :id RETURNING *) "
+            + "SELECT CAST(" + CatalogJsonSql.PROCESSOR + " AS TEXT) FROM deleted pr",
+            nativeQuery = true)
+    Optional<String> deleteByIdReturningJson(@Param("id") Integer id);
+
+    /**
+     * Удаляет процессоры с указанными id одним запросом DELETE ... RETURNING и возвращает
+     * JSON представления удаленных записей.
+     */
+    @Query(value = "WITH deleted AS (DELETE FROM processors WHERE id IN (:ids) RETURNING *) "
+            + "SELECT CAST(" + CatalogJsonSql.PROCESSOR + " AS TEXT) FROM deleted pr",
+            nativeQuery = true)
+    List<String> deleteAllByIdReturningJson(@Param("ids") Collection<Integer> ids);
 }
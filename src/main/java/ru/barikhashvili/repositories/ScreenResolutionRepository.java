@@ -1,10 +1,50 @@
 package ru.barikhashvili.repositories;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.barikhashvili.entities.ResolutionEntity;
+import ru.barikhashvili.repositories.projections.UpsertResult;
+import ru.barikhashvili.repositories.sql.CatalogJsonSql;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface ScreenResolutionRepository extends JpaRepository<ResolutionEntity, Integer> {
     List<ResolutionEntity> findAllByOrderByHorizontalPixelsAscVerticalPixelsAsc();
+
+    @Query(value = """
+            WITH upserted AS (
+                INSERT INTO screen_resolutions (horizontal_pixels, vertical_pixels)
+                VALUES (:horizontalPixels, :verticalPixels)
+                ON CONFLICT (horizontal_pixels, vertical_pixels) DO NOTHING
+                RETURNING id)
+            SELECT id, TRUE AS inserted, TRUE AS changed FROM upserted
+            UNION ALL
+            SELECT id, FALSE, FALSE FROM screen_resolutions
+            WHERE horizontal_pixels = :horizontalPixels
+              AND vertical_pixels = :verticalPixels
+            LIMIT 1
+            """, nativeQuery = true)
+    UpsertResult<Integer> upsert(@Param("horizontalPixels") int horizontalPixels,
+                                 @Param("verticalPixels") int verticalPixels);
+
+    /**
+     * Удаляет разрешение экрана с указанным id одним запросом DELETE ... RETURNING и возвращает
+     * JSON представление удаленной записи.
+     */
+    @Query(value = "WITH deleted AS (DELETE FROM screen_resolutions WHERE id = :id RETURNING *) "
+            + "SELECT CAST(" + CatalogJsonSql.RESOLUTION + " AS TEXT) FROM deleted r",
+            nativeQuery = true)
+    Optional<String> deleteByIdReturningJson(@Param("id") Integer id);
+
+    /**
+     * Удаляет разрешения экрана с указанными id одним запросом DELETE ... RETURNING и возвращает
+     * JSON представления удаленных записей.
+     */
+    @Query(value = "WITH deleted AS (DELETE FROM screen_resolutions WHERE id IN (:ids) RETURNING *) "
+            + "SELECT CAST(" + CatalogJsonSql.RESOLUTION + " AS TEXT) FROM deleted r",
+            nativeQuery = true)
+    List<String> deleteAllByIdReturningJson(@Param("ids") Collection<Integer> ids);
 }
@@ -1,10 +1,52 @@
 package ru.barikhashvili.repositories;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.barikhashvili.entities.specs.VariantEntity;
+import ru.barikhashvili.repositories.projections.UpsertResult;
+import ru.barikhashvili.repositories.sql.CatalogJsonSql;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface VariantRepository extends JpaRepository<VariantEntity, Integer> {
     List<VariantEntity> findAllByOrderByRamSizeAscRomSizeAsc();
+
+    @Query(value = """
+            WITH upserted AS (
+                INSERT INTO variants (ram_size, rom_size, color)
+                VALUES (:ramSize, :romSize, :color)
+                ON CONFLICT (ram_size, rom_size, color) DO NOTHING
+                RETURNING id)
+            SELECT id, TRUE AS inserted, TRUE AS changed FROM upserted
+            UNION ALL
+            SELECT id, FALSE, FALSE FROM variants
+            WHERE ram_size = :ramSize
+              AND rom_size = :romSize
+              AND color = :color
+            LIMIT 1
+            """, nativeQuery = true)
+    UpsertResult<Integer> upsert(@Param("ramSize") Integer ramSize,
+                                 @Param("romSize") Integer romSize,
+                                 @Param("color") int color);
+
+    /**
+     * Удаляет вариацию телефона с указанным id одним запросом DELETE ... RETURNING и возвращает
+     * JSON представление удаленной записи.
+     */
+    @Query(value = "WITH deleted AS (DELETE FROM variants WHERE id = :id RETURNING *) "
+            + "SELECT CAST(" + CatalogJsonSql.VARIANT + " AS TEXT) FROM deleted v",
+            nativeQuery = true)
+    Optional<String> deleteByIdReturningJson(@Param("id") Integer id);
+
+    /**
+     * Удаляет вариации телефонов с указанными id одним запросом DELETE ... RETURNING и возвращает
+     * JSON представления удаленных записей.
+     */
+    @Query(value = "WITH deleted AS (DELETE FROM variants WHERE id IN (:ids) RETURNING *) "
+            + "SELECT CAST(" + CatalogJsonSql.VARIANT + " AS TEXT) FROM deleted v",
+            nativeQuery = true)
+    List<String> deleteAllByIdReturningJson(@Param("ids") Collection<Integer> ids);
 }
@@ -0,0 +1,9 @@
+package ru.barikhashvili.repositories.projections;
+
+import java.math.BigDecimal;
+
+public interface PhoneMinPrice {
+    Long getPhoneId();
+
+    BigDecimal getMinPrice();
+}
@@ -0,0 +1,21 @@
+package ru.barikhashvili.repositories.projections;
+
+import java.time.LocalDateTime;
+
+/**
+ * Столбцы таблицы телефонов без связанных сущностей. Связи представлены идентификаторами
+ * (внешними ключами), поэтому чтение проекции не загружает производителя, характеристику и варианты телефона.
+ */
+public interface PhoneSummary {
+    Long getId();
+
+    Long getVersion();
+
+    String getModel();
+
+    LocalDateTime getReleaseDate();
+
+    Integer getManufacturerId();
+
+    Long getSpecificationId();
+}
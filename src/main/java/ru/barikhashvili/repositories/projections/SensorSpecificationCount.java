@@ -0,0 +1,7 @@
+package ru.barikhashvili.repositories.projections;
+
+public interface SensorSpecificationCount {
+    Integer getSensorId();
+
+    Long getSpecificationCount();
+}
@@ -0,0 +1,20 @@
+package ru.barikhashvili.repositories.projections;
+
+/**
+ * Результат добавления или обновления записи по естественному ключу.
+ *
+ * @param <I> тип идентификатора записи.
+ */
+public interface UpsertResult<I> {
+    I getId();
+
+    /**
+     * @return true, если запись была добавлена.
+     */
+    Boolean getInserted();
+
+    /**
+     * @return true, если запись была добавлена или ее значения были изменены.
+     */
+    Boolean getChanged();
+}
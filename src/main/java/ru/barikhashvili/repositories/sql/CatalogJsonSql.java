@@ -0,0 +1,105 @@
+package ru.barikhashvili.repositories.sql;
+
+/**
+ * Фрагменты SQL, собирающие JSON представление записей каталога в том же виде, в котором соответствующие
+ * DTO передаются в ответах REST API. Используются запросами DELETE ... RETURNING, чтобы вернуть удаленную
+ * запись вместе со связанными данными за одно обращение к базе данных.
+ * Каждый фрагмент ожидает, что строка таблицы доступна под указанным в описании псевдонимом.
+ * Значения перечислений возвращаются порядковыми номерами, как они хранятся в базе данных.
+ */
+public final class CatalogJsonSql {
+    /**
+     * Страна, псевдоним {@code c}.
+     */
+    public static final String COUNTRY = "json_build_object('id', c.id, 'name', c.name)";
+
+    /**
+     * Производитель, псевдоним {@code m}.
+     */
+    public static final String MANUFACTURER = "json_build_object('id', m.id, 'name', m.name, "
+            + "'country', (SELECT " + COUNTRY + " FROM countries c WHERE c.id = m.country_id))";
+
+    /**
+     * Аккумулятор, псевдоним {@code b}.
+     */
+    public static final String BATTERY = "json_build_object('id', b.id, 'capacity', b.capacity, "
+            + "'batteryType', b.battery_type)";
+
+    /**
+     * Операционная система, псевдоним {@code os}.
+     */
+    public static final String OPERATING_SYSTEM = "json_build_object('id', os.id, 'name', os.name, "
+            + "'version', os.version)";
+
+    /**
+     * Процессор, псевдоним {@code pr}.
+     */
+    public static final String PROCESSOR = "json_build_object('id', pr.id, 'model', pr.model, "
+            + "'technologyNode', pr.technology_node, 'cores', pr.cores, 'maxFrequency', pr.max_frequency, "
+            + "'performanceScore', pr.performance_score)";
+
+    /**
+     * Разрешение экрана, псевдоним {@code r}.
+     */
+    public static final String RESOLUTION = "json_build_object('id', r.id, "
+            + "'horizontalPixels', r.horizontal_pixels, 'verticalPixels', r.vertical_pixels)";
+
+    /**
+     * Дисплей, псевдоним {@code d}.
+     */
+    public static final String DISPLAY = "json_build_object('id', d.id, 'refreshRate', d.refresh_rate, "
+            + "'diagonal', d.diagonal, 'displayType', d.display_type, "
+            + "'resolution', (SELECT " + RESOLUTION + " FROM screen_resolutions r WHERE r.id = d.resolution_id), "
+            + "'ppi', d.ppi)";
+
+    /**
+     * Сенсор камеры, псевдоним {@code cs}.
+     */
+    public static final String CAMERA_SENSOR = "json_build_object('id', cs.id, 'sensorName', cs.sensor_name, "
+            + "'megapixels', cs.megapixels, 'matrixSize', cs.matrix_size, 'pixelSize', cs.pixel_size)";
+
+    /**
+     * Камера, псевдоним {@code ca}.
+     */
+    public static final String CAMERA = "json_build_object('id', ca.id, 'cameraType', ca.camera_type, "
+            + "'hasOpticalStabilization', ca.has_optical_stabilization, "
+            + "'sensor', (SELECT " + CAMERA_SENSOR + " FROM camera_sensors cs WHERE cs.id = ca.sensor_id))";
+
+    /**
+     * Вариация телефона, псевдоним {@code v}.
+     */
+    public static final String VARIANT = "json_build_object('id', v.id, 'romSize', v.rom_size, "
+            + "'ramSize', v.ram_size, 'color', v.color)";
+
+    /**
+     * Характеристика телефона вместе с операционной системой, дисплеем, процессором, аккумулятором
+     * и камерами, псевдоним {@code s}.
+     */
+    public static final String SPECIFICATION = "json_build_object('id', s.id, 'networkType', s.network_type, "
+            + "'simCount', s.sim_count, 'hasWifi', s.has_wifi, 'hasNfc', s.has_nfc, "
+            + "'hasBluetooth', s.has_bluetooth, 'height', s.height, 'width', s.width, "
+            + "'thickness', s.thickness, 'weight', s.weight, 'material', s.material, "
+            + "'chargerType', s.charger_type, "
+            + "'operatingSystem', (SELECT " + OPERATING_SYSTEM + " FROM operating_systems os WHERE os.id = s.operating_system_id), "
+            + "'display', (SELECT " + DISPLAY + " FROM displays d WHERE d.id = s.display_id), "
+            + "'processor', (SELECT " + PROCESSOR + " FROM processors pr WHERE pr.id = s.processor_id), "
+            + "'battery', (SELECT " + BATTERY + " FROM batteries b WHERE b.id = s.battery_id), "
+            + "'cameras', COALESCE((SELECT json_agg(" + CAMERA + " ORDER BY ca.id) FROM specifications_cameras sc "
+            + "JOIN cameras ca ON ca.id = sc.camera_id WHERE sc.specification_id = s.id), CAST('[]' AS JSON)))";
+
+    /**
+     * Телефон вместе с производителем, характеристикой и вариантами телефона, псевдоним {@code p}.
+     */
+    public static final String PHONE = "json_build_object('id', p.id, "
+            + "'manufacturer', (SELECT " + MANUFACTURER + " FROM manufacturers m WHERE m.id = p.manufacturer_id), "
+            + "'model', p.model, "
+            + "'specification', (SELECT " + SPECIFICATION + " FROM phone_specs s WHERE s.id = p.specification_id), "
+            + "'releaseDate', p.release_date, "
+            + "'phoneVariants', COALESCE((SELECT json_agg(json_build_object("
+            + "'variant', (SELECT " + VARIANT + " FROM variants v WHERE v.id = pv.variant_id), "
+            + "'quantity', pv.quantity, 'price', pv.price) ORDER BY pv.id) "
+            + "FROM phones_variants pv WHERE pv.phone_id = p.id), CAST('[]' AS JSON)))";
+
+    private CatalogJsonSql() {
+    }
+}
@@ -2,6 +2,7 @@ package ru.barikhashvili.services;
 
 import ru.barikhashvili.exceptions.InsufficientDataException;
 import ru.barikhashvili.exceptions.ResourceNotFoundException;
+import ru.barikhashvili.exceptions.ResourcesNotFoundException;
 
 import java.util.List;
 
@@ -39,6 +40,17 @@ public interface CrudService<T, I> {
      */
     List<T> getAllEntities();
 
+    /**
+     * Находит и возвращает сущности с указанными идентификаторами за один запрос к базе данных.
+     * Порядок элементов в возвращаемом списке совпадает с порядком идентификаторов в ids.
+     *
+     * @param ids список уникальных идентификаторов сущностей, которые необходимо найти.
+     * @return список T с полными сведениями о найденных сущностях в порядке следования ids.
+     * @throws InsufficientDataException если список идентификаторов пуст или содержит null.
+     * @throws ResourcesNotFoundException если хотя бы одна сущность не найдена (содержит все отсутствующие id).
+     */
+    List<T> getEntitiesByIds(List<I> ids);
+
     /**
      * Удаляет сущность с указанным id из базы данных и возвращает сведения об удалённой сущности.
      *
@@ -47,6 +59,18 @@ public interface CrudService<T, I> {
      */
     T removeEntityById(I id);
 
+    /**
+     * Удаляет сущности с указанными идентификаторами из базы данных и возвращает сведения об удалённых сущностях.
+     * Порядок элементов в возвращаемом списке совпадает с порядком идентификаторов в ids.
+     * Если хотя бы одна сущность не найдена, то ни одна сущность не удаляется.
+     *
+     * @param ids список уникальных идентификаторов сущностей, которые необходимо удалить.
+     * @return список T со сведениями об удалённых сущностях в порядке следования ids.
+     * @throws InsufficientDataException  если список идентификаторов пуст или содержит null.
+     * @throws ResourcesNotFoundException если хотя бы одна сущность не найдена (содержит все отсутствующие id).
+     */
+    List<T> removeEntitiesByIds(List<I> ids);
+
     /**
      * Полностью обновляет информацию о сущности в базе данных и возвращает объект с обновленной информацией.
      * Этот метод требует, чтобы полученный в аргументе entityDTO содержал полную информацию об изменяемой сущности.
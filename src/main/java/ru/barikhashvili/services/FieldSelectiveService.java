@@ -0,0 +1,37 @@
+package ru.barikhashvili.services;
+
+import ru.barikhashvili.exceptions.ResourceNotFoundException;
+import ru.barikhashvili.exceptions.UnknownFieldsException;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Интерфейс для получения сущностей с ограниченным набором полей (sparse fieldsets).
+ * Из базы данных загружаются и преобразуются в DTO только запрошенные поля и связи,
+ * остальные поля в возвращаемом объекте равны null и не попадают в JSON ответ.
+ *
+ * @param <T> Data Transfer Object сущности.
+ * @param <I> Класс уникального идентификатора сущности.
+ */
+public interface FieldSelectiveService<T, I> {
+    /**
+     * Находит и возвращает список всех сущностей, содержащих только указанные поля.
+     *
+     * @param fields названия полей DTO, которые необходимо заполнить.
+     * @return список T, в котором заполнены только запрошенные поля.
+     * @throws UnknownFieldsException если среди fields есть поле, отсутствующее в DTO.
+     */
+    List<T> getAllEntities(Set<String> fields);
+
+    /**
+     * Находит и возвращает сущность с указанным идентификатором, содержащую только указанные поля.
+     *
+     * @param id     уникальный идентификатор сущности, которую необходимо найти.
+     * @param fields названия полей DTO, которые необходимо заполнить.
+     * @return объект T, в котором заполнены только запрошенные поля.
+     * @throws ResourceNotFoundException если сущность с указанным id не найдена в базе данных.
+     * @throws UnknownFieldsException    если среди fields есть поле, отсутствующее в DTO.
+     */
+    T getEntityById(I id, Set<String> fields);
+}
@@ -0,0 +1,22 @@
+package ru.barikhashvili.services;
+
+import ru.barikhashvili.exceptions.InsufficientDataException;
+
+/**
+ * Сервис для идемпотентного сохранения справочных сущностей по их естественному (уникальному) ключу.
+ *
+ * @param <T> тип DTO сущности.
+ */
+public interface UpsertService<T> {
+    /**
+     * Добавляет сущность, если сущности с таким же естественным ключом еще нет в базе данных,
+     * иначе возвращает существующую сущность (неключевые поля существующей сущности обновляются).
+     * Выполняется одним запросом INSERT ... ON CONFLICT, поэтому повторная передача тех же данных
+     * не приводит к ошибке и не изменяет базу данных.
+     *
+     * @param dto объект DTO с полными сведениями о сущности (id не используется).
+     * @return DTO добавленной или существующей сущности и признак того, что сущность была добавлена.
+     * @throws InsufficientDataException если сведений о сущности недостаточно.
+     */
+    UpsertedEntity<T> upsertEntity(T dto);
+}
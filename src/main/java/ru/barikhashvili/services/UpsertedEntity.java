@@ -0,0 +1,11 @@
+package ru.barikhashvili.services;
+
+/**
+ * Результат сохранения сущности по естественному ключу.
+ *
+ * @param entity   DTO добавленной или существующей сущности.
+ * @param inserted true, если сущность была добавлена.
+ * @param <T>      тип DTO сущности.
+ */
+public record UpsertedEntity<T>(T entity, boolean inserted) {
+}
@@ -0,0 +1,18 @@
+package ru.barikhashvili.services.catalog;
+
+import java.time.Instant;
+
+/**
+ * Неизменяемый снимок списка всех телефонов, заранее сериализованный в JSON и сжатый gzip.
+ *
+ * @param contentHash     MD5 хэш JSON представления каталога, совпадает у снимков с одинаковым содержимым
+ *                        на всех экземплярах приложения.
+ * @param json            список телефонов в формате JSON.
+ * @param gzippedJson     тот же JSON, сжатый gzip.
+ * @param builtAt         момент построения снимка.
+ */
+public record PhoneCatalogSnapshot(String contentHash, byte[] json, byte[] gzippedJson, Instant builtAt) {
+    public String eTag() {
+        return "\"catalog-" + contentHash + "\"";
+    }
+}
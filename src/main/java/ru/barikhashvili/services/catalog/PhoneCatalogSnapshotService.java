@@ -0,0 +1,142 @@
+package ru.barikhashvili.services.catalog;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.AccessLevel;
+import lombok.SneakyThrows;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.DigestUtils;
+import ru.barikhashvili.dto.PhoneDTO;
+import ru.barikhashvili.events.CatalogChangedEvent;
+import ru.barikhashvili.events.RemoteCatalogChangedEvent;
+import ru.barikhashvili.services.CrudService;
+
+import java.io.ByteArrayOutputStream;
+import java.time.Instant;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Хранит актуальный снимок каталога телефонов и перестраивает его в фоновом потоке после
+ * фиксации каждой транзакции, изменившей данные каталога, в том числе на другом экземпляре приложения.
+ * Чтение снимка не обращается к базе данных.
+ * Несколько изменений, зафиксированных во время перестройки, объединяются в одну следующую перестройку.
+ * ETag снимка вычисляется по его содержимому, поэтому экземпляры приложения с одинаковым каталогом
+ * возвращают одинаковый ETag, а перестройка без изменений данных не сбрасывает кэши клиентов.
+ */
+@Service
+@Slf4j
+@FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
+public class PhoneCatalogSnapshotService {
+    CrudService<PhoneDTO, Long> phoneService;
+    ObjectMapper objectMapper;
+    AtomicReference<PhoneCatalogSnapshot> currentSnapshot = new AtomicReference<>();
+    AtomicBoolean rebuildRequested = new AtomicBoolean();
+    ExecutorService rebuildExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        var thread = new Thread(runnable, "catalog-snapshot");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public PhoneCatalogSnapshotService(CrudService<PhoneDTO, Long> phoneService, ObjectMapper objectMapper) {
+        this.phoneService = phoneService;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Возвращает текущий снимок каталога. Если снимок еще не построен (первый запрос после запуска),
+     * перестройка ставится в очередь фонового потока и запрос ожидает ее завершения. Все перестройки
+     * выполняются одним фоновым потоком по очереди, поэтому снимок, построенный по более старым данным,
+     * не может заменить более новый.
+     *
+     * @return актуальный снимок каталога телефонов.
+     */
+    @SneakyThrows
+    public PhoneCatalogSnapshot getSnapshot() {
+        var snapshot = currentSnapshot.get();
+        if (snapshot != null) {
+            return snapshot;
+        }
+        synchronized (this) {
+            snapshot = currentSnapshot.get();
+            if (snapshot != null) {
+                return snapshot;
+            }
+            try {
+                return rebuildExecutor.submit(this::rebuild).get();
+            } catch (ExecutionException exception) {
+                throw exception.getCause();
+            }
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void handleApplicationReady() {
+        requestRebuild();
+    }
+
+    @TransactionalEventListener
+    public void handleCatalogChanged(CatalogChangedEvent event) {
+        requestRebuild();
+    }
+
+    @EventListener
+    public void handleRemoteCatalogChanged(RemoteCatalogChangedEvent event) {
+        requestRebuild();
+    }
+
+    /**
+     * Ставит перестройку снимка в очередь, если она еще не запланирована.
+     */
+    public void requestRebuild() {
+        if (rebuildRequested.compareAndSet(false, true)) {
+            rebuildExecutor.execute(() -> {
+                rebuildRequested.set(false);
+                try {
+                    rebuild();
+                } catch (RuntimeException exception) {
+                    log.error("Failed to rebuild the phone catalog snapshot", exception);
+                }
+            });
+        }
+    }
+
+    @SneakyThrows
+    private PhoneCatalogSnapshot rebuild() {
+        var phones = phoneService.getAllEntities();
+        var json = objectMapper.writeValueAsBytes(phones);
+
+        var contentHash = DigestUtils.md5DigestAsHex(json);
+        var previousSnapshot = currentSnapshot.get();
+        if (previousSnapshot != null && previousSnapshot.contentHash().equals(contentHash)) {
+            log.debug("Phone catalog snapshot {} is unchanged", contentHash);
+            return previousSnapshot;
+        }
+
+        var gzippedJson = new ByteArrayOutputStream(json.length / 4);
+        try (var gzipStream = new GZIPOutputStream(gzippedJson)) {
+            gzipStream.write(json);
+        }
+
+        var snapshot = new PhoneCatalogSnapshot(contentHash, json, gzippedJson.toByteArray(), Instant.now());
+        currentSnapshot.set(snapshot);
+
+        log.info("Phone catalog snapshot {} built: {} phones, {} bytes, {} bytes gzipped",
+                contentHash, phones.size(), json.length, snapshot.gzippedJson().length);
+        return snapshot;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuildExecutor.shutdownNow();
+    }
+}
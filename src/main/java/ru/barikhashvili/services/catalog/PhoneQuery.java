@@ -0,0 +1,26 @@
+package ru.barikhashvili.services.catalog;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Нормализованные параметры запроса списка телефонов. Набор запрошенных полей хранится в отсортированном
+ * виде, поэтому запросы, отличающиеся только порядком или повторами полей, считаются одинаковыми.
+ * Порядок ID сохраняется, так как от него зависит порядок телефонов в ответе.
+ *
+ * @param fields названия запрошенных полей (пустой список - все поля).
+ * @param ids    ID запрошенных телефонов (пустой список - все телефоны).
+ */
+public record PhoneQuery(List<String> fields, List<Long> ids) {
+    public static PhoneQuery all() {
+        return new PhoneQuery(List.of(), List.of());
+    }
+
+    public static PhoneQuery withFields(Set<String> fields) {
+        return new PhoneQuery(fields.stream().sorted().toList(), List.of());
+    }
+
+    public static PhoneQuery byIds(List<Long> ids) {
+        return new PhoneQuery(List.of(), List.copyOf(ids));
+    }
+}
@@ -0,0 +1,137 @@
+package ru.barikhashvili.services.catalog;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.unit.DataSize;
+import ru.barikhashvili.dto.PhoneDTO;
+import ru.barikhashvili.events.CatalogChangedEvent;
+import ru.barikhashvili.events.RemoteCatalogChangedEvent;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Кэширует результаты запросов списка телефонов по нормализованным параметрам запроса.
+ * Ключ кэша включает версию каталога, которая увеличивается после фиксации каждой транзакции,
+ * изменившей каталог (в том числе на другом экземпляре приложения), поэтому результаты, построенные
+ * до изменения, больше не возвращаются.
+ * Одновременные запросы с одинаковым ключом дожидаются одной загрузки из базы данных.
+ * Общий размер кэша ограничен суммарным оценочным размером результатов в памяти, статистика попаданий
+ * публикуется в метриках cache.gets, cache.puts и cache.evictions с тегом cache=phone-query-cache.
+ */
+@Service
+@Slf4j
+@FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
+public class PhoneQueryCache {
+    private static final String CACHE_NAME = "phone-query-cache";
+
+    /*
+     * Оценочные размеры DTO в куче (64-битная JVM со сжатыми указателями), включая вложенные объекты
+     * и обертки чисел. Вес результата вычисляется по количеству телефонов и заполненным связям без
+     * сериализации, поэтому загрузка результата не удваивает работу по его преобразованию в JSON.
+     */
+    private static final int LIST_WEIGHT = 40;
+    private static final int REFERENCE_WEIGHT = 4;
+    private static final int STRING_WEIGHT = 40;
+    private static final int PHONE_WEIGHT = 200;
+    private static final int MANUFACTURER_WEIGHT = 180;
+    private static final int SPECIFICATION_WEIGHT = 850;
+    private static final int CAMERA_WEIGHT = 260;
+    private static final int PHONE_VARIANT_WEIGHT = 180;
+    private static final int PRICE_WEIGHT = 40;
+
+    AtomicLong catalogVersion = new AtomicLong();
+    Cache<Key, CachedPhones> cache;
+
+    public PhoneQueryCache(MeterRegistry meterRegistry,
+                           @Value("${phone-store.query-cache.maximum-size:64MB}") DataSize maximumSize) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maximumSize.toBytes())
+                .weigher((Key key, CachedPhones value) -> value.weight())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    /**
+     * Возвращает результат запроса из кэша или загружает его, если результата для текущей версии
+     * каталога еще нет. Исключения загрузчика не кэшируются и передаются вызывающему коду.
+     *
+     * @param query  нормализованные параметры запроса.
+     * @param loader загрузчик результата из базы данных.
+     * @return список телефонов, соответствующий запросу.
+     */
+    public List<PhoneDTO> getPhones(PhoneQuery query, Supplier<List<PhoneDTO>> loader) {
+        var key = new Key(catalogVersion.get(), query);
+        return cache.get(key, ignored -> load(loader)).phones();
+    }
+
+    @TransactionalEventListener
+    public void handleCatalogChanged(CatalogChangedEvent event) {
+        invalidate();
+    }
+
+    @EventListener
+    public void handleRemoteCatalogChanged(RemoteCatalogChangedEvent event) {
+        invalidate();
+    }
+
+    private void invalidate() {
+        var version = catalogVersion.incrementAndGet();
+        cache.invalidateAll();
+        log.debug("Phone query cache invalidated, catalog version {}", version);
+    }
+
+    private CachedPhones load(Supplier<List<PhoneDTO>> loader) {
+        var phones = List.copyOf(loader.get());
+        return new CachedPhones(phones, (int) Math.min(Integer.MAX_VALUE, estimateWeight(phones)));
+    }
+
+    /**
+     * Оценивает размер списка телефонов в памяти по количеству телефонов, длине названий моделей
+     * и заполненным полям (незапрошенные связи в результатах с ограниченным набором полей равны null).
+     */
+    private static long estimateWeight(List<PhoneDTO> phones) {
+        long weight = LIST_WEIGHT;
+        for (var phone : phones) {
+            weight += REFERENCE_WEIGHT + PHONE_WEIGHT;
+            if (phone.getModel() != null) {
+                weight += STRING_WEIGHT + phone.getModel().length();
+            }
+            if (phone.getManufacturer() != null) {
+                weight += MANUFACTURER_WEIGHT;
+            }
+            var specification = phone.getSpecification();
+            if (specification != null) {
+                weight += SPECIFICATION_WEIGHT;
+                if (specification.getCameras() != null) {
+                    weight += (long) specification.getCameras().size() * (REFERENCE_WEIGHT + CAMERA_WEIGHT);
+                }
+            }
+            if (phone.getPhoneVariants() != null) {
+                weight += LIST_WEIGHT
+                        + (long) phone.getPhoneVariants().size() * (REFERENCE_WEIGHT + PHONE_VARIANT_WEIGHT);
+            }
+            if (phone.getMinPrice() != null) {
+                weight += PRICE_WEIGHT;
+            }
+        }
+        return weight;
+    }
+
+    private record Key(long catalogVersion, PhoneQuery query) {
+    }
+
+    private record CachedPhones(List<PhoneDTO> phones, int weight) {
+    }
+}
@@ -0,0 +1,85 @@
+package ru.barikhashvili.services.catalog;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Cache;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.barikhashvili.entities.specs.PhoneSpecificationEntity;
+import ru.barikhashvili.events.CatalogChangedEvent;
+import ru.barikhashvili.events.ChangeType;
+import ru.barikhashvili.events.RemoteCatalogChangedEvent;
+
+/**
+ * Удаляет из кэша второго уровня Hibernate записи, измененные в обход сессии Hibernate: запросами
+ * DELETE ... RETURNING, INSERT ... ON CONFLICT и загрузкой телефонов через COPY.
+ * Удаление записи или изменение сразу нескольких записей может затронуть связанные записи через
+ * ON DELETE CASCADE, поэтому в этих случаях очищаются все регионы кэша.
+ * Записи, измененные другими экземплярами приложения, удаляются по уведомлениям CatalogInvalidationBus.
+ * Удаленная запись также отсоединяется от контекста персистентности текущей транзакции, чтобы последующие
+ * обращения в той же транзакции не возвращали уже удаленную сущность.
+ */
+@Component
+@Slf4j
+@FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
+public class SecondLevelCacheEvictor {
+    private static final String SPECIFICATION_CAMERAS_ROLE = PhoneSpecificationEntity.class.getName() + ".cameras";
+
+    EntityManagerFactory entityManagerFactory;
+
+    public SecondLevelCacheEvictor(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @TransactionalEventListener
+    public void handleCatalogChanged(CatalogChangedEvent event) {
+        evict(event);
+    }
+
+    @EventListener
+    public void handleCatalogChangedInTransaction(CatalogChangedEvent event) {
+        if (event.changeType() != ChangeType.REMOVED || event.entityId() == null) {
+            return;
+        }
+        var entityManager = EntityManagerFactoryUtils.getTransactionalEntityManager(entityManagerFactory);
+        if (entityManager != null) {
+            entityManager.detach(entityManager.getReference(event.entityType(), event.entityId()));
+        }
+    }
+
+    @EventListener
+    public void handleRemoteCatalogChanged(RemoteCatalogChangedEvent event) {
+        if (event.notificationsLost()) {
+            log.debug("Evicting all second-level cache regions after lost catalog invalidations");
+            cache().evictAllRegions();
+            return;
+        }
+        event.changes().forEach(this::evict);
+    }
+
+    private void evict(CatalogChangedEvent event) {
+        var cache = cache();
+        if (event.changeType() == ChangeType.REMOVED || event.entityId() == null) {
+            log.debug("Evicting all second-level cache regions after {}", event);
+            cache.evictAllRegions();
+            return;
+        }
+
+        cache.evictEntityData(event.entityType(), event.entityId());
+        if (event.entityType() == PhoneSpecificationEntity.class) {
+            cache.evictCollectionData(SPECIFICATION_CAMERAS_ROLE, event.entityId());
+        }
+    }
+
+    /**
+     * Возвращает кэш второго уровня при обработке события, а не при создании бина, чтобы не ожидать
+     * инициализации фабрики EntityManager, которая выполняется в фоне параллельно с остальным контекстом.
+     */
+    private Cache cache() {
+        return entityManagerFactory.getCache().unwrap(Cache.class);
+    }
+}
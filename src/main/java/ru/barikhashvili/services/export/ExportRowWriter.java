@@ -0,0 +1,123 @@
+package ru.barikhashvili.services.export;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import ru.barikhashvili.services.utils.CatalogFileFormat;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Построчно записывает выгружаемые данные в выходной поток. Каждая строка записывается сразу
+ * после чтения из базы данных, поэтому объем используемой памяти не зависит от количества строк.
+ */
+interface ExportRowWriter extends Closeable {
+    int BUFFER_SIZE = 64 * 1024;
+
+    void writeHeader(List<String> columns) throws IOException;
+
+    void writeRow(Object[] values) throws IOException;
+
+    static ExportRowWriter create(CatalogFileFormat format, JsonFactory jsonFactory, OutputStream outputStream)
+            throws IOException {
+        return switch (format) {
+            case NDJSON -> new NdjsonRowWriter(jsonFactory, outputStream);
+            case CSV -> new CsvRowWriter(outputStream);
+        };
+    }
+
+    final class NdjsonRowWriter implements ExportRowWriter {
+        private final JsonGenerator generator;
+        private List<String> columns;
+
+        NdjsonRowWriter(JsonFactory jsonFactory, OutputStream outputStream) throws IOException {
+            this.generator = jsonFactory.createGenerator(outputStream)
+                    .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            this.generator.setPrettyPrinter(new MinimalPrettyPrinter("\n"));
+        }
+
+        @Override
+        public void writeHeader(List<String> columns) {
+            this.columns = columns;
+        }
+
+        @Override
+        public void writeRow(Object[] values) throws IOException {
+            generator.writeStartObject();
+            for (int i = 0; i < values.length; i++) {
+                generator.writeFieldName(columns.get(i));
+                var value = values[i];
+                if (value == null) {
+                    generator.writeNull();
+                } else if (value instanceof BigDecimal decimal) {
+                    generator.writeNumber(decimal);
+                } else if (value instanceof Integer number) {
+                    generator.writeNumber(number);
+                } else if (value instanceof Long number) {
+                    generator.writeNumber(number);
+                } else if (value instanceof Boolean flag) {
+                    generator.writeBoolean(flag);
+                } else {
+                    generator.writeString(value.toString());
+                }
+            }
+            generator.writeEndObject();
+        }
+
+        @Override
+        public void close() throws IOException {
+            generator.writeRaw('\n');
+            generator.close();
+        }
+    }
+
+    final class CsvRowWriter implements ExportRowWriter {
+        private final BufferedWriter writer;
+
+        CsvRowWriter(OutputStream outputStream) {
+            this.writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), BUFFER_SIZE);
+        }
+
+        @Override
+        public void writeHeader(List<String> columns) throws IOException {
+            writeRow(columns.toArray());
+        }
+
+        @Override
+        public void writeRow(Object[] values) throws IOException {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                if (values[i] != null) {
+                    writeCell(values[i].toString());
+                }
+            }
+            writer.write("\r\n");
+        }
+
+        private void writeCell(String cell) throws IOException {
+            var isQuotingRequired = cell.indexOf(',') >= 0 || cell.indexOf('"') >= 0
+                    || cell.indexOf('\n') >= 0 || cell.indexOf('\r') >= 0;
+            if (!isQuotingRequired) {
+                writer.write(cell);
+                return;
+            }
+            writer.write('"');
+            writer.write(cell.replace("\"", "\"\""));
+            writer.write('"');
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.flush();
+        }
+    }
+}
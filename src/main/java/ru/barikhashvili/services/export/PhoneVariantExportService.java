@@ -0,0 +1,247 @@
+package ru.barikhashvili.services.export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.barikhashvili.entities.specs.enums.*;
+import ru.barikhashvili.exceptions.ExportInProgressException;
+import ru.barikhashvili.services.utils.CatalogFileFormat;
+
+import javax.sql.DataSource;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Collectors;
+
+/**
+ * Выгружает все варианты телефонов вместе с полными характеристиками, ценой и количеством.
+ * Строки читаются из базы данных серверным курсором порциями по {@code fetchSize} строк и сразу
+ * записываются в выходной поток HTTP ответа. Запись в поток блокируется, пока клиент не прочитает
+ * предыдущие данные, поэтому скорость чтения из базы данных ограничена скоростью клиента, а объем
+ * используемой памяти не зависит от размера каталога.
+ * Количество одновременно выполняемых выгрузок ограничено, чтобы выгрузка не занимала соединения
+ * пула, необходимые для обработки остальных запросов.
+ */
+@Service
+@Slf4j
+@FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
+public class PhoneVariantExportService {
+    private static final String EXPORT_QUERY = """
+            SELECT pv.id AS phone_variant_id,
+                   p.id AS phone_id,
+                   p.model,
+                   m.name AS manufacturer,
+                   co.name AS manufacturer_country,
+                   p.release_date,
+                   v.ram_size,
+                   v.rom_size,
+                   v.color,
+                   pv.price,
+                   pv.quantity,
+                   s.network_type,
+                   s.sim_count,
+                   s.has_wifi,
+                   s.has_nfc,
+                   s.has_bluetooth,
+                   s.height,
+                   s.width,
+                   s.thickness,
+                   s.weight,
+                   s.material,
+                   s.charger_type,
+                   os.name AS operating_system,
+                   os.version AS operating_system_version,
+                   d.diagonal AS display_diagonal,
+                   r.horizontal_pixels AS display_horizontal_pixels,
+                   r.vertical_pixels AS display_vertical_pixels,
+                   d.refresh_rate AS display_refresh_rate,
+                   d.display_type,
+                   pr.model AS processor,
+                   pr.cores AS processor_cores,
+                   pr.max_frequency AS processor_max_frequency,
+                   pr.technology_node AS processor_technology_node,
+                   b.capacity AS battery_capacity,
+                   b.battery_type,
+                   (SELECT string_agg(c.camera_type || ':' || c.has_optical_stabilization || ':' || cs.sensor_name, ';'
+                                      ORDER BY c.camera_type, c.id)
+                    FROM specifications_cameras sc
+                             JOIN cameras c ON c.id = sc.camera_id
+                             JOIN camera_sensors cs ON cs.id = c.sensor_id
+                    WHERE sc.specification_id = s.id) AS camera_modules
+            FROM phones_variants pv
+                     JOIN phones p ON p.id = pv.phone_id
+                     JOIN variants v ON v.id = pv.variant_id
+                     JOIN phone_specs s ON s.id = p.specification_id
+                     LEFT JOIN manufacturers m ON m.id = p.manufacturer_id
+                     LEFT JOIN countries co ON co.id = m.country_id
+                     LEFT JOIN operating_systems os ON os.id = s.operating_system_id
+                     LEFT JOIN displays d ON d.id = s.display_id
+                     LEFT JOIN screen_resolutions r ON r.id = d.resolution_id
+                     LEFT JOIN processors pr ON pr.id = s.processor_id
+                     LEFT JOIN batteries b ON b.id = s.battery_id
+            ORDER BY pv.id
+            """;
+
+    private static final Map<String, Enum<?>[]> ENUM_COLUMNS = Map.of(
+            "color", Color.values(),
+            "network_type", NetworkType.values(),
+            "material", MaterialType.values(),
+            "charger_type", ChargerType.values(),
+            "display_type", DisplayType.values(),
+            "battery_type", BatteryType.values());
+
+    private static final String CAMERA_MODULES_COLUMN = "camera_modules";
+
+    JdbcTemplate jdbcTemplate;
+    TransactionTemplate transactionTemplate;
+    ObjectMapper objectMapper;
+    Semaphore exportPermits;
+
+    public PhoneVariantExportService(DataSource dataSource,
+                                     PlatformTransactionManager transactionManager,
+                                     ObjectMapper objectMapper,
+                                     @Value("${phone-store.export.fetch-size:1000}") int fetchSize,
+                                     @Value("${phone-store.export.max-concurrent-exports:1}") int maxConcurrentExports) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.objectMapper = objectMapper;
+        this.exportPermits = new Semaphore(maxConcurrentExports);
+    }
+
+    /**
+     * Резервирует место для выгрузки и возвращает тело ответа, которое при записи выгружает
+     * все варианты телефонов в указанном формате.
+     *
+     * @param format формат выгрузки.
+     * @return тело ответа, построчно записывающее данные в выходной поток.
+     * @throws ExportInProgressException если уже выполняется максимальное количество выгрузок.
+     */
+    public StreamingResponseBody exportPhoneVariants(CatalogFileFormat format) {
+        if (!exportPermits.tryAcquire()) {
+            throw new ExportInProgressException("The maximum number of concurrent exports is already running");
+        }
+        return outputStream -> {
+            try {
+                var bufferedStream = new BufferedOutputStream(outputStream, ExportRowWriter.BUFFER_SIZE);
+                try (var rowWriter = ExportRowWriter.create(format, objectMapper.getFactory(), bufferedStream)) {
+                    var rowCount = writeRows(rowWriter);
+                    log.info("Exported {} phone variants in {} format", rowCount, format);
+                }
+                bufferedStream.flush();
+            } finally {
+                exportPermits.release();
+            }
+        };
+    }
+
+    private long writeRows(ExportRowWriter rowWriter) {
+        // Серверный курсор PostgreSQL используется только при отключенном autocommit, то есть внутри транзакции
+        var rowCount = transactionTemplate.execute(status ->
+                jdbcTemplate.query(EXPORT_QUERY, new ExportRowExtractor(rowWriter)));
+        return rowCount == null ? 0 : rowCount;
+    }
+
+    /**
+     * Записывает заголовок по метаданным результата запроса до чтения первой строки, поэтому выгрузка
+     * пустого каталога в формате CSV содержит строку заголовка.
+     */
+    private static final class ExportRowExtractor implements ResultSetExtractor<Long> {
+        private final ExportRowWriter rowWriter;
+        private Enum<?>[][] enumValuesByColumn;
+        private int cameraModulesIndex = -1;
+        private Object[] values;
+
+        private ExportRowExtractor(ExportRowWriter rowWriter) {
+            this.rowWriter = rowWriter;
+        }
+
+        @Override
+        public Long extractData(ResultSet resultSet) throws SQLException {
+            readColumns(resultSet);
+            long rowCount = 0;
+            while (resultSet.next()) {
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = readValue(resultSet, i);
+                }
+                try {
+                    rowWriter.writeRow(values);
+                } catch (IOException exception) {
+                    throw new UncheckedIOException(exception);
+                }
+                rowCount++;
+            }
+            return rowCount;
+        }
+
+        private void readColumns(ResultSet resultSet) throws SQLException {
+            var metaData = resultSet.getMetaData();
+            var columnCount = metaData.getColumnCount();
+            var columns = new String[columnCount];
+            enumValuesByColumn = new Enum<?>[columnCount][];
+            for (int i = 0; i < columnCount; i++) {
+                columns[i] = metaData.getColumnLabel(i + 1);
+                enumValuesByColumn[i] = ENUM_COLUMNS.get(columns[i]);
+                if (CAMERA_MODULES_COLUMN.equals(columns[i])) {
+                    cameraModulesIndex = i;
+                }
+            }
+            values = new Object[columnCount];
+            try {
+                rowWriter.writeHeader(List.of(columns));
+            } catch (IOException exception) {
+                throw new UncheckedIOException(exception);
+            }
+        }
+
+        private Object readValue(ResultSet resultSet, int index) throws SQLException {
+            var value = resultSet.getObject(index + 1);
+            if (value == null) {
+                return null;
+            }
+            if (enumValuesByColumn[index] != null) {
+                return enumValuesByColumn[index][((Number) value).intValue()].name();
+            }
+            if (index == cameraModulesIndex) {
+                return toCameraTypeNames((String) value);
+            }
+            if (value instanceof Timestamp timestamp) {
+                return timestamp.toLocalDateTime();
+            }
+            if (value instanceof Short number) {
+                return number.intValue();
+            }
+            return value;
+        }
+
+        /**
+         * Заменяет порядковые номера типов камер в модулях {@code тип:стабилизация:сенсор} их названиями,
+         * чтобы столбец camera_modules совпадал с форматом, который принимает загрузка каталога.
+         */
+        private static String toCameraTypeNames(String cameraModules) {
+            return Arrays.stream(cameraModules.split(";"))
+                    .map(cameraModule -> {
+                        var separatorIndex = cameraModule.indexOf(':');
+                        var cameraType = CameraType.values()[Integer.parseInt(cameraModule.substring(0, separatorIndex))];
+                        return cameraType.name() + cameraModule.substring(separatorIndex);
+                    })
+                    .collect(Collectors.joining(";"));
+        }
+    }
+}
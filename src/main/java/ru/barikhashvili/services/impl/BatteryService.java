@@ -4,32 +4,48 @@ import lombok.AccessLevel;
 import lombok.experimental.FieldDefaults;
 import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.barikhashvili.dto.specs.BatteryDTO;
 import ru.barikhashvili.entities.specs.BatteryEntity;
+import ru.barikhashvili.events.CatalogChangedEvent;
 import ru.barikhashvili.exceptions.InsufficientDataException;
 import ru.barikhashvili.exceptions.ResourceNotFoundException;
+import ru.barikhashvili.exceptions.ResourcesNotFoundException;
 import ru.barikhashvili.repositories.BatteryRepository;
 import ru.barikhashvili.services.CrudService;
 import ru.barikhashvili.services.EntityExtractor;
+import ru.barikhashvili.services.UpsertService;
+import ru.barikhashvili.services.UpsertedEntity;
+import ru.barikhashvili.services.utils.BatchEntityLoader;
+import ru.barikhashvili.services.utils.DeletedEntityReader;
+import ru.barikhashvili.services.utils.NaturalKeyUpsert;
 
+import java.util.LinkedHashSet;
 import java.util.List;
 
 @Service
 @FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
-public class BatteryService implements CrudService<BatteryDTO, Integer>,
+public class BatteryService implements CrudService<BatteryDTO, Integer>, UpsertService<BatteryDTO>,
         EntityExtractor<BatteryDTO, BatteryEntity, Integer> {
     BatteryRepository batteryRepository;
+    DeletedEntityReader deletedEntityReader;
     ModelMapper mapper;
     ModelMapper nullableMapper;
+    ApplicationEventPublisher eventPublisher;
 
     public BatteryService(BatteryRepository batteryRepository,
+                          DeletedEntityReader deletedEntityReader,
                           @Qualifier("modelMapper") ModelMapper mapper,
-                          @Qualifier("nullableModelMapper") ModelMapper nullableMapper) {
+                          @Lazy @Qualifier("nullableModelMapper") ModelMapper nullableMapper,
+                          ApplicationEventPublisher eventPublisher) {
         this.batteryRepository = batteryRepository;
+        this.deletedEntityReader = deletedEntityReader;
         this.mapper = mapper;
         this.nullableMapper = nullableMapper;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -47,9 +63,35 @@ public class BatteryService implements CrudService<BatteryDTO, Integer>,
         var transientBattery = mapper.map(batteryDTO, BatteryEntity.class);
         var persistentBattery = batteryRepository.save(transientBattery);
 
+        eventPublisher.publishEvent(CatalogChangedEvent.created(BatteryEntity.class, persistentBattery.getId()));
         return mapper.map(persistentBattery, BatteryDTO.class);
     }
 
+    /**
+     * Добавляет аккумулятор, если аккумулятора с такими же ёмкостью и типом еще нет в базе данных,
+     * иначе возвращает существующий аккумулятор.
+     *
+     * @param batteryDTO объект DTO со сведениями об аккумуляторе (DTO должен содержать полные сведения).
+     * @return DTO добавленного или существующего аккумулятора и признак того, что аккумулятор был добавлен.
+     * @throws InsufficientDataException если сведения об аккумуляторе отсутствуют.
+     */
+    @Override
+    @Transactional
+    public UpsertedEntity<BatteryDTO> upsertEntity(BatteryDTO batteryDTO) {
+        var transientBattery = mapper.map(batteryDTO, BatteryEntity.class);
+
+        var upsertResult = NaturalKeyUpsert.execute(() -> batteryRepository.upsert(
+                transientBattery.getCapacity(), transientBattery.getBatteryType().ordinal()));
+        transientBattery.setId(upsertResult.getId());
+
+        if (upsertResult.getChanged()) {
+            eventPublisher.publishEvent(upsertResult.getInserted()
+                    ? CatalogChangedEvent.created(BatteryEntity.class, upsertResult.getId())
+                    : CatalogChangedEvent.updated(BatteryEntity.class, upsertResult.getId()));
+        }
+        return new UpsertedEntity<>(mapper.map(transientBattery, BatteryDTO.class), upsertResult.getInserted());
+    }
+
     /**
      * Находит и возвращает данные об аккумуляторе с указанным идентификатором в виде DTO.
      *
@@ -58,6 +100,7 @@ public class BatteryService implements CrudService<BatteryDTO, Integer>,
      * @throws ResourceNotFoundException если аккумулятор с указанным id не найден в базе данных
      */
     @Override
+    @Transactional(readOnly = true)
     public BatteryDTO getEntityById(Integer batteryId) {
         var persistentBattery = getPersistentEntityById(batteryId);
         return mapper.map(persistentBattery, BatteryDTO.class);
@@ -69,6 +112,7 @@ public class BatteryService implements CrudService<BatteryDTO, Integer>,
      * @return список BatteryDTO с полными сведениями о всех аккумуляторах из базы данных.
      */
     @Override
+    @Transactional(readOnly = true)
     public List<BatteryDTO> getAllEntities() {
         var persistentBatteries = batteryRepository.findAllByOrderByCapacity();
         return persistentBatteries.stream()
@@ -76,6 +120,25 @@ public class BatteryService implements CrudService<BatteryDTO, Integer>,
                 .toList();
     }
 
+    /**
+     * Находит и возвращает аккумуляторы с указанными идентификаторами за один запрос к базе данных.
+     * Порядок элементов в возвращаемом списке совпадает с порядком идентификаторов в batteryIds.
+     *
+     * @param batteryIds список уникальных идентификаторов аккумуляторов, которые необходимо найти.
+     * @return список BatteryDTO с полными сведениями об аккумуляторах в порядке следования идентификаторов.
+     * @throws InsufficientDataException если список идентификаторов пуст или содержит null.
+     * @throws ResourcesNotFoundException если хотя бы один аккумулятор не найден (исключение содержит все отсутствующие id).
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<BatteryDTO> getEntitiesByIds(List<Integer> batteryIds) {
+        var persistentBatteries = BatchEntityLoader.findAllByIdsInRequestedOrder(
+                batteryRepository, batteryIds, BatteryEntity::getId, "Battery");
+        return persistentBatteries.stream()
+                .map(battery -> mapper.map(battery, BatteryDTO.class))
+                .toList();
+    }
+
     /**
      * Удаляет аккумулятор с указанным id из базы данных и возвращает DTO с данными
      * об удаленном аккумуляторе.
@@ -86,11 +149,35 @@ public class BatteryService implements CrudService<BatteryDTO, Integer>,
     @Override
     @Transactional
     public BatteryDTO removeEntityById(Integer batteryId) {
-        var removedBattery = getEntityById(batteryId);
-        batteryRepository.deleteById(batteryId);
+        var removedBattery = batteryRepository.deleteByIdReturningJson(batteryId)
+                .map(json -> deletedEntityReader.readDto(json, BatteryDTO.class))
+                .orElseThrow(() -> new ResourceNotFoundException("Battery not found"));
+        eventPublisher.publishEvent(CatalogChangedEvent.removed(BatteryEntity.class, batteryId));
         return removedBattery;
     }
 
+    /**
+     * Удаляет аккумуляторы с указанными идентификаторами одним запросом DELETE ... RETURNING и возвращает
+     * сведения об удаленных аккумуляторах в порядке следования идентификаторов.
+     * Если хотя бы один идентификатор не найден, то ни одна запись не удаляется.
+     *
+     * @param batteryIds список уникальных идентификаторов, которые необходимо удалить.
+     * @return список BatteryDTO с данными об удаленных аккумуляторах.
+     * @throws InsufficientDataException  если список идентификаторов пуст или содержит null.
+     * @throws ResourcesNotFoundException если хотя бы один аккумулятор не найден (исключение содержит все отсутствующие id).
+     */
+    @Override
+    @Transactional
+    public List<BatteryDTO> removeEntitiesByIds(List<Integer> batteryIds) {
+        BatchEntityLoader.checkIds(batteryIds);
+        var removedJsons = batteryRepository.deleteAllByIdReturningJson(new LinkedHashSet<>(batteryIds));
+        var removedBatteries = deletedEntityReader.readDtosInRequestedOrder(
+                removedJsons, BatteryDTO.class, batteryIds, BatteryDTO::getId, "Battery");
+        new LinkedHashSet<>(batteryIds).forEach(removedId ->
+                eventPublisher.publishEvent(CatalogChangedEvent.removed(BatteryEntity.class, removedId)));
+        return removedBatteries;
+    }
+
     /**
      * Полностью обновляет информацию об аккумуляторе в базе данных и возвращает DTO объект с обновленной информацией.
      * Этот метод требует, чтобы полученный в аргументе batteryDTO содержал полную информацию об аккумуляторе.
@@ -108,6 +195,7 @@ public class BatteryService implements CrudService<BatteryDTO, Integer>,
         var persistentBattery = getPersistentEntityById(batteryId);
         mapper.map(batteryDTO, persistentBattery);
         batteryRepository.save(persistentBattery);
+        eventPublisher.publishEvent(CatalogChangedEvent.updated(BatteryEntity.class, batteryId));
         return mapper.map(persistentBattery, BatteryDTO.class);
     }
 
@@ -128,6 +216,7 @@ public class BatteryService implements CrudService<BatteryDTO, Integer>,
         var persistentBattery = getPersistentEntityById(batteryId);
         nullableMapper.map(batteryDTO, persistentBattery);
         batteryRepository.save(persistentBattery);
+        eventPublisher.publishEvent(CatalogChangedEvent.updated(BatteryEntity.class, batteryId));
         return mapper.map(persistentBattery, BatteryDTO.class);
     }
 
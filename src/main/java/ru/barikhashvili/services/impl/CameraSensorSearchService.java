@@ -0,0 +1,112 @@
+package ru.barikhashvili.services.impl;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.modelmapper.ModelMapper;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.barikhashvili.dto.specs.CameraSensorDTO;
+import ru.barikhashvili.dto.specs.CameraSensorPageDTO;
+import ru.barikhashvili.dto.specs.CameraSensorUsageDTO;
+import ru.barikhashvili.exceptions.InsufficientDataException;
+import ru.barikhashvili.repositories.CameraSensorRepository;
+import ru.barikhashvili.repositories.projections.SensorSpecificationCount;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Поиск сенсоров камер по диапазону мегапикселей с постраничной выдачей по ключу (keyset pagination)
+ * и подсчет характеристик телефонов, использующих сенсоры.
+ */
+@Service
+@FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
+public class CameraSensorSearchService {
+    public static final int MAX_PAGE_SIZE = 100;
+    public static final BigDecimal MIN_MEGAPIXELS = BigDecimal.ZERO;
+    public static final BigDecimal MAX_MEGAPIXELS = new BigDecimal("999.99");
+
+    CameraSensorRepository cameraSensorRepository;
+    ModelMapper mapper;
+
+    public CameraSensorSearchService(CameraSensorRepository cameraSensorRepository,
+                                     @Qualifier("modelMapper") ModelMapper mapper) {
+        this.cameraSensorRepository = cameraSensorRepository;
+        this.mapper = mapper;
+    }
+
+    /**
+     * Находит страницу сенсоров камер с количеством мегапикселей в указанном диапазоне, упорядоченных
+     * по мегапикселям (при равенстве - по идентификатору). Следующая страница запрашивается с ключом
+     * последнего сенсора предыдущей страницы, поэтому стоимость запроса не зависит от номера страницы.
+     *
+     * @param minMegapixels   минимальное количество мегапикселей (включительно), null - без ограничения.
+     * @param maxMegapixels   максимальное количество мегапикселей (включительно), null - без ограничения.
+     * @param direction       направление сортировки по мегапикселям.
+     * @param afterMegapixels количество мегапикселей последнего сенсора предыдущей страницы (null - первая страница).
+     * @param afterId         идентификатор последнего сенсора предыдущей страницы (null - первая страница).
+     * @param limit           максимальное количество сенсоров на странице (не больше {@value #MAX_PAGE_SIZE}).
+     * @return сенсоры камер и ключ, который необходимо передать для получения следующей страницы
+     * (ключ отсутствует, если страница последняя).
+     * @throws InsufficientDataException если указан только один из параметров afterMegapixels и afterId.
+     */
+    @Transactional(readOnly = true)
+    public CameraSensorPageDTO findByMegapixels(BigDecimal minMegapixels, BigDecimal maxMegapixels,
+                                                Sort.Direction direction, BigDecimal afterMegapixels,
+                                                Integer afterId, int limit) {
+        if ((afterMegapixels == null) != (afterId == null)) {
+            throw new InsufficientDataException("Both afterMegapixels and afterId must be specified");
+        }
+        var min = minMegapixels == null ? MIN_MEGAPIXELS : minMegapixels;
+        var max = maxMegapixels == null ? MAX_MEGAPIXELS : maxMegapixels;
+        var pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        var pageLimit = Limit.of(pageSize + 1);
+
+        var persistentCameraSensors = switch (direction) {
+            case ASC -> afterId == null
+                    ? cameraSensorRepository.findByMegapixelsRangeAsc(min, max, pageLimit)
+                    : cameraSensorRepository.findByMegapixelsRangeAscAfter(min, max, afterMegapixels, afterId,
+                    pageLimit);
+            case DESC -> afterId == null
+                    ? cameraSensorRepository.findByMegapixelsRangeDesc(min, max, pageLimit)
+                    : cameraSensorRepository.findByMegapixelsRangeDescAfter(min, max, afterMegapixels, afterId,
+                    pageLimit);
+        };
+
+        var hasNextPage = persistentCameraSensors.size() > pageSize;
+        var cameraSensors = persistentCameraSensors.stream()
+                .limit(pageSize)
+                .map(cameraSensor -> mapper.map(cameraSensor, CameraSensorDTO.class))
+                .toList();
+        if (!hasNextPage) {
+            return CameraSensorPageDTO.of(cameraSensors, null, null);
+        }
+        var lastCameraSensor = cameraSensors.get(cameraSensors.size() - 1);
+        return CameraSensorPageDTO.of(cameraSensors, lastCameraSensor.getMegapixels(), lastCameraSensor.getId());
+    }
+
+    /**
+     * Подсчитывает для каждого указанного сенсора количество характеристик телефонов, в которых используется
+     * камера с этим сенсором. Коллекции камер сенсоров при этом не загружаются.
+     *
+     * @param sensorIds идентификаторы сенсоров камер.
+     * @return количество характеристик для каждого сенсора в порядке идентификаторов в sensorIds
+     * (для неиспользуемых и несуществующих сенсоров - 0).
+     */
+    @Transactional(readOnly = true)
+    public List<CameraSensorUsageDTO> getSpecificationCounts(List<Integer> sensorIds) {
+        var uniqueSensorIds = new LinkedHashSet<>(sensorIds);
+        var specificationCounts = cameraSensorRepository.countSpecificationsBySensorIds(uniqueSensorIds)
+                .stream()
+                .collect(Collectors.toMap(SensorSpecificationCount::getSensorId,
+                        SensorSpecificationCount::getSpecificationCount));
+        return uniqueSensorIds.stream()
+                .map(sensorId -> CameraSensorUsageDTO.of(sensorId, specificationCounts.getOrDefault(sensorId, 0L)))
+                .toList();
+    }
+}
@@ -4,32 +4,48 @@ import lombok.AccessLevel;
 import lombok.experimental.FieldDefaults;
 import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.barikhashvili.dto.specs.CameraSensorDTO;
 import ru.barikhashvili.entities.specs.CameraSensorEntity;
+import ru.barikhashvili.events.CatalogChangedEvent;
 import ru.barikhashvili.exceptions.InsufficientDataException;
 import ru.barikhashvili.exceptions.ResourceNotFoundException;
+import ru.barikhashvili.exceptions.ResourcesNotFoundException;
 import ru.barikhashvili.repositories.CameraSensorRepository;
 import ru.barikhashvili.services.CrudService;
 import ru.barikhashvili.services.EntityExtractor;
+import ru.barikhashvili.services.UpsertService;
+import ru.barikhashvili.services.UpsertedEntity;
+import ru.barikhashvili.services.utils.BatchEntityLoader;
+import ru.barikhashvili.services.utils.DeletedEntityReader;
+import ru.barikhashvili.services.utils.NaturalKeyUpsert;
 
+import java.util.LinkedHashSet;
 import java.util.List;
 
 @Service
 @FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
-public class CameraSensorService implements CrudService<CameraSensorDTO, Integer>,
+public class CameraSensorService implements CrudService<CameraSensorDTO, Integer>, UpsertService<CameraSensorDTO>,
         EntityExtractor<CameraSensorDTO, CameraSensorEntity, Integer> {
     CameraSensorRepository cameraSensorRepository;
+    DeletedEntityReader deletedEntityReader;
     ModelMapper mapper;
     ModelMapper nullableMapper;
+    ApplicationEventPublisher eventPublisher;
 
     public CameraSensorService(CameraSensorRepository cameraSensorRepository,
+                            DeletedEntityReader deletedEntityReader,
                             @Qualifier("modelMapper") ModelMapper mapper,
-                            @Qualifier("nullableModelMapper") ModelMapper nullableMapper) {
+                            @Lazy @Qualifier("nullableModelMapper") ModelMapper nullableMapper,
+                            ApplicationEventPublisher eventPublisher) {
         this.cameraSensorRepository = cameraSensorRepository;
+        this.deletedEntityReader = deletedEntityReader;
         this.mapper = mapper;
         this.nullableMapper = nullableMapper;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -47,9 +63,36 @@ public class CameraSensorService implements CrudService<CameraSensorDTO, Integer
         var transientCameraSensor = mapper.map(cameraSensorDTO, CameraSensorEntity.class);
         var persistentCameraSensor = cameraSensorRepository.save(transientCameraSensor);
 
+        eventPublisher.publishEvent(CatalogChangedEvent.created(CameraSensorEntity.class, persistentCameraSensor.getId()));
         return mapper.map(persistentCameraSensor, CameraSensorDTO.class);
     }
 
+    /**
+     * Добавляет сенсор камеры, если сенсора с таким же названием еще нет в базе данных, иначе обновляет
+     * характеристики существующего сенсора (если они отличаются) и возвращает его.
+     *
+     * @param cameraSensorDTO объект DTO со сведениями о сенсоре камеры (DTO должен содержать полные сведения).
+     * @return DTO добавленного или существующего сенсора камеры и признак того, что сенсор камеры был добавлен.
+     * @throws InsufficientDataException если сведения о сенсоре камеры отсутствуют.
+     */
+    @Override
+    @Transactional
+    public UpsertedEntity<CameraSensorDTO> upsertEntity(CameraSensorDTO cameraSensorDTO) {
+        var transientCameraSensor = mapper.map(cameraSensorDTO, CameraSensorEntity.class);
+
+        var upsertResult = NaturalKeyUpsert.execute(() -> cameraSensorRepository.upsert(
+                transientCameraSensor.getSensorName(), transientCameraSensor.getMegapixels(),
+                transientCameraSensor.getMatrixSize(), transientCameraSensor.getPixelSize()));
+        transientCameraSensor.setId(upsertResult.getId());
+
+        if (upsertResult.getChanged()) {
+            eventPublisher.publishEvent(upsertResult.getInserted()
+                    ? CatalogChangedEvent.created(CameraSensorEntity.class, upsertResult.getId())
+                    : CatalogChangedEvent.updated(CameraSensorEntity.class, upsertResult.getId()));
+        }
+        return new UpsertedEntity<>(mapper.map(transientCameraSensor, CameraSensorDTO.class), upsertResult.getInserted());
+    }
+
     /**
      * Находит и возвращает данные о сенсоре камеры с указанным идентификатором.
      *
@@ -58,6 +101,7 @@ public class CameraSensorService implements CrudService<CameraSensorDTO, Integer
      * @throws ResourceNotFoundException если сенсор камеры с указанным id не найден в базе данных
      */
     @Override
+    @Transactional(readOnly = true)
     public CameraSensorDTO getEntityById(Integer id) {
         var persistentCameraSensor = getPersistentEntityById(id);
         return mapper.map(persistentCameraSensor, CameraSensorDTO.class);
@@ -70,6 +114,7 @@ public class CameraSensorService implements CrudService<CameraSensorDTO, Integer
      * @return список CameraSensorDTO с полными сведениями о всех сенсорах камеры из базы данных.
      */
     @Override
+    @Transactional(readOnly = true)
     public List<CameraSensorDTO> getAllEntities() {
         var persistentCameraSensors = cameraSensorRepository.findAllByOrderByMegapixelsAsc();
         return persistentCameraSensors.stream()
@@ -77,6 +122,25 @@ public class CameraSensorService implements CrudService<CameraSensorDTO, Integer
                 .toList();
     }
 
+    /**
+     * Находит и возвращает сенсоры камер с указанными идентификаторами за один запрос к базе данных.
+     * Порядок элементов в возвращаемом списке совпадает с порядком идентификаторов в ids.
+     *
+     * @param ids список уникальных идентификаторов сенсоров камер, которые необходимо найти.
+     * @return список CameraSensorDTO с полными сведениями о сенсорах камер в порядке следования идентификаторов.
+     * @throws InsufficientDataException если список идентификаторов пуст или содержит null.
+     * @throws ResourcesNotFoundException если хотя бы один сенсор камеры не найден (исключение содержит все отсутствующие id).
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<CameraSensorDTO> getEntitiesByIds(List<Integer> ids) {
+        var persistentCameraSensors = BatchEntityLoader.findAllByIdsInRequestedOrder(
+                cameraSensorRepository, ids, CameraSensorEntity::getId, "Camera sensor");
+        return persistentCameraSensors.stream()
+                .map(cameraSensor -> mapper.map(cameraSensor, CameraSensorDTO.class))
+                .toList();
+    }
+
     /**
      * Удаляет сенсор камеры с указанным id из базы данных и возвращает сведения об удаленном сенсоре камеры.
      *
@@ -86,11 +150,35 @@ public class CameraSensorService implements CrudService<CameraSensorDTO, Integer
     @Override
     @Transactional
     public CameraSensorDTO removeEntityById(Integer id) {
-        var removedCameraSensor = getEntityById(id);
-        cameraSensorRepository.deleteById(id);
+        var removedCameraSensor = cameraSensorRepository.deleteByIdReturningJson(id)
+                .map(json -> deletedEntityReader.readDto(json, CameraSensorDTO.class))
+                .orElseThrow(() -> new ResourceNotFoundException("CameraSensor not found"));
+        eventPublisher.publishEvent(CatalogChangedEvent.removed(CameraSensorEntity.class, id));
         return removedCameraSensor;
     }
 
+    /**
+     * Удаляет сенсоры камер с указанными идентификаторами одним запросом DELETE ... RETURNING и возвращает
+     * сведения об удаленных сенсорах камер в порядке следования идентификаторов.
+     * Если хотя бы один идентификатор не найден, то ни одна запись не удаляется.
+     *
+     * @param ids список уникальных идентификаторов, которые необходимо удалить.
+     * @return список CameraSensorDTO с данными об удаленных сенсорах камер.
+     * @throws InsufficientDataException  если список идентификаторов пуст или содержит null.
+     * @throws ResourcesNotFoundException если хотя бы один сенсор камеры не найден (исключение содержит все отсутствующие id).
+     */
+    @Override
+    @Transactional
+    public List<CameraSensorDTO> removeEntitiesByIds(List<Integer> ids) {
+        BatchEntityLoader.checkIds(ids);
+        var removedJsons = cameraSensorRepository.deleteAllByIdReturningJson(new LinkedHashSet<>(ids));
+        var removedCameraSensors = deletedEntityReader.readDtosInRequestedOrder(
+                removedJsons, CameraSensorDTO.class, ids, CameraSensorDTO::getId, "Camera sensor");
+        new LinkedHashSet<>(ids).forEach(removedId ->
+                eventPublisher.publishEvent(CatalogChangedEvent.removed(CameraSensorEntity.class, removedId)));
+        return removedCameraSensors;
+    }
+
     /**
      * Полностью обновляет информацию о сенсоре камеры в базе данных и возвращает объект с обновленной информацией.
      * Этот метод требует, чтобы полученный в аргументе cameraSensorDTO содержал полную информацию об изменяемом сенсоре камеры.
@@ -108,6 +196,7 @@ public class CameraSensorService implements CrudService<CameraSensorDTO, Integer
         var persistentCameraSensor = getPersistentEntityById(id);
         mapper.map(cameraSensorDTO, persistentCameraSensor);
         cameraSensorRepository.save(persistentCameraSensor);
+        eventPublisher.publishEvent(CatalogChangedEvent.updated(CameraSensorEntity.class, id));
         return mapper.map(persistentCameraSensor, CameraSensorDTO.class);
     }
 
@@ -128,6 +217,7 @@ public class CameraSensorService implements CrudService<CameraSensorDTO, Integer
         var persistentCameraSensor = getPersistentEntityById(id);
         nullableMapper.map(cameraSensorDTO, persistentCameraSensor);
         cameraSensorRepository.save(persistentCameraSensor);
+        eventPublisher.publishEvent(CatalogChangedEvent.updated(CameraSensorEntity.class, id));
         return mapper.map(persistentCameraSensor, CameraSensorDTO.class);
     }
 
@@ -4,37 +4,53 @@ import lombok.AccessLevel;
 import lombok.experimental.FieldDefaults;
 import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.barikhashvili.dto.specs.CameraDTO;
 import ru.barikhashvili.dto.specs.CameraSensorDTO;
 import ru.barikhashvili.entities.specs.CameraEntity;
 import ru.barikhashvili.entities.specs.CameraSensorEntity;
+import ru.barikhashvili.events.CatalogChangedEvent;
 import ru.barikhashvili.exceptions.InsufficientDataException;
 import ru.barikhashvili.exceptions.ResourceNotFoundException;
+import ru.barikhashvili.exceptions.ResourcesNotFoundException;
 import ru.barikhashvili.repositories.CameraRepository;
 import ru.barikhashvili.services.CrudService;
 import ru.barikhashvili.services.EntityExtractor;
+import ru.barikhashvili.services.UpsertService;
+import ru.barikhashvili.services.UpsertedEntity;
+import ru.barikhashvili.services.utils.BatchEntityLoader;
+import ru.barikhashvili.services.utils.DeletedEntityReader;
+import ru.barikhashvili.services.utils.NaturalKeyUpsert;
 
+import java.util.LinkedHashSet;
 import java.util.List;
 
 @Service
 @FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
-public class CameraService implements CrudService<CameraDTO, Long>,
+public class CameraService implements CrudService<CameraDTO, Long>, UpsertService<CameraDTO>,
         EntityExtractor<CameraDTO, CameraEntity, Long> {
     CameraRepository cameraRepository;
     EntityExtractor<CameraSensorDTO, CameraSensorEntity, Integer> sensorExtractor;
+    DeletedEntityReader deletedEntityReader;
     ModelMapper mapper;
     ModelMapper nullableMapper;
+    ApplicationEventPublisher eventPublisher;
 
     public CameraService(CameraRepository cameraRepository,
                          EntityExtractor<CameraSensorDTO, CameraSensorEntity, Integer> sensorExtractor,
+                         DeletedEntityReader deletedEntityReader,
                          @Qualifier("modelMapper") ModelMapper mapper,
-                         @Qualifier("nullableModelMapper") ModelMapper nullableMapper) {
+                         @Lazy @Qualifier("nullableModelMapper") ModelMapper nullableMapper,
+                         ApplicationEventPublisher eventPublisher) {
         this.cameraRepository = cameraRepository;
         this.sensorExtractor = sensorExtractor;
+        this.deletedEntityReader = deletedEntityReader;
         this.mapper = mapper;
         this.nullableMapper = nullableMapper;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -57,9 +73,39 @@ public class CameraService implements CrudService<CameraDTO, Long>,
 
         var persistentCamera = cameraRepository.save(transientCamera);
 
+        eventPublisher.publishEvent(CatalogChangedEvent.created(CameraEntity.class, persistentCamera.getId()));
         return mapper.map(persistentCamera, CameraDTO.class);
     }
 
+    /**
+     * Добавляет камеру, если камеры с такими же типом, стабилизацией и сенсором еще нет в базе данных,
+     * иначе возвращает существующую камеру.
+     *
+     * @param cameraDTO объект DTO со сведениями о камере (DTO должен содержать полные сведения).
+     * @return DTO добавленной или существующей камеры и признак того, что камера была добавлена.
+     * @throws InsufficientDataException если сведения о камере отсутствуют.
+     * @throws ResourceNotFoundException если сенсор камеры не найден.
+     */
+    @Override
+    @Transactional
+    public UpsertedEntity<CameraDTO> upsertEntity(CameraDTO cameraDTO) {
+        var transientCamera = mapper.map(cameraDTO, CameraEntity.class);
+        var persistentSensor = sensorExtractor.getPersistentEntity(cameraDTO.getSensor());
+        transientCamera.setSensor(persistentSensor);
+
+        var upsertResult = NaturalKeyUpsert.execute(() -> cameraRepository.upsert(
+                transientCamera.getCameraType().ordinal(), transientCamera.isHasOpticalStabilization(),
+                persistentSensor.getId()));
+        transientCamera.setId(upsertResult.getId());
+
+        if (upsertResult.getChanged()) {
+            eventPublisher.publishEvent(upsertResult.getInserted()
+                    ? CatalogChangedEvent.created(CameraEntity.class, upsertResult.getId())
+                    : CatalogChangedEvent.updated(CameraEntity.class, upsertResult.getId()));
+        }
+        return new UpsertedEntity<>(mapper.map(transientCamera, CameraDTO.class), upsertResult.getInserted());
+    }
+
     /**
      * Находит и возвращает данные о камере с указанным идентификатором.
      *
@@ -68,6 +114,7 @@ public class CameraService implements CrudService<CameraDTO, Long>,
      * @throws ResourceNotFoundException если камера с указанным id не найдена в базе данных
      */
     @Override
+    @Transactional(readOnly = true)
     public CameraDTO getEntityById(Long id) {
         var persistentCamera = getPersistentEntityById(id);
         return mapper.map(persistentCamera, CameraDTO.class);
@@ -79,7 +126,7 @@ public class CameraService implements CrudService<CameraDTO, Long>,
      * @return список CameraDTO с полными сведениями о всех камерах из базы данных.
      */
     @Override
-    @Transactional
+    @Transactional(readOnly = true)
     public List<CameraDTO> getAllEntities() {
         var persistentCameras = cameraRepository.findAllByOrderByIdAsc();
         return persistentCameras.stream()
@@ -87,6 +134,25 @@ public class CameraService implements CrudService<CameraDTO, Long>,
                 .toList();
     }
 
+    /**
+     * Находит и возвращает камеры с указанными идентификаторами за один запрос к базе данных.
+     * Порядок элементов в возвращаемом списке совпадает с порядком идентификаторов в ids.
+     *
+     * @param ids список уникальных идентификаторов камер, которые необходимо найти.
+     * @return список CameraDTO с полными сведениями о камерах в порядке следования идентификаторов.
+     * @throws InsufficientDataException если список идентификаторов пуст или содержит null.
+     * @throws ResourcesNotFoundException если хотя бы одна камера не найдена (исключение содержит все отсутствующие id).
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<CameraDTO> getEntitiesByIds(List<Long> ids) {
+        var persistentCameras = BatchEntityLoader.findAllByIdsInRequestedOrder(
+                cameraRepository, ids, CameraEntity::getId, "Camera");
+        return persistentCameras.stream()
+                .map(camera -> mapper.map(camera, CameraDTO.class))
+                .toList();
+    }
+
     /**
      * Удаляет камеру с указанным id из базы данных и возвращает сведения об удаленной камере.
      *
@@ -96,11 +162,35 @@ public class CameraService implements CrudService<CameraDTO, Long>,
     @Override
     @Transactional
     public CameraDTO removeEntityById(Long id) {
-        var removedCamera = getEntityById(id);
-        cameraRepository.deleteById(id);
+        var removedCamera = cameraRepository.deleteByIdReturningJson(id)
+                .map(json -> deletedEntityReader.readDto(json, CameraDTO.class))
+                .orElseThrow(() -> new ResourceNotFoundException("Camera not found"));
+        eventPublisher.publishEvent(CatalogChangedEvent.removed(CameraEntity.class, id));
         return removedCamera;
     }
 
+    /**
+     * Удаляет камеры с указанными идентификаторами одним запросом DELETE ... RETURNING и возвращает
+     * сведения об удаленных камерах в порядке следования идентификаторов.
+     * Если хотя бы один идентификатор не найден, то ни одна запись не удаляется.
+     *
+     * @param ids список уникальных идентификаторов, которые необходимо удалить.
+     * @return список CameraDTO с данными об удаленных камерах.
+     * @throws InsufficientDataException  если список идентификаторов пуст или содержит null.
+     * @throws ResourcesNotFoundException если хотя бы один камера не найдена (исключение содержит все отсутствующие id).
+     */
+    @Override
+    @Transactional
+    public List<CameraDTO> removeEntitiesByIds(List<Long> ids) {
+        BatchEntityLoader.checkIds(ids);
+        var removedJsons = cameraRepository.deleteAllByIdReturningJson(new LinkedHashSet<>(ids));
+        var removedCameras = deletedEntityReader.readDtosInRequestedOrder(
+                removedJsons, CameraDTO.class, ids, CameraDTO::getId, "Camera");
+        new LinkedHashSet<>(ids).forEach(removedId ->
+                eventPublisher.publishEvent(CatalogChangedEvent.removed(CameraEntity.class, removedId)));
+        return removedCameras;
+    }
+
     /**
      * Полностью обновляет информацию о камере в базе данных и возвращает объект с обновленной информацией.
      * Этот метод требует, чтобы полученный в аргументе cameraDTO содержал полную информацию об изменяемой камере.
@@ -122,6 +212,7 @@ public class CameraService implements CrudService<CameraDTO, Long>,
         var persistentSensor = sensorExtractor.getPersistentEntity(sensorDTO);
         persistentCamera.setSensor(persistentSensor);
 
+        eventPublisher.publishEvent(CatalogChangedEvent.updated(CameraEntity.class, id));
         return mapper.map(persistentCamera, CameraDTO.class);
     }
 
@@ -150,6 +241,7 @@ public class CameraService implements CrudService<CameraDTO, Long>,
         }
 
         cameraRepository.save(persistentCamera);
+        eventPublisher.publishEvent(CatalogChangedEvent.updated(CameraEntity.class, id));
         return mapper.map(persistentCamera, CameraDTO.class);
     }
 
@@ -4,32 +4,48 @@ import lombok.AccessLevel;
 import lombok.experimental.FieldDefaults;
 import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.barikhashvili.dto.specs.CountryDTO;
 import ru.barikhashvili.entities.specs.CountryEntity;
+import ru.barikhashvili.events.CatalogChangedEvent;
 import ru.barikhashvili.exceptions.InsufficientDataException;
 import ru.barikhashvili.exceptions.ResourceNotFoundException;
+import ru.barikhashvili.exceptions.ResourcesNotFoundException;
 import ru.barikhashvili.repositories.CountryRepository;
 import ru.barikhashvili.services.CrudService;
 import ru.barikhashvili.services.EntityExtractor;
+import ru.barikhashvili.services.UpsertService;
+import ru.barikhashvili.services.UpsertedEntity;
+import ru.barikhashvili.services.utils.BatchEntityLoader;
+import ru.barikhashvili.services.utils.DeletedEntityReader;
+import ru.barikhashvili.services.utils.NaturalKeyUpsert;
 
+import java.util.LinkedHashSet;
 import java.util.List;
 
 @Service
 @FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
-public class CountryService implements CrudService<CountryDTO, Integer>,
+public class CountryService implements CrudService<CountryDTO, Integer>, UpsertService<CountryDTO>,
         EntityExtractor<CountryDTO, CountryEntity, Integer> {
     CountryRepository countryRepository;
+    DeletedEntityReader deletedEntityReader;
     ModelMapper mapper;
     ModelMapper nullableMapper;
+    ApplicationEventPublisher eventPublisher;
 
     public CountryService(CountryRepository countryRepository,
+                          DeletedEntityReader deletedEntityReader,
                           @Qualifier("modelMapper") ModelMapper mapper,
-                          @Qualifier("nullableModelMapper") ModelMapper nullableMapper) {
+                          @Lazy @Qualifier("nullableModelMapper") ModelMapper nullableMapper,
+                          ApplicationEventPublisher eventPublisher) {
         this.countryRepository = countryRepository;
+        this.deletedEntityReader = deletedEntityReader;
         this.mapper = mapper;
         this.nullableMapper = nullableMapper;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -43,9 +59,34 @@ public class CountryService implements CrudService<CountryDTO, Integer>,
     public CountryDTO saveEntity(CountryDTO countryDTO) {
         var transientCountry = mapper.map(countryDTO, CountryEntity.class);
         var persistentCountry = countryRepository.save(transientCountry);
+        eventPublisher.publishEvent(CatalogChangedEvent.created(CountryEntity.class, persistentCountry.getId()));
         return mapper.map(persistentCountry, CountryDTO.class);
     }
 
+    /**
+     * Добавляет страну, если страны с таким же названием еще нет в базе данных,
+     * иначе возвращает существующую страну.
+     *
+     * @param countryDTO объект DTO со сведениями о стране (DTO должен содержать полные сведения).
+     * @return DTO добавленной или существующей страны и признак того, что страна была добавлена.
+     * @throws InsufficientDataException если сведения о стране отсутствуют.
+     */
+    @Override
+    @Transactional
+    public UpsertedEntity<CountryDTO> upsertEntity(CountryDTO countryDTO) {
+        var transientCountry = mapper.map(countryDTO, CountryEntity.class);
+
+        var upsertResult = NaturalKeyUpsert.execute(() -> countryRepository.upsert(transientCountry.getName()));
+        transientCountry.setId(upsertResult.getId());
+
+        if (upsertResult.getChanged()) {
+            eventPublisher.publishEvent(upsertResult.getInserted()
+                    ? CatalogChangedEvent.created(CountryEntity.class, upsertResult.getId())
+                    : CatalogChangedEvent.updated(CountryEntity.class, upsertResult.getId()));
+        }
+        return new UpsertedEntity<>(mapper.map(transientCountry, CountryDTO.class), upsertResult.getInserted());
+    }
+
     /**
      * Находит из возвращает полную информацию о стране с указанным идентификатором в виде DTO.
      *
@@ -54,6 +95,7 @@ public class CountryService implements CrudService<CountryDTO, Integer>,
      * @throws ResourceNotFoundException если страна с указанным идентификатором не найдена.
      */
     @Override
+    @Transactional(readOnly = true)
     public CountryDTO getEntityById(Integer countryId) {
         var persistentCountry = getPersistentEntityById(countryId);
         return mapper.map(persistentCountry, CountryDTO.class);
@@ -65,6 +107,7 @@ public class CountryService implements CrudService<CountryDTO, Integer>,
      * @return список CountryDTO с полными сведениями о всех странах из базы данных.
      */
     @Override
+    @Transactional(readOnly = true)
     public List<CountryDTO> getAllEntities() {
         var persistentCountries = countryRepository.findAllByOrderByNameAsc();
         return persistentCountries.stream()
@@ -72,6 +115,25 @@ public class CountryService implements CrudService<CountryDTO, Integer>,
                 .toList();
     }
 
+    /**
+     * Находит и возвращает страны с указанными идентификаторами за один запрос к базе данных.
+     * Порядок элементов в возвращаемом списке совпадает с порядком идентификаторов в countryIds.
+     *
+     * @param countryIds список уникальных идентификаторов стран, которые необходимо найти.
+     * @return список CountryDTO с полными сведениями о странах в порядке следования идентификаторов.
+     * @throws InsufficientDataException если список идентификаторов пуст или содержит null.
+     * @throws ResourcesNotFoundException если хотя бы одна страна не найдена (исключение содержит все отсутствующие id).
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<CountryDTO> getEntitiesByIds(List<Integer> countryIds) {
+        var persistentCountries = BatchEntityLoader.findAllByIdsInRequestedOrder(
+                countryRepository, countryIds, CountryEntity::getId, "Country");
+        return persistentCountries.stream()
+                .map(countryEntity -> mapper.map(countryEntity, CountryDTO.class))
+                .toList();
+    }
+
     /**
      * Удаляет страну с указанным идентификатором из базы данных и возвращает DTO со сведениями
      * об удаленной стране.
@@ -82,11 +144,35 @@ public class CountryService implements CrudService<CountryDTO, Integer>,
     @Override
     @Transactional
     public CountryDTO removeEntityById(Integer countryId) {
-        var removedCountry = getEntityById(countryId);
-        countryRepository.deleteById(countryId);
+        var removedCountry = countryRepository.deleteByIdReturningJson(countryId)
+                .map(json -> deletedEntityReader.readDto(json, CountryDTO.class))
+                .orElseThrow(() -> new ResourceNotFoundException("Country not found"));
+        eventPublisher.publishEvent(CatalogChangedEvent.removed(CountryEntity.class, countryId));
         return removedCountry;
     }
 
+    /**
+     * Удаляет страны с указанными идентификаторами одним запросом DELETE ... RETURNING и возвращает
+     * сведения об удаленных странах в порядке следования идентификаторов.
+     * Если хотя бы один идентификатор не найден, то ни одна запись не удаляется.
+     *
+     * @param countryIds список уникальных идентификаторов, которые необходимо удалить.
+     * @return список CountryDTO с данными об удаленных странах.
+     * @throws InsufficientDataException  если список идентификаторов пуст или содержит null.
+     * @throws ResourcesNotFoundException если хотя бы один страна не найдена (исключение содержит все отсутствующие id).
+     */
+    @Override
+    @Transactional
+    public List<CountryDTO> removeEntitiesByIds(List<Integer> countryIds) {
+        BatchEntityLoader.checkIds(countryIds);
+        var removedJsons = countryRepository.deleteAllByIdReturningJson(new LinkedHashSet<>(countryIds));
+        var removedCountries = deletedEntityReader.readDtosInRequestedOrder(
+                removedJsons, CountryDTO.class, countryIds, CountryDTO::getId, "Country");
+        new LinkedHashSet<>(countryIds).forEach(removedId ->
+                eventPublisher.publishEvent(CatalogChangedEvent.removed(CountryEntity.class, removedId)));
+        return removedCountries;
+    }
+
     /**
      * Обновляет информацию о стране в базе данных и возвращает DTO с обновленной информацией.
      *
@@ -101,6 +187,7 @@ public class CountryService implements CrudService<CountryDTO, Integer>,
     public CountryDTO editEntity(Integer countryId, CountryDTO countryDTO) {
         var persistentCountry = getPersistentEntityById(countryId);
         persistentCountry.setName(countryDTO.getName());
+        eventPublisher.publishEvent(CatalogChangedEvent.updated(CountryEntity.class, countryId));
         return mapper.map(persistentCountry, CountryDTO.class);
     }
 
@@ -121,6 +208,7 @@ public class CountryService implements CrudService<CountryDTO, Integer>,
         var persistentCountry = getPersistentEntityById(countryId);
         nullableMapper.map(countryDTO, persistentCountry);
         countryRepository.save(persistentCountry);
+        eventPublisher.publishEvent(CatalogChangedEvent.updated(CountryEntity.class, countryId));
         return mapper.map(persistentCountry, CountryDTO.class);
     }
 
@@ -0,0 +1,83 @@
+package ru.barikhashvili.services.impl;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.modelmapper.ModelMapper;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.barikhashvili.dto.specs.DisplayDTO;
+import ru.barikhashvili.dto.specs.DisplayPageDTO;
+import ru.barikhashvili.exceptions.InsufficientDataException;
+import ru.barikhashvili.repositories.DisplayRepository;
+
+import java.math.BigDecimal;
+
+/**
+ * Поиск дисплеев по диапазону плотности пикселей (PPI) с постраничной выдачей по ключу (keyset pagination).
+ */
+@Service
+@FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
+public class DisplaySearchService {
+    public static final int MAX_PAGE_SIZE = 100;
+    public static final BigDecimal MIN_PPI = BigDecimal.ZERO;
+    public static final BigDecimal MAX_PPI = new BigDecimal("99999999.99");
+
+    DisplayRepository displayRepository;
+    ModelMapper mapper;
+
+    public DisplaySearchService(DisplayRepository displayRepository,
+                                @Qualifier("modelMapper") ModelMapper mapper) {
+        this.displayRepository = displayRepository;
+        this.mapper = mapper;
+    }
+
+    /**
+     * Находит страницу дисплеев с плотностью пикселей в указанном диапазоне, упорядоченных по плотности
+     * (при равенстве - по идентификатору). Следующая страница запрашивается с ключом последнего дисплея
+     * предыдущей страницы, поэтому стоимость запроса не зависит от номера страницы.
+     *
+     * @param minPpi    минимальная плотность пикселей (включительно), null - без ограничения.
+     * @param maxPpi    максимальная плотность пикселей (включительно), null - без ограничения.
+     * @param direction направление сортировки по плотности пикселей.
+     * @param afterPpi  плотность пикселей последнего дисплея предыдущей страницы (null - первая страница).
+     * @param afterId   идентификатор последнего дисплея предыдущей страницы (null - первая страница).
+     * @param limit     максимальное количество дисплеев на странице (не больше {@value #MAX_PAGE_SIZE}).
+     * @return дисплеи и ключ, который необходимо передать для получения следующей страницы
+     * (ключ отсутствует, если страница последняя).
+     * @throws InsufficientDataException если указан только один из параметров afterPpi и afterId.
+     */
+    @Transactional(readOnly = true)
+    public DisplayPageDTO findByPpi(BigDecimal minPpi, BigDecimal maxPpi, Sort.Direction direction,
+                                    BigDecimal afterPpi, Integer afterId, int limit) {
+        if ((afterPpi == null) != (afterId == null)) {
+            throw new InsufficientDataException("Both afterPpi and afterId must be specified");
+        }
+        var min = minPpi == null ? MIN_PPI : minPpi;
+        var max = maxPpi == null ? MAX_PPI : maxPpi;
+        var pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        var pageLimit = Limit.of(pageSize + 1);
+
+        var persistentDisplays = switch (direction) {
+            case ASC -> afterId == null
+                    ? displayRepository.findByPpiRangeAsc(min, max, pageLimit)
+                    : displayRepository.findByPpiRangeAscAfter(min, max, afterPpi, afterId, pageLimit);
+            case DESC -> afterId == null
+                    ? displayRepository.findByPpiRangeDesc(min, max, pageLimit)
+                    : displayRepository.findByPpiRangeDescAfter(min, max, afterPpi, afterId, pageLimit);
+        };
+
+        var hasNextPage = persistentDisplays.size() > pageSize;
+        var displays = persistentDisplays.stream()
+                .limit(pageSize)
+                .map(display -> mapper.map(display, DisplayDTO.class))
+                .toList();
+        if (!hasNextPage) {
+            return DisplayPageDTO.of(displays, null, null);
+        }
+        var lastDisplay = displays.get(displays.size() - 1);
+        return DisplayPageDTO.of(displays, lastDisplay.getPpi(), lastDisplay.getId());
+    }
+}
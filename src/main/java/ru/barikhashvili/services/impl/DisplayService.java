@@ -4,37 +4,54 @@ import lombok.AccessLevel;
 import lombok.experimental.FieldDefaults;
 import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.barikhashvili.dto.specs.DisplayDTO;
 import ru.barikhashvili.dto.specs.ResolutionDTO;
 import ru.barikhashvili.entities.specs.DisplayEntity;
 import ru.barikhashvili.entities.ResolutionEntity;
+import ru.barikhashvili.events.CatalogChangedEvent;
 import ru.barikhashvili.exceptions.InsufficientDataException;
 import ru.barikhashvili.exceptions.ResourceNotFoundException;
+import ru.barikhashvili.exceptions.ResourcesNotFoundException;
 import ru.barikhashvili.repositories.DisplayRepository;
 import ru.barikhashvili.services.CrudService;
 import ru.barikhashvili.services.EntityExtractor;
+import ru.barikhashvili.services.UpsertService;
+import ru.barikhashvili.services.UpsertedEntity;
+import ru.barikhashvili.services.utils.BatchEntityLoader;
+import ru.barikhashvili.services.utils.DeletedEntityReader;
+import ru.barikhashvili.services.utils.NaturalKeyUpsert;
+import ru.barikhashvili.services.utils.PixelDensity;
 
+import java.util.LinkedHashSet;
 import java.util.List;
 
 @Service
 @FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
-public class DisplayService implements CrudService<DisplayDTO, Integer>,
+public class DisplayService implements CrudService<DisplayDTO, Integer>, UpsertService<DisplayDTO>,
         EntityExtractor<DisplayDTO, DisplayEntity, Integer> {
     EntityExtractor<ResolutionDTO, ResolutionEntity, Integer> resolutionExtractor;
     DisplayRepository displayRepository;
+    DeletedEntityReader deletedEntityReader;
     ModelMapper mapper;
     ModelMapper nullableMapper;
+    ApplicationEventPublisher eventPublisher;
 
     public DisplayService(DisplayRepository displayRepository,
                           EntityExtractor<ResolutionDTO, ResolutionEntity, Integer> resolutionExtractor,
+                          DeletedEntityReader deletedEntityReader,
                           @Qualifier("modelMapper") ModelMapper mapper,
-                          @Qualifier("nullableModelMapper") ModelMapper nullableMapper) {
+                          @Lazy @Qualifier("nullableModelMapper") ModelMapper nullableMapper,
+                          ApplicationEventPublisher eventPublisher) {
         this.displayRepository = displayRepository;
         this.resolutionExtractor = resolutionExtractor;
+        this.deletedEntityReader = deletedEntityReader;
         this.mapper = mapper;
         this.nullableMapper = nullableMapper;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -54,12 +71,44 @@ public class DisplayService implements CrudService<DisplayDTO, Integer>,
         var resolutionDTO = displayDTO.getResolution();
         var persistentResolution = resolutionExtractor.getPersistentEntity(resolutionDTO);
         transientDisplay.setResolution(persistentResolution);
+        updatePixelDensity(transientDisplay);
 
         var persistentDisplay = displayRepository.save(transientDisplay);
 
+        eventPublisher.publishEvent(CatalogChangedEvent.created(DisplayEntity.class, persistentDisplay.getId()));
         return mapper.map(persistentDisplay, DisplayDTO.class);
     }
 
+    /**
+     * Добавляет дисплей, если дисплея с такими же диагональю, разрешением, частотой обновления и типом
+     * еще нет в базе данных, иначе возвращает существующий дисплей.
+     *
+     * @param displayDTO объект DTO со сведениями о дисплее (DTO должен содержать полные сведения).
+     * @return DTO добавленного или существующего дисплея и признак того, что дисплей был добавлен.
+     * @throws InsufficientDataException если сведения о дисплее отсутствуют.
+     * @throws ResourceNotFoundException если разрешение экрана не найдено.
+     */
+    @Override
+    @Transactional
+    public UpsertedEntity<DisplayDTO> upsertEntity(DisplayDTO displayDTO) {
+        var transientDisplay = mapper.map(displayDTO, DisplayEntity.class);
+        var persistentResolution = resolutionExtractor.getPersistentEntity(displayDTO.getResolution());
+        transientDisplay.setResolution(persistentResolution);
+        updatePixelDensity(transientDisplay);
+
+        var upsertResult = NaturalKeyUpsert.execute(() -> displayRepository.upsert(
+                transientDisplay.getDiagonal(), persistentResolution.getId(), transientDisplay.getRefreshRate(),
+                transientDisplay.getDisplayType().ordinal(), transientDisplay.getPpi()));
+        transientDisplay.setId(upsertResult.getId());
+
+        if (upsertResult.getChanged()) {
+            eventPublisher.publishEvent(upsertResult.getInserted()
+                    ? CatalogChangedEvent.created(DisplayEntity.class, upsertResult.getId())
+                    : CatalogChangedEvent.updated(DisplayEntity.class, upsertResult.getId()));
+        }
+        return new UpsertedEntity<>(mapper.map(transientDisplay, DisplayDTO.class), upsertResult.getInserted());
+    }
+
     /**
      * Находит и возвращает данные о дисплее с указанным идентификатором.
      *
@@ -68,6 +117,7 @@ public class DisplayService implements CrudService<DisplayDTO, Integer>,
      * @throws ResourceNotFoundException если дисплей с указанным id не найден в базе данных
      */
     @Override
+    @Transactional(readOnly = true)
     public DisplayDTO getEntityById(Integer id) {
         var persistentDisplay = getPersistentEntityById(id);
         return mapper.map(persistentDisplay, DisplayDTO.class);
@@ -80,7 +130,7 @@ public class DisplayService implements CrudService<DisplayDTO, Integer>,
      * @return список DisplayDTO с полными сведениями о всех дисплеях из базы данных.
      */
     @Override
-    @Transactional
+    @Transactional(readOnly = true)
     public List<DisplayDTO> getAllEntities() {
         var persistentDisplays = displayRepository.findAllByOrderByDiagonalAscRefreshRateAsc();
         return persistentDisplays.stream()
@@ -88,6 +138,25 @@ public class DisplayService implements CrudService<DisplayDTO, Integer>,
                 .toList();
     }
 
+    /**
+     * Находит и возвращает дисплеи с указанными идентификаторами за один запрос к базе данных.
+     * Порядок элементов в возвращаемом списке совпадает с порядком идентификаторов в ids.
+     *
+     * @param ids список уникальных идентификаторов дисплеев, которые необходимо найти.
+     * @return список DisplayDTO с полными сведениями о дисплеях в порядке следования идентификаторов.
+     * @throws InsufficientDataException если список идентификаторов пуст или содержит null.
+     * @throws ResourcesNotFoundException если хотя бы один дисплей не найден (исключение содержит все отсутствующие id).
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<DisplayDTO> getEntitiesByIds(List<Integer> ids) {
+        var persistentDisplays = BatchEntityLoader.findAllByIdsInRequestedOrder(
+                displayRepository, ids, DisplayEntity::getId, "Display");
+        return persistentDisplays.stream()
+                .map(display -> mapper.map(display, DisplayDTO.class))
+                .toList();
+    }
+
     /**
      * Удаляет дисплей с указанным id из базы данных и возвращает сведения об удаленном дисплее.
      *
@@ -97,11 +166,35 @@ public class DisplayService implements CrudService<DisplayDTO, Integer>,
     @Override
     @Transactional
     public DisplayDTO removeEntityById(Integer id) {
-        var removedDisplay = getEntityById(id);
-        displayRepository.deleteById(id);
+        var removedDisplay = displayRepository.deleteByIdReturningJson(id)
+                .map(json -> deletedEntityReader.readDto(json, DisplayDTO.class))
+                .orElseThrow(() -> new ResourceNotFoundException("Display not found"));
+        eventPublisher.publishEvent(CatalogChangedEvent.removed(DisplayEntity.class, id));
         return removedDisplay;
     }
 
+    /**
+     * Удаляет дисплеи с указанными идентификаторами одним запросом DELETE ... RETURNING и возвращает
+     * сведения об удаленных дисплеях в порядке следования идентификаторов.
+     * Если хотя бы один идентификатор не найден, то ни одна запись не удаляется.
+     *
+     * @param ids список уникальных идентификаторов, которые необходимо удалить.
+     * @return список DisplayDTO с данными об удаленных дисплеях.
+     * @throws InsufficientDataException  если список идентификаторов пуст или содержит null.
+     * @throws ResourcesNotFoundException если хотя бы один дисплей не найден (исключение содержит все отсутствующие id).
+     */
+    @Override
+    @Transactional
+    public List<DisplayDTO> removeEntitiesByIds(List<Integer> ids) {
+        BatchEntityLoader.checkIds(ids);
+        var removedJsons = displayRepository.deleteAllByIdReturningJson(new LinkedHashSet<>(ids));
+        var removedDisplays = deletedEntityReader.readDtosInRequestedOrder(
+                removedJsons, DisplayDTO.class, ids, DisplayDTO::getId, "Display");
+        new LinkedHashSet<>(ids).forEach(removedId ->
+                eventPublisher.publishEvent(CatalogChangedEvent.removed(DisplayEntity.class, removedId)));
+        return removedDisplays;
+    }
+
     /**
      * Полностью обновляет информацию о дисплее в базе данных и возвращает объект с обновленной информацией.
      * Этот метод требует, чтобы полученный в аргументе displayDTO содержал полную информацию об изменяемом дисплее.
@@ -122,7 +215,9 @@ public class DisplayService implements CrudService<DisplayDTO, Integer>,
         var resolutionDTO = displayDTO.getResolution();
         var persistentResolution = resolutionExtractor.getPersistentEntity(resolutionDTO);
         persistentDisplay.setResolution(persistentResolution);
+        updatePixelDensity(persistentDisplay);
 
+        eventPublisher.publishEvent(CatalogChangedEvent.updated(DisplayEntity.class, id));
         return mapper.map(persistentDisplay, DisplayDTO.class);
     }
 
@@ -150,8 +245,10 @@ public class DisplayService implements CrudService<DisplayDTO, Integer>,
             var persistentResolutionEntity = resolutionExtractor.getPersistentEntityById(newResolutionId);
             persistentDisplay.setResolution(persistentResolutionEntity);
         }
+        updatePixelDensity(persistentDisplay);
 
         displayRepository.save(persistentDisplay);
+        eventPublisher.publishEvent(CatalogChangedEvent.updated(DisplayEntity.class, id));
         return mapper.map(persistentDisplay, DisplayDTO.class);
     }
 
@@ -186,4 +283,15 @@ public class DisplayService implements CrudService<DisplayDTO, Integer>,
         return displayRepository.findById(displayDTO.getId())
                 .orElseThrow(() -> new ResourceNotFoundException("Display not found"));
     }
+
+    /**
+     * Пересчитывает плотность пикселей дисплея по его текущим диагонали и разрешению экрана.
+     *
+     * @param display hibernate сущность дисплея с заполненными диагональю и разрешением.
+     */
+    private static void updatePixelDensity(DisplayEntity display) {
+        var resolution = display.getResolution();
+        display.setPpi(PixelDensity.calculate(resolution.getHorizontalPixels(), resolution.getVerticalPixels(),
+                display.getDiagonal()));
+    }
 }
@@ -4,38 +4,54 @@ import lombok.AccessLevel;
 import lombok.experimental.FieldDefaults;
 import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.barikhashvili.dto.specs.CountryDTO;
 import ru.barikhashvili.dto.specs.ManufacturerDTO;
 import ru.barikhashvili.entities.specs.CountryEntity;
 import ru.barikhashvili.entities.specs.ManufacturerEntity;
+import ru.barikhashvili.events.CatalogChangedEvent;
 import ru.barikhashvili.exceptions.InsufficientDataException;
 import ru.barikhashvili.exceptions.ResourceNotFoundException;
+import ru.barikhashvili.exceptions.ResourcesNotFoundException;
 import ru.barikhashvili.repositories.ManufacturerRepository;
 import ru.barikhashvili.services.CrudService;
 import ru.barikhashvili.services.EntityExtractor;
+import ru.barikhashvili.services.UpsertService;
+import ru.barikhashvili.services.UpsertedEntity;
+import ru.barikhashvili.services.utils.BatchEntityLoader;
+import ru.barikhashvili.services.utils.DeletedEntityReader;
+import ru.barikhashvili.services.utils.NaturalKeyUpsert;
 
+import java.util.LinkedHashSet;
 import java.util.List;
 
 @Service
 @FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
-public class ManufacturerService implements CrudService<ManufacturerDTO, Integer>,
+public class ManufacturerService implements CrudService<ManufacturerDTO, Integer>, UpsertService<ManufacturerDTO>,
         EntityExtractor<ManufacturerDTO, ManufacturerEntity, Integer> {
     EntityExtractor<CountryDTO, CountryEntity, Integer> countryExtractor;
     ManufacturerRepository manufacturerRepository;
+    DeletedEntityReader deletedEntityReader;
     ModelMapper mapper;
     ModelMapper nullableMapper;
+    ApplicationEventPublisher eventPublisher;
 
     public ManufacturerService(
             EntityExtractor<CountryDTO, CountryEntity, Integer> countryExtractor,
             ManufacturerRepository manufacturerRepository,
+            DeletedEntityReader deletedEntityReader,
             @Qualifier("modelMapper") ModelMapper mapper,
-            @Qualifier("nullableModelMapper") ModelMapper nullableMapper) {
+            @Lazy @Qualifier("nullableModelMapper") ModelMapper nullableMapper,
+            ApplicationEventPublisher eventPublisher) {
         this.countryExtractor = countryExtractor;
         this.manufacturerRepository = manufacturerRepository;
+        this.deletedEntityReader = deletedEntityReader;
         this.mapper = mapper;
         this.nullableMapper = nullableMapper;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -60,9 +76,38 @@ public class ManufacturerService implements CrudService<ManufacturerDTO, Integer
 
         var persistentManufacturer = manufacturerRepository.save(transientManufacturer);
 
+        eventPublisher.publishEvent(CatalogChangedEvent.created(ManufacturerEntity.class, persistentManufacturer.getId()));
         return mapper.map(persistentManufacturer, ManufacturerDTO.class);
     }
 
+    /**
+     * Добавляет производителя, если производителя с таким же названием и страной еще нет в базе данных,
+     * иначе возвращает существующего производителя.
+     *
+     * @param manufacturerDTO объект DTO со сведениями о производителе (DTO должен содержать полные сведения).
+     * @return DTO добавленного или существующего производителя и признак того, что производитель был добавлен.
+     * @throws InsufficientDataException если сведения о производителе отсутствуют.
+     * @throws ResourceNotFoundException если страна производителя не найдена.
+     */
+    @Override
+    @Transactional
+    public UpsertedEntity<ManufacturerDTO> upsertEntity(ManufacturerDTO manufacturerDTO) {
+        var transientManufacturer = mapper.map(manufacturerDTO, ManufacturerEntity.class);
+        var persistentCountry = countryExtractor.getPersistentEntity(manufacturerDTO.getCountry());
+        transientManufacturer.setCountry(persistentCountry);
+
+        var upsertResult = NaturalKeyUpsert.execute(() -> manufacturerRepository.upsert(
+                persistentCountry.getId(), transientManufacturer.getName()));
+        transientManufacturer.setId(upsertResult.getId());
+
+        if (upsertResult.getChanged()) {
+            eventPublisher.publishEvent(upsertResult.getInserted()
+                    ? CatalogChangedEvent.created(ManufacturerEntity.class, upsertResult.getId())
+                    : CatalogChangedEvent.updated(ManufacturerEntity.class, upsertResult.getId()));
+        }
+        return new UpsertedEntity<>(mapper.map(transientManufacturer, ManufacturerDTO.class), upsertResult.getInserted());
+    }
+
     /**
      * Находит из возвращает данные о производителе с указанным идентификатором в виде DTO.
      *
@@ -71,6 +116,7 @@ public class ManufacturerService implements CrudService<ManufacturerDTO, Integer
      * @throws ResourceNotFoundException если производитель с указанным id не найден в базе данных
      */
     @Override
+    @Transactional(readOnly = true)
     public ManufacturerDTO getEntityById(Integer manufacturerId) {
         var persistentManufacturer = getPersistentEntityById(manufacturerId);
         return mapper.map(persistentManufacturer, ManufacturerDTO.class);
@@ -82,7 +128,7 @@ public class ManufacturerService implements CrudService<ManufacturerDTO, Integer
      * @return список ManufacturerDTO с полными сведениями о всех производителях из базы данных.
      */
     @Override
-    @Transactional
+    @Transactional(readOnly = true)
     public List<ManufacturerDTO> getAllEntities() {
         var persistentManufacturers = manufacturerRepository.findAllByOrderByNameAsc();
         return persistentManufacturers.stream()
@@ -90,6 +136,25 @@ public class ManufacturerService implements CrudService<ManufacturerDTO, Integer
                 .toList();
     }
 
+    /**
+     * Находит и возвращает производители с указанными идентификаторами за один запрос к базе данных.
+     * Порядок элементов в возвращаемом списке совпадает с порядком идентификаторов в manufacturerIds.
+     *
+     * @param manufacturerIds список уникальных идентификаторов производителей, которые необходимо найти.
+     * @return список ManufacturerDTO с полными сведениями о производителях в порядке следования идентификаторов.
+     * @throws InsufficientDataException если список идентификаторов пуст или содержит null.
+     * @throws ResourcesNotFoundException если хотя бы один производитель не найден (исключение содержит все отсутствующие id).
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<ManufacturerDTO> getEntitiesByIds(List<Integer> manufacturerIds) {
+        var persistentManufacturers = BatchEntityLoader.findAllByIdsInRequestedOrder(
+                manufacturerRepository, manufacturerIds, ManufacturerEntity::getId, "Manufacturer");
+        return persistentManufacturers.stream()
+                .map(manufacturer -> mapper.map(manufacturer, ManufacturerDTO.class))
+                .toList();
+    }
+
     /**
      * Удаляет производителя с указанным id из базы данных и возвращает DTO с данными
      * об удаленном производителе.
@@ -100,11 +165,35 @@ public class ManufacturerService implements CrudService<ManufacturerDTO, Integer
     @Override
     @Transactional
     public ManufacturerDTO removeEntityById(Integer manufacturerId) {
-        var removedManufacturer = getEntityById(manufacturerId);
-        manufacturerRepository.deleteById(manufacturerId);
+        var removedManufacturer = manufacturerRepository.deleteByIdReturningJson(manufacturerId)
+                .map(json -> deletedEntityReader.readDto(json, ManufacturerDTO.class))
+                .orElseThrow(() -> new ResourceNotFoundException("Manufacturer not found"));
+        eventPublisher.publishEvent(CatalogChangedEvent.removed(ManufacturerEntity.class, manufacturerId));
         return removedManufacturer;
     }
 
+    /**
+     * Удаляет производителей с указанными идентификаторами одним запросом DELETE ... RETURNING и возвращает
+     * сведения об удаленных производителях в порядке следования идентификаторов.
+     * Если хотя бы один идентификатор не найден, то ни одна запись не удаляется.
+     *
+     * @param manufacturerIds список уникальных идентификаторов, которые необходимо удалить.
+     * @return список ManufacturerDTO с данными об удаленных производителях.
+     * @throws InsufficientDataException  если список идентификаторов пуст или содержит null.
+     * @throws ResourcesNotFoundException если хотя бы один производитель не найден (исключение содержит все отсутствующие id).
+     */
+    @Override
+    @Transactional
+    public List<ManufacturerDTO> removeEntitiesByIds(List<Integer> manufacturerIds) {
+        BatchEntityLoader.checkIds(manufacturerIds);
+        var removedJsons = manufacturerRepository.deleteAllByIdReturningJson(new LinkedHashSet<>(manufacturerIds));
+        var removedManufacturers = deletedEntityReader.readDtosInRequestedOrder(
+                removedJsons, ManufacturerDTO.class, manufacturerIds, ManufacturerDTO::getId, "Manufacturer");
+        new LinkedHashSet<>(manufacturerIds).forEach(removedId ->
+                eventPublisher.publishEvent(CatalogChangedEvent.removed(ManufacturerEntity.class, removedId)));
+        return removedManufacturers;
+    }
+
     /**
      * Полностью обновляет информацию о производителе в базе данных и возвращает DTO с обновленной информацией.
      * Этот метод требует полного объекта ManufacturerDTO, содержащего информацию о производителе,
@@ -130,6 +219,7 @@ public class ManufacturerService implements CrudService<ManufacturerDTO, Integer
         var persistentCountry = countryExtractor.getPersistentEntity(countryDTO);
         persistentManufacturer.setCountry(persistentCountry);
 
+        eventPublisher.publishEvent(CatalogChangedEvent.updated(ManufacturerEntity.class, manufacturerId));
         return mapper.map(persistentManufacturer, ManufacturerDTO.class);
     }
 
@@ -160,6 +250,7 @@ public class ManufacturerService implements CrudService<ManufacturerDTO, Integer
             persistentManufacturer.setCountry(persistentCountryEntity);
         }
 
+        eventPublisher.publishEvent(CatalogChangedEvent.updated(ManufacturerEntity.class, manufacturerId));
         return mapper.map(persistentManufacturer, ManufacturerDTO.class);
     }
 
@@ -4,32 +4,48 @@ import lombok.AccessLevel;
 import lombok.experimental.FieldDefaults;
 import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.barikhashvili.dto.specs.OperatingSystemDTO;
 import ru.barikhashvili.entities.specs.OperatingSystemEntity;
+import ru.barikhashvili.events.CatalogChangedEvent;
 import ru.barikhashvili.exceptions.InsufficientDataException;
 import ru.barikhashvili.exceptions.ResourceNotFoundException;
+import ru.barikhashvili.exceptions.ResourcesNotFoundException;
 import ru.barikhashvili.repositories.OperatingSystemRepository;
 import ru.barikhashvili.services.CrudService;
 import ru.barikhashvili.services.EntityExtractor;
+import ru.barikhashvili.services.UpsertService;
+import ru.barikhashvili.services.UpsertedEntity;
+import ru.barikhashvili.services.utils.BatchEntityLoader;
+import ru.barikhashvili.services.utils.DeletedEntityReader;
+import ru.barikhashvili.services.utils.NaturalKeyUpsert;
 
+import java.util.LinkedHashSet;
 import java.util.List;
 
 @Service
 @FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
-public class OperatingSystemService implements CrudService<OperatingSystemDTO, Integer>,
+public class OperatingSystemService implements CrudService<OperatingSystemDTO, Integer>, UpsertService<OperatingSystemDTO>,
         EntityExtractor<OperatingSystemDTO, OperatingSystemEntity, Integer> {
     OperatingSystemRepository operatingSystemRepository;
+    DeletedEntityReader deletedEntityReader;
     ModelMapper mapper;
     ModelMapper nullableMapper;
+    ApplicationEventPublisher eventPublisher;
 
     public OperatingSystemService(OperatingSystemRepository operatingSystemRepository,
+                                  DeletedEntityReader deletedEntityReader,
                                   @Qualifier("modelMapper") ModelMapper mapper,
-                                  @Qualifier("nullableModelMapper") ModelMapper nullableMapper) {
+                                  @Lazy @Qualifier("nullableModelMapper") ModelMapper nullableMapper,
+                                  ApplicationEventPublisher eventPublisher) {
         this.operatingSystemRepository = operatingSystemRepository;
+        this.deletedEntityReader = deletedEntityReader;
         this.mapper = mapper;
         this.nullableMapper = nullableMapper;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -47,9 +63,35 @@ public class OperatingSystemService implements CrudService<OperatingSystemDTO, I
         var transientOperatingSystem = mapper.map(operatingSystemDTO, OperatingSystemEntity.class);
         var persistentOperatingSystem = operatingSystemRepository.save(transientOperatingSystem);
 
+        eventPublisher.publishEvent(CatalogChangedEvent.created(OperatingSystemEntity.class, persistentOperatingSystem.getId()));
         return mapper.map(persistentOperatingSystem, OperatingSystemDTO.class);
     }
 
+    /**
+     * Добавляет операционную систему, если операционной системы с такими же названием и версией
+     * еще нет в базе данных, иначе возвращает существующую операционную систему.
+     *
+     * @param operatingSystemDTO объект DTO со сведениями об операционной системе (DTO должен содержать полные сведения).
+     * @return DTO добавленной или существующей операционной системы и признак того, что операционная система была добавлена.
+     * @throws InsufficientDataException если сведения об операционной системе отсутствуют.
+     */
+    @Override
+    @Transactional
+    public UpsertedEntity<OperatingSystemDTO> upsertEntity(OperatingSystemDTO operatingSystemDTO) {
+        var transientOperatingSystem = mapper.map(operatingSystemDTO, OperatingSystemEntity.class);
+
+        var upsertResult = NaturalKeyUpsert.execute(() -> operatingSystemRepository.upsert(
+                transientOperatingSystem.getName(), transientOperatingSystem.getVersion()));
+        transientOperatingSystem.setId(upsertResult.getId());
+
+        if (upsertResult.getChanged()) {
+            eventPublisher.publishEvent(upsertResult.getInserted()
+                    ? CatalogChangedEvent.created(OperatingSystemEntity.class, upsertResult.getId())
+                    : CatalogChangedEvent.updated(OperatingSystemEntity.class, upsertResult.getId()));
+        }
+        return new UpsertedEntity<>(mapper.map(transientOperatingSystem, OperatingSystemDTO.class), upsertResult.getInserted());
+    }
+
     /**
      * Находит и возвращает данные об операционной системе с указанным идентификатором в виде DTO.
      *
@@ -58,6 +100,7 @@ public class OperatingSystemService implements CrudService<OperatingSystemDTO, I
      * @throws ResourceNotFoundException если операционная система с указанным id не найдена в базе данных
      */
     @Override
+    @Transactional(readOnly = true)
     public OperatingSystemDTO getEntityById(Integer operatingSystemId) {
         var persistentOperatingSystem = getPersistentEntityById(operatingSystemId);
         return mapper.map(persistentOperatingSystem, OperatingSystemDTO.class);
@@ -70,6 +113,7 @@ public class OperatingSystemService implements CrudService<OperatingSystemDTO, I
      * @return список OperatingSystemDTO с полными сведениями о всех операционных системах из базы данных.
      */
     @Override
+    @Transactional(readOnly = true)
     public List<OperatingSystemDTO> getAllEntities() {
         var persistentOperatingSystems = operatingSystemRepository.findAllByOrderByNameAscVersionAsc();
         return persistentOperatingSystems.stream()
@@ -77,6 +121,25 @@ public class OperatingSystemService implements CrudService<OperatingSystemDTO, I
                 .toList();
     }
 
+    /**
+     * Находит и возвращает операционные системы с указанными идентификаторами за один запрос к базе данных.
+     * Порядок элементов в возвращаемом списке совпадает с порядком идентификаторов в operatingSystemIds.
+     *
+     * @param operatingSystemIds список уникальных идентификаторов операционных систем, которые необходимо найти.
+     * @return список OperatingSystemDTO с полными сведениями об операционных системах в порядке следования идентификаторов.
+     * @throws InsufficientDataException если список идентификаторов пуст или содержит null.
+     * @throws ResourcesNotFoundException если хотя бы одна операционная система не найдена (исключение содержит все отсутствующие id).
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<OperatingSystemDTO> getEntitiesByIds(List<Integer> operatingSystemIds) {
+        var persistentOperatingSystems = BatchEntityLoader.findAllByIdsInRequestedOrder(
+                operatingSystemRepository, operatingSystemIds, OperatingSystemEntity::getId, "Operating system");
+        return persistentOperatingSystems.stream()
+                .map(operatingSystem -> mapper.map(operatingSystem, OperatingSystemDTO.class))
+                .toList();
+    }
+
     /**
      * Удаляет операционную систему с указанным id из базы данных и возвращает DTO с данными
      * об удаленной операционной системе.
@@ -87,11 +150,35 @@ public class OperatingSystemService implements CrudService<OperatingSystemDTO, I
     @Override
     @Transactional
     public OperatingSystemDTO removeEntityById(Integer operatingSystemId) {
-        var removedOperatingSystem = getEntityById(operatingSystemId);
-        operatingSystemRepository.deleteById(operatingSystemId);
+        var removedOperatingSystem = operatingSystemRepository.deleteByIdReturningJson(operatingSystemId)
+                .map(json -> deletedEntityReader.readDto(json, OperatingSystemDTO.class))
+                .orElseThrow(() -> new ResourceNotFoundException("Operating system not found"));
+        eventPublisher.publishEvent(CatalogChangedEvent.removed(OperatingSystemEntity.class, operatingSystemId));
         return removedOperatingSystem;
     }
 
+    /**
+     * Удаляет операционные системы с указанными идентификаторами одним запросом DELETE ... RETURNING и возвращает
+     * сведения об удаленных операционных системах в порядке следования идентификаторов.
+     * Если хотя бы один идентификатор не найден, то ни одна запись не удаляется.
+     *
+     * @param operatingSystemIds список уникальных идентификаторов, которые необходимо удалить.
+     * @return список OperatingSystemDTO с данными об удаленных операционных системах.
+     * @throws InsufficientDataException  если список идентификаторов пуст или содержит null.
+     * @throws ResourcesNotFoundException если хотя бы один операционная система не найдена (исключение содержит все отсутствующие id).
+     */
+    @Override
+    @Transactional
+    public List<OperatingSystemDTO> removeEntitiesByIds(List<Integer> operatingSystemIds) {
+        BatchEntityLoader.checkIds(operatingSystemIds);
+        var removedJsons = operatingSystemRepository.deleteAllByIdReturningJson(new LinkedHashSet<>(operatingSystemIds));
+        var removedOperatingSystems = deletedEntityReader.readDtosInRequestedOrder(
+                removedJsons, OperatingSystemDTO.class, operatingSystemIds, OperatingSystemDTO::getId, "Operating system");
+        new LinkedHashSet<>(operatingSystemIds).forEach(removedId ->
+                eventPublisher.publishEvent(CatalogChangedEvent.removed(OperatingSystemEntity.class, removedId)));
+        return removedOperatingSystems;
+    }
+
     /**
      * Полностью обновляет информацию об операционной системе в базе данных и возвращает DTO объект с обновленной информацией.
      * Этот метод требует, чтобы полученный в аргументе operatingSystemDTO содержал полную информацию об операционной системе.
@@ -110,6 +197,7 @@ public class OperatingSystemService implements CrudService<OperatingSystemDTO, I
         var persistentOperatingSystem = getPersistentEntityById(operatingSystemId);
         mapper.map(operatingSystemDTO, persistentOperatingSystem);
         operatingSystemRepository.save(persistentOperatingSystem);
+        eventPublisher.publishEvent(CatalogChangedEvent.updated(OperatingSystemEntity.class, operatingSystemId));
         return mapper.map(persistentOperatingSystem, OperatingSystemDTO.class);
     }
 
@@ -130,6 +218,7 @@ public class OperatingSystemService implements CrudService<OperatingSystemDTO, I
         var persistentOperatingSystem = getPersistentEntityById(operatingSystemId);
         nullableMapper.map(operatingSystemDTO, persistentOperatingSystem);
         operatingSystemRepository.save(persistentOperatingSystem);
+        eventPublisher.publishEvent(CatalogChangedEvent.updated(OperatingSystemEntity.class, operatingSystemId));
         return mapper.map(persistentOperatingSystem, OperatingSystemDTO.class);
     }
 
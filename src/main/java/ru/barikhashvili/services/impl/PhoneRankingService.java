@@ -0,0 +1,76 @@
+package ru.barikhashvili.services.impl;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.modelmapper.ModelMapper;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.barikhashvili.dto.PhoneDTO;
+import ru.barikhashvili.repositories.PhoneRepository;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Рейтинги телефонов, которые вычисляются базой данных по индексам без загрузки всего каталога.
+ */
+@Service
+@FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
+public class PhoneRankingService {
+    public static final int MAX_TOP_SIZE = 100;
+    public static final BigDecimal MIN_PPI = BigDecimal.ZERO;
+    public static final BigDecimal MAX_PPI = new BigDecimal("99999999.99");
+
+    PhoneRepository phoneRepository;
+    ModelMapper mapper;
+
+    public PhoneRankingService(PhoneRepository phoneRepository,
+                               @Qualifier("modelMapper") ModelMapper mapper) {
+        this.phoneRepository = phoneRepository;
+        this.mapper = mapper;
+    }
+
+    /**
+     * Находит телефоны с самыми производительными процессорами. Телефоны упорядочены по убыванию оценки
+     * производительности процессора (performanceScore), при равной оценке - по идентификатору процессора,
+     * телефоны с одним процессором - по идентификатору телефона.
+     *
+     * @param limit количество телефонов (не больше {@value #MAX_TOP_SIZE}).
+     * @return список PhoneDTO с полными сведениями о телефонах.
+     */
+    @Transactional(readOnly = true)
+    public List<PhoneDTO> getTopByProcessorPerformance(int limit) {
+        var topLimit = Limit.of(Math.max(1, Math.min(limit, MAX_TOP_SIZE)));
+        return phoneRepository.findTopByProcessorPerformanceScore(topLimit)
+                .stream()
+                .map(phone -> mapper.map(phone, PhoneDTO.class))
+                .toList();
+    }
+
+    /**
+     * Находит телефоны, плотность пикселей (PPI) дисплея которых находится в указанном диапазоне. Телефоны
+     * упорядочены по плотности пикселей дисплея в указанном направлении, при равной плотности - по идентификатору.
+     *
+     * @param minPpi    минимальная плотность пикселей (включительно), null - без ограничения.
+     * @param maxPpi    максимальная плотность пикселей (включительно), null - без ограничения.
+     * @param direction направление сортировки по плотности пикселей.
+     * @param limit     количество телефонов (не больше {@value #MAX_TOP_SIZE}).
+     * @return список PhoneDTO с полными сведениями о телефонах.
+     */
+    @Transactional(readOnly = true)
+    public List<PhoneDTO> getByDisplayPpi(BigDecimal minPpi, BigDecimal maxPpi, Sort.Direction direction, int limit) {
+        var min = minPpi == null ? MIN_PPI : minPpi;
+        var max = maxPpi == null ? MAX_PPI : maxPpi;
+        var topLimit = Limit.of(Math.max(1, Math.min(limit, MAX_TOP_SIZE)));
+        var persistentPhones = switch (direction) {
+            case ASC -> phoneRepository.findByDisplayPpiRangeAsc(min, max, topLimit);
+            case DESC -> phoneRepository.findByDisplayPpiRangeDesc(min, max, topLimit);
+        };
+        return persistentPhones.stream()
+                .map(phone -> mapper.map(phone, PhoneDTO.class))
+                .toList();
+    }
+}
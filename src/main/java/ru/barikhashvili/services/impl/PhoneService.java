@@ -1,50 +1,102 @@
 package ru.barikhashvili.services.impl;
 
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
 import lombok.AccessLevel;
 import lombok.experimental.FieldDefaults;
 import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.barikhashvili.dto.PhoneDTO;
+import ru.barikhashvili.dto.PhoneVariantDTO;
 import ru.barikhashvili.dto.specs.ManufacturerDTO;
 import ru.barikhashvili.dto.specs.PhoneSpecificationDTO;
 import ru.barikhashvili.entities.PhoneEntity;
+import ru.barikhashvili.entities.PhoneVariantEntity;
 import ru.barikhashvili.entities.specs.ManufacturerEntity;
 import ru.barikhashvili.entities.specs.PhoneSpecificationEntity;
+import ru.barikhashvili.events.CatalogChangedEvent;
+import ru.barikhashvili.events.PhoneVariantStockChangedEvent;
 import ru.barikhashvili.exceptions.InsufficientDataException;
 import ru.barikhashvili.exceptions.ResourceNotFoundException;
+import ru.barikhashvili.exceptions.ResourcesNotFoundException;
+import ru.barikhashvili.exceptions.UnknownFieldsException;
+import ru.barikhashvili.repositories.ManufacturerRepository;
 import ru.barikhashvili.repositories.PhoneRepository;
+import ru.barikhashvili.repositories.PhoneSpecificationRepository;
+import ru.barikhashvili.repositories.PhoneVariantRepository;
+import ru.barikhashvili.repositories.projections.PhoneMinPrice;
+import ru.barikhashvili.repositories.projections.PhoneSummary;
 import ru.barikhashvili.services.CrudService;
 import ru.barikhashvili.services.EntityExtractor;
+import ru.barikhashvili.services.FieldSelectiveService;
+import ru.barikhashvili.services.utils.BatchEntityLoader;
+import ru.barikhashvili.services.utils.DeletedEntityReader;
 import ru.barikhashvili.services.utils.DtoToEntityConverter;
+import ru.barikhashvili.services.utils.EntityVersions;
+import ru.barikhashvili.services.utils.SparseDtoConverter;
 
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
 public class PhoneService implements CrudService<PhoneDTO, Long>,
-        EntityExtractor<PhoneDTO, PhoneEntity, Long> {
+        EntityExtractor<PhoneDTO, PhoneEntity, Long>,
+        FieldSelectiveService<PhoneDTO, Long> {
     PhoneRepository phoneRepository;
+    PhoneVariantRepository phoneVariantRepository;
+    ManufacturerRepository manufacturerRepository;
+    PhoneSpecificationRepository phoneSpecificationRepository;
     EntityExtractor<ManufacturerDTO, ManufacturerEntity, Integer> manufacturerExtractor;
     EntityExtractor<PhoneSpecificationDTO, PhoneSpecificationEntity, Long> specificationExtractor;
     DtoToEntityConverter converter;
+    SparseDtoConverter sparseConverter;
+    DeletedEntityReader deletedEntityReader;
     ModelMapper mapper;
     ModelMapper nullableMapper;
+    ApplicationEventPublisher eventPublisher;
+    EntityManager entityManager;
 
     public PhoneService(PhoneRepository phoneRepository,
+                        PhoneVariantRepository phoneVariantRepository,
+                        ManufacturerRepository manufacturerRepository,
+                        PhoneSpecificationRepository phoneSpecificationRepository,
                         EntityExtractor<ManufacturerDTO, ManufacturerEntity, Integer> manufacturerExtractor,
                         EntityExtractor<PhoneSpecificationDTO, PhoneSpecificationEntity, Long> specificationExtractor,
                         DtoToEntityConverter converter,
+                        SparseDtoConverter sparseConverter,
+                        DeletedEntityReader deletedEntityReader,
                         @Qualifier("modelMapper") ModelMapper mapper,
-                        @Qualifier("nullableModelMapper") ModelMapper nullableMapper) {
+                        @Lazy @Qualifier("nullableModelMapper") ModelMapper nullableMapper,
+                        ApplicationEventPublisher eventPublisher,
+                        EntityManager entityManager) {
         this.phoneRepository = phoneRepository;
+        this.phoneVariantRepository = phoneVariantRepository;
+        this.manufacturerRepository = manufacturerRepository;
+        this.phoneSpecificationRepository = phoneSpecificationRepository;
         this.manufacturerExtractor = manufacturerExtractor;
         this.specificationExtractor = specificationExtractor;
+        this.deletedEntityReader = deletedEntityReader;
         this.mapper = mapper;
         this.nullableMapper = nullableMapper;
+        this.eventPublisher = eventPublisher;
+        this.entityManager = entityManager;
 
         this.converter = converter;
+        this.sparseConverter = sparseConverter;
     }
 
     /**
@@ -68,6 +120,73 @@ public class PhoneService implements CrudService<PhoneDTO, Long>,
         entity.setSpecification(persistentSpecification);
     }
 
+    /**
+     * Приводит варианты телефона в соответствие со списком DTO. Для каждого варианта, цена или количество
+     * которого изменились, публикуется событие PhoneVariantStockChangedEvent.
+     *
+     * @param phoneVariantDTOs список DTO вариантов телефона.
+     * @param phone            сущность телефона, варианты которого необходимо изменить.
+     * @return true, если варианты телефона изменились.
+     */
+    private boolean mergePhoneVariants(List<PhoneVariantDTO> phoneVariantDTOs, PhoneEntity phone) {
+        var previousVariants = new HashMap<Integer, PhoneVariantDTO>();
+        phone.getPhoneVariants().forEach(phoneVariant -> previousVariants.put(phoneVariant.getVariant().getId(),
+                PhoneVariantDTO.builder().price(phoneVariant.getPrice()).quantity(phoneVariant.getQuantity()).build()));
+
+        if (!converter.mergePhoneVariants(phoneVariantDTOs, phone)) {
+            return false;
+        }
+
+        var manufacturerId = phone.getManufacturer() == null ? null : phone.getManufacturer().getId();
+        for (var phoneVariant : phone.getPhoneVariants()) {
+            var previousVariant = previousVariants.remove(phoneVariant.getVariant().getId());
+            if (previousVariant == null
+                    || previousVariant.getPrice().compareTo(phoneVariant.getPrice()) != 0
+                    || previousVariant.getQuantity() != phoneVariant.getQuantity()) {
+                eventPublisher.publishEvent(new PhoneVariantStockChangedEvent(phone.getId(), manufacturerId,
+                        phoneVariant.getVariant().getId(), phoneVariant.getPrice(), phoneVariant.getQuantity()));
+            }
+        }
+        previousVariants.forEach((variantId, removedVariant) -> eventPublisher.publishEvent(
+                new PhoneVariantStockChangedEvent(phone.getId(), manufacturerId, variantId, removedVariant.getPrice(), 0)));
+        return true;
+    }
+
+    /**
+     * Сбрасывает изменения телефона в базу данных и возвращает версию, которую телефон получит после фиксации
+     * транзакции. Изменение цены или количества существующего варианта не изменяет строку телефона, поэтому,
+     * если при сбросе версия не увеличилась, она увеличивается явно блокировкой OPTIMISTIC_FORCE_INCREMENT:
+     * перед фиксацией Hibernate выполняет условную запись
+     * {@code UPDATE phones SET version = ? WHERE id = ? AND version = ?} без блокировки чтения строки,
+     * и ETag телефона изменяется при любом изменении его вариантов.
+     *
+     * @param phone           сущность изменяемого телефона.
+     * @param variantsChanged true, если варианты телефона изменились.
+     * @return версия телефона после фиксации транзакции.
+     */
+    private Long flushPhone(PhoneEntity phone, boolean variantsChanged) {
+        var loadedVersion = phone.getVersion();
+        phoneRepository.flush();
+        if (!variantsChanged || !phone.getVersion().equals(loadedVersion)) {
+            return phone.getVersion();
+        }
+        entityManager.lock(phone, LockModeType.OPTIMISTIC_FORCE_INCREMENT);
+        return phone.getVersion() + 1;
+    }
+
+    /**
+     * Публикует события PhoneVariantStockChangedEvent для всех вариантов добавленного или удаленного телефона.
+     *
+     * @param phone   DTO телефона с вариантами и производителем.
+     * @param removed true, если телефон удален (в событиях указывается нулевое количество).
+     */
+    private void publishStockChanges(PhoneDTO phone, boolean removed) {
+        var manufacturerId = phone.getManufacturer() == null ? null : phone.getManufacturer().getId();
+        phone.getPhoneVariants().forEach(phoneVariant -> eventPublisher.publishEvent(
+                new PhoneVariantStockChangedEvent(phone.getId(), manufacturerId, phoneVariant.getVariant().getId(),
+                        phoneVariant.getPrice(), removed ? 0 : phoneVariant.getQuantity())));
+    }
+
     /**
      * Добавляет новый телефон в базу данных и возвращает информацию о добавленном телефоне.
      * Также метод добавляет записи о всех указанных вариантах телефона в таблицу phones_variants.
@@ -85,13 +204,14 @@ public class PhoneService implements CrudService<PhoneDTO, Long>,
 
         getNewDataAndReplaceCurrent(transientPhone, phoneDTO);
 
-        var phoneVariants = phoneDTO.getPhoneVariants();
-        var variants = converter.phoneVariantDtoListToEntities(phoneVariants, transientPhone);
-        transientPhone.setPhoneVariants(variants);
+        converter.phoneVariantDtoListToEntities(phoneDTO.getPhoneVariants(), transientPhone);
 
         var persistentPhone = phoneRepository.save(transientPhone);
 
-        return mapper.map(persistentPhone, PhoneDTO.class);
+        var savedPhone = mapper.map(persistentPhone, PhoneDTO.class);
+        eventPublisher.publishEvent(CatalogChangedEvent.created(PhoneEntity.class, persistentPhone.getId()));
+        publishStockChanges(savedPhone, false);
+        return savedPhone;
     }
 
     /**
@@ -102,6 +222,7 @@ public class PhoneService implements CrudService<PhoneDTO, Long>,
      * @throws ResourceNotFoundException если телефон с указанным id не найден в базе данных
      */
     @Override
+    @Transactional(readOnly = true)
     public PhoneDTO getEntityById(Long id) {
         var persistentPhone = getPersistentEntityById(id);
         return mapper.map(persistentPhone, PhoneDTO.class);
@@ -114,7 +235,7 @@ public class PhoneService implements CrudService<PhoneDTO, Long>,
      * @return список PhoneDTO с полными сведениями о всех телефонах из базы данных.
      */
     @Override
-    @Transactional
+    @Transactional(readOnly = true)
     public List<PhoneDTO> getAllEntities() {
         var persistentPhones = phoneRepository.findAllByOrderByModelAsc();
         return persistentPhones.stream()
@@ -122,6 +243,142 @@ public class PhoneService implements CrudService<PhoneDTO, Long>,
                 .toList();
     }
 
+    /**
+     * Находит и возвращает телефоны с указанными идентификаторами за один запрос к базе данных.
+     * Порядок элементов в возвращаемом списке совпадает с порядком идентификаторов в ids.
+     *
+     * @param ids список уникальных идентификаторов телефонов, которые необходимо найти.
+     * @return список PhoneDTO с полными сведениями о телефонах в порядке следования идентификаторов.
+     * @throws InsufficientDataException если список идентификаторов пуст или содержит null.
+     * @throws ResourcesNotFoundException если хотя бы один телефон не найден (исключение содержит все отсутствующие id).
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<PhoneDTO> getEntitiesByIds(List<Long> ids) {
+        var persistentPhones = BatchEntityLoader.findAllByIdsInRequestedOrder(
+                phoneRepository, ids, PhoneEntity::getId, "Phone");
+        return persistentPhones.stream()
+                .map(phone -> mapper.map(phone, PhoneDTO.class))
+                .toList();
+    }
+
+    /**
+     * Находит и возвращает список всех телефонов, в котором заполнены только запрошенные поля.
+     * Телефоны читаются проекцией из столбцов таблицы телефонов, а каждая запрошенная связь (производитель,
+     * характеристика, варианты) загружается одним запросом. Незапрошенные связи не загружаются из базы данных.
+     * Минимальная цена (minPrice) вычисляется одним агрегирующим запросом, если варианты телефонов не запрошены.
+     *
+     * @param fields названия полей PhoneDTO, которые необходимо заполнить.
+     * @return список PhoneDTO, отсортированный по названию модели, с заполненными запрошенными полями.
+     * @throws UnknownFieldsException если запрошено поле, отсутствующее в PhoneDTO.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<PhoneDTO> getAllEntities(Set<String> fields) {
+        sparseConverter.checkFields(fields, SparseDtoConverter.PHONE_FIELDS);
+
+        var phones = phoneRepository.findAllSummariesByOrderByModelAsc();
+        var specificationsById = fields.contains("specification")
+                ? phoneSpecificationRepository.findAll()
+                        .stream()
+                        .collect(Collectors.toMap(PhoneSpecificationEntity::getId, Function.identity()))
+                : Collections.<Long, PhoneSpecificationEntity>emptyMap();
+        var variantsByPhoneId = fields.contains("phoneVariants")
+                ? groupByPhoneId(phoneVariantRepository.findAllWithVariants())
+                : Collections.<Long, List<PhoneVariantEntity>>emptyMap();
+        var minPrices = isMinPriceQueryRequired(fields)
+                ? phoneVariantRepository.findMinPricesOfAllPhones()
+                        .stream()
+                        .collect(Collectors.toMap(PhoneMinPrice::getPhoneId, PhoneMinPrice::getMinPrice))
+                : Collections.<Long, BigDecimal>emptyMap();
+
+        return toSparseDtos(phones, fields, specificationsById, variantsByPhoneId, minPrices);
+    }
+
+    /**
+     * Находит и возвращает телефон с указанным идентификатором, в котором заполнены только запрошенные поля.
+     *
+     * @param id     уникальный идентификатор телефона, который необходимо найти.
+     * @param fields названия полей PhoneDTO, которые необходимо заполнить.
+     * @return объект PhoneDTO с заполненными запрошенными полями.
+     * @throws ResourceNotFoundException если телефон с указанным id не найден в базе данных.
+     * @throws UnknownFieldsException    если запрошено поле, отсутствующее в PhoneDTO.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public PhoneDTO getEntityById(Long id, Set<String> fields) {
+        sparseConverter.checkFields(fields, SparseDtoConverter.PHONE_FIELDS);
+
+        var phone = phoneRepository.findSummaryById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Phone not found"));
+        var specificationsById = fields.contains("specification") && phone.getSpecificationId() != null
+                ? phoneSpecificationRepository.findById(phone.getSpecificationId())
+                        .stream()
+                        .collect(Collectors.toMap(PhoneSpecificationEntity::getId, Function.identity()))
+                : Collections.<Long, PhoneSpecificationEntity>emptyMap();
+        var variantsByPhoneId = fields.contains("phoneVariants")
+                ? groupByPhoneId(phoneVariantRepository.findAllWithVariantsByPhoneId(id))
+                : Collections.<Long, List<PhoneVariantEntity>>emptyMap();
+        var minPrices = new HashMap<Long, BigDecimal>();
+        if (isMinPriceQueryRequired(fields)) {
+            minPrices.put(id, phoneVariantRepository.findMinPriceByPhoneId(id));
+        }
+
+        return toSparseDtos(List.of(phone), fields, specificationsById, variantsByPhoneId, minPrices).get(0);
+    }
+
+    /**
+     * Собирает PhoneDTO с запрошенными полями из проекций телефонов и загруженных связей. Производители
+     * загружаются одним запросом по идентификаторам из проекций, только если они запрошены.
+     */
+    private List<PhoneDTO> toSparseDtos(List<PhoneSummary> phones,
+                                        Set<String> fields,
+                                        Map<Long, PhoneSpecificationEntity> specificationsById,
+                                        Map<Long, List<PhoneVariantEntity>> variantsByPhoneId,
+                                        Map<Long, BigDecimal> minPrices) {
+        var manufacturersById = fields.contains("manufacturer")
+                ? manufacturerRepository.findAllById(phones.stream()
+                                .map(PhoneSummary::getManufacturerId)
+                                .filter(Objects::nonNull)
+                                .collect(Collectors.toSet()))
+                        .stream()
+                        .collect(Collectors.toMap(ManufacturerEntity::getId, Function.identity()))
+                : Collections.<Integer, ManufacturerEntity>emptyMap();
+
+        return phones.stream()
+                .map(phone -> {
+                    var phoneVariants = variantsByPhoneId.getOrDefault(phone.getId(), List.of());
+                    return sparseConverter.phoneSummaryToDto(phone, fields,
+                            manufacturersById.get(phone.getManufacturerId()),
+                            specificationsById.get(phone.getSpecificationId()),
+                            phoneVariants,
+                            fields.contains("phoneVariants")
+                                    ? calculateMinPrice(phoneVariants)
+                                    : minPrices.get(phone.getId()));
+                })
+                .toList();
+    }
+
+    private Map<Long, List<PhoneVariantEntity>> groupByPhoneId(List<PhoneVariantEntity> phoneVariants) {
+        return phoneVariants.stream()
+                .collect(Collectors.groupingBy(phoneVariant -> phoneVariant.getPhone().getId()));
+    }
+
+    /**
+     * Минимальную цену необходимо запрашивать из базы данных, если она запрошена,
+     * а варианты телефона, по которым её можно вычислить, не загружаются.
+     */
+    private boolean isMinPriceQueryRequired(Set<String> fields) {
+        return fields.contains("minPrice") && !fields.contains("phoneVariants");
+    }
+
+    private BigDecimal calculateMinPrice(List<PhoneVariantEntity> phoneVariants) {
+        return phoneVariants.stream()
+                .map(PhoneVariantEntity::getPrice)
+                .min(Comparator.naturalOrder())
+                .orElse(null);
+    }
+
     /**
      * Удаляет телефон с указанным id из базы данных и возвращает сведения об удаленном телефоне.
      *
@@ -131,11 +388,37 @@ public class PhoneService implements CrudService<PhoneDTO, Long>,
     @Override
     @Transactional
     public PhoneDTO removeEntityById(Long id) {
-        var removedPhone = getEntityById(id);
-        phoneRepository.deleteById(id);
+        var removedPhone = phoneRepository.deleteByIdReturningJson(id)
+                .map(json -> deletedEntityReader.readDto(json, PhoneDTO.class))
+                .orElseThrow(() -> new ResourceNotFoundException("Phone not found"));
+        eventPublisher.publishEvent(CatalogChangedEvent.removed(PhoneEntity.class, id));
+        publishStockChanges(removedPhone, true);
         return removedPhone;
     }
 
+    /**
+     * Удаляет телефоны вместе с их характеристиками с указанными идентификаторами одним запросом DELETE ... RETURNING и возвращает
+     * сведения об удаленных телефонах в порядке следования идентификаторов.
+     * Если хотя бы один идентификатор не найден, то ни одна запись не удаляется.
+     *
+     * @param ids список уникальных идентификаторов, которые необходимо удалить.
+     * @return список PhoneDTO с данными об удаленных телефонах.
+     * @throws InsufficientDataException  если список идентификаторов пуст или содержит null.
+     * @throws ResourcesNotFoundException если хотя бы один телефон не найден (исключение содержит все отсутствующие id).
+     */
+    @Override
+    @Transactional
+    public List<PhoneDTO> removeEntitiesByIds(List<Long> ids) {
+        BatchEntityLoader.checkIds(ids);
+        var removedJsons = phoneRepository.deleteAllByIdReturningJson(new LinkedHashSet<>(ids));
+        var removedPhones = deletedEntityReader.readDtosInRequestedOrder(
+                removedJsons, PhoneDTO.class, ids, PhoneDTO::getId, "Phone");
+        new LinkedHashSet<>(ids).forEach(removedId ->
+                eventPublisher.publishEvent(CatalogChangedEvent.removed(PhoneEntity.class, removedId)));
+        removedPhones.forEach(removedPhone -> publishStockChanges(removedPhone, true));
+        return removedPhones;
+    }
+
     /**
      * Полностью обновляет информацию о телефоне в базе данных и возвращает объект с обновленной информацией.
      * Этот метод требует, чтобы полученный в аргументе phoneDTO содержал полную информацию об изменяемом телефоне.
@@ -151,14 +434,17 @@ public class PhoneService implements CrudService<PhoneDTO, Long>,
     @Transactional
     public PhoneDTO editEntity(Long id, PhoneDTO phoneDTO) {
         var persistentPhone = getPersistentEntityById(id);
+        EntityVersions.checkVersion(persistentPhone.getVersion(), phoneDTO.getVersion(), "Phone");
         mapper.map(phoneDTO, persistentPhone);
         getNewDataAndReplaceCurrent(persistentPhone, phoneDTO);
 
-        var entities = converter.phoneVariantDtoListToEntities(phoneDTO.getPhoneVariants(), persistentPhone);
+        var variantsChanged = mergePhoneVariants(phoneDTO.getPhoneVariants(), persistentPhone);
+        var version = flushPhone(persistentPhone, variantsChanged);
 
-        persistentPhone.setPhoneVariants(entities);
-
-        return mapper.map(persistentPhone, PhoneDTO.class);
+        eventPublisher.publishEvent(CatalogChangedEvent.updated(PhoneEntity.class, id));
+        var editedPhone = mapper.map(persistentPhone, PhoneDTO.class);
+        editedPhone.setVersion(version);
+        return editedPhone;
     }
 
     /**
@@ -176,6 +462,7 @@ public class PhoneService implements CrudService<PhoneDTO, Long>,
     @Transactional
     public PhoneDTO editPartOfEntity(Long id, PhoneDTO phoneDTO) {
         var persistentPhone = getPersistentEntityById(id);
+        EntityVersions.checkVersion(persistentPhone.getVersion(), phoneDTO.getVersion(), "Phone");
         nullableMapper.map(phoneDTO, persistentPhone);
 
         var manufacturerDTO = phoneDTO.getManufacturer();
@@ -192,12 +479,14 @@ public class PhoneService implements CrudService<PhoneDTO, Long>,
             persistentPhone.setSpecification(persistentSpecification);
         }
 
-        if (!phoneDTO.getPhoneVariants().isEmpty()) {
-            var entities = converter.phoneVariantDtoListToEntities(phoneDTO.getPhoneVariants(), persistentPhone);
-            persistentPhone.setPhoneVariants(entities);
-        }
+        var variantsChanged = !phoneDTO.getPhoneVariants().isEmpty()
+                && mergePhoneVariants(phoneDTO.getPhoneVariants(), persistentPhone);
+        var version = flushPhone(persistentPhone, variantsChanged);
 
-        return mapper.map(persistentPhone, PhoneDTO.class);
+        eventPublisher.publishEvent(CatalogChangedEvent.updated(PhoneEntity.class, id));
+        var editedPhone = mapper.map(persistentPhone, PhoneDTO.class);
+        editedPhone.setVersion(version);
+        return editedPhone;
     }
 
     /**
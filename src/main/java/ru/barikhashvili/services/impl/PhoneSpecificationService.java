@@ -4,23 +4,36 @@ import lombok.AccessLevel;
 import lombok.experimental.FieldDefaults;
 import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.barikhashvili.dto.specs.*;
 import ru.barikhashvili.entities.specs.*;
+import ru.barikhashvili.events.CatalogChangedEvent;
 import ru.barikhashvili.exceptions.InsufficientDataException;
 import ru.barikhashvili.exceptions.ResourceNotFoundException;
+import ru.barikhashvili.exceptions.ResourcesNotFoundException;
+import ru.barikhashvili.exceptions.UnknownFieldsException;
 import ru.barikhashvili.repositories.PhoneSpecificationRepository;
 import ru.barikhashvili.services.CrudService;
 import ru.barikhashvili.services.EntityExtractor;
+import ru.barikhashvili.services.FieldSelectiveService;
+import ru.barikhashvili.services.utils.BatchEntityLoader;
+import ru.barikhashvili.services.utils.DeletedEntityReader;
 import ru.barikhashvili.services.utils.DtoToEntityConverter;
+import ru.barikhashvili.services.utils.EntityVersions;
+import ru.barikhashvili.services.utils.SparseDtoConverter;
 
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 @Service
 @FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
 public class PhoneSpecificationService implements CrudService<PhoneSpecificationDTO, Long>,
-        EntityExtractor<PhoneSpecificationDTO, PhoneSpecificationEntity, Long> {
+        EntityExtractor<PhoneSpecificationDTO, PhoneSpecificationEntity, Long>,
+        FieldSelectiveService<PhoneSpecificationDTO, Long> {
     PhoneSpecificationRepository phoneSpecificationRepository;
     EntityExtractor<OperatingSystemDTO, OperatingSystemEntity, Integer> operatingSystemExtractor;
     EntityExtractor<DisplayDTO, DisplayEntity, Integer> displayExtractor;
@@ -28,8 +41,11 @@ public class PhoneSpecificationService implements CrudService<PhoneSpecification
     EntityExtractor<BatteryDTO, BatteryEntity, Integer> batteryExtractor;
     EntityExtractor<CameraDTO, CameraEntity, Long> cameraExtractor;
     DtoToEntityConverter converter;
+    SparseDtoConverter sparseConverter;
+    DeletedEntityReader deletedEntityReader;
     ModelMapper mapper;
     ModelMapper nullableMapper;
+    ApplicationEventPublisher eventPublisher;
 
     public PhoneSpecificationService(PhoneSpecificationRepository phoneSpecificationRepository,
                                      EntityExtractor<OperatingSystemDTO, OperatingSystemEntity, Integer> operatingSystemExtractor,
@@ -38,8 +54,11 @@ public class PhoneSpecificationService implements CrudService<PhoneSpecification
                                      EntityExtractor<BatteryDTO, BatteryEntity, Integer> batteryExtractor,
                                      EntityExtractor<CameraDTO, CameraEntity, Long> cameraExtractor,
                                      DtoToEntityConverter converter,
+                                     SparseDtoConverter sparseConverter,
+                                     DeletedEntityReader deletedEntityReader,
                                      @Qualifier("modelMapper") ModelMapper mapper,
-                                     @Qualifier("nullableModelMapper") ModelMapper nullableMapper) {
+                                     @Lazy @Qualifier("nullableModelMapper") ModelMapper nullableMapper,
+                                     ApplicationEventPublisher eventPublisher) {
         this.phoneSpecificationRepository = phoneSpecificationRepository;
 
         this.operatingSystemExtractor = operatingSystemExtractor;
@@ -48,9 +67,12 @@ public class PhoneSpecificationService implements CrudService<PhoneSpecification
         this.batteryExtractor = batteryExtractor;
         this.cameraExtractor = cameraExtractor;
         this.converter = converter;
+        this.sparseConverter = sparseConverter;
 
+        this.deletedEntityReader = deletedEntityReader;
         this.mapper = mapper;
         this.nullableMapper = nullableMapper;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -107,6 +129,7 @@ public class PhoneSpecificationService implements CrudService<PhoneSpecification
 
         var persistentPhoneSpecification = phoneSpecificationRepository.save(transientPhoneSpecification);
 
+        eventPublisher.publishEvent(CatalogChangedEvent.created(PhoneSpecificationEntity.class, persistentPhoneSpecification.getId()));
         return mapper.map(persistentPhoneSpecification, PhoneSpecificationDTO.class);
     }
 
@@ -118,6 +141,7 @@ public class PhoneSpecificationService implements CrudService<PhoneSpecification
      * @throws ResourceNotFoundException если характеристика телефона с указанным id не найдена в базе данных
      */
     @Override
+    @Transactional(readOnly = true)
     public PhoneSpecificationDTO getEntityById(Long id) {
         var persistentPhoneSpecification = getPersistentEntityById(id);
         return mapper.map(persistentPhoneSpecification, PhoneSpecificationDTO.class);
@@ -129,7 +153,7 @@ public class PhoneSpecificationService implements CrudService<PhoneSpecification
      * @return список PhoneSpecificationDTO с полными сведениями о всех характеристиках телефонов из базы данных.
      */
     @Override
-    @Transactional
+    @Transactional(readOnly = true)
     public List<PhoneSpecificationDTO> getAllEntities() {
         var persistentPhoneSpecifications = phoneSpecificationRepository.findAllByOrderByIdAsc();
         return persistentPhoneSpecifications.stream()
@@ -137,6 +161,64 @@ public class PhoneSpecificationService implements CrudService<PhoneSpecification
                 .toList();
     }
 
+    /**
+     * Находит и возвращает характеристики телефонов с указанными идентификаторами за один запрос к базе данных.
+     * Порядок элементов в возвращаемом списке совпадает с порядком идентификаторов в ids.
+     *
+     * @param ids список уникальных идентификаторов характеристик телефонов, которые необходимо найти.
+     * @return список PhoneSpecificationDTO с полными сведениями о характеристиках телефонов в порядке следования идентификаторов.
+     * @throws InsufficientDataException если список идентификаторов пуст или содержит null.
+     * @throws ResourcesNotFoundException если хотя бы одна характеристика не найдена (исключение содержит все отсутствующие id).
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<PhoneSpecificationDTO> getEntitiesByIds(List<Long> ids) {
+        var persistentPhoneSpecifications = BatchEntityLoader.findAllByIdsInRequestedOrder(
+                phoneSpecificationRepository, ids, PhoneSpecificationEntity::getId, "Phone specification");
+        return persistentPhoneSpecifications.stream()
+                .map(phoneSpecification -> mapper.map(phoneSpecification, PhoneSpecificationDTO.class))
+                .toList();
+    }
+
+    /**
+     * Находит и возвращает список всех характеристик телефонов, в котором заполнены только запрошенные поля.
+     * Незапрошенные связанные сущности (операционная система, дисплей, процессор, аккумулятор, камеры)
+     * не загружаются из базы данных.
+     *
+     * @param fields названия полей PhoneSpecificationDTO, которые необходимо заполнить.
+     * @return список PhoneSpecificationDTO, отсортированный по id, с заполненными запрошенными полями.
+     * @throws UnknownFieldsException если запрошено поле, отсутствующее в PhoneSpecificationDTO.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<PhoneSpecificationDTO> getAllEntities(Set<String> fields) {
+        sparseConverter.checkFields(fields, SparseDtoConverter.SPECIFICATION_FIELDS);
+
+        var persistentPhoneSpecifications = phoneSpecificationRepository.findAllByOrderByIdAsc();
+        return persistentPhoneSpecifications.stream()
+                .map(phoneSpecification -> sparseConverter.phoneSpecEntityToDto(phoneSpecification, fields))
+                .toList();
+    }
+
+    /**
+     * Находит и возвращает характеристику телефона с указанным идентификатором, в которой
+     * заполнены только запрошенные поля.
+     *
+     * @param id     уникальный идентификатор характеристики телефона, которую необходимо найти.
+     * @param fields названия полей PhoneSpecificationDTO, которые необходимо заполнить.
+     * @return объект PhoneSpecificationDTO с заполненными запрошенными полями.
+     * @throws ResourceNotFoundException если характеристика с указанным id не найдена в базе данных.
+     * @throws UnknownFieldsException    если запрошено поле, отсутствующее в PhoneSpecificationDTO.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public PhoneSpecificationDTO getEntityById(Long id, Set<String> fields) {
+        sparseConverter.checkFields(fields, SparseDtoConverter.SPECIFICATION_FIELDS);
+
+        var persistentPhoneSpecification = getPersistentEntityById(id);
+        return sparseConverter.phoneSpecEntityToDto(persistentPhoneSpecification, fields);
+    }
+
     /**
      * Удаляет характеристику телефона с указанным id из базы данных и возвращает сведения об удаленной характеристике.
      *
@@ -146,11 +228,35 @@ public class PhoneSpecificationService implements CrudService<PhoneSpecification
     @Override
     @Transactional
     public PhoneSpecificationDTO removeEntityById(Long id) {
-        var removedPhoneSpecification = getEntityById(id);
-        phoneSpecificationRepository.deleteById(id);
+        var removedPhoneSpecification = phoneSpecificationRepository.deleteByIdReturningJson(id)
+                .map(json -> deletedEntityReader.readDto(json, PhoneSpecificationDTO.class))
+                .orElseThrow(() -> new ResourceNotFoundException("Phone specification not found"));
+        eventPublisher.publishEvent(CatalogChangedEvent.removed(PhoneSpecificationEntity.class, id));
         return removedPhoneSpecification;
     }
 
+    /**
+     * Удаляет характеристики телефонов с указанными идентификаторами одним запросом DELETE ... RETURNING и возвращает
+     * сведения об удаленных характеристиках телефонов в порядке следования идентификаторов.
+     * Если хотя бы один идентификатор не найден, то ни одна запись не удаляется.
+     *
+     * @param ids список уникальных идентификаторов, которые необходимо удалить.
+     * @return список PhoneSpecificationDTO с данными об удаленных характеристиках телефонов.
+     * @throws InsufficientDataException  если список идентификаторов пуст или содержит null.
+     * @throws ResourcesNotFoundException если хотя бы один характеристика телефона не найдена (исключение содержит все отсутствующие id).
+     */
+    @Override
+    @Transactional
+    public List<PhoneSpecificationDTO> removeEntitiesByIds(List<Long> ids) {
+        BatchEntityLoader.checkIds(ids);
+        var removedJsons = phoneSpecificationRepository.deleteAllByIdReturningJson(new LinkedHashSet<>(ids));
+        var removedPhoneSpecifications = deletedEntityReader.readDtosInRequestedOrder(
+                removedJsons, PhoneSpecificationDTO.class, ids, PhoneSpecificationDTO::getId, "Phone specification");
+        new LinkedHashSet<>(ids).forEach(removedId ->
+                eventPublisher.publishEvent(CatalogChangedEvent.removed(PhoneSpecificationEntity.class, removedId)));
+        return removedPhoneSpecifications;
+    }
+
     /**
      * Полностью обновляет информацию о характеристике телефона в базе данных и возвращает объект с обновленной информацией.
      * Этот метод требует, чтобы полученный в аргументе phoneSpecificationDTO содержал полную информацию об изменяемой характеристике телефона.
@@ -167,6 +273,8 @@ public class PhoneSpecificationService implements CrudService<PhoneSpecification
     @Transactional
     public PhoneSpecificationDTO editEntity(Long id, PhoneSpecificationDTO phoneSpecificationDTO) {
         var persistentPhoneSpecification = getPersistentEntityById(id);
+        EntityVersions.checkVersion(persistentPhoneSpecification.getVersion(), phoneSpecificationDTO.getVersion(),
+                "Phone specification");
         converter.fillEntityFromDTO(phoneSpecificationDTO, persistentPhoneSpecification);
 
         getNewDataAndReplaceCurrent(persistentPhoneSpecification, phoneSpecificationDTO);
@@ -176,7 +284,9 @@ public class PhoneSpecificationService implements CrudService<PhoneSpecification
                 .map(cameraExtractor::getPersistentEntity)
                 .toList();
         persistentPhoneSpecification.setCameras(persistentCameras);
+        phoneSpecificationRepository.flush();
 
+        eventPublisher.publishEvent(CatalogChangedEvent.updated(PhoneSpecificationEntity.class, id));
         return mapper.map(persistentPhoneSpecification, PhoneSpecificationDTO.class);
     }
 
@@ -195,6 +305,8 @@ public class PhoneSpecificationService implements CrudService<PhoneSpecification
     @Transactional
     public PhoneSpecificationDTO editPartOfEntity(Long id, PhoneSpecificationDTO phoneSpecificationDTO) {
         var persistentPhoneSpecification = getPersistentEntityById(id);
+        EntityVersions.checkVersion(persistentPhoneSpecification.getVersion(), phoneSpecificationDTO.getVersion(),
+                "Phone specification");
         nullableMapper.map(phoneSpecificationDTO, persistentPhoneSpecification);
 
         var operatingSystemDTO = phoneSpecificationDTO.getOperatingSystem();
@@ -234,7 +346,8 @@ public class PhoneSpecificationService implements CrudService<PhoneSpecification
             persistentPhoneSpecification.getCameras().addAll(persistentCameras);
         }
 
-        phoneSpecificationRepository.save(persistentPhoneSpecification);
+        phoneSpecificationRepository.saveAndFlush(persistentPhoneSpecification);
+        eventPublisher.publishEvent(CatalogChangedEvent.updated(PhoneSpecificationEntity.class, id));
         return mapper.map(persistentPhoneSpecification, PhoneSpecificationDTO.class);
     }
 
@@ -4,32 +4,48 @@ import lombok.AccessLevel;
 import lombok.experimental.FieldDefaults;
 import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.barikhashvili.dto.specs.ProcessorDTO;
 import ru.barikhashvili.entities.specs.ProcessorEntity;
+import ru.barikhashvili.events.CatalogChangedEvent;
 import ru.barikhashvili.exceptions.InsufficientDataException;
 import ru.barikhashvili.exceptions.ResourceNotFoundException;
+import ru.barikhashvili.exceptions.ResourcesNotFoundException;
 import ru.barikhashvili.repositories.ProcessorRepository;
 import ru.barikhashvili.services.CrudService;
 import ru.barikhashvili.services.EntityExtractor;
+import ru.barikhashvili.services.UpsertService;
+import ru.barikhashvili.services.UpsertedEntity;
+import ru.barikhashvili.services.utils.BatchEntityLoader;
+import ru.barikhashvili.services.utils.DeletedEntityReader;
+import ru.barikhashvili.services.utils.NaturalKeyUpsert;
 
+import java.util.LinkedHashSet;
 import java.util.List;
 
 @Service
 @FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
-public class ProcessorService implements CrudService<ProcessorDTO, Integer>,
+public class ProcessorService implements CrudService<ProcessorDTO, Integer>, UpsertService<ProcessorDTO>,
         EntityExtractor<ProcessorDTO, ProcessorEntity, Integer> {
     ProcessorRepository processorRepository;
+    DeletedEntityReader deletedEntityReader;
     ModelMapper mapper;
     ModelMapper nullableMapper;
+    ApplicationEventPublisher eventPublisher;
 
     public ProcessorService(ProcessorRepository processorRepository,
+                            DeletedEntityReader deletedEntityReader,
                             @Qualifier("modelMapper") ModelMapper mapper,
-                            @Qualifier("nullableModelMapper") ModelMapper nullableMapper) {
+                            @Lazy @Qualifier("nullableModelMapper") ModelMapper nullableMapper,
+                            ApplicationEventPublisher eventPublisher) {
         this.processorRepository = processorRepository;
+        this.deletedEntityReader = deletedEntityReader;
         this.mapper = mapper;
         this.nullableMapper = nullableMapper;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -47,9 +63,36 @@ public class ProcessorService implements CrudService<ProcessorDTO, Integer>,
         var transientProcessor = mapper.map(processorDTO, ProcessorEntity.class);
         var persistentProcessor = processorRepository.save(transientProcessor);
 
+        eventPublisher.publishEvent(CatalogChangedEvent.created(ProcessorEntity.class, persistentProcessor.getId()));
         return mapper.map(persistentProcessor, ProcessorDTO.class);
     }
 
+    /**
+     * Добавляет процессор, если процессора с такой же моделью еще нет в базе данных, иначе обновляет
+     * характеристики существующего процессора (если они отличаются) и возвращает его.
+     *
+     * @param processorDTO объект DTO со сведениями о процессоре (DTO должен содержать полные сведения).
+     * @return DTO добавленного или существующего процессора и признак того, что процессор был добавлен.
+     * @throws InsufficientDataException если сведения о процессоре отсутствуют.
+     */
+    @Override
+    @Transactional
+    public UpsertedEntity<ProcessorDTO> upsertEntity(ProcessorDTO processorDTO) {
+        var transientProcessor = mapper.map(processorDTO, ProcessorEntity.class);
+
+        var upsertResult = NaturalKeyUpsert.execute(() -> processorRepository.upsert(
+                transientProcessor.getModel(), transientProcessor.getCores(), transientProcessor.getMaxFrequency(),
+                transientProcessor.getTechnologyNode()));
+        transientProcessor.setId(upsertResult.getId());
+
+        if (upsertResult.getChanged()) {
+            eventPublisher.publishEvent(upsertResult.getInserted()
+                    ? CatalogChangedEvent.created(ProcessorEntity.class, upsertResult.getId())
+                    : CatalogChangedEvent.updated(ProcessorEntity.class, upsertResult.getId()));
+        }
+        return new UpsertedEntity<>(mapper.map(transientProcessor, ProcessorDTO.class), upsertResult.getInserted());
+    }
+
     /**
      * Находит и возвращает данные о процессоре с указанным идентификатором.
      *
@@ -58,6 +101,7 @@ public class ProcessorService implements CrudService<ProcessorDTO, Integer>,
      * @throws ResourceNotFoundException если процессор с указанным id не найден в базе данных
      */
     @Override
+    @Transactional(readOnly = true)
     public ProcessorDTO getEntityById(Integer id) {
         var persistentProcessor = getPersistentEntityById(id);
         return mapper.map(persistentProcessor, ProcessorDTO.class);
@@ -70,6 +114,7 @@ public class ProcessorService implements CrudService<ProcessorDTO, Integer>,
      * @return список ProcessorDTO с полными сведениями о всех процессорах из базы данных.
      */
     @Override
+    @Transactional(readOnly = true)
     public List<ProcessorDTO> getAllEntities() {
         var persistentProcessors = processorRepository.findAllByOrderByTechnologyNodeAscModelAsc();
         return persistentProcessors.stream()
@@ -77,6 +122,25 @@ public class ProcessorService implements CrudService<ProcessorDTO, Integer>,
                 .toList();
     }
 
+    /**
+     * Находит и возвращает процессоры с указанными идентификаторами за один запрос к базе данных.
+     * Порядок элементов в возвращаемом списке совпадает с порядком идентификаторов в ids.
+     *
+     * @param ids список уникальных идентификаторов процессоров, которые необходимо найти.
+     * @return список ProcessorDTO с полными сведениями о процессорах в порядке следования идентификаторов.
+     * @throws InsufficientDataException если список идентификаторов пуст или содержит null.
+     * @throws ResourcesNotFoundException если хотя бы один процессор не найден (исключение содержит все отсутствующие id).
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<ProcessorDTO> getEntitiesByIds(List<Integer> ids) {
+        var persistentProcessors = BatchEntityLoader.findAllByIdsInRequestedOrder(
+                processorRepository, ids, ProcessorEntity::getId, "Processor");
+        return persistentProcessors.stream()
+                .map(processor -> mapper.map(processor, ProcessorDTO.class))
+                .toList();
+    }
+
     /**
      * Удаляет процессор с указанным id из базы данных и возвращает сведения об удаленном процессоре.
      *
@@ -86,11 +150,35 @@ public class ProcessorService implements CrudService<ProcessorDTO, Integer>,
     @Override
     @Transactional
     public ProcessorDTO removeEntityById(Integer id) {
-        var removedProcessor = getEntityById(id);
-        processorRepository.deleteById(id);
+        var removedProcessor = processorRepository.deleteByIdReturningJson(id)
+                .map(json -> deletedEntityReader.readDto(json, ProcessorDTO.class))
+                .orElseThrow(() -> new ResourceNotFoundException("Processor not found"));
+        eventPublisher.publishEvent(CatalogChangedEvent.removed(ProcessorEntity.class, id));
         return removedProcessor;
     }
 
+    /**
+     * Удаляет процессоры с указанными идентификаторами одним запросом DELETE ... RETURNING и возвращает
+     * сведения об удаленных процессорах в порядке следования идентификаторов.
+     * Если хотя бы один идентификатор не найден, то ни одна запись не удаляется.
+     *
+     * @param ids список уникальных идентификаторов, которые необходимо удалить.
+     * @return список ProcessorDTO с данными об удаленных процессорах.
+     * @throws InsufficientDataException  если список идентификаторов пуст или содержит null.
+     * @throws ResourcesNotFoundException если хотя бы один процессор не найден (исключение содержит все отсутствующие id).
+     */
+    @Override
+    @Transactional
+    public List<ProcessorDTO> removeEntitiesByIds(List<Integer> ids) {
+        BatchEntityLoader.checkIds(ids);
+        var removedJsons = processorRepository.deleteAllByIdReturningJson(new LinkedHashSet<>(ids));
+        var removedProcessors = deletedEntityReader.readDtosInRequestedOrder(
+                removedJsons, ProcessorDTO.class, ids, ProcessorDTO::getId, "Processor");
+        new LinkedHashSet<>(ids).forEach(removedId ->
+                eventPublisher.publishEvent(CatalogChangedEvent.removed(ProcessorEntity.class, removedId)));
+        return removedProcessors;
+    }
+
     /**
      * Полностью обновляет информацию о процессоре в базе данных и возвращает объект с обновленной информацией.
      * Этот метод требует, чтобы полученный в аргументе processorDTO содержал полную информацию об изменяемом процессоре.
@@ -108,6 +196,7 @@ public class ProcessorService implements CrudService<ProcessorDTO, Integer>,
         var persistentProcessor = getPersistentEntityById(id);
         mapper.map(processorDTO, persistentProcessor);
         processorRepository.save(persistentProcessor);
+        eventPublisher.publishEvent(CatalogChangedEvent.updated(ProcessorEntity.class, id));
         return mapper.map(persistentProcessor, ProcessorDTO.class);
     }
 
@@ -128,6 +217,7 @@ public class ProcessorService implements CrudService<ProcessorDTO, Integer>,
         var persistentProcessor = getPersistentEntityById(id);
         nullableMapper.map(processorDTO, persistentProcessor);
         processorRepository.save(persistentProcessor);
+        eventPublisher.publishEvent(CatalogChangedEvent.updated(ProcessorEntity.class, id));
         return mapper.map(persistentProcessor, ProcessorDTO.class);
     }
 
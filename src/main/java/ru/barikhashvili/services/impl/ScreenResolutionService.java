@@ -4,32 +4,54 @@ import lombok.AccessLevel;
 import lombok.experimental.FieldDefaults;
 import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.barikhashvili.dto.specs.ResolutionDTO;
 import ru.barikhashvili.entities.ResolutionEntity;
+import ru.barikhashvili.entities.specs.DisplayEntity;
+import ru.barikhashvili.events.CatalogChangedEvent;
 import ru.barikhashvili.exceptions.InsufficientDataException;
 import ru.barikhashvili.exceptions.ResourceNotFoundException;
+import ru.barikhashvili.exceptions.ResourcesNotFoundException;
+import ru.barikhashvili.repositories.DisplayRepository;
 import ru.barikhashvili.repositories.ScreenResolutionRepository;
 import ru.barikhashvili.services.CrudService;
 import ru.barikhashvili.services.EntityExtractor;
+import ru.barikhashvili.services.UpsertService;
+import ru.barikhashvili.services.UpsertedEntity;
+import ru.barikhashvili.services.utils.BatchEntityLoader;
+import ru.barikhashvili.services.utils.DeletedEntityReader;
+import ru.barikhashvili.services.utils.NaturalKeyUpsert;
+import ru.barikhashvili.services.utils.PixelDensity;
 
+import java.util.LinkedHashSet;
 import java.util.List;
 
 @Service
 @FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
-public class ScreenResolutionService implements CrudService<ResolutionDTO, Integer>,
+public class ScreenResolutionService implements CrudService<ResolutionDTO, Integer>, UpsertService<ResolutionDTO>,
         EntityExtractor<ResolutionDTO, ResolutionEntity, Integer> {
     ScreenResolutionRepository screenResolutionRepository;
+    DisplayRepository displayRepository;
+    DeletedEntityReader deletedEntityReader;
     ModelMapper mapper;
     ModelMapper nullableMapper;
+    ApplicationEventPublisher eventPublisher;
 
     public ScreenResolutionService(ScreenResolutionRepository screenResolutionRepository,
+                                   DisplayRepository displayRepository,
+                                   DeletedEntityReader deletedEntityReader,
                                    @Qualifier("modelMapper") ModelMapper mapper,
-                                   @Qualifier("nullableModelMapper") ModelMapper nullableMapper) {
+                                   @Lazy @Qualifier("nullableModelMapper") ModelMapper nullableMapper,
+                                   ApplicationEventPublisher eventPublisher) {
         this.screenResolutionRepository = screenResolutionRepository;
+        this.displayRepository = displayRepository;
+        this.deletedEntityReader = deletedEntityReader;
         this.mapper = mapper;
         this.nullableMapper = nullableMapper;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -47,9 +69,35 @@ public class ScreenResolutionService implements CrudService<ResolutionDTO, Integ
         var transientScreenResolution = mapper.map(resolutionDTO, ResolutionEntity.class);
         var persistentScreenResolution = screenResolutionRepository.save(transientScreenResolution);
 
+        eventPublisher.publishEvent(CatalogChangedEvent.created(ResolutionEntity.class, persistentScreenResolution.getId()));
         return mapper.map(persistentScreenResolution, ResolutionDTO.class);
     }
 
+    /**
+     * Добавляет разрешение экрана, если такого разрешения еще нет в базе данных,
+     * иначе возвращает существующее разрешение экрана.
+     *
+     * @param resolutionDTO объект DTO со сведениями о разрешении экрана (DTO должен содержать полные сведения).
+     * @return DTO добавленного или существующего разрешения экрана и признак того, что разрешение экрана было добавлено.
+     * @throws InsufficientDataException если сведения о разрешении экрана отсутствуют.
+     */
+    @Override
+    @Transactional
+    public UpsertedEntity<ResolutionDTO> upsertEntity(ResolutionDTO resolutionDTO) {
+        var transientResolution = mapper.map(resolutionDTO, ResolutionEntity.class);
+
+        var upsertResult = NaturalKeyUpsert.execute(() -> screenResolutionRepository.upsert(
+                transientResolution.getHorizontalPixels(), transientResolution.getVerticalPixels()));
+        transientResolution.setId(upsertResult.getId());
+
+        if (upsertResult.getChanged()) {
+            eventPublisher.publishEvent(upsertResult.getInserted()
+                    ? CatalogChangedEvent.created(ResolutionEntity.class, upsertResult.getId())
+                    : CatalogChangedEvent.updated(ResolutionEntity.class, upsertResult.getId()));
+        }
+        return new UpsertedEntity<>(mapper.map(transientResolution, ResolutionDTO.class), upsertResult.getInserted());
+    }
+
     /**
      * Находит и возвращает данные о разрешении экрана с указанным идентификатором.
      *
@@ -58,6 +106,7 @@ public class ScreenResolutionService implements CrudService<ResolutionDTO, Integ
      * @throws ResourceNotFoundException если разрешение экрана с указанным id не найдено в базе данных
      */
     @Override
+    @Transactional(readOnly = true)
     public ResolutionDTO getEntityById(Integer id) {
         var persistentScreenResolution = getPersistentEntityById(id);
         return mapper.map(persistentScreenResolution, ResolutionDTO.class);
@@ -70,6 +119,7 @@ public class ScreenResolutionService implements CrudService<ResolutionDTO, Integ
      * @return список ResolutionDTO с полными сведениями о всех разрешениях экранов из базы данных.
      */
     @Override
+    @Transactional(readOnly = true)
     public List<ResolutionDTO> getAllEntities() {
         var persistentScreenResolutions = screenResolutionRepository.findAllByOrderByHorizontalPixelsAscVerticalPixelsAsc();
         return persistentScreenResolutions.stream()
@@ -77,6 +127,25 @@ public class ScreenResolutionService implements CrudService<ResolutionDTO, Integ
                 .toList();
     }
 
+    /**
+     * Находит и возвращает разрешения экрана с указанными идентификаторами за один запрос к базе данных.
+     * Порядок элементов в возвращаемом списке совпадает с порядком идентификаторов в ids.
+     *
+     * @param ids список уникальных идентификаторов разрешений экрана, которые необходимо найти.
+     * @return список ResolutionDTO с полными сведениями о разрешениях экрана в порядке следования идентификаторов.
+     * @throws InsufficientDataException если список идентификаторов пуст или содержит null.
+     * @throws ResourcesNotFoundException если хотя бы одно разрешение экрана не найдено (исключение содержит все отсутствующие id).
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<ResolutionDTO> getEntitiesByIds(List<Integer> ids) {
+        var persistentScreenResolutions = BatchEntityLoader.findAllByIdsInRequestedOrder(
+                screenResolutionRepository, ids, ResolutionEntity::getId, "Screen resolution");
+        return persistentScreenResolutions.stream()
+                .map(screenResolution -> mapper.map(screenResolution, ResolutionDTO.class))
+                .toList();
+    }
+
     /**
      * Удаляет разрешение экрана с указанным id из базы данных и возвращает сведения об удаленном разрешении.
      *
@@ -86,11 +155,35 @@ public class ScreenResolutionService implements CrudService<ResolutionDTO, Integ
     @Override
     @Transactional
     public ResolutionDTO removeEntityById(Integer id) {
-        var removedScreenResolution = getEntityById(id);
-        screenResolutionRepository.deleteById(id);
+        var removedScreenResolution = screenResolutionRepository.deleteByIdReturningJson(id)
+                .map(json -> deletedEntityReader.readDto(json, ResolutionDTO.class))
+                .orElseThrow(() -> new ResourceNotFoundException("Screen resolution not found"));
+        eventPublisher.publishEvent(CatalogChangedEvent.removed(ResolutionEntity.class, id));
         return removedScreenResolution;
     }
 
+    /**
+     * Удаляет разрешения экрана с указанными идентификаторами одним запросом DELETE ... RETURNING и возвращает
+     * сведения об удаленных разрешениях экрана в порядке следования идентификаторов.
+     * Если хотя бы один идентификатор не найден, то ни одна запись не удаляется.
+     *
+     * @param ids список уникальных идентификаторов, которые необходимо удалить.
+     * @return список ResolutionDTO с данными об удаленных разрешениях экрана.
+     * @throws InsufficientDataException  если список идентификаторов пуст или содержит null.
+     * @throws ResourcesNotFoundException если хотя бы один разрешение экрана не найдено (исключение содержит все отсутствующие id).
+     */
+    @Override
+    @Transactional
+    public List<ResolutionDTO> removeEntitiesByIds(List<Integer> ids) {
+        BatchEntityLoader.checkIds(ids);
+        var removedJsons = screenResolutionRepository.deleteAllByIdReturningJson(new LinkedHashSet<>(ids));
+        var removedScreenResolutions = deletedEntityReader.readDtosInRequestedOrder(
+                removedJsons, ResolutionDTO.class, ids, ResolutionDTO::getId, "Screen resolution");
+        new LinkedHashSet<>(ids).forEach(removedId ->
+                eventPublisher.publishEvent(CatalogChangedEvent.removed(ResolutionEntity.class, removedId)));
+        return removedScreenResolutions;
+    }
+
     /**
      * Полностью обновляет информацию о разрешении экрана в базе данных и возвращает объект с обновленной информацией.
      * Этот метод требует, чтобы полученный в аргументе resolutionDTO содержал полную информацию об изменяемом разрешении экрана.
@@ -108,6 +201,8 @@ public class ScreenResolutionService implements CrudService<ResolutionDTO, Integ
         var persistentScreenResolution = getPersistentEntityById(id);
         mapper.map(resolutionDTO, persistentScreenResolution);
         screenResolutionRepository.save(persistentScreenResolution);
+        updateDisplaysPixelDensity(persistentScreenResolution);
+        eventPublisher.publishEvent(CatalogChangedEvent.updated(ResolutionEntity.class, id));
         return mapper.map(persistentScreenResolution, ResolutionDTO.class);
     }
 
@@ -128,6 +223,8 @@ public class ScreenResolutionService implements CrudService<ResolutionDTO, Integ
         var persistentScreenResolution = getPersistentEntityById(id);
         nullableMapper.map(resolutionDTO, persistentScreenResolution);
         screenResolutionRepository.save(persistentScreenResolution);
+        updateDisplaysPixelDensity(persistentScreenResolution);
+        eventPublisher.publishEvent(CatalogChangedEvent.updated(ResolutionEntity.class, id));
         return mapper.map(persistentScreenResolution, ResolutionDTO.class);
     }
 
@@ -162,4 +259,20 @@ public class ScreenResolutionService implements CrudService<ResolutionDTO, Integ
         return screenResolutionRepository.findById(resolutionDTO.getId())
                 .orElseThrow(() -> new ResourceNotFoundException("Screen resolution not found"));
     }
+
+    /**
+     * Пересчитывает плотность пикселей всех дисплеев, использующих разрешение экрана, одним запросом UPDATE.
+     * Если хотя бы один дисплей изменился, публикует событие об изменении дисплеев без идентификатора,
+     * чтобы кэши дисплеев были очищены полностью.
+     *
+     * @param resolution измененная hibernate сущность разрешения экрана.
+     */
+    private void updateDisplaysPixelDensity(ResolutionEntity resolution) {
+        var diagonalPixels = PixelDensity.diagonalPixels(resolution.getHorizontalPixels(),
+                resolution.getVerticalPixels());
+        var updatedDisplays = displayRepository.updatePpiByResolutionId(resolution.getId(), diagonalPixels);
+        if (updatedDisplays > 0) {
+            eventPublisher.publishEvent(CatalogChangedEvent.updated(DisplayEntity.class, null));
+        }
+    }
 }
@@ -4,32 +4,48 @@ import lombok.AccessLevel;
 import lombok.experimental.FieldDefaults;
 import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.barikhashvili.dto.VariantDTO;
 import ru.barikhashvili.entities.specs.VariantEntity;
+import ru.barikhashvili.events.CatalogChangedEvent;
 import ru.barikhashvili.exceptions.InsufficientDataException;
 import ru.barikhashvili.exceptions.ResourceNotFoundException;
+import ru.barikhashvili.exceptions.ResourcesNotFoundException;
 import ru.barikhashvili.repositories.VariantRepository;
 import ru.barikhashvili.services.CrudService;
 import ru.barikhashvili.services.EntityExtractor;
+import ru.barikhashvili.services.UpsertService;
+import ru.barikhashvili.services.UpsertedEntity;
+import ru.barikhashvili.services.utils.BatchEntityLoader;
+import ru.barikhashvili.services.utils.DeletedEntityReader;
+import ru.barikhashvili.services.utils.NaturalKeyUpsert;
 
+import java.util.LinkedHashSet;
 import java.util.List;
 
 @Service
 @FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
-public class VariantService implements CrudService<VariantDTO, Integer>,
+public class VariantService implements CrudService<VariantDTO, Integer>, UpsertService<VariantDTO>,
         EntityExtractor<VariantDTO, VariantEntity, Integer> {
     VariantRepository variantRepository;
+    DeletedEntityReader deletedEntityReader;
     ModelMapper mapper;
     ModelMapper nullableMapper;
+    ApplicationEventPublisher eventPublisher;
 
     public VariantService(VariantRepository variantRepository,
+                            DeletedEntityReader deletedEntityReader,
                             @Qualifier("modelMapper") ModelMapper mapper,
-                            @Qualifier("nullableModelMapper") ModelMapper nullableMapper) {
+                            @Lazy @Qualifier("nullableModelMapper") ModelMapper nullableMapper,
+                            ApplicationEventPublisher eventPublisher) {
         this.variantRepository = variantRepository;
+        this.deletedEntityReader = deletedEntityReader;
         this.mapper = mapper;
         this.nullableMapper = nullableMapper;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -47,9 +63,35 @@ public class VariantService implements CrudService<VariantDTO, Integer>,
         var transientVariant = mapper.map(variantDTO, VariantEntity.class);
         var persistentVariant = variantRepository.save(transientVariant);
 
+        eventPublisher.publishEvent(CatalogChangedEvent.created(VariantEntity.class, persistentVariant.getId()));
         return mapper.map(persistentVariant, VariantDTO.class);
     }
 
+    /**
+     * Добавляет вариацию телефона, если вариации с такими же объемами памяти и цветом еще нет в базе данных,
+     * иначе возвращает существующую вариацию.
+     *
+     * @param variantDTO объект DTO со сведениями о вариации телефона (DTO должен содержать полные сведения).
+     * @return DTO добавленной или существующей вариации телефона и признак того, что вариация телефона была добавлена.
+     * @throws InsufficientDataException если сведения о вариации телефона отсутствуют.
+     */
+    @Override
+    @Transactional
+    public UpsertedEntity<VariantDTO> upsertEntity(VariantDTO variantDTO) {
+        var transientVariant = mapper.map(variantDTO, VariantEntity.class);
+
+        var upsertResult = NaturalKeyUpsert.execute(() -> variantRepository.upsert(
+                transientVariant.getRamSize(), transientVariant.getRomSize(), transientVariant.getColor().ordinal()));
+        transientVariant.setId(upsertResult.getId());
+
+        if (upsertResult.getChanged()) {
+            eventPublisher.publishEvent(upsertResult.getInserted()
+                    ? CatalogChangedEvent.created(VariantEntity.class, upsertResult.getId())
+                    : CatalogChangedEvent.updated(VariantEntity.class, upsertResult.getId()));
+        }
+        return new UpsertedEntity<>(mapper.map(transientVariant, VariantDTO.class), upsertResult.getInserted());
+    }
+
     /**
      * Находит и возвращает данные о варианте спецификации телефона с указанным идентификатором.
      *
@@ -58,6 +100,7 @@ public class VariantService implements CrudService<VariantDTO, Integer>,
      * @throws ResourceNotFoundException если вариант спецификации телефона с указанным id не найден в базе данных
      */
     @Override
+    @Transactional(readOnly = true)
     public VariantDTO getEntityById(Integer id) {
         var persistentVariant = getPersistentEntityById(id);
         return mapper.map(persistentVariant, VariantDTO.class);
@@ -70,6 +113,7 @@ public class VariantService implements CrudService<VariantDTO, Integer>,
      * @return список VariantDTO с полными сведениями о всех вариантах спецификации телефонов из базы данных.
      */
     @Override
+    @Transactional(readOnly = true)
     public List<VariantDTO> getAllEntities() {
         var persistentVariants = variantRepository.findAllByOrderByRamSizeAscRomSizeAsc();
         return persistentVariants.stream()
@@ -77,6 +121,25 @@ public class VariantService implements CrudService<VariantDTO, Integer>,
                 .toList();
     }
 
+    /**
+     * Находит и возвращает варианты спецификации телефонов с указанными идентификаторами за один запрос к базе данных.
+     * Порядок элементов в возвращаемом списке совпадает с порядком идентификаторов в ids.
+     *
+     * @param ids список уникальных идентификаторов вариантов спецификации телефонов, которые необходимо найти.
+     * @return список VariantDTO с полными сведениями о вариантах спецификации телефонов в порядке следования идентификаторов.
+     * @throws InsufficientDataException если список идентификаторов пуст или содержит null.
+     * @throws ResourcesNotFoundException если хотя бы один вариант не найден (исключение содержит все отсутствующие id).
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<VariantDTO> getEntitiesByIds(List<Integer> ids) {
+        var persistentVariants = BatchEntityLoader.findAllByIdsInRequestedOrder(
+                variantRepository, ids, VariantEntity::getId, "Variant");
+        return persistentVariants.stream()
+                .map(variant -> mapper.map(variant, VariantDTO.class))
+                .toList();
+    }
+
     /**
      * Удаляет вариант спецификации телефона с указанным id из базы данных и возвращает сведения об удаленном варианте.
      *
@@ -86,11 +149,35 @@ public class VariantService implements CrudService<VariantDTO, Integer>,
     @Override
     @Transactional
     public VariantDTO removeEntityById(Integer id) {
-        var removedVariant = getEntityById(id);
-        variantRepository.deleteById(id);
+        var removedVariant = variantRepository.deleteByIdReturningJson(id)
+                .map(json -> deletedEntityReader.readDto(json, VariantDTO.class))
+                .orElseThrow(() -> new ResourceNotFoundException("Variant not found"));
+        eventPublisher.publishEvent(CatalogChangedEvent.removed(VariantEntity.class, id));
         return removedVariant;
     }
 
+    /**
+     * Удаляет вариации телефонов с указанными идентификаторами одним запросом DELETE ... RETURNING и возвращает
+     * сведения об удаленных вариациях телефонов в порядке следования идентификаторов.
+     * Если хотя бы один идентификатор не найден, то ни одна запись не удаляется.
+     *
+     * @param ids список уникальных идентификаторов, которые необходимо удалить.
+     * @return список VariantDTO с данными об удаленных вариациях телефонов.
+     * @throws InsufficientDataException  если список идентификаторов пуст или содержит null.
+     * @throws ResourcesNotFoundException если хотя бы один вариация телефона не найдена (исключение содержит все отсутствующие id).
+     */
+    @Override
+    @Transactional
+    public List<VariantDTO> removeEntitiesByIds(List<Integer> ids) {
+        BatchEntityLoader.checkIds(ids);
+        var removedJsons = variantRepository.deleteAllByIdReturningJson(new LinkedHashSet<>(ids));
+        var removedVariants = deletedEntityReader.readDtosInRequestedOrder(
+                removedJsons, VariantDTO.class, ids, VariantDTO::getId, "Variant");
+        new LinkedHashSet<>(ids).forEach(removedId ->
+                eventPublisher.publishEvent(CatalogChangedEvent.removed(VariantEntity.class, removedId)));
+        return removedVariants;
+    }
+
     /**
      * Полностью обновляет информацию о варианте спецификации телефона в базе данных и возвращает объект с обновленной информацией.
      * Этот метод требует, чтобы полученный в аргументе variantDTO содержал полную информацию об изменяемом варианте.
@@ -108,6 +195,7 @@ public class VariantService implements CrudService<VariantDTO, Integer>,
         var persistentVariant = getPersistentEntityById(id);
         mapper.map(variantDTO, persistentVariant);
         variantRepository.save(persistentVariant);
+        eventPublisher.publishEvent(CatalogChangedEvent.updated(VariantEntity.class, id));
         return mapper.map(persistentVariant, VariantDTO.class);
     }
 
@@ -128,6 +216,7 @@ public class VariantService implements CrudService<VariantDTO, Integer>,
         var persistentVariant = getPersistentEntityById(id);
         nullableMapper.map(variantDTO, persistentVariant);
         variantRepository.save(persistentVariant);
+        eventPublisher.publishEvent(CatalogChangedEvent.updated(VariantEntity.class, id));
         return mapper.map(persistentVariant, VariantDTO.class);
     }
 
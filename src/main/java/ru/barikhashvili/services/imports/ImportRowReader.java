@@ -0,0 +1,207 @@
+package ru.barikhashvili.services.imports;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import ru.barikhashvili.exceptions.ImportFormatException;
+import ru.barikhashvili.services.utils.CatalogFileFormat;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Построчно читает загружаемый файл и возвращает значения строк в порядке указанных столбцов.
+ * Столбцы файла, которых нет среди указанных, пропускаются. Файл читается потоково,
+ * поэтому объем используемой памяти не зависит от размера файла.
+ */
+interface ImportRowReader extends Closeable {
+    /**
+     * @return значения следующей строки в порядке столбцов (отсутствующие значения равны null),
+     * или null, если строки закончились.
+     */
+    String[] nextRow() throws IOException;
+
+    static ImportRowReader create(CatalogFileFormat format, List<String> columns,
+                                  JsonFactory jsonFactory, InputStream inputStream) throws IOException {
+        return switch (format) {
+            case CSV -> new CsvRowReader(columns, inputStream);
+            case NDJSON -> new NdjsonRowReader(columns, jsonFactory, inputStream);
+        };
+    }
+
+    final class CsvRowReader implements ImportRowReader {
+        private static final int BUFFER_SIZE = 64 * 1024;
+
+        private final Reader reader;
+        private final char[] buffer = new char[BUFFER_SIZE];
+        private final int[] columnIndexes;
+        private final int columnCount;
+        private final List<String> fields = new ArrayList<>();
+        private final StringBuilder field = new StringBuilder();
+        private int position;
+        private int limit;
+        private long lineNumber = 1;
+
+        CsvRowReader(List<String> columns, InputStream inputStream) throws IOException {
+            this.reader = new InputStreamReader(inputStream, StandardCharsets.UTF_8);
+            this.columnCount = columns.size();
+
+            var header = readRecord();
+            if (header == null) {
+                throw new ImportFormatException("The CSV file does not contain a header row");
+            }
+            this.columnIndexes = new int[header.size()];
+            for (int i = 0; i < header.size(); i++) {
+                columnIndexes[i] = header.get(i) == null ? -1 : columns.indexOf(header.get(i).trim());
+            }
+        }
+
+        @Override
+        public String[] nextRow() throws IOException {
+            List<String> record;
+            do {
+                record = readRecord();
+                if (record == null) {
+                    return null;
+                }
+            } while (record.size() == 1 && record.get(0) == null);
+
+            if (record.size() != columnIndexes.length) {
+                throw new ImportFormatException("Line " + lineNumber + " contains " + record.size()
+                        + " values, but the header contains " + columnIndexes.length + " columns");
+            }
+            var row = new String[columnCount];
+            for (int i = 0; i < columnIndexes.length; i++) {
+                if (columnIndexes[i] >= 0) {
+                    row[columnIndexes[i]] = record.get(i);
+                }
+            }
+            return row;
+        }
+
+        private List<String> readRecord() throws IOException {
+            var character = read();
+            if (character == -1) {
+                return null;
+            }
+            fields.clear();
+            field.setLength(0);
+            var isQuoted = false;
+            var wasQuoted = false;
+
+            while (true) {
+                if (character == -1) {
+                    if (isQuoted) {
+                        throw new ImportFormatException("Line " + lineNumber + " contains an unclosed quote");
+                    }
+                    break;
+                }
+                if (isQuoted) {
+                    if (character == '"') {
+                        character = read();
+                        if (character == '"') {
+                            field.append('"');
+                        } else {
+                            isQuoted = false;
+                            continue;
+                        }
+                    } else {
+                        if (character == '\n') {
+                            lineNumber++;
+                        }
+                        field.append((char) character);
+                    }
+                } else if (character == '"') {
+                    isQuoted = true;
+                    wasQuoted = true;
+                } else if (character == ',') {
+                    addField(wasQuoted);
+                    wasQuoted = false;
+                } else if (character == '\n') {
+                    lineNumber++;
+                    break;
+                } else if (character != '\r') {
+                    field.append((char) character);
+                }
+                character = read();
+            }
+            addField(wasQuoted);
+            return fields;
+        }
+
+        private void addField(boolean wasQuoted) {
+            fields.add(field.isEmpty() && !wasQuoted ? null : field.toString());
+            field.setLength(0);
+        }
+
+        private int read() throws IOException {
+            if (position == limit) {
+                limit = reader.read(buffer, 0, BUFFER_SIZE);
+                position = 0;
+                if (limit <= 0) {
+                    limit = 0;
+                    return -1;
+                }
+            }
+            return buffer[position++];
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+
+    final class NdjsonRowReader implements ImportRowReader {
+        private final JsonParser parser;
+        private final Map<String, Integer> columnIndexes = new HashMap<>();
+        private final int columnCount;
+
+        NdjsonRowReader(List<String> columns, JsonFactory jsonFactory, InputStream inputStream) throws IOException {
+            this.parser = jsonFactory.createParser(inputStream);
+            this.columnCount = columns.size();
+            for (int i = 0; i < columns.size(); i++) {
+                columnIndexes.put(columns.get(i), i);
+            }
+        }
+
+        @Override
+        public String[] nextRow() throws IOException {
+            var token = parser.nextToken();
+            if (token == null) {
+                return null;
+            }
+            if (token != JsonToken.START_OBJECT) {
+                throw new ImportFormatException("Line " + parser.currentLocation().getLineNr()
+                        + " does not contain a JSON object");
+            }
+            var row = new String[columnCount];
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                var columnIndex = columnIndexes.get(parser.currentName());
+                var valueToken = parser.nextToken();
+                if (columnIndex == null || valueToken == JsonToken.VALUE_NULL) {
+                    parser.skipChildren();
+                } else if (valueToken.isScalarValue()) {
+                    row[columnIndex] = parser.getText();
+                } else {
+                    throw new ImportFormatException("Field " + parser.currentName() + " on line "
+                            + parser.currentLocation().getLineNr() + " must be a scalar value");
+                }
+            }
+            return row;
+        }
+
+        @Override
+        public void close() throws IOException {
+            parser.close();
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package ru.barikhashvili.services.imports;
+
+import java.util.List;
+
+/**
+ * Результат загрузки файла с телефонами.
+ *
+ * @param importedRows         количество загруженных строк файла.
+ * @param createdPhones        количество добавленных телефонов.
+ * @param updatedPhones        количество телефонов, характеристики которых были обновлены.
+ * @param savedPhoneVariants   количество добавленных или обновленных вариантов телефонов.
+ * @param unknownCameraSensors названия сенсоров камер, которые не найдены в базе данных.
+ */
+public record PhoneImportResult(long importedRows,
+                                int createdPhones,
+                                int updatedPhones,
+                                int savedPhoneVariants,
+                                List<String> unknownCameraSensors) {
+}
@@ -0,0 +1,447 @@
+package ru.barikhashvili.services.imports;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.barikhashvili.entities.PhoneEntity;
+import ru.barikhashvili.entities.specs.enums.*;
+import ru.barikhashvili.events.CatalogChangedEvent;
+import ru.barikhashvili.exceptions.ImportFormatException;
+import ru.barikhashvili.services.utils.CatalogFileFormat;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Загружает телефоны, их характеристики и варианты из CSV или NDJSON файла.
+ * Строки файла потоково передаются командой COPY во временную таблицу, после чего
+ * переносятся в таблицы каталога несколькими SQL запросами над всем набором строк сразу.
+ * Недостающие страны, производители, операционные системы, процессоры, аккумуляторы, дисплеи,
+ * разрешения экранов, камеры и вариации добавляются, уже существующие используются повторно.
+ * Телефон определяется моделью, производителем и датой выпуска: характеристики существующего телефона
+ * обновляются, а цена и количество существующих вариантов телефона перезаписываются.
+ * Вся загрузка выполняется в одной транзакции.
+ */
+@Service
+@Slf4j
+@FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
+public class PhoneImportService {
+    static final List<String> COLUMNS = List.of(
+            "model", "manufacturer", "manufacturer_country", "release_date",
+            "ram_size", "rom_size", "color", "price", "quantity",
+            "network_type", "sim_count", "has_wifi", "has_nfc", "has_bluetooth",
+            "height", "width", "thickness", "weight", "material", "charger_type",
+            "operating_system", "operating_system_version",
+            "display_diagonal", "display_horizontal_pixels", "display_vertical_pixels",
+            "display_refresh_rate", "display_type",
+            "processor", "processor_cores", "processor_max_frequency", "processor_technology_node",
+            "battery_capacity", "battery_type", "camera_modules");
+
+    private static final Set<String> REQUIRED_COLUMNS = Set.of(
+            "model", "release_date", "ram_size", "rom_size", "color", "price", "quantity",
+            "network_type", "sim_count", "has_wifi", "has_nfc", "has_bluetooth",
+            "height", "width", "thickness", "weight", "material", "charger_type");
+
+    private static final Map<String, Map<String, String>> ENUM_ORDINALS_BY_COLUMN = Map.of(
+            "color", ordinalsByName(Color.values()),
+            "network_type", ordinalsByName(NetworkType.values()),
+            "material", ordinalsByName(MaterialType.values()),
+            "charger_type", ordinalsByName(ChargerType.values()),
+            "display_type", ordinalsByName(DisplayType.values()),
+            "battery_type", ordinalsByName(BatteryType.values()));
+
+    private static final Map<String, String> CAMERA_TYPE_ORDINALS = ordinalsByName(CameraType.values());
+
+    private static final Pattern CAMERA_MODULE_PATTERN = Pattern.compile("^([A-Z_]+):(true|false):(.+)$");
+
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    private static final String CREATE_STAGING_TABLE = """
+            CREATE TEMP TABLE import_rows (
+                model VARCHAR(80),
+                manufacturer VARCHAR(100),
+                manufacturer_country VARCHAR(60),
+                release_date TIMESTAMP(6),
+                ram_size INTEGER,
+                rom_size INTEGER,
+                color SMALLINT,
+                price NUMERIC(15,2),
+                quantity INTEGER,
+                network_type SMALLINT,
+                sim_count INTEGER,
+                has_wifi BOOLEAN,
+                has_nfc BOOLEAN,
+                has_bluetooth BOOLEAN,
+                height NUMERIC(5,2),
+                width NUMERIC(5,2),
+                thickness NUMERIC(5,2),
+                weight NUMERIC(5,2),
+                material SMALLINT,
+                charger_type SMALLINT,
+                operating_system VARCHAR(80),
+                operating_system_version VARCHAR(80),
+                display_diagonal NUMERIC(5,2),
+                display_horizontal_pixels INTEGER,
+                display_vertical_pixels INTEGER,
+                display_refresh_rate INTEGER,
+                display_type SMALLINT,
+                processor VARCHAR(100),
+                processor_cores INTEGER,
+                processor_max_frequency NUMERIC(5,2),
+                processor_technology_node INTEGER,
+                battery_capacity INTEGER,
+                battery_type SMALLINT,
+                camera_modules TEXT
+            ) ON COMMIT DROP
+            """;
+
+    private static final List<String> MERGE_REFERENCE_DATA = List.of("""
+            INSERT INTO countries (name)
+            SELECT DISTINCT r.manufacturer_country
+            FROM import_rows r
+            WHERE r.manufacturer_country IS NOT NULL
+              AND NOT EXISTS (SELECT 1 FROM manufacturers m WHERE m.name = r.manufacturer)
+            ON CONFLICT (name) DO NOTHING
+            """, """
+            INSERT INTO manufacturers (country_id, name)
+            SELECT DISTINCT ON (r.manufacturer) c.id, r.manufacturer
+            FROM import_rows r
+                     JOIN countries c ON c.name = r.manufacturer_country
+            WHERE NOT EXISTS (SELECT 1 FROM manufacturers m WHERE m.name = r.manufacturer)
+            ORDER BY r.manufacturer
+            ON CONFLICT (country_id, name) DO NOTHING
+            """, """
+            INSERT INTO operating_systems (name, version)
+            SELECT DISTINCT operating_system, operating_system_version
+            FROM import_rows
+            WHERE operating_system IS NOT NULL
+            ON CONFLICT (name, version) DO NOTHING
+            """, """
+            INSERT INTO processors (model, cores, max_frequency, technology_node)
+            SELECT DISTINCT ON (processor) processor, processor_cores, processor_max_frequency, processor_technology_node
+            FROM import_rows
+            WHERE processor IS NOT NULL
+            ORDER BY processor
+            ON CONFLICT (model) DO NOTHING
+            """, """
+            INSERT INTO batteries (capacity, battery_type)
+            SELECT DISTINCT battery_capacity, battery_type
+            FROM import_rows
+            WHERE battery_capacity IS NOT NULL
+            ON CONFLICT (capacity, battery_type) DO NOTHING
+            """, """
+            INSERT INTO screen_resolutions (horizontal_pixels, vertical_pixels)
+            SELECT DISTINCT display_horizontal_pixels, display_vertical_pixels
+            FROM import_rows
+            WHERE display_horizontal_pixels IS NOT NULL
+            ON CONFLICT (horizontal_pixels, vertical_pixels) DO NOTHING
+            """, """
+            INSERT INTO displays (diagonal, resolution_id, refresh_rate, display_type, ppi)
+            SELECT DISTINCT r.display_diagonal, sr.id, r.display_refresh_rate, r.display_type,
+                   ROUND(SQRT(CAST(sr.horizontal_pixels AS NUMERIC) * sr.horizontal_pixels
+                       + CAST(sr.vertical_pixels AS NUMERIC) * sr.vertical_pixels) / r.display_diagonal, 2)
+            FROM import_rows r
+                     JOIN screen_resolutions sr ON sr.horizontal_pixels = r.display_horizontal_pixels
+                AND sr.vertical_pixels = r.display_vertical_pixels
+            WHERE r.display_diagonal IS NOT NULL
+            ON CONFLICT (diagonal, resolution_id, refresh_rate, display_type) DO NOTHING
+            """, """
+            INSERT INTO variants (ram_size, rom_size, color)
+            SELECT DISTINCT ram_size, rom_size, color
+            FROM import_rows
+            ON CONFLICT (ram_size, rom_size, color) DO NOTHING
+            """);
+
+    private static final String CREATE_IMPORTED_PHONES_TABLE = """
+            CREATE TEMP TABLE import_phones ON COMMIT DROP AS
+            SELECT DISTINCT ON (r.model, r.manufacturer, r.release_date)
+                   r.model,
+                   r.manufacturer,
+                   r.release_date,
+                   (SELECT min(m.id) FROM manufacturers m WHERE m.name = r.manufacturer) AS manufacturer_id,
+                   r.network_type, r.sim_count, r.has_wifi, r.has_nfc, r.has_bluetooth,
+                   r.height, r.width, r.thickness, r.weight, r.material, r.charger_type,
+                   os.id AS operating_system_id,
+                   d.id AS display_id,
+                   pr.id AS processor_id,
+                   b.id AS battery_id,
+                   r.camera_modules,
+                   NULL::BIGINT AS phone_id,
+                   NULL::BIGINT AS specification_id
+            FROM import_rows r
+                     LEFT JOIN operating_systems os ON os.name = r.operating_system
+                AND os.version = r.operating_system_version
+                     LEFT JOIN screen_resolutions sr ON sr.horizontal_pixels = r.display_horizontal_pixels
+                AND sr.vertical_pixels = r.display_vertical_pixels
+                     LEFT JOIN displays d ON d.diagonal = r.display_diagonal
+                AND d.resolution_id = sr.id
+                AND d.refresh_rate = r.display_refresh_rate
+                AND d.display_type = r.display_type
+                     LEFT JOIN processors pr ON pr.model = r.processor
+                     LEFT JOIN batteries b ON b.capacity = r.battery_capacity
+                AND b.battery_type = r.battery_type
+            ORDER BY r.model, r.manufacturer, r.release_date
+            """;
+
+    private static final String MATCH_EXISTING_PHONES = """
+            UPDATE import_phones ip
+            SET phone_id = p.id,
+                specification_id = p.specification_id
+            FROM phones p
+            WHERE p.model = ip.model
+              AND p.release_date = ip.release_date
+              AND p.manufacturer_id IS NOT DISTINCT FROM ip.manufacturer_id
+            """;
+
+    private static final String ALLOCATE_NEW_PHONE_IDS = """
+            UPDATE import_phones
+            SET phone_id = nextval(pg_get_serial_sequence('phones', 'id')),
+                specification_id = nextval(pg_get_serial_sequence('phone_specs', 'id'))
+            WHERE phone_id IS NULL
+            """;
+
+    private static final List<String> MERGE_PHONES = List.of("""
+            INSERT INTO phone_specs (id, network_type, sim_count, has_bluetooth, has_nfc, has_wifi,
+                                     height, width, thickness, weight, material, charger_type,
+                                     operating_system_id, display_id, processor_id, battery_id)
+            SELECT specification_id, network_type, sim_count, has_bluetooth, has_nfc, has_wifi,
+                   height, width, thickness, weight, material, charger_type,
+                   operating_system_id, display_id, processor_id, battery_id
+            FROM import_phones
+            ON CONFLICT (id) DO UPDATE SET network_type = EXCLUDED.network_type,
+                                           sim_count = EXCLUDED.sim_count,
+                                           has_bluetooth = EXCLUDED.has_bluetooth,
+                                           has_nfc = EXCLUDED.has_nfc,
+                                           has_wifi = EXCLUDED.has_wifi,
+                                           height = EXCLUDED.height,
+                                           width = EXCLUDED.width,
+                                           thickness = EXCLUDED.thickness,
+                                           weight = EXCLUDED.weight,
+                                           material = EXCLUDED.material,
+                                           charger_type = EXCLUDED.charger_type,
+                                           operating_system_id = EXCLUDED.operating_system_id,
+                                           display_id = EXCLUDED.display_id,
+                                           processor_id = EXCLUDED.processor_id,
+                                           battery_id = EXCLUDED.battery_id,
+                                           version = phone_specs.version + 1
+            """, """
+            INSERT INTO phones (id, model, manufacturer_id, release_date, specification_id)
+            SELECT phone_id, model, manufacturer_id, release_date, specification_id
+            FROM import_phones
+            ON CONFLICT (id) DO UPDATE SET version = phones.version + 1
+            """, """
+            CREATE TEMP TABLE import_cameras ON COMMIT DROP AS
+            SELECT ip.specification_id,
+                   module[1]::SMALLINT AS camera_type,
+                   module[2]::BOOLEAN AS has_optical_stabilization,
+                   module[3] AS sensor_name
+            FROM import_phones ip
+                     CROSS JOIN LATERAL unnest(string_to_array(ip.camera_modules, ';')) AS camera_module
+                     CROSS JOIN LATERAL regexp_match(camera_module, '^(\\d+):(true|false):(.+)$') AS module
+            WHERE ip.camera_modules IS NOT NULL
+            """, """
+            INSERT INTO cameras (camera_type, has_optical_stabilization, sensor_id)
+            SELECT DISTINCT ic.camera_type, ic.has_optical_stabilization, cs.id
+            FROM import_cameras ic
+                     JOIN camera_sensors cs ON cs.sensor_name = ic.sensor_name
+            ON CONFLICT (camera_type, has_optical_stabilization, sensor_id) DO NOTHING
+            """, """
+            DELETE FROM specifications_cameras sc
+            USING import_phones ip
+            WHERE sc.specification_id = ip.specification_id
+              AND ip.camera_modules IS NOT NULL
+            """, """
+            INSERT INTO specifications_cameras (camera_id, specification_id)
+            SELECT DISTINCT c.id, ic.specification_id
+            FROM import_cameras ic
+                     JOIN camera_sensors cs ON cs.sensor_name = ic.sensor_name
+                     JOIN cameras c ON c.camera_type = ic.camera_type
+                AND c.has_optical_stabilization = ic.has_optical_stabilization
+                AND c.sensor_id = cs.id
+            ON CONFLICT (camera_id, specification_id) DO NOTHING
+            """);
+
+    private static final String FIND_UNKNOWN_CAMERA_SENSORS = """
+            SELECT DISTINCT ic.sensor_name
+            FROM import_cameras ic
+            WHERE NOT EXISTS (SELECT 1 FROM camera_sensors cs WHERE cs.sensor_name = ic.sensor_name)
+            ORDER BY ic.sensor_name
+            """;
+
+    private static final String MERGE_PHONE_VARIANTS = """
+            INSERT INTO phones_variants (price, quantity, phone_id, variant_id)
+            SELECT DISTINCT ON (ip.phone_id, v.id) r.price, r.quantity, ip.phone_id, v.id
+            FROM import_rows r
+                     JOIN import_phones ip ON ip.model = r.model
+                AND ip.release_date = r.release_date
+                AND ip.manufacturer IS NOT DISTINCT FROM r.manufacturer
+                     JOIN variants v ON v.ram_size = r.ram_size
+                AND v.rom_size = r.rom_size
+                AND v.color = r.color
+            ORDER BY ip.phone_id, v.id
+            ON CONFLICT (phone_id, variant_id) DO UPDATE SET price = EXCLUDED.price,
+                                                            quantity = EXCLUDED.quantity,
+                                                            version = phones_variants.version + 1
+            """;
+
+    JdbcTemplate jdbcTemplate;
+    ObjectMapper objectMapper;
+    ApplicationEventPublisher eventPublisher;
+
+    public PhoneImportService(DataSource dataSource,
+                              ObjectMapper objectMapper,
+                              ApplicationEventPublisher eventPublisher) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Загружает телефоны из файла в указанном формате.
+     * Столбцы файла (или поля объектов NDJSON) называются так же, как столбцы выгрузки вариантов телефонов,
+     * а камеры передаются в столбце camera_modules в виде {@code ТИП_КАМЕРЫ:стабилизация:сенсор},
+     * разделенных символом ';'. Неизвестные столбцы пропускаются.
+     *
+     * @param inputStream поток с содержимым файла.
+     * @param format      формат файла.
+     * @return количество загруженных строк, добавленных и обновленных телефонов и вариантов телефонов.
+     * @throws ImportFormatException если файл не соответствует формату.
+     */
+    @Transactional
+    public PhoneImportResult importPhones(InputStream inputStream, CatalogFileFormat format) {
+        jdbcTemplate.execute(CREATE_STAGING_TABLE);
+        var importedRows = copyRowsToStagingTable(inputStream, format);
+        jdbcTemplate.execute("ANALYZE import_rows");
+
+        MERGE_REFERENCE_DATA.forEach(jdbcTemplate::update);
+        jdbcTemplate.execute(CREATE_IMPORTED_PHONES_TABLE);
+        var updatedPhones = jdbcTemplate.update(MATCH_EXISTING_PHONES);
+        var createdPhones = jdbcTemplate.update(ALLOCATE_NEW_PHONE_IDS);
+        MERGE_PHONES.forEach(jdbcTemplate::update);
+        var unknownCameraSensors = jdbcTemplate.queryForList(FIND_UNKNOWN_CAMERA_SENSORS, String.class);
+        var savedPhoneVariants = jdbcTemplate.update(MERGE_PHONE_VARIANTS);
+
+        if (importedRows > 0) {
+            eventPublisher.publishEvent(CatalogChangedEvent.updated(PhoneEntity.class, null));
+        }
+        log.info("Imported {} rows: {} phones created, {} phones updated, {} phone variants saved",
+                importedRows, createdPhones, updatedPhones, savedPhoneVariants);
+
+        return new PhoneImportResult(importedRows, createdPhones, updatedPhones, savedPhoneVariants,
+                unknownCameraSensors);
+    }
+
+    private long copyRowsToStagingTable(InputStream inputStream, CatalogFileFormat format) {
+        return jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            var copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+            var copyIn = copyManager.copyIn("COPY import_rows FROM STDIN (FORMAT csv)");
+            try (var rowReader = ImportRowReader.create(format, COLUMNS, objectMapper.getFactory(), inputStream)) {
+                var rowCount = 0L;
+                var copyBuffer = new StringBuilder(COPY_BUFFER_SIZE + 1024);
+                String[] row;
+                while ((row = rowReader.nextRow()) != null) {
+                    rowCount++;
+                    appendCopyRow(copyBuffer, row, rowCount);
+                    if (copyBuffer.length() >= COPY_BUFFER_SIZE) {
+                        writeToCopy(copyIn, copyBuffer);
+                    }
+                }
+                writeToCopy(copyIn, copyBuffer);
+                copyIn.endCopy();
+                return rowCount;
+            } catch (IOException exception) {
+                throw new UncheckedIOException(exception);
+            } finally {
+                if (copyIn.isActive()) {
+                    copyIn.cancelCopy();
+                }
+            }
+        });
+    }
+
+    private static void appendCopyRow(StringBuilder copyBuffer, String[] row, long rowNumber) {
+        for (int i = 0; i < row.length; i++) {
+            if (i > 0) {
+                copyBuffer.append(',');
+            }
+            var value = normalizeValue(COLUMNS.get(i), row[i], rowNumber);
+            if (value != null) {
+                copyBuffer.append('"').append(value.replace("\"", "\"\"")).append('"');
+            }
+        }
+        copyBuffer.append('\n');
+    }
+
+    private static String normalizeValue(String column, String value, long rowNumber) {
+        if (value == null || value.isBlank()) {
+            if (REQUIRED_COLUMNS.contains(column)) {
+                throw new ImportFormatException("Row " + rowNumber + " does not contain a value for " + column);
+            }
+            return null;
+        }
+        var enumOrdinals = ENUM_ORDINALS_BY_COLUMN.get(column);
+        if (enumOrdinals != null) {
+            return requireOrdinal(enumOrdinals, value.trim(), column, rowNumber);
+        }
+        if ("camera_modules".equals(column)) {
+            return normalizeCameraModules(value, rowNumber);
+        }
+        return value;
+    }
+
+    private static String normalizeCameraModules(String cameraModules, long rowNumber) {
+        return Arrays.stream(cameraModules.split(";"))
+                .map(String::trim)
+                .filter(cameraModule -> !cameraModule.isEmpty())
+                .map(cameraModule -> {
+                    var matcher = CAMERA_MODULE_PATTERN.matcher(cameraModule);
+                    if (!matcher.matches()) {
+                        throw new ImportFormatException("Row " + rowNumber + " contains an incorrect camera module: "
+                                + cameraModule);
+                    }
+                    var cameraType = requireOrdinal(CAMERA_TYPE_ORDINALS, matcher.group(1), "camera_modules", rowNumber);
+                    return cameraType + ":" + matcher.group(2) + ":" + matcher.group(3);
+                })
+                .collect(Collectors.joining(";"));
+    }
+
+    private static String requireOrdinal(Map<String, String> ordinals, String name, String column, long rowNumber) {
+        var ordinal = ordinals.get(name);
+        if (ordinal == null) {
+            throw new ImportFormatException("Row " + rowNumber + " contains an unknown value of " + column + ": " + name);
+        }
+        return ordinal;
+    }
+
+    private static void writeToCopy(CopyIn copyIn, StringBuilder copyBuffer) throws SQLException {
+        if (copyBuffer.isEmpty()) {
+            return;
+        }
+        var bytes = copyBuffer.toString().getBytes(StandardCharsets.UTF_8);
+        copyIn.writeToCopy(bytes, 0, bytes.length);
+        copyBuffer.setLength(0);
+    }
+
+    private static Map<String, String> ordinalsByName(Enum<?>[] values) {
+        return Arrays.stream(values)
+                .collect(Collectors.toUnmodifiableMap(Enum::name, value -> String.valueOf(value.ordinal())));
+    }
+}
@@ -0,0 +1,233 @@
+package ru.barikhashvili.services.invalidation;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.metamodel.EntityType;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.function.SingletonSupplier;
+import ru.barikhashvili.events.CatalogChangedEvent;
+import ru.barikhashvili.events.ChangeType;
+import ru.barikhashvili.events.RemoteCatalogChangedEvent;
+
+import javax.sql.DataSource;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Шина инвалидации локальных кэшей между экземплярами приложения на основе PostgreSQL LISTEN/NOTIFY.
+ *
+ * <p>Изменения каталога, выполненные в транзакции, собираются без повторов и отправляются перед фиксацией
+ * пакетами по {@value #MAX_CHANGES_PER_NOTIFICATION} изменений в одном уведомлении. PostgreSQL доставляет
+ * уведомления только после фиксации транзакции и не доставляет их при откате.</p>
+ *
+ * <p>Уведомления принимаются в отдельном потоке через выделенное соединение, не входящее в пул. Уведомления,
+ * полученные за один опрос, объединяются в одно событие RemoteCatalogChangedEvent; собственные уведомления
+ * экземпляра пропускаются, так как локальные кэши уже очищены после фиксации транзакции. После
+ * восстановления соединения кэши очищаются полностью, так как часть уведомлений могла быть потеряна.</p>
+ *
+ * <p>Шина отключается свойством {@code phone-store.invalidation-bus.enabled}, которое проверяется при запуске,
+ * а не условием создания бина, поэтому его можно изменить и для приложения, собранного с Spring AOT.
+ * Метамодель Hibernate читается при первом использовании, чтобы создание бина не ожидало инициализации
+ * фабрики EntityManager, выполняемой в фоне.</p>
+ */
+@Component
+@Slf4j
+@FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
+public class CatalogInvalidationBus {
+    private static final String CHANNEL = "catalog_invalidation";
+    private static final int MAX_CHANGES_PER_NOTIFICATION = 100;
+    private static final int POLL_TIMEOUT_MILLIS = 1000;
+    private static final long RECONNECT_DELAY_MILLIS = 5000;
+
+    String nodeId = UUID.randomUUID().toString();
+    JdbcTemplate jdbcTemplate;
+    DataSourceProperties dataSourceProperties;
+    ObjectMapper objectMapper;
+    ApplicationEventPublisher eventPublisher;
+    SingletonSupplier<EntityTypes> entityTypes;
+    boolean enabled;
+    Thread listenerThread = new Thread(this::listen, "catalog-invalidation");
+
+    public CatalogInvalidationBus(DataSource dataSource,
+                                  DataSourceProperties dataSourceProperties,
+                                  EntityManagerFactory entityManagerFactory,
+                                  ObjectMapper objectMapper,
+                                  ApplicationEventPublisher eventPublisher,
+                                  @Value("${phone-store.invalidation-bus.enabled:true}") boolean enabled) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.dataSourceProperties = dataSourceProperties;
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+        this.enabled = enabled;
+        this.entityTypes = SingletonSupplier.of(() -> EntityTypes.of(entityManagerFactory));
+        listenerThread.setDaemon(true);
+    }
+
+    @EventListener
+    @SuppressWarnings("unchecked")
+    public void handleCatalogChanged(CatalogChangedEvent event) {
+        if (!enabled || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        var pendingChanges = (Set<Change>) TransactionSynchronizationManager.getResource(this);
+        if (pendingChanges == null) {
+            var changes = new LinkedHashSet<Change>();
+            TransactionSynchronizationManager.bindResource(this, changes);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    sendNotifications(new ArrayList<>(changes));
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(CatalogInvalidationBus.this);
+                }
+            });
+            pendingChanges = changes;
+        }
+        var entityId = event.entityId() == null ? null : ((Number) event.entityId()).longValue();
+        pendingChanges.add(new Change(entityTypes.obtain().names().get(event.entityType()), entityId,
+                event.changeType()));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void handleApplicationReady() {
+        if (!enabled) {
+            log.info("Catalog invalidation bus is disabled");
+            return;
+        }
+        listenerThread.start();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        listenerThread.interrupt();
+    }
+
+    private void sendNotifications(List<Change> changes) {
+        for (int from = 0; from < changes.size(); from += MAX_CHANGES_PER_NOTIFICATION) {
+            var batch = changes.subList(from, Math.min(from + MAX_CHANGES_PER_NOTIFICATION, changes.size()));
+            try {
+                var payload = objectMapper.writeValueAsString(new Notification(nodeId, batch));
+                jdbcTemplate.query("SELECT pg_notify(?, ?)", resultSet -> null, CHANNEL, payload);
+            } catch (JsonProcessingException exception) {
+                throw new IllegalStateException("Failed to serialize catalog invalidation", exception);
+            }
+        }
+    }
+
+    private void listen() {
+        var connectedBefore = false;
+        while (!Thread.currentThread().isInterrupted()) {
+            try (var connection = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword())) {
+                try (var statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                log.info("Listening for catalog invalidations on channel {}", CHANNEL);
+                if (connectedBefore) {
+                    eventPublisher.publishEvent(new RemoteCatalogChangedEvent(List.of(), true));
+                }
+                connectedBefore = true;
+
+                var pgConnection = connection.unwrap(PGConnection.class);
+                while (!Thread.currentThread().isInterrupted()) {
+                    var notifications = pgConnection.getNotifications(POLL_TIMEOUT_MILLIS);
+                    if (notifications != null && notifications.length > 0) {
+                        handleNotifications(notifications);
+                    }
+                }
+            } catch (SQLException exception) {
+                log.warn("Catalog invalidation listener connection failed, reconnecting in {} ms: {}",
+                        RECONNECT_DELAY_MILLIS, exception.getMessage());
+                try {
+                    Thread.sleep(RECONNECT_DELAY_MILLIS);
+                } catch (InterruptedException interruptedException) {
+                    Thread.currentThread().interrupt();
+                }
+            } catch (RuntimeException exception) {
+                log.error("Failed to handle catalog invalidations", exception);
+            }
+        }
+    }
+
+    /**
+     * Преобразует уведомления других экземпляров в событие RemoteCatalogChangedEvent. Если уведомление
+     * не удалось разобрать или оно ссылается на неизвестную сущность, кэши очищаются полностью.
+     */
+    private void handleNotifications(PGNotification[] notifications) {
+        var changes = new ArrayList<CatalogChangedEvent>();
+        var unreadable = false;
+        for (var pgNotification : notifications) {
+            try {
+                var notification = objectMapper.readValue(pgNotification.getParameter(), Notification.class);
+                if (nodeId.equals(notification.node())) {
+                    continue;
+                }
+                for (var change : notification.changes()) {
+                    var entityType = entityTypes.obtain().types().get(change.type());
+                    if (entityType == null) {
+                        unreadable = true;
+                        continue;
+                    }
+                    Object entityId = change.id();
+                    if (change.id() != null && entityType.getIdType().getJavaType() == Integer.class) {
+                        entityId = change.id().intValue();
+                    }
+                    changes.add(new CatalogChangedEvent(entityType.getJavaType(), entityId, change.change()));
+                }
+            } catch (JsonProcessingException exception) {
+                log.warn("Malformed catalog invalidation received: {}", exception.getMessage());
+                unreadable = true;
+            }
+        }
+        if (!changes.isEmpty() || unreadable) {
+            log.debug("Received {} catalog changes from other nodes", changes.size());
+            eventPublisher.publishEvent(new RemoteCatalogChangedEvent(changes, unreadable));
+        }
+    }
+
+    record Notification(String node, List<Change> changes) {
+    }
+
+    record Change(String type, Long id, ChangeType change) {
+    }
+
+    /**
+     * Названия сущностей метамодели Hibernate по классам и сущности метамодели по названиям.
+     */
+    private record EntityTypes(Map<Class<?>, String> names, Map<String, EntityType<?>> types) {
+        static EntityTypes of(EntityManagerFactory entityManagerFactory) {
+            var names = new HashMap<Class<?>, String>();
+            var types = new HashMap<String, EntityType<?>>();
+            entityManagerFactory.getMetamodel().getEntities().forEach(entityType -> {
+                names.put(entityType.getJavaType(), entityType.getName());
+                types.put(entityType.getName(), entityType);
+            });
+            return new EntityTypes(names, types);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package ru.barikhashvili.services.outbox;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.barikhashvili.repositories.CatalogOutboxRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Публикует зафиксированные записи catalog_outbox в ленту изменений пакетами, назначая им смещения
+ * в порядке добавления записей, и удаляет записи старше срока хранения. Публикация выполняется
+ * под транзакционной advisory блокировкой, поэтому при нескольких экземплярах приложения
+ * смещения назначает только один из них.
+ */
+@Component
+@Slf4j
+@FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
+public class CatalogOutboxRelay {
+    private static final long RELAY_LOCK_KEY = 0x6f7574626f78L;
+
+    CatalogOutboxRepository catalogOutboxRepository;
+    TransactionTemplate transactionTemplate;
+    int batchSize;
+    Duration retention;
+
+    public CatalogOutboxRelay(CatalogOutboxRepository catalogOutboxRepository,
+                              TransactionTemplate transactionTemplate,
+                              @Value("${phone-store.outbox.batch-size:500}") int batchSize,
+                              @Value("${phone-store.outbox.retention:7d}") Duration retention) {
+        this.catalogOutboxRepository = catalogOutboxRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.retention = retention;
+    }
+
+    @Scheduled(fixedDelayString = "${phone-store.outbox.relay-interval-ms:500}")
+    public void publishPending() {
+        int published;
+        do {
+            published = transactionTemplate.execute(status -> catalogOutboxRepository.tryLockRelay(RELAY_LOCK_KEY)
+                    ? catalogOutboxRepository.publishPending(batchSize)
+                    : 0);
+            if (published > 0) {
+                log.debug("Published {} catalog changes to the change feed", published);
+            }
+        } while (published == batchSize);
+    }
+
+    @Scheduled(fixedDelayString = "${phone-store.outbox.cleanup-interval-ms:3600000}")
+    public void deleteExpired() {
+        var deleted = transactionTemplate.execute(status -> catalogOutboxRepository.tryLockRelay(RELAY_LOCK_KEY)
+                ? catalogOutboxRepository.deletePublishedBefore(LocalDateTime.now().minus(retention))
+                : 0);
+        if (deleted > 0) {
+            log.info("Deleted {} catalog changes older than {}", deleted, retention);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package ru.barikhashvili.services.outbox;
+
+import jakarta.persistence.Entity;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.barikhashvili.dto.CatalogChangeDTO;
+import ru.barikhashvili.dto.CatalogChangeFeedDTO;
+import ru.barikhashvili.entities.CatalogOutboxEntity;
+import ru.barikhashvili.events.CatalogChangedEvent;
+import ru.barikhashvili.repositories.CatalogOutboxRepository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Сохраняет события об изменении каталога в таблицу catalog_outbox и отдает опубликованные события
+ * в виде ленты изменений. Событие сохраняется синхронно в транзакции сервиса, изменившего каталог,
+ * поэтому запись в ленте появляется тогда и только тогда, когда изменение зафиксировано.
+ */
+@Service
+@RequiredArgsConstructor
+@FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
+public class CatalogOutboxService {
+    public static final int MAX_FEED_LIMIT = 1000;
+
+    CatalogOutboxRepository catalogOutboxRepository;
+
+    @EventListener
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void handleCatalogChanged(CatalogChangedEvent event) {
+        var outboxRecord = CatalogOutboxEntity.builder()
+                .entityType(event.entityType().getAnnotation(Entity.class).name())
+                .entityId(event.entityId() == null ? null : ((Number) event.entityId()).longValue())
+                .changeType(event.changeType())
+                .createdAt(LocalDateTime.now())
+                .build();
+        catalogOutboxRepository.save(outboxRecord);
+    }
+
+    /**
+     * Возвращает опубликованные изменения каталога со смещением больше указанного в порядке публикации.
+     *
+     * @param afterOffset смещение последнего обработанного клиентом изменения (0 - читать с начала ленты).
+     * @param limit       максимальное количество изменений в ответе (не больше {@value #MAX_FEED_LIMIT}).
+     * @return изменения и смещение, которое необходимо передать в следующем запросе.
+     */
+    @Transactional(readOnly = true)
+    public CatalogChangeFeedDTO getChanges(long afterOffset, int limit) {
+        var feedLimit = Limit.of(Math.max(1, Math.min(limit, MAX_FEED_LIMIT)));
+        var changes = catalogOutboxRepository.findByFeedOffsetGreaterThanOrderByFeedOffset(afterOffset, feedLimit)
+                .stream()
+                .map(outboxRecord -> CatalogChangeDTO.of(outboxRecord.getFeedOffset(), outboxRecord.getEntityType(),
+                        outboxRecord.getEntityId(), outboxRecord.getChangeType(), outboxRecord.getCreatedAt()))
+                .toList();
+        var nextOffset = changes.isEmpty() ? afterOffset : changes.get(changes.size() - 1).getOffset();
+        return CatalogChangeFeedDTO.of(changes, nextOffset);
+    }
+}
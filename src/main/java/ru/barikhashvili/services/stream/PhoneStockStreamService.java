@@ -0,0 +1,221 @@
+package ru.barikhashvili.services.stream;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.barikhashvili.events.PhoneVariantStockChangedEvent;
+
+import java.io.IOException;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Рассылает подписчикам SSE изменения цен и количества вариантов телефонов после фиксации транзакции,
+ * в которой они были изменены. Поток, зафиксировавший транзакцию, один раз сериализует событие и только
+ * раскладывает его по очередям подписчиков, не выполняя запись в сетевые соединения. Отправкой занимаются
+ * потоки отправки, количество которых задается {@code phone-store.stock-stream.sender-threads}. Для каждого
+ * подписчика одновременно выполняется не больше одной отправки, поэтому в очереди пула находится не больше
+ * одной задачи на подписчика.
+ * Очередь каждого подписчика ограничена; подписчик, очередь которого переполнена или отправка которому
+ * длится дольше {@code phone-store.stock-stream.write-timeout-ms}, считается медленным и отключается,
+ * и клиент должен переподключиться и перечитать актуальные данные.
+ * Запись в соединение, окно TCP которого заполнено, блокирует поток отправки, и прервать ее на уровне
+ * SseEmitter нельзя, так как его методы завершения ожидают окончания отправки. Поэтому тайм-аут соединений
+ * Tomcat ({@code server.tomcat.connection-timeout}), который в HTTP/1.1 также ограничивает время ожидания
+ * блокирующей записи, равен {@code phone-store.stock-stream.write-timeout-ms}: зависшая запись завершается
+ * ошибкой, и поток отправки освобождается для остальных подписчиков.
+ */
+@Service
+@Slf4j
+@FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
+public class PhoneStockStreamService {
+    private static final String STOCK_EVENT_NAME = "stock";
+    private static final Set<ResponseBodyEmitter.DataWithMediaType> HEARTBEAT =
+            SseEmitter.event().comment("heartbeat").build();
+
+    Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    ExecutorService senderExecutor;
+    ObjectMapper objectMapper;
+    int bufferSize;
+    long writeTimeoutNanos;
+
+    public PhoneStockStreamService(MeterRegistry meterRegistry,
+                                   ObjectMapper objectMapper,
+                                   @Value("${phone-store.stock-stream.buffer-size:64}") int bufferSize,
+                                   @Value("${phone-store.stock-stream.write-timeout-ms:5000}") long writeTimeoutMs,
+                                   @Value("${phone-store.stock-stream.sender-threads:16}") int senderThreads) {
+        this.objectMapper = objectMapper;
+        this.bufferSize = bufferSize;
+        this.writeTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(writeTimeoutMs);
+        Gauge.builder("phone.stock.stream.subscribers", subscribers, Set::size).register(meterRegistry);
+        var threadNumber = new AtomicInteger();
+        this.senderExecutor = Executors.newFixedThreadPool(senderThreads, runnable -> {
+            var thread = new Thread(runnable, "stock-stream-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Регистрирует нового подписчика. Если фильтр не указан, подписчик получает изменения всех телефонов.
+     *
+     * @param phoneId        уникальный идентификатор телефона или null.
+     * @param manufacturerId уникальный идентификатор производителя или null.
+     * @return SseEmitter, через который подписчику отправляются события.
+     */
+    public SseEmitter subscribe(Long phoneId, Integer manufacturerId) {
+        var subscriber = new Subscriber(new SseEmitter(), phoneId, manufacturerId, bufferSize);
+        subscriber.emitter.onCompletion(() -> subscribers.remove(subscriber));
+        subscriber.emitter.onTimeout(() -> subscribers.remove(subscriber));
+        subscriber.emitter.onError(exception -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        return subscriber.emitter;
+    }
+
+    @TransactionalEventListener
+    public void handleStockChanged(PhoneVariantStockChangedEvent event) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        Set<ResponseBodyEmitter.DataWithMediaType> sseEvent;
+        try {
+            sseEvent = SseEmitter.event()
+                    .name(STOCK_EVENT_NAME)
+                    .data(objectMapper.writeValueAsString(event))
+                    .build();
+        } catch (JsonProcessingException exception) {
+            log.error("Failed to serialize a stock change event: {}", exception.getMessage());
+            return;
+        }
+        for (var subscriber : subscribers) {
+            if (subscriber.accepts(event)) {
+                enqueue(subscriber, sseEvent);
+            }
+        }
+    }
+
+    /**
+     * Отправляет подписчикам комментарий, чтобы промежуточные прокси не закрывали неактивные соединения,
+     * а соединения отключившихся клиентов обнаруживались и освобождались.
+     */
+    @Scheduled(fixedDelayString = "${phone-store.stock-stream.heartbeat-interval-ms:15000}")
+    public void sendHeartbeat() {
+        subscribers.forEach(subscriber -> enqueue(subscriber, HEARTBEAT));
+    }
+
+    /**
+     * Отключает подписчиков, отправка которым длится дольше допустимого времени (клиент не читает данные
+     * и его окно TCP заполнено). Новые события таким подписчикам не раскладываются, а соединение закрывается,
+     * как только зависшая запись завершится ошибкой по тайм-ауту записи Tomcat.
+     */
+    @Scheduled(fixedDelayString = "${phone-store.stock-stream.write-timeout-ms:5000}")
+    public void disconnectStalledSubscribers() {
+        var now = System.nanoTime();
+        for (var subscriber : subscribers) {
+            var sendStartedAt = subscriber.sendStartedAt.get();
+            if (sendStartedAt != 0 && now - sendStartedAt > writeTimeoutNanos) {
+                log.warn("Disconnecting a stalled stock stream subscriber: a write is blocked for more than {} ms",
+                        TimeUnit.NANOSECONDS.toMillis(writeTimeoutNanos));
+                disconnect(subscriber);
+            }
+        }
+    }
+
+    private void enqueue(Subscriber subscriber, Set<ResponseBodyEmitter.DataWithMediaType> event) {
+        if (!subscriber.queue.offer(event)) {
+            log.warn("Disconnecting a slow stock stream subscriber: {} events are pending", bufferSize);
+            disconnect(subscriber);
+            return;
+        }
+        if (subscriber.sending.compareAndSet(false, true)) {
+            senderExecutor.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            Set<ResponseBodyEmitter.DataWithMediaType> event;
+            while (subscribers.contains(subscriber) && (event = subscriber.queue.poll()) != null) {
+                subscriber.sendStartedAt.set(System.nanoTime());
+                subscriber.emitter.send(event);
+                subscriber.sendStartedAt.set(0);
+            }
+        } catch (IOException | IllegalStateException exception) {
+            log.debug("Stock stream subscriber disconnected: {}", exception.getMessage());
+            subscribers.remove(subscriber);
+        } finally {
+            subscriber.sendStartedAt.set(0);
+            subscriber.sending.set(false);
+        }
+        if (!subscribers.contains(subscriber)) {
+            close(subscriber);
+        } else if (!subscriber.queue.isEmpty() && subscriber.sending.compareAndSet(false, true)) {
+            senderExecutor.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void disconnect(Subscriber subscriber) {
+        if (subscribers.remove(subscriber)) {
+            close(subscriber);
+        }
+    }
+
+    /**
+     * Закрывает соединение отключенного подписчика. Если подписчику в этот момент выполняется отправка,
+     * соединение закроет поток отправки после ее завершения, поэтому вызывающий поток не ожидает
+     * зависшую запись в сетевое соединение.
+     */
+    private void close(Subscriber subscriber) {
+        subscriber.queue.clear();
+        if (subscriber.sending.compareAndSet(false, true)) {
+            subscriber.emitter.complete();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.forEach(this::disconnect);
+        senderExecutor.shutdownNow();
+    }
+
+    @FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
+    private static final class Subscriber {
+        SseEmitter emitter;
+        Long phoneId;
+        Integer manufacturerId;
+        Queue<Set<ResponseBodyEmitter.DataWithMediaType>> queue;
+        AtomicBoolean sending = new AtomicBoolean();
+        AtomicLong sendStartedAt = new AtomicLong();
+
+        Subscriber(SseEmitter emitter, Long phoneId, Integer manufacturerId, int bufferSize) {
+            this.emitter = emitter;
+            this.phoneId = phoneId;
+            this.manufacturerId = manufacturerId;
+            this.queue = new ArrayBlockingQueue<>(bufferSize);
+        }
+
+        boolean accepts(PhoneVariantStockChangedEvent event) {
+            return (phoneId == null || phoneId.equals(event.phoneId()))
+                    && (manufacturerId == null || manufacturerId.equals(event.manufacturerId()));
+        }
+    }
+}
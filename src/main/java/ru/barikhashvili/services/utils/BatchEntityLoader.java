@@ -0,0 +1,64 @@
+package ru.barikhashvili.services.utils;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import ru.barikhashvili.exceptions.InsufficientDataException;
+import ru.barikhashvili.exceptions.ResourcesNotFoundException;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+public final class BatchEntityLoader {
+    private BatchEntityLoader() {
+    }
+
+    /**
+     * Загружает сущности по списку идентификаторов одним запросом к базе данных (findAllById) и
+     * возвращает их в том порядке, в котором идентификаторы были переданы. Повторяющиеся идентификаторы
+     * запрашиваются из базы данных один раз, но в результате присутствуют столько раз, сколько были указаны.
+     *
+     * @param repository  репозиторий, из которого загружаются сущности.
+     * @param ids         список идентификаторов в требуемом порядке.
+     * @param idExtractor функция получения идентификатора из загруженной сущности.
+     * @param entityName  название сущности для сообщения об ошибке.
+     * @return список сущностей в порядке следования идентификаторов в ids.
+     * @throws InsufficientDataException  если список идентификаторов пуст или содержит null.
+     * @throws ResourcesNotFoundException если часть сущностей не найдена, исключение содержит все отсутствующие id.
+     */
+    public static <E, I> List<E> findAllByIdsInRequestedOrder(JpaRepository<E, I> repository,
+                                                              List<I> ids,
+                                                              Function<E, I> idExtractor,
+                                                              String entityName) {
+        checkIds(ids);
+
+        var uniqueIds = new LinkedHashSet<>(ids);
+        var entitiesById = repository.findAllById(uniqueIds)
+                .stream()
+                .collect(Collectors.toMap(idExtractor, Function.identity()));
+
+        var missingIds = uniqueIds.stream()
+                .filter(id -> !entitiesById.containsKey(id))
+                .toList();
+        if (!missingIds.isEmpty()) {
+            throw new ResourcesNotFoundException(entityName + " not found", missingIds);
+        }
+
+        return ids.stream()
+                .map(entitiesById::get)
+                .toList();
+    }
+
+    /**
+     * Проверяет, что список идентификаторов не пуст и не содержит null.
+     *
+     * @param ids список идентификаторов.
+     * @throws InsufficientDataException если список идентификаторов пуст или содержит null.
+     */
+    public static void checkIds(List<?> ids) {
+        if (ids == null || ids.isEmpty() || ids.stream().anyMatch(Objects::isNull)) {
+            throw new InsufficientDataException("Identifiers are missing");
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package ru.barikhashvili.services.utils;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.http.MediaType;
+
+import ru.barikhashvili.exceptions.ImportFormatException;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Формат файла для выгрузки и загрузки данных каталога.
+ */
+@Getter
+@RequiredArgsConstructor
+@FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
+public enum CatalogFileFormat {
+    NDJSON(MediaType.parseMediaType("application/x-ndjson"), "ndjson"),
+    CSV(new MediaType("text", "csv", StandardCharsets.UTF_8), "csv");
+
+    MediaType mediaType;
+    String fileExtension;
+
+    /**
+     * Определяет формат файла по типу содержимого запроса.
+     *
+     * @param contentType тип содержимого запроса.
+     * @return формат файла с совпадающим типом и подтипом.
+     * @throws ImportFormatException если тип содержимого не соответствует ни одному формату.
+     */
+    public static CatalogFileFormat fromMediaType(MediaType contentType) {
+        for (var format : values()) {
+            if (format.mediaType.equalsTypeAndSubtype(contentType)) {
+                return format;
+            }
+        }
+        throw new ImportFormatException("Unsupported file content type: " + contentType);
+    }
+}
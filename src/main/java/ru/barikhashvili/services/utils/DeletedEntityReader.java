@@ -0,0 +1,77 @@
+package ru.barikhashvili.services.utils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.stereotype.Service;
+import ru.barikhashvili.exceptions.ResourcesNotFoundException;
+import ru.barikhashvili.repositories.sql.CatalogJsonSql;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Преобразует JSON представление удаленных записей, возвращенное запросами DELETE ... RETURNING
+ * (см. {@link CatalogJsonSql}), в DTO. Благодаря этому удаление и получение сведений об удаленной
+ * записи выполняются за одно обращение к базе данных.
+ */
+@Service
+@RequiredArgsConstructor
+@FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
+public class DeletedEntityReader {
+    ObjectMapper objectMapper;
+
+    /**
+     * Преобразует JSON представление удаленной записи в DTO.
+     *
+     * @param json     JSON представление удаленной записи.
+     * @param dtoClass класс DTO.
+     * @return DTO удаленной записи.
+     */
+    public <T> T readDto(String json, Class<T> dtoClass) {
+        try {
+            return objectMapper.readValue(json, dtoClass);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unable to read deleted " + dtoClass.getSimpleName(), e);
+        }
+    }
+
+    /**
+     * Преобразует JSON представления удаленных записей в DTO и возвращает их в том порядке, в котором
+     * были переданы идентификаторы. Повторяющиеся идентификаторы присутствуют в результате столько раз,
+     * сколько были указаны.
+     *
+     * @param jsons       JSON представления удаленных записей в произвольном порядке.
+     * @param dtoClass    класс DTO.
+     * @param ids         список идентификаторов в требуемом порядке.
+     * @param idExtractor функция получения идентификатора из DTO.
+     * @param entityName  название сущности для сообщения об ошибке.
+     * @return список DTO в порядке следования идентификаторов в ids.
+     * @throws ResourcesNotFoundException если часть записей не была удалена, так как не найдена
+     *                                    (исключение содержит все отсутствующие id).
+     */
+    public <T, I> List<T> readDtosInRequestedOrder(List<String> jsons,
+                                                   Class<T> dtoClass,
+                                                   List<I> ids,
+                                                   Function<T, I> idExtractor,
+                                                   String entityName) {
+        var dtosById = jsons.stream()
+                .map(json -> readDto(json, dtoClass))
+                .collect(Collectors.toMap(idExtractor, Function.identity()));
+
+        var missingIds = new LinkedHashSet<>(ids).stream()
+                .filter(id -> !dtosById.containsKey(id))
+                .toList();
+        if (!missingIds.isEmpty()) {
+            throw new ResourcesNotFoundException(entityName + " not found", missingIds);
+        }
+
+        return ids.stream()
+                .map(dtosById::get)
+                .toList();
+    }
+}
@@ -12,9 +12,13 @@ import ru.barikhashvili.entities.PhoneVariantEntity;
 import ru.barikhashvili.entities.specs.PhoneSpecificationEntity;
 import ru.barikhashvili.entities.specs.VariantEntity;
 import ru.barikhashvili.exceptions.InsufficientDataException;
+import ru.barikhashvili.exceptions.ResourceNotFoundException;
 import ru.barikhashvili.services.EntityExtractor;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -113,4 +117,55 @@ public class DtoToEntityConverter {
                 })
                 .toList();
     }
+
+    /**
+     * Приводит варианты телефона в соответствие со списком DTO, сравнивая их по идентификатору вариации.
+     * Цена и количество уже существующих вариантов изменяются на месте (и только если они отличаются),
+     * новые варианты добавляются, а варианты, отсутствующие в dtoList, удаляются из телефона.
+     * Благодаря этому при сохранении выполняется столько операций записи, сколько вариантов действительно
+     * изменилось, и не нарушается уникальность пары (phone_id, variant_id).
+     * Если вариация указана в dtoList несколько раз, то используется последнее указанное значение.
+     *
+     * @param dtoList     список объектов передачи данных вариантов телефона.
+     * @param phoneEntity сущность телефона, варианты которого необходимо изменить.
+     * @return true, если хотя бы один вариант телефона был добавлен, изменен или удален.
+     * @throws InsufficientDataException если в любом из DTO вариация, цена или количество не предоставлены.
+     * @throws ResourceNotFoundException если вариация из DTO не найдена в базе данных.
+     */
+    public boolean mergePhoneVariants(List<PhoneVariantDTO> dtoList, PhoneEntity phoneEntity) {
+        var requestedVariants = new LinkedHashMap<Integer, PhoneVariantDTO>();
+        for (var dto : dtoList) {
+            if (dto.getVariant() == null || dto.getVariant().getId() == null
+                    || dto.getPrice() == null || dto.getQuantity() == null) {
+                throw new InsufficientDataException("Not all data is provided");
+            }
+            requestedVariants.put(dto.getVariant().getId(), dto);
+        }
+
+        var currentVariants = phoneEntity.getPhoneVariants();
+        var changed = currentVariants.removeIf(
+                phoneVariant -> !requestedVariants.containsKey(phoneVariant.getVariant().getId()));
+
+        var currentVariantsById = currentVariants.stream()
+                .collect(Collectors.toMap(phoneVariant -> phoneVariant.getVariant().getId(), Function.identity()));
+
+        for (var requestedVariant : requestedVariants.entrySet()) {
+            var dto = requestedVariant.getValue();
+            var phoneVariant = currentVariantsById.get(requestedVariant.getKey());
+            if (phoneVariant == null) {
+                phoneVariantDtoToEntity(dto).setPhone(phoneEntity);
+                changed = true;
+                continue;
+            }
+            if (phoneVariant.getPrice().compareTo(dto.getPrice()) != 0) {
+                phoneVariant.setPrice(dto.getPrice());
+                changed = true;
+            }
+            if (phoneVariant.getQuantity() != dto.getQuantity()) {
+                phoneVariant.setQuantity(dto.getQuantity());
+                changed = true;
+            }
+        }
+        return changed;
+    }
 }
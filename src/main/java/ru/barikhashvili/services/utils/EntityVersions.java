@@ -0,0 +1,26 @@
+package ru.barikhashvili.services.utils;
+
+import ru.barikhashvili.exceptions.PreconditionFailedException;
+
+import java.util.Objects;
+
+public final class EntityVersions {
+    private EntityVersions() {
+    }
+
+    /**
+     * Проверяет, что версия сущности в базе данных совпадает с версией, которую ожидает клиент
+     * (передается в заголовке If-Match). Если ожидаемая версия не указана, то проверка не выполняется.
+     *
+     * @param currentVersion  текущая версия сущности в базе данных.
+     * @param expectedVersion версия сущности, на основе которой клиент сформировал изменения, или null.
+     * @param entityName      название сущности для сообщения об ошибке.
+     * @throws PreconditionFailedException если версии не совпадают.
+     */
+    public static void checkVersion(Long currentVersion, Long expectedVersion, String entityName) {
+        if (expectedVersion != null && !Objects.equals(currentVersion, expectedVersion)) {
+            throw new PreconditionFailedException(entityName + " version " + expectedVersion
+                    + " does not match current version " + currentVersion);
+        }
+    }
+}
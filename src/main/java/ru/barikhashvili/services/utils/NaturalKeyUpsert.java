@@ -0,0 +1,35 @@
+package ru.barikhashvili.services.utils;
+
+import ru.barikhashvili.repositories.projections.UpsertResult;
+
+import java.util.function.Supplier;
+
+public final class NaturalKeyUpsert {
+    private static final int MAX_ATTEMPTS = 3;
+
+    private NaturalKeyUpsert() {
+    }
+
+    /**
+     * Выполняет запрос добавления записи по естественному ключу
+     * ({@code INSERT ... ON CONFLICT ... RETURNING} с последующим чтением существующей записи) и повторяет его,
+     * если запрос не вернул ни одной строки. Это происходит, когда конкурирующая транзакция добавила запись
+     * с тем же ключом и зафиксировала ее после получения снимка данных запросом: вставка пропускается из-за
+     * конфликта, а чтение существующей записи ее не видит. При уровне изоляции READ COMMITTED повторный
+     * запрос получает новый снимок и находит зафиксированную запись.
+     *
+     * @param upsert запрос добавления записи по естественному ключу.
+     * @param <I>    тип идентификатора записи.
+     * @return результат добавления или чтения записи.
+     * @throws IllegalStateException если запрос не вернул запись после нескольких попыток.
+     */
+    public static <I> UpsertResult<I> execute(Supplier<UpsertResult<I>> upsert) {
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+            var upsertResult = upsert.get();
+            if (upsertResult != null && upsertResult.getId() != null) {
+                return upsertResult;
+            }
+        }
+        throw new IllegalStateException("Upsert by natural key returned no row after " + MAX_ATTEMPTS + " attempts");
+    }
+}
@@ -0,0 +1,37 @@
+package ru.barikhashvili.services.utils;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+
+public final class PixelDensity {
+    public static final int SCALE = 2;
+
+    private PixelDensity() {
+    }
+
+    /**
+     * Вычисляет длину диагонали экрана в пикселях.
+     *
+     * @param horizontalPixels количество пикселей по горизонтали.
+     * @param verticalPixels   количество пикселей по вертикали.
+     * @return количество пикселей, укладывающихся в диагональ экрана.
+     */
+    public static BigDecimal diagonalPixels(int horizontalPixels, int verticalPixels) {
+        var squaredDiagonal = (long) horizontalPixels * horizontalPixels + (long) verticalPixels * verticalPixels;
+        return BigDecimal.valueOf(squaredDiagonal).sqrt(MathContext.DECIMAL64);
+    }
+
+    /**
+     * Вычисляет плотность пикселей дисплея (PPI) с точностью до сотых. Значение совпадает с выражением
+     * {@code ROUND(SQRT(h * h + v * v) / diagonal, 2)}, которым плотность вычисляется в SQL запросах.
+     *
+     * @param horizontalPixels количество пикселей по горизонтали.
+     * @param verticalPixels   количество пикселей по вертикали.
+     * @param diagonal         диагональ дисплея в дюймах.
+     * @return количество пикселей на дюйм.
+     */
+    public static BigDecimal calculate(int horizontalPixels, int verticalPixels, BigDecimal diagonal) {
+        return diagonalPixels(horizontalPixels, verticalPixels).divide(diagonal, SCALE, RoundingMode.HALF_UP);
+    }
+}
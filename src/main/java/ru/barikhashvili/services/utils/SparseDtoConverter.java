@@ -0,0 +1,176 @@
+package ru.barikhashvili.services.utils;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.modelmapper.ModelMapper;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+import ru.barikhashvili.dto.PhoneDTO;
+import ru.barikhashvili.dto.PhoneVariantDTO;
+import ru.barikhashvili.dto.specs.*;
+import ru.barikhashvili.entities.PhoneVariantEntity;
+import ru.barikhashvili.entities.specs.ManufacturerEntity;
+import ru.barikhashvili.entities.specs.PhoneSpecificationEntity;
+import ru.barikhashvili.exceptions.UnknownFieldsException;
+import ru.barikhashvili.repositories.projections.PhoneSummary;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+
+@Service
+@FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
+public class SparseDtoConverter {
+    public static final Set<String> PHONE_FIELDS = Set.of(
+            "id", "manufacturer", "model", "specification", "releaseDate", "phoneVariants", "minPrice");
+
+    public static final Set<String> SPECIFICATION_FIELDS = Set.of(
+            "id", "networkType", "simCount", "hasWifi", "hasNfc", "hasBluetooth", "height", "width",
+            "thickness", "weight", "material", "chargerType",
+            "operatingSystem", "display", "processor", "battery", "cameras");
+
+    ModelMapper mapper;
+
+    public SparseDtoConverter(@Qualifier("modelMapper") ModelMapper mapper) {
+        this.mapper = mapper;
+    }
+
+    /**
+     * Проверяет, что все запрошенные поля присутствуют среди допустимых полей DTO.
+     *
+     * @param fields        запрошенные названия полей.
+     * @param allowedFields допустимые названия полей DTO.
+     * @throws UnknownFieldsException если запрошено хотя бы одно неизвестное поле.
+     */
+    public void checkFields(Set<String> fields, Set<String> allowedFields) {
+        var unknownFields = fields.stream()
+                .filter(field -> !allowedFields.contains(field))
+                .sorted()
+                .toList();
+        if (!unknownFields.isEmpty()) {
+            throw new UnknownFieldsException("Unknown fields requested: " + unknownFields);
+        }
+    }
+
+    /**
+     * Создает PhoneDTO, в котором заполнены только запрошенные поля. Столбцы телефона читаются из проекции,
+     * а связанные сущности (производитель, характеристика, варианты телефона) передаются уже загруженными
+     * и преобразуются только если они запрошены.
+     *
+     * @param phone         проекция столбцов телефона.
+     * @param fields        названия полей PhoneDTO, которые необходимо заполнить.
+     * @param manufacturer  производитель телефона (null, если не запрошен или отсутствует).
+     * @param specification характеристика телефона (null, если не запрошена).
+     * @param phoneVariants варианты телефона (используются, если запрошено поле phoneVariants).
+     * @param minPrice      минимальная цена среди вариантов телефона (используется, если запрошено поле minPrice).
+     * @return PhoneDTO с заполненными запрошенными полями.
+     */
+    public PhoneDTO phoneSummaryToDto(PhoneSummary phone,
+                                      Set<String> fields,
+                                      ManufacturerEntity manufacturer,
+                                      PhoneSpecificationEntity specification,
+                                      List<PhoneVariantEntity> phoneVariants,
+                                      BigDecimal minPrice) {
+        var phoneDTO = new PhoneDTO();
+        phoneDTO.setPhoneVariants(null);
+        phoneDTO.setVersion(phone.getVersion());
+
+        if (fields.contains("id")) {
+            phoneDTO.setId(phone.getId());
+        }
+        if (fields.contains("model")) {
+            phoneDTO.setModel(phone.getModel());
+        }
+        if (fields.contains("releaseDate")) {
+            phoneDTO.setReleaseDate(phone.getReleaseDate());
+        }
+        if (fields.contains("manufacturer") && manufacturer != null) {
+            phoneDTO.setManufacturer(mapper.map(manufacturer, ManufacturerDTO.class));
+        }
+        if (fields.contains("specification") && specification != null) {
+            phoneDTO.setSpecification(mapper.map(specification, PhoneSpecificationDTO.class));
+        }
+        if (fields.contains("phoneVariants")) {
+            phoneDTO.setPhoneVariants(phoneVariants
+                    .stream()
+                    .map(phoneVariant -> mapper.map(phoneVariant, PhoneVariantDTO.class))
+                    .toList());
+        }
+        if (fields.contains("minPrice")) {
+            phoneDTO.setMinPrice(minPrice);
+        }
+
+        return phoneDTO;
+    }
+
+    /**
+     * Создает PhoneSpecificationDTO, в котором заполнены только запрошенные поля. Связанные сущности
+     * (операционная система, дисплей, процессор, аккумулятор, камеры) читаются только если они запрошены.
+     *
+     * @param specification сущность характеристики телефона.
+     * @param fields        названия полей PhoneSpecificationDTO, которые необходимо заполнить.
+     * @return PhoneSpecificationDTO с заполненными запрошенными полями.
+     */
+    public PhoneSpecificationDTO phoneSpecEntityToDto(PhoneSpecificationEntity specification, Set<String> fields) {
+        var specificationDTO = new PhoneSpecificationDTO();
+        specificationDTO.setCameras(null);
+        specificationDTO.setVersion(specification.getVersion());
+
+        if (fields.contains("id")) {
+            specificationDTO.setId(specification.getId());
+        }
+        if (fields.contains("networkType")) {
+            specificationDTO.setNetworkType(specification.getNetworkType());
+        }
+        if (fields.contains("simCount")) {
+            specificationDTO.setSimCount(specification.getSimCount());
+        }
+        if (fields.contains("hasWifi")) {
+            specificationDTO.setHasWifi(specification.getHasWifi());
+        }
+        if (fields.contains("hasNfc")) {
+            specificationDTO.setHasNfc(specification.getHasNfc());
+        }
+        if (fields.contains("hasBluetooth")) {
+            specificationDTO.setHasBluetooth(specification.getHasBluetooth());
+        }
+        if (fields.contains("height")) {
+            specificationDTO.setHeight(specification.getHeight());
+        }
+        if (fields.contains("width")) {
+            specificationDTO.setWidth(specification.getWidth());
+        }
+        if (fields.contains("thickness")) {
+            specificationDTO.setThickness(specification.getThickness());
+        }
+        if (fields.contains("weight")) {
+            specificationDTO.setWeight(specification.getWeight());
+        }
+        if (fields.contains("material")) {
+            specificationDTO.setMaterial(specification.getMaterial());
+        }
+        if (fields.contains("chargerType")) {
+            specificationDTO.setChargerType(specification.getChargerType());
+        }
+        if (fields.contains("operatingSystem") && specification.getOperatingSystem() != null) {
+            specificationDTO.setOperatingSystem(mapper.map(specification.getOperatingSystem(), OperatingSystemDTO.class));
+        }
+        if (fields.contains("display") && specification.getDisplay() != null) {
+            specificationDTO.setDisplay(mapper.map(specification.getDisplay(), DisplayDTO.class));
+        }
+        if (fields.contains("processor") && specification.getProcessor() != null) {
+            specificationDTO.setProcessor(mapper.map(specification.getProcessor(), ProcessorDTO.class));
+        }
+        if (fields.contains("battery") && specification.getBattery() != null) {
+            specificationDTO.setBattery(mapper.map(specification.getBattery(), BatteryDTO.class));
+        }
+        if (fields.contains("cameras")) {
+            specificationDTO.setCameras(specification.getCameras()
+                    .stream()
+                    .map(camera -> mapper.map(camera, CameraDTO.class))
+                    .toList());
+        }
+
+        return specificationDTO;
+    }
+}
@@ -1,3 +1,8 @@
+-- Фоновая перестройка снимка каталога после фиксации изменений читает таблицы телефонов параллельно
+-- с очисткой. Очистка ожидает взаимоблокировку дольше, поэтому при взаимной блокировке отменяется
+-- перестройка снимка, а не очистка таблиц.
+set local deadlock_timeout = '10s';
+
 truncate table specifications_cameras restart identity cascade;
 
 truncate table cameras restart identity cascade;
@@ -24,4 +29,6 @@ truncate table screen_resolutions restart identity cascade;
 
 truncate table operating_systems restart identity cascade;
 
-truncate table processors restart identity cascade;
\ No newline at end of file
+truncate table processors restart identity cascade;
+
+truncate table catalog_outbox restart identity cascade;
\ No newline at end of file
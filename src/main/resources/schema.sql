@@ -34,6 +34,7 @@ create table displays (
     resolution_id INTEGER NOT NULL REFERENCES screen_resolutions ON DELETE CASCADE ON UPDATE CASCADE,
     refresh_rate INTEGER NOT NULL CHECK (refresh_rate > 0),
     display_type SMALLINT NOT NULL CHECK (display_type >= 0 AND display_type <= 2),
+    ppi NUMERIC(10,2) NOT NULL CHECK (ppi > 0),
     UNIQUE (diagonal, resolution_id, refresh_rate, display_type)
 );
 
@@ -61,7 +62,9 @@ create table processors (
     model VARCHAR(100) NOT NULL UNIQUE CHECK (LENGTH(model) > 0),
     cores INTEGER NOT NULL CHECK (cores > 0),
     max_frequency NUMERIC(5,2) NOT NULL CHECK (max_frequency > 0),
-    technology_node INTEGER NOT NULL CHECK (technology_node > 0 AND technology_node < 100)
+    technology_node INTEGER NOT NULL CHECK (technology_node > 0 AND technology_node < 100),
+    performance_score INTEGER NOT NULL GENERATED ALWAYS AS (
+        CAST(ROUND(cores * max_frequency * 1000 / SQRT(CAST(technology_node AS NUMERIC))) AS INTEGER)) STORED
 );
 
 create table phone_specs (
@@ -93,7 +96,8 @@ create table phone_specs (
                             ON DELETE SET NULL,
     battery_id INTEGER REFERENCES batteries
                             ON UPDATE CASCADE
-                            ON DELETE SET NULL
+                            ON DELETE SET NULL,
+    version BIGINT NOT NULL DEFAULT 0
 );
 
 create table specifications_cameras (
@@ -116,6 +120,7 @@ create table phones (
     specification_id BIGINT NOT NULL REFERENCES phone_specs
                             ON UPDATE CASCADE
                             ON DELETE CASCADE,
+    version BIGINT NOT NULL DEFAULT 0,
     UNIQUE (model, manufacturer_id, release_date, specification_id)
 );
 
@@ -137,8 +142,27 @@ create table phones_variants (
     variant_id INTEGER NOT NULL REFERENCES variants
                             ON UPDATE CASCADE
                             ON DELETE CASCADE,
+    version BIGINT NOT NULL DEFAULT 0,
     UNIQUE (phone_id, variant_id)
 );
 
 CREATE INDEX idx_phones_variants_phone_id_key ON phones_variants(phone_id);
 CREATE INDEX idx_phones_variants_variant_id_key ON phones_variants(variant_id);
+CREATE INDEX idx_camera_sensors_megapixels_id_key ON camera_sensors(megapixels, id);
+CREATE INDEX idx_cameras_sensor_id_key ON cameras(sensor_id);
+CREATE INDEX idx_processors_performance_score_key ON processors(performance_score DESC, id);
+CREATE INDEX idx_phone_specs_processor_id_key ON phone_specs(processor_id);
+CREATE INDEX idx_phones_specification_id_key ON phones(specification_id);
+CREATE INDEX idx_displays_ppi_id_key ON displays(ppi, id);
+CREATE INDEX idx_phone_specs_display_id_key ON phone_specs(display_id);
+
+create table catalog_outbox (
+    id BIGSERIAL PRIMARY KEY,
+    entity_type VARCHAR(60) NOT NULL,
+    entity_id BIGINT,
+    change_type SMALLINT NOT NULL CHECK (change_type >= 0 AND change_type <= 2),
+    created_at TIMESTAMP NOT NULL DEFAULT now(),
+    feed_offset BIGINT UNIQUE
+);
+
+CREATE INDEX idx_catalog_outbox_pending ON catalog_outbox(id) WHERE feed_offset IS NULL;
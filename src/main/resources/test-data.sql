@@ -24,8 +24,8 @@ insert into cameras(has_optical_stabilization, sensor_id, camera_type)
 
 insert into screen_resolutions(horizontal_pixels, vertical_pixels)
     values (1440, 3120);
-insert into displays(diagonal, display_type, refresh_rate, resolution_id)
-    values (6.71, 0, 120, 1);
+insert into displays(diagonal, display_type, refresh_rate, resolution_id, ppi)
+    values (6.71, 0, 120, 1, 512.11);
 
 
 insert into countries(name) VALUES ('USA');
@@ -100,8 +100,8 @@ values (false, 8, 5);
 
 insert into screen_resolutions(horizontal_pixels, vertical_pixels)
 values (1284, 2778);
-insert into displays(diagonal, display_type, refresh_rate, resolution_id)
-values (6.7, 0, 120, 2);
+insert into displays(diagonal, display_type, refresh_rate, resolution_id, ppi)
+values (6.7, 0, 120, 2, 456.77);
 
 
 insert into manufacturers(name, country_id)
@@ -213,8 +213,8 @@ values (false, 11, 5);
 
 insert into screen_resolutions(horizontal_pixels, vertical_pixels)
 values (1080, 2400);
-insert into displays(diagonal, display_type, refresh_rate, resolution_id)
-values (6.67, 0, 120, 3);
+insert into displays(diagonal, display_type, refresh_rate, resolution_id, ppi)
+values (6.67, 0, 120, 3, 394.57);
 
 
 insert into countries(name)
@@ -333,8 +333,8 @@ insert into batteries (capacity, battery_type) values (1000, 1);
 
 insert into screen_resolutions(horizontal_pixels, vertical_pixels)
 values (240, 320);
-insert into displays(diagonal, display_type, refresh_rate, resolution_id)
-values (2.4, 2, 60, 4);
+insert into displays(diagonal, display_type, refresh_rate, resolution_id, ppi)
+values (2.4, 2, 60, 4, 166.67);
 
 
 insert into countries(name) VALUES ('China');
@@ -0,0 +1,360 @@
+package ru.barikhashvili.perf.data;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import ru.barikhashvili.entities.specs.enums.*;
+import ru.barikhashvili.services.utils.PixelDensity;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Генерирует каталог телефонов заданного размера и загружает его в базу данных командой COPY.
+ * Данные удовлетворяют всем ограничениям UNIQUE, CHECK и внешним ключам из schema.sql, а распределения
+ * приближены к реальному каталогу: производители выбираются по закону Ципфа (несколько крупных
+ * производителей выпускают большую часть телефонов), черный и белый цвета встречаются чаще остальных,
+ * цены распределены логнормально и растут с объемом памяти, часть вариантов отсутствует на складе.
+ *
+ * <p>Запуск: {@code mvn -P datagen test-compile exec:java -Ddatagen.args="--phones=1000000 --truncate=true"}</p>
+ *
+ * <p>Параметры: {@code --url}, {@code --user}, {@code --password} (соединение с базой данных),
+ * {@code --phones}, {@code --variants-per-phone}, {@code --manufacturers}, {@code --seed} (размер каталога)
+ * и {@code --truncate=true} (очистить таблицы каталога перед загрузкой; без него загрузка выполняется
+ * только в пустые таблицы).</p>
+ */
+public final class CatalogDataGenerator {
+    private static final List<String> CATALOG_TABLES = List.of(
+            "specifications_cameras", "phones_variants", "phones", "phone_specs", "cameras", "camera_sensors",
+            "variants", "manufacturers", "countries", "batteries", "displays", "screen_resolutions",
+            "operating_systems", "processors");
+
+    private static final List<String> COUNTRIES = List.of(
+            "China", "USA", "South Korea", "Japan", "Taiwan", "Finland", "United Kingdom", "India", "Germany",
+            "Sweden", "France", "Canada", "Vietnam", "Switzerland", "Russia");
+    private static final double[] COUNTRY_WEIGHTS = {40, 20, 10, 6, 5, 2, 2, 4, 2, 1, 2, 1, 2, 1, 2};
+
+    private static final List<String> KNOWN_MANUFACTURERS = List.of(
+            "Samsung", "Apple", "Xiaomi", "Oppo", "Vivo", "Huawei", "Honor", "Google", "OnePlus", "Motorola",
+            "Realme", "Sony", "Nokia", "Asus", "Nothing");
+    private static final List<Integer> KNOWN_MANUFACTURER_COUNTRIES = List.of(
+            3, 2, 1, 1, 1, 1, 1, 2, 1, 2, 1, 4, 6, 5, 7);
+
+    private static final int[][] RESOLUTIONS = {
+            {720, 1280}, {720, 1600}, {1080, 1920}, {1080, 2340}, {1080, 2400}, {1170, 2532}, {1179, 2556},
+            {1284, 2778}, {1290, 2796}, {1440, 2560}, {1440, 3040}, {1440, 3088}, {1440, 3200}, {1344, 2992},
+            {1220, 2712}, {1260, 2800}};
+    private static final int[] REFRESH_RATES = {60, 90, 120, 144};
+
+    private static final int[] RAM_SIZES = {2, 3, 4, 6, 8, 12, 16, 24};
+    private static final int[] ROM_SIZES = {32, 64, 128, 256, 512, 1024};
+    private static final double[] COLOR_WEIGHTS = new double[Color.values().length];
+
+    private static final int[] MEGAPIXELS = {8, 12, 13, 16, 32, 48, 50, 64, 108, 200};
+    private static final String[] MATRIX_SIZES = {"1/4", "1/3.4", "1/2.55", "1/2", "1/1.56", "1/1.31", "1/1.12", "1/1"};
+    private static final int CAMERA_SENSORS = 150;
+    private static final int PROCESSORS = 300;
+    private static final int BATTERY_CAPACITIES = 41;
+
+    private static final LocalDateTime FIRST_RELEASE_DATE = LocalDateTime.of(2015, 1, 1, 0, 0);
+    private static final int RELEASE_DAYS = 365 * 10;
+
+    static {
+        Arrays.fill(COLOR_WEIGHTS, 3);
+        COLOR_WEIGHTS[Color.BLACK.ordinal()] = 30;
+        COLOR_WEIGHTS[Color.WHITE.ordinal()] = 20;
+        COLOR_WEIGHTS[Color.BLUE.ordinal()] = 10;
+        COLOR_WEIGHTS[Color.DARK_BLUE.ordinal()] = 7;
+        COLOR_WEIGHTS[Color.GREEN.ordinal()] = 6;
+        COLOR_WEIGHTS[Color.PURPLE.ordinal()] = 5;
+        COLOR_WEIGHTS[Color.GOLD.ordinal()] = 5;
+    }
+
+    private final CatalogScale scale;
+    private final Random random;
+    private final WeightedChoice countryChoice;
+    private final WeightedChoice manufacturerChoice;
+    private final WeightedChoice colorChoice;
+    private int operatingSystems;
+    private int displays;
+    private int cameras;
+
+    public CatalogDataGenerator(CatalogScale scale) {
+        this.scale = scale;
+        this.random = new Random(scale.seed());
+        this.countryChoice = new WeightedChoice(COUNTRY_WEIGHTS);
+        this.manufacturerChoice = WeightedChoice.zipf(scale.manufacturers(), 1.1);
+        this.colorChoice = new WeightedChoice(COLOR_WEIGHTS);
+    }
+
+    public static void main(String[] args) throws SQLException {
+        var options = new HashMap<String, String>();
+        for (var arg : args) {
+            var separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0) {
+                throw new IllegalArgumentException("Expected --name=value argument, got: " + arg);
+            }
+            options.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+
+        var scale = new CatalogScale(
+                Integer.parseInt(options.getOrDefault("phones", "100000")),
+                Integer.parseInt(options.getOrDefault("variants-per-phone", "10")),
+                Integer.parseInt(options.getOrDefault("manufacturers", "200")),
+                Long.parseLong(options.getOrDefault("seed", "42")));
+        var url = options.getOrDefault("url", "jdbc:postgresql://localhost:5432/phone_store_app_db");
+        var truncate = Boolean.parseBoolean(options.getOrDefault("truncate", "false"));
+
+        try (var connection = DriverManager.getConnection(url,
+                options.getOrDefault("user", "postgres"), options.getOrDefault("password", "postgres"))) {
+            new CatalogDataGenerator(scale).generate(connection, truncate);
+        }
+    }
+
+    /**
+     * Загружает сгенерированный каталог в одной транзакции и обновляет последовательности идентификаторов
+     * и статистику таблиц.
+     *
+     * @param connection соединение с базой данных PostgreSQL со схемой из schema.sql.
+     * @param truncate   true, если таблицы каталога необходимо предварительно очистить.
+     * @throws IllegalStateException если таблицы каталога не пусты, а очистка не запрошена.
+     */
+    public void generate(Connection connection, boolean truncate) throws SQLException {
+        var startedAt = System.nanoTime();
+        var autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try (var statement = connection.createStatement()) {
+            statement.execute("SET LOCAL synchronous_commit = off");
+            if (truncate) {
+                statement.execute("TRUNCATE " + String.join(", ", CATALOG_TABLES) + " RESTART IDENTITY CASCADE");
+            } else {
+                try (var resultSet = statement.executeQuery("SELECT EXISTS (SELECT 1 FROM phones)")) {
+                    if (resultSet.next() && resultSet.getBoolean(1)) {
+                        throw new IllegalStateException("Catalog tables are not empty, use --truncate=true");
+                    }
+                }
+            }
+
+            var copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+            copyReferenceData(copyManager);
+            copyPhones(copyManager);
+
+            for (var table : CATALOG_TABLES) {
+                if (!table.equals("specifications_cameras")) {
+                    statement.execute("SELECT setval(pg_get_serial_sequence('" + table + "', 'id'), "
+                            + "COALESCE((SELECT MAX(id) FROM " + table + "), 0) + 1, false)");
+                }
+            }
+            connection.commit();
+            for (var table : CATALOG_TABLES) {
+                statement.execute("ANALYZE " + table);
+            }
+            connection.commit();
+        } catch (SQLException | RuntimeException exception) {
+            connection.rollback();
+            throw exception;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+        log("Catalog generated in %d s", (System.nanoTime() - startedAt) / 1_000_000_000);
+    }
+
+    private void copyReferenceData(CopyManager copyManager) throws SQLException {
+        try (var countries = new CopyTable(copyManager, "countries", "id, name")) {
+            for (int i = 0; i < COUNTRIES.size(); i++) {
+                countries.row(i + 1, COUNTRIES.get(i));
+            }
+        }
+
+        try (var manufacturers = new CopyTable(copyManager, "manufacturers", "id, country_id, name")) {
+            for (int i = 0; i < scale.manufacturers(); i++) {
+                var known = i < KNOWN_MANUFACTURERS.size();
+                manufacturers.row(i + 1,
+                        known ? KNOWN_MANUFACTURER_COUNTRIES.get(i) : countryChoice.next(random) + 1,
+                        known ? KNOWN_MANUFACTURERS.get(i) : "Brand " + (i + 1));
+            }
+        }
+
+        try (var systems = new CopyTable(copyManager, "operating_systems", "id, name, version")) {
+            for (int version = 8; version <= 15; version++) {
+                systems.row(systems.getRows() + 1, "Android", String.valueOf(version));
+            }
+            for (int version = 12; version <= 18; version++) {
+                systems.row(systems.getRows() + 1, "iOS", String.valueOf(version));
+            }
+            for (int version = 2; version <= 4; version++) {
+                systems.row(systems.getRows() + 1, "HarmonyOS", version + ".0");
+            }
+            operatingSystems = (int) systems.getRows();
+        }
+
+        try (var processors = new CopyTable(copyManager, "processors",
+                "id, model, cores, max_frequency, technology_node")) {
+            for (int i = 1; i <= PROCESSORS; i++) {
+                processors.row(i, "SoC " + i, 4 + random.nextInt(3) * 2,
+                        decimal(1.6 + random.nextDouble() * 1.9), 3 + random.nextInt(26));
+            }
+        }
+
+        try (var batteries = new CopyTable(copyManager, "batteries", "id, capacity, battery_type")) {
+            for (int i = 0; i < BATTERY_CAPACITIES; i++) {
+                for (var batteryType : BatteryType.values()) {
+                    batteries.row(batteries.getRows() + 1, 2000 + i * 100, batteryType.ordinal());
+                }
+            }
+        }
+
+        try (var resolutions = new CopyTable(copyManager, "screen_resolutions",
+                "id, horizontal_pixels, vertical_pixels")) {
+            for (int i = 0; i < RESOLUTIONS.length; i++) {
+                resolutions.row(i + 1, RESOLUTIONS[i][0], RESOLUTIONS[i][1]);
+            }
+        }
+
+        try (var displayTable = new CopyTable(copyManager, "displays",
+                "id, diagonal, resolution_id, refresh_rate, display_type, ppi")) {
+            for (int diagonal = 50; diagonal <= 75; diagonal++) {
+                var diagonalInches = BigDecimal.valueOf(diagonal, 1).setScale(2, RoundingMode.UNNECESSARY);
+                for (int resolution = 1; resolution <= RESOLUTIONS.length; resolution++) {
+                    var ppi = PixelDensity.calculate(RESOLUTIONS[resolution - 1][0], RESOLUTIONS[resolution - 1][1],
+                            diagonalInches);
+                    for (var refreshRate : REFRESH_RATES) {
+                        for (var displayType : DisplayType.values()) {
+                            displayTable.row(displayTable.getRows() + 1, diagonalInches,
+                                    resolution, refreshRate, displayType.ordinal(), ppi);
+                        }
+                    }
+                }
+            }
+            displays = (int) displayTable.getRows();
+        }
+
+        try (var sensors = new CopyTable(copyManager, "camera_sensors",
+                "id, sensor_name, megapixels, matrix_size, pixel_size")) {
+            for (int i = 1; i <= CAMERA_SENSORS; i++) {
+                sensors.row(i, "Sensor " + i, decimal(MEGAPIXELS[random.nextInt(MEGAPIXELS.length)]),
+                        MATRIX_SIZES[random.nextInt(MATRIX_SIZES.length)],
+                        decimal(0.6 + random.nextDouble() * 1.8) + "µm");
+            }
+        }
+
+        try (var cameraTable = new CopyTable(copyManager, "cameras",
+                "id, camera_type, has_optical_stabilization, sensor_id")) {
+            for (int sensor = 1; sensor <= CAMERA_SENSORS; sensor++) {
+                for (var cameraType : CameraType.values()) {
+                    cameraTable.row(cameraTable.getRows() + 1, cameraType.ordinal(), false, sensor);
+                    cameraTable.row(cameraTable.getRows() + 1, cameraType.ordinal(), true, sensor);
+                }
+            }
+            cameras = (int) cameraTable.getRows();
+        }
+
+        try (var variants = new CopyTable(copyManager, "variants", "id, ram_size, rom_size, color")) {
+            for (var ramSize : RAM_SIZES) {
+                for (var romSize : ROM_SIZES) {
+                    for (var color : Color.values()) {
+                        variants.row(variants.getRows() + 1, ramSize, romSize, color.ordinal());
+                    }
+                }
+            }
+        }
+        log("Reference data loaded");
+    }
+
+    private void copyPhones(CopyManager copyManager) throws SQLException {
+        try (var specifications = new CopyTable(copyManager, "phone_specs",
+                "id, network_type, sim_count, has_bluetooth, has_nfc, has_wifi, height, width, thickness, weight, "
+                        + "material, charger_type, operating_system_id, display_id, processor_id, battery_id")) {
+            for (long id = 1; id <= scale.phones(); id++) {
+                var network = random.nextInt(100);
+                specifications.row(id,
+                        network < 60 ? 3 : network < 95 ? 2 : network < 99 ? 1 : 0,
+                        random.nextInt(10) < 7 ? 2 : 1 + random.nextInt(2) * 2,
+                        random.nextInt(100) < 99, random.nextInt(100) < 70, random.nextInt(100) < 98,
+                        decimal(140 + random.nextDouble() * 35), decimal(65 + random.nextDouble() * 15),
+                        decimal(7 + random.nextDouble() * 3), decimal(140 + random.nextDouble() * 100),
+                        random.nextInt(MaterialType.values().length),
+                        random.nextInt(10) < 8 ? ChargerType.USB_TYPE_C.ordinal()
+                                : random.nextInt(ChargerType.values().length),
+                        1 + random.nextInt(operatingSystems), 1 + random.nextInt(displays),
+                        1 + random.nextInt(PROCESSORS), 1 + random.nextInt(BATTERY_CAPACITIES * 2));
+            }
+        }
+        log("Loaded %d phone specifications", scale.phones());
+
+        try (var specificationCameras = new CopyTable(copyManager, "specifications_cameras",
+                "camera_id, specification_id")) {
+            var cameraIds = new HashSet<Integer>();
+            for (long id = 1; id <= scale.phones(); id++) {
+                cameraIds.clear();
+                var cameraCount = 1 + random.nextInt(4);
+                while (cameraIds.size() < cameraCount) {
+                    cameraIds.add(1 + random.nextInt(cameras));
+                }
+                for (var cameraId : cameraIds) {
+                    specificationCameras.row(cameraId, id);
+                }
+            }
+        }
+        log("Loaded cameras of phone specifications");
+
+        try (var phones = new CopyTable(copyManager, "phones",
+                "id, model, manufacturer_id, release_date, specification_id")) {
+            for (long id = 1; id <= scale.phones(); id++) {
+                var releaseDate = FIRST_RELEASE_DATE.plusDays(random.nextInt(RELEASE_DAYS));
+                phones.row(id, "Model " + id, manufacturerChoice.next(random) + 1, releaseDate, id);
+            }
+        }
+        log("Loaded %d phones", scale.phones());
+
+        var variantCount = RAM_SIZES.length * ROM_SIZES.length * COLOR_WEIGHTS.length;
+        var maxVariantsPerPhone = Math.min(variantCount, 2 * scale.averageVariantsPerPhone() - 1);
+        try (var phoneVariants = new CopyTable(copyManager, "phones_variants",
+                "id, price, quantity, phone_id, variant_id")) {
+            var variantIds = new HashSet<Integer>();
+            for (long phoneId = 1; phoneId <= scale.phones(); phoneId++) {
+                var basePrice = Math.min(250_000,
+                        Math.max(3_000, Math.exp(Math.log(25_000) + random.nextGaussian() * 0.7)));
+                var baseRam = random.nextInt(RAM_SIZES.length - 2);
+                var baseRom = random.nextInt(ROM_SIZES.length - 2);
+                var phoneVariantCount = 1 + random.nextInt(maxVariantsPerPhone);
+
+                variantIds.clear();
+                for (int attempt = 0; variantIds.size() < phoneVariantCount && attempt < 4 * phoneVariantCount;
+                     attempt++) {
+                    var ram = baseRam + random.nextInt(3);
+                    var rom = baseRom + random.nextInt(3);
+                    var color = colorChoice.next(random);
+                    var variantId = 1 + (ram * ROM_SIZES.length + rom) * COLOR_WEIGHTS.length + color;
+                    if (!variantIds.add(variantId)) {
+                        continue;
+                    }
+
+                    var price = basePrice * (1 + 0.12 * (rom - baseRom) + 0.06 * (ram - baseRam));
+                    var quantity = random.nextInt(100) < 12 ? 0
+                            : (int) Math.min(1000, Math.exp(Math.log(20) + random.nextGaussian()));
+                    phoneVariants.row(phoneVariants.getRows() + 1,
+                            BigDecimal.valueOf(Math.max(990, Math.round(price / 1000) * 1000 - 10)).setScale(2),
+                            quantity, phoneId, variantId);
+                }
+            }
+            log("Loaded %d phone variants", phoneVariants.getRows());
+        }
+    }
+
+    private static BigDecimal decimal(double value) {
+        return BigDecimal.valueOf(value).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    private static void log(String format, Object... args) {
+        System.out.printf("[datagen] " + format + "%n", args);
+    }
+}
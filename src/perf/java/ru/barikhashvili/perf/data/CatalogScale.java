@@ -0,0 +1,20 @@
+package ru.barikhashvili.perf.data;
+
+/**
+ * Размер генерируемого каталога.
+ *
+ * @param phones                  количество телефонов (и характеристик телефонов).
+ * @param averageVariantsPerPhone среднее количество вариантов одного телефона.
+ * @param manufacturers           количество производителей.
+ * @param seed                    начальное значение генератора случайных чисел: при одинаковых параметрах
+ *                                генерируются одинаковые данные.
+ */
+public record CatalogScale(int phones, int averageVariantsPerPhone, int manufacturers, long seed) {
+    public static CatalogScale of(int phones) {
+        return new CatalogScale(phones, 10, 200, 42);
+    }
+
+    public long expectedPhoneVariants() {
+        return (long) phones * averageVariantsPerPhone;
+    }
+}
@@ -0,0 +1,37 @@
+package ru.barikhashvili.perf.data;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Выбирает индекс с вероятностью, пропорциональной его весу.
+ */
+final class WeightedChoice {
+    private final double[] cumulativeWeights;
+
+    WeightedChoice(double[] weights) {
+        cumulativeWeights = new double[weights.length];
+        var total = 0.0;
+        for (int i = 0; i < weights.length; i++) {
+            total += weights[i];
+            cumulativeWeights[i] = total;
+        }
+    }
+
+    /**
+     * Создает распределение Ципфа: вес i-го элемента равен {@code 1 / (i + 1)^exponent}.
+     */
+    static WeightedChoice zipf(int size, double exponent) {
+        var weights = new double[size];
+        for (int i = 0; i < size; i++) {
+            weights[i] = 1 / Math.pow(i + 1, exponent);
+        }
+        return new WeightedChoice(weights);
+    }
+
+    int next(Random random) {
+        var point = random.nextDouble() * cumulativeWeights[cumulativeWeights.length - 1];
+        var index = Arrays.binarySearch(cumulativeWeights, point);
+        return index >= 0 ? index : -index - 1;
+    }
+}
@@ -0,0 +1,86 @@
+package ru.barikhashvili.perf.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+/**
+ * Асинхронный HTTP клиент REST API каталога для нагрузочного теста. Идентификаторы выбираются случайно
+ * из диапазонов, которые создает генератор каталога CatalogDataGenerator.
+ */
+final class CatalogApi {
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final HttpClient httpClient;
+    private final URI baseUri;
+    private final ObjectMapper objectMapper;
+    private final int phones;
+    private final int manufacturers;
+
+    CatalogApi(HttpClient httpClient, URI baseUri, ObjectMapper objectMapper, int phones, int manufacturers) {
+        this.httpClient = httpClient;
+        this.baseUri = baseUri;
+        this.objectMapper = objectMapper;
+        this.phones = phones;
+        this.manufacturers = manufacturers;
+    }
+
+    ObjectMapper objectMapper() {
+        return objectMapper;
+    }
+
+    long randomPhoneId() {
+        return 1 + ThreadLocalRandom.current().nextLong(phones);
+    }
+
+    int randomManufacturerId() {
+        return 1 + ThreadLocalRandom.current().nextInt(manufacturers);
+    }
+
+    String randomPhoneIds(int count) {
+        return LongStream.generate(this::randomPhoneId)
+                .limit(count)
+                .mapToObj(String::valueOf)
+                .collect(Collectors.joining(","));
+    }
+
+    CompletableFuture<HttpResponse<String>> get(String path) {
+        return send(request(path).GET());
+    }
+
+    CompletableFuture<HttpResponse<String>> send(String method, String path, Object body, String ifMatch) {
+        try {
+            var request = request(path)
+                    .header("Content-Type", "application/json")
+                    .method(method, HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)));
+            if (ifMatch != null) {
+                request.header("If-Match", ifMatch);
+            }
+            return send(request);
+        } catch (Exception exception) {
+            return CompletableFuture.failedFuture(exception);
+        }
+    }
+
+    CompletableFuture<HttpResponse<String>> delete(String path) {
+        return send(request(path).DELETE());
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(baseUri.resolve(path))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Accept", "application/json");
+    }
+
+    private CompletableFuture<HttpResponse<String>> send(HttpRequest.Builder request) {
+        return httpClient.sendAsync(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+}
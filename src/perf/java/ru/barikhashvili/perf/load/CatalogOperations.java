@@ -0,0 +1,147 @@
+package ru.barikhashvili.perf.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Операции нагрузочного теста над REST API каталога.
+ */
+final class CatalogOperations {
+    private static final int DISPLAYS = 1000;
+    private static final int PROCESSORS = 300;
+
+    private CatalogOperations() {
+    }
+
+    static CompletableFuture<Integer> getPhone(CatalogApi api) {
+        return status(api.get("api/v1/phones/" + api.randomPhoneId()));
+    }
+
+    static CompletableFuture<Integer> getPhoneCard(CatalogApi api) {
+        return status(api.get("api/v1/phones/" + api.randomPhoneId() + "?fields=id,model,manufacturer,minPrice"));
+    }
+
+    static CompletableFuture<Integer> getPhonesByIds(CatalogApi api) {
+        return status(api.get("api/v1/phones/?ids=" + api.randomPhoneIds(20)));
+    }
+
+    static CompletableFuture<Integer> getSpecification(CatalogApi api) {
+        return status(api.get("api/v1/specifications/" + api.randomPhoneId()));
+    }
+
+    static CompletableFuture<Integer> getManufacturer(CatalogApi api) {
+        return status(api.get("api/v1/manufacturers/" + api.randomManufacturerId()));
+    }
+
+    static CompletableFuture<Integer> getManufacturers(CatalogApi api) {
+        return status(api.get("api/v1/manufacturers/"));
+    }
+
+    static CompletableFuture<Integer> getCameraSensors(CatalogApi api) {
+        return status(api.get("api/v1/camera-sensors/"));
+    }
+
+    static CompletableFuture<Integer> getDisplay(CatalogApi api) {
+        return status(api.get("api/v1/displays/" + (1 + ThreadLocalRandom.current().nextInt(DISPLAYS))));
+    }
+
+    static CompletableFuture<Integer> getChanges(CatalogApi api) {
+        return status(api.get("api/v1/changes/?after=0&limit=100"));
+    }
+
+    /**
+     * Покупка: читает телефон, уменьшает на единицу количество случайного варианта, который есть на складе,
+     * и сохраняет варианты телефона запросом PATCH с заголовком If-Match. При одновременных покупках
+     * одного телефона часть запросов завершается статусом 412.
+     */
+    static CompletableFuture<Integer> checkout(CatalogApi api) {
+        return api.get("api/v1/phones/" + api.randomPhoneId()).thenCompose(response -> {
+            if (response.statusCode() != 200) {
+                return CompletableFuture.completedFuture(response.statusCode());
+            }
+            var phone = readTree(api, response);
+            var phoneVariants = (ArrayNode) phone.get("phoneVariants");
+            var inStock = new ArrayList<ObjectNode>();
+            phoneVariants.forEach(phoneVariant -> {
+                if (phoneVariant.get("quantity").asInt() > 0) {
+                    inStock.add((ObjectNode) phoneVariant);
+                }
+            });
+            if (inStock.isEmpty()) {
+                return CompletableFuture.completedFuture(response.statusCode());
+            }
+            var purchased = inStock.get(ThreadLocalRandom.current().nextInt(inStock.size()));
+            purchased.put("quantity", purchased.get("quantity").asInt() - 1);
+            return status(api.send("PATCH", "api/v1/phones/" + phone.get("id").asLong(),
+                    Map.of("phoneVariants", phoneVariants), eTag(response)));
+        });
+    }
+
+    static CompletableFuture<Integer> editPhone(CatalogApi api) {
+        return api.get("api/v1/phones/" + api.randomPhoneId() + "?fields=id,model").thenCompose(response -> {
+            if (response.statusCode() != 200) {
+                return CompletableFuture.completedFuture(response.statusCode());
+            }
+            var phone = readTree(api, response);
+            var model = "Model " + phone.get("id").asLong() + " rev " + ThreadLocalRandom.current().nextInt(1000);
+            return status(api.send("PATCH", "api/v1/phones/" + phone.get("id").asLong(),
+                    Map.of("model", model), eTag(response)));
+        });
+    }
+
+    static CompletableFuture<Integer> editSpecification(CatalogApi api) {
+        var specificationId = api.randomPhoneId();
+        return api.get("api/v1/specifications/" + specificationId + "?fields=id").thenCompose(response -> {
+            if (response.statusCode() != 200) {
+                return CompletableFuture.completedFuture(response.statusCode());
+            }
+            var weight = BigDecimal.valueOf(14_000 + ThreadLocalRandom.current().nextInt(10_000), 2);
+            return status(api.send("PATCH", "api/v1/specifications/" + specificationId,
+                    Map.of("weight", weight), eTag(response)));
+        });
+    }
+
+    static CompletableFuture<Integer> editProcessor(CatalogApi api) {
+        var processorId = 1 + ThreadLocalRandom.current().nextInt(PROCESSORS);
+        var maxFrequency = BigDecimal.valueOf(160 + ThreadLocalRandom.current().nextInt(190), 2);
+        return status(api.send("PATCH", "api/v1/processors/" + processorId,
+                Map.of("maxFrequency", maxFrequency), null));
+    }
+
+    static CompletableFuture<Integer> createAndDeleteCountry(CatalogApi api) {
+        var name = "Load test " + UUID.randomUUID();
+        return api.send("POST", "api/v1/countries/", Map.of("name", name), null).thenCompose(response -> {
+            if (response.statusCode() != 201) {
+                return CompletableFuture.completedFuture(response.statusCode());
+            }
+            return status(api.delete("api/v1/countries/" + readTree(api, response).get("id").asInt()));
+        });
+    }
+
+    private static CompletableFuture<Integer> status(CompletableFuture<HttpResponse<String>> response) {
+        return response.thenApply(HttpResponse::statusCode);
+    }
+
+    private static String eTag(HttpResponse<String> response) {
+        return response.headers().firstValue("ETag").orElse(null);
+    }
+
+    private static JsonNode readTree(CatalogApi api, HttpResponse<String> response) {
+        try {
+            return api.objectMapper().readTree(response.body());
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+}
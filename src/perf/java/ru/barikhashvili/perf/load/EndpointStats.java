@@ -0,0 +1,58 @@
+package ru.barikhashvili.perf.load;
+
+import org.HdrHistogram.ConcurrentHistogram;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Статистика одной операции нагрузочного теста: гистограмма задержек в микросекундах и счетчики ошибок.
+ * Ошибками считаются исключения клиента и ответы 5xx, ответы 4xx (например, 412 при одновременном
+ * изменении телефона) учитываются отдельно.
+ */
+final class EndpointStats {
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(10);
+
+    private final String name;
+    private final ConcurrentHistogram histogram = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder clientErrors = new LongAdder();
+
+    EndpointStats(String name) {
+        this.name = name;
+    }
+
+    void record(long latencyNanos, Integer status, Throwable failure) {
+        histogram.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(latencyNanos), HIGHEST_TRACKABLE_MICROS));
+        if (failure != null || status == null || status >= 500) {
+            errors.increment();
+        } else if (status >= 400) {
+            clientErrors.increment();
+        }
+    }
+
+    void reset() {
+        histogram.reset();
+        errors.reset();
+        clientErrors.reset();
+    }
+
+    LoadTestReport.EndpointReport toReport(double durationSeconds) {
+        var count = histogram.getTotalCount();
+        return new LoadTestReport.EndpointReport(
+                name,
+                count,
+                errors.sum(),
+                clientErrors.sum(),
+                count / durationSeconds,
+                percentileMillis(50),
+                percentileMillis(90),
+                percentileMillis(99),
+                percentileMillis(99.9),
+                histogram.getMaxValue() / 1000.0);
+    }
+
+    private double percentileMillis(double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1000.0;
+    }
+}
@@ -0,0 +1,15 @@
+package ru.barikhashvili.perf.load;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Операция нагрузочного теста: один или несколько последовательных запросов к API.
+ * Время операции измеряется от запланированного момента начала до получения последнего ответа.
+ */
+@FunctionalInterface
+interface LoadOperation {
+    /**
+     * @return HTTP статус последнего ответа операции.
+     */
+    CompletableFuture<Integer> execute(CatalogApi api);
+}
@@ -0,0 +1,75 @@
+package ru.barikhashvili.perf.load;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Сценарии нагрузки — взвешенные наборы операций, моделирующие разные профили трафика магазина.
+ */
+enum LoadScenario {
+    /**
+     * Просмотр каталога: карточки телефонов, списки телефонов и справочники.
+     */
+    BROWSE(List.of(
+            new WeightedOperation("GET /phones/{id}", 40, CatalogOperations::getPhone),
+            new WeightedOperation("GET /phones/?ids", 25, CatalogOperations::getPhonesByIds),
+            new WeightedOperation("GET /specifications/{id}", 15, CatalogOperations::getSpecification),
+            new WeightedOperation("GET /manufacturers/{id}", 15, CatalogOperations::getManufacturer),
+            new WeightedOperation("GET /displays/{id}", 5, CatalogOperations::getDisplay))),
+
+    /**
+     * Поиск и подбор: выборочные поля, полные справочники для фильтров и лента изменений для поисковых индексов.
+     */
+    SEARCH(List.of(
+            new WeightedOperation("GET /phones/?ids", 35, CatalogOperations::getPhonesByIds),
+            new WeightedOperation("GET /phones/{id}?fields", 30, CatalogOperations::getPhoneCard),
+            new WeightedOperation("GET /manufacturers/", 15, CatalogOperations::getManufacturers),
+            new WeightedOperation("GET /camera-sensors/", 10, CatalogOperations::getCameraSensors),
+            new WeightedOperation("GET /changes/", 10, CatalogOperations::getChanges))),
+
+    /**
+     * Покупки: уменьшение количества вариантов телефонов на складе на фоне просмотра карточек.
+     */
+    CHECKOUT(List.of(
+            new WeightedOperation("checkout (GET + PATCH /phones/{id})", 60, CatalogOperations::checkout),
+            new WeightedOperation("GET /phones/{id}", 40, CatalogOperations::getPhone))),
+
+    /**
+     * Администрирование: редактирование телефонов и характеристик, создание и удаление справочных записей.
+     */
+    ADMIN(List.of(
+            new WeightedOperation("PATCH /phones/{id}", 30, CatalogOperations::editPhone),
+            new WeightedOperation("PATCH /specifications/{id}", 25, CatalogOperations::editSpecification),
+            new WeightedOperation("PATCH /processors/{id}", 15, CatalogOperations::editProcessor),
+            new WeightedOperation("POST + DELETE /countries/", 10, CatalogOperations::createAndDeleteCountry),
+            new WeightedOperation("GET /phones/{id}", 20, CatalogOperations::getPhone)));
+
+    private final List<WeightedOperation> operations;
+    private final int totalWeight;
+
+    LoadScenario(List<WeightedOperation> operations) {
+        this.operations = operations;
+        this.totalWeight = operations.stream().mapToInt(WeightedOperation::weight).sum();
+    }
+
+    List<WeightedOperation> operations() {
+        return operations;
+    }
+
+    /**
+     * Выбирает случайную операцию сценария пропорционально ее весу.
+     */
+    WeightedOperation nextOperation() {
+        var point = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (var operation : operations) {
+            point -= operation.weight();
+            if (point < 0) {
+                return operation;
+            }
+        }
+        throw new IllegalStateException("Scenario has no operations: " + this);
+    }
+
+    record WeightedOperation(String name, int weight, LoadOperation operation) {
+    }
+}
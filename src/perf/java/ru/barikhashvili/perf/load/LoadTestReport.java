@@ -0,0 +1,43 @@
+package ru.barikhashvili.perf.load;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Отчет нагрузочного теста. Сохраняется в JSON, чтобы последующие прогоны можно было сравнить с ним.
+ *
+ * @param scenario        название сценария нагрузки.
+ * @param startedAt       время начала измерений.
+ * @param rate            целевая интенсивность поступления операций в секунду.
+ * @param durationSeconds длительность измерений.
+ * @param dropped         количество операций, не отправленных из-за превышения лимита одновременных запросов.
+ * @param endpoints       статистика по каждой операции сценария.
+ */
+record LoadTestReport(String scenario,
+                      String startedAt,
+                      double rate,
+                      long durationSeconds,
+                      long dropped,
+                      List<EndpointReport> endpoints) {
+
+    Map<String, EndpointReport> endpointsByName() {
+        return endpoints.stream().collect(Collectors.toMap(EndpointReport::name, Function.identity()));
+    }
+
+    /**
+     * Задержки указаны в миллисекундах и измерены от запланированного момента начала операции.
+     */
+    record EndpointReport(String name,
+                          long count,
+                          long errors,
+                          long clientErrors,
+                          double throughput,
+                          double p50,
+                          double p90,
+                          double p99,
+                          double p999,
+                          double max) {
+    }
+}
@@ -0,0 +1,205 @@
+package ru.barikhashvili.perf.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Нагрузочный тест REST API каталога в открытой модели: операции поступают потоком Пуассона с заданной
+ * интенсивностью независимо от того, успел ли сервер ответить на предыдущие. Задержка каждой операции
+ * измеряется от запланированного момента ее начала, поэтому замедление сервера не скрывается отставанием
+ * генератора нагрузки (coordinated omission). Результаты по каждой операции сохраняются в JSON отчет
+ * и при указании базового отчета сравниваются с ним по 99-му перцентилю.
+ *
+ * <p>Запуск: {@code mvn -P loadtest test-compile exec:java -Dloadtest.args="--scenario=browse --rate=500"}</p>
+ *
+ * <p>Параметры: {@code --base-url} (адрес приложения), {@code --scenario} (browse, search, checkout или admin),
+ * {@code --rate} (операций в секунду), {@code --duration} и {@code --warmup} (секунды измерений и прогрева),
+ * {@code --phones} и {@code --manufacturers} (размер каталога, созданного генератором),
+ * {@code --max-in-flight} (лимит одновременных операций, сверх которого операции отбрасываются),
+ * {@code --baseline} (путь к отчету предыдущего прогона) и {@code --max-p99-regression} (допустимый рост
+ * 99-го перцентиля в процентах, при превышении которого тест завершается с кодом 1).</p>
+ */
+public final class LoadTestRunner {
+    private static final Path REPORT_DIRECTORY = Path.of("target", "load-test");
+    private static final DateTimeFormatter REPORT_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final LoadScenario scenario;
+    private final CatalogApi api;
+    private final double rate;
+    private final Semaphore inFlight;
+    private final int maxInFlight;
+    private final Map<String, EndpointStats> stats = new LinkedHashMap<>();
+    private final LongAdder dropped = new LongAdder();
+
+    private LoadTestRunner(LoadScenario scenario, CatalogApi api, double rate, int maxInFlight) {
+        this.scenario = scenario;
+        this.api = api;
+        this.rate = rate;
+        this.maxInFlight = maxInFlight;
+        this.inFlight = new Semaphore(maxInFlight);
+        scenario.operations().forEach(operation -> stats.put(operation.name(), new EndpointStats(operation.name())));
+    }
+
+    public static void main(String[] args) throws Exception {
+        var options = new HashMap<String, String>();
+        for (var arg : args) {
+            var separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0) {
+                throw new IllegalArgumentException("Expected --name=value argument, got: " + arg);
+            }
+            options.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+
+        var baseUrl = options.getOrDefault("base-url", "http://localhost:8080/");
+        var scenario = LoadScenario.valueOf(options.getOrDefault("scenario", "browse").toUpperCase());
+        var rate = Double.parseDouble(options.getOrDefault("rate", "200"));
+        var duration = Duration.ofSeconds(Long.parseLong(options.getOrDefault("duration", "60")));
+        var warmup = Duration.ofSeconds(Long.parseLong(options.getOrDefault("warmup", "15")));
+        var maxInFlight = Integer.parseInt(options.getOrDefault("max-in-flight", "1000"));
+
+        var objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        var httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        var api = new CatalogApi(httpClient, URI.create(baseUrl.endsWith("/") ? baseUrl : baseUrl + "/"),
+                objectMapper,
+                Integer.parseInt(options.getOrDefault("phones", "100000")),
+                Integer.parseInt(options.getOrDefault("manufacturers", "200")));
+
+        var report = new LoadTestRunner(scenario, api, rate, maxInFlight).run(warmup, duration);
+        var reportPath = writeReport(objectMapper, report);
+        printReport(report);
+        log("Report saved to %s", reportPath);
+
+        if (options.containsKey("baseline")) {
+            var baseline = objectMapper.readValue(Path.of(options.get("baseline")).toFile(), LoadTestReport.class);
+            var maxRegression = Double.parseDouble(options.getOrDefault("max-p99-regression", "10"));
+            if (!compareWithBaseline(report, baseline, maxRegression)) {
+                System.exit(1);
+            }
+        }
+    }
+
+    /**
+     * Подает нагрузку в течение прогрева и измерений, затем ожидает завершения отправленных операций.
+     * Операции, запланированные во время прогрева, в статистику не попадают.
+     */
+    private LoadTestReport run(Duration warmup, Duration duration) throws InterruptedException {
+        log("Scenario %s at %.1f op/s: %d s warmup, %d s measurement",
+                scenario, rate, warmup.toSeconds(), duration.toSeconds());
+
+        var startNanos = System.nanoTime();
+        var measurementStartNanos = startNanos + warmup.toNanos();
+        var endNanos = measurementStartNanos + duration.toNanos();
+        var startedAt = LocalDateTime.now().plus(warmup);
+        var meanIntervalNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+        var intendedStartNanos = (double) startNanos;
+
+        while (intendedStartNanos < endNanos) {
+            var intendedStart = (long) intendedStartNanos;
+            var delay = intendedStart - System.nanoTime();
+            if (delay > 0) {
+                LockSupport.parkNanos(delay);
+            }
+            dispatch(scenario.nextOperation(), intendedStart, intendedStart >= measurementStartNanos);
+            intendedStartNanos += -Math.log(1 - ThreadLocalRandom.current().nextDouble()) * meanIntervalNanos;
+        }
+
+        if (!inFlight.tryAcquire(maxInFlight, 60, TimeUnit.SECONDS)) {
+            log("Not all operations completed within 60 s after the end of the test");
+        }
+
+        var endpoints = stats.values()
+                .stream()
+                .map(endpointStats -> endpointStats.toReport(duration.toSeconds()))
+                .toList();
+        return new LoadTestReport(scenario.name(), startedAt.toString(), rate, duration.toSeconds(),
+                dropped.sum(), endpoints);
+    }
+
+    private void dispatch(LoadScenario.WeightedOperation operation, long intendedStart, boolean measured) {
+        if (!inFlight.tryAcquire()) {
+            if (measured) {
+                dropped.increment();
+            }
+            return;
+        }
+
+        operation.operation()
+                .execute(api)
+                .whenComplete((status, failure) -> {
+                    if (measured) {
+                        stats.get(operation.name()).record(System.nanoTime() - intendedStart, status, failure);
+                    }
+                    inFlight.release();
+                });
+    }
+
+    private static Path writeReport(ObjectMapper objectMapper, LoadTestReport report) throws IOException {
+        Files.createDirectories(REPORT_DIRECTORY);
+        var fileName = report.scenario().toLowerCase() + "-" + LocalDateTime.now().format(REPORT_TIMESTAMP) + ".json";
+        var reportPath = REPORT_DIRECTORY.resolve(fileName);
+        objectMapper.writeValue(reportPath.toFile(), report);
+        return reportPath;
+    }
+
+    private static void printReport(LoadTestReport report) {
+        log("%-40s %9s %7s %7s %9s %9s %9s %9s %9s", "operation", "count", "errors", "4xx", "op/s",
+                "p50 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (var endpoint : report.endpoints()) {
+            log("%-40s %9d %7d %7d %9.1f %9.2f %9.2f %9.2f %9.2f", endpoint.name(), endpoint.count(),
+                    endpoint.errors(), endpoint.clientErrors(), endpoint.throughput(),
+                    endpoint.p50(), endpoint.p99(), endpoint.p999(), endpoint.max());
+        }
+        if (report.dropped() > 0) {
+            log("Dropped %d operations: the in-flight limit was reached", report.dropped());
+        }
+    }
+
+    /**
+     * Выводит изменение 99-го перцентиля каждой операции относительно базового отчета.
+     *
+     * @return false, если рост 99-го перцентиля хотя бы одной операции превышает допустимый.
+     */
+    private static boolean compareWithBaseline(LoadTestReport report, LoadTestReport baseline, double maxRegression) {
+        var baselineEndpoints = baseline.endpointsByName();
+        var passed = true;
+
+        log("%-40s %12s %12s %9s", "operation", "baseline p99", "p99", "delta");
+        for (var endpoint : report.endpoints()) {
+            var baselineEndpoint = baselineEndpoints.get(endpoint.name());
+            if (baselineEndpoint == null || baselineEndpoint.p99() == 0) {
+                log("%-40s %12s %12.2f %9s", endpoint.name(), "-", endpoint.p99(), "-");
+                continue;
+            }
+            var delta = (endpoint.p99() - baselineEndpoint.p99()) / baselineEndpoint.p99() * 100;
+            var regressed = delta > maxRegression;
+            passed &= !regressed;
+            log("%-40s %12.2f %12.2f %+8.1f%%%s", endpoint.name(), baselineEndpoint.p99(), endpoint.p99(), delta,
+                    regressed ? "  REGRESSION" : "");
+        }
+        return passed;
+    }
+
+    private static void log(String format, Object... args) {
+        System.out.printf("[loadtest] " + format + "%n", args);
+    }
+}
@@ -0,0 +1,16 @@
+package ru.barikhashvili.perf.budget;
+
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Допустимая стоимость одного вызова API с холодными кэшами приложения.
+ *
+ * @param statements максимальное количество выполненных SQL запросов.
+ * @param rows       максимальное количество прочитанных строк результатов.
+ * @param allocated  максимальный объем памяти, выделенной в куче потоком обработки запроса.
+ * @param time       максимальное время обработки запроса (медиана нескольких измерений).
+ */
+record CallBudget(long statements, long rows, DataSize allocated, Duration time) {
+}
@@ -0,0 +1,20 @@
+package ru.barikhashvili.perf.budget;
+
+import java.time.Duration;
+
+/**
+ * Измеренная стоимость одного вызова API.
+ *
+ * @param statements     количество выполненных SQL запросов.
+ * @param rows           количество прочитанных строк результатов.
+ * @param allocatedBytes объем памяти в байтах, выделенной в куче потоком обработки запроса.
+ * @param time           время обработки запроса.
+ */
+record CallCost(long statements, long rows, long allocatedBytes, Duration time) {
+
+    @Override
+    public String toString() {
+        return "%d statements, %d rows, %d KB allocated, %d ms"
+                .formatted(statements, rows, allocatedBytes / 1024, time.toMillis());
+    }
+}
@@ -0,0 +1,191 @@
+package ru.barikhashvili.perf.budget;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.util.unit.DataSize;
+import ru.barikhashvili.events.RemoteCatalogChangedEvent;
+import ru.barikhashvili.services.catalog.PhoneQueryCache;
+import ru.barikhashvili.services.catalog.SecondLevelCacheEvictor;
+
+import javax.sql.DataSource;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.SoftAssertions.assertSoftly;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Проверяет, что каждый вызов REST API над сгенерированным каталогом укладывается в бюджет: количество
+ * SQL запросов, количество прочитанных строк, объем выделенной памяти и время обработки. Перед каждым
+ * измерением кэши приложения очищаются, поэтому измеряется обращение к базе данных, а не к кэшу.
+ * Превышение бюджета (например, появление запросов N+1) завершает сборку ошибкой.
+ *
+ * <p>Запуск: {@code mvn -P perftest test}</p>
+ */
+@SpringBootTest(properties = "logging.level.ru.barikhashvili=warn")
+@AutoConfigureMockMvc
+@DisplayName("REST API call budgets")
+class CatalogApiPerfTest {
+    private static final int WARMUP_CALLS = 20;
+    private static final int MEASURED_CALLS = 5;
+    private static final com.sun.management.ThreadMXBean THREAD_MX_BEAN =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private static final RemoteCatalogChangedEvent ALL_CACHES_STALE = new RemoteCatalogChangedEvent(List.of(), true);
+    private static final AtomicInteger EDITS = new AtomicInteger();
+
+    @Autowired
+    MockMvc mvc;
+
+    @Autowired
+    SecondLevelCacheEvictor secondLevelCacheEvictor;
+
+    @Autowired
+    PhoneQueryCache phoneQueryCache;
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", EmbeddedCatalogDatabase::jdbcUrl);
+        registry.add("spring.datasource.username", () -> EmbeddedCatalogDatabase.USERNAME);
+        registry.add("spring.datasource.password", () -> EmbeddedCatalogDatabase.PASSWORD);
+    }
+
+    static Stream<Arguments> budgets() {
+        var phoneIds = IntStream.rangeClosed(1, 50)
+                .mapToObj(index -> String.valueOf(index * 37))
+                .collect(Collectors.joining(","));
+
+        return Stream.of(
+                call("GET /countries/", () -> get("/api/v1/countries/"), budget(2, 30, 4, 200)),
+                call("GET /countries/{id}", () -> get("/api/v1/countries/5"), budget(2, 5, 2, 100)),
+                call("GET /manufacturers/", () -> get("/api/v1/manufacturers/"), budget(4, 100, 8, 200)),
+                call("GET /manufacturers/{id}", () -> get("/api/v1/manufacturers/7"), budget(3, 5, 2, 100)),
+                call("GET /operating-systems/", () -> get("/api/v1/operating-systems/"), budget(2, 30, 4, 200)),
+                call("GET /processors/", () -> get("/api/v1/processors/"), budget(2, 350, 8, 250)),
+                call("GET /batteries/", () -> get("/api/v1/batteries/"), budget(2, 100, 4, 200)),
+                call("GET /screen-resolutions/", () -> get("/api/v1/screen-resolutions/"), budget(2, 30, 4, 200)),
+                call("GET /displays/", () -> get("/api/v1/displays/"), budget(4, 5100, 96, 1000)),
+                call("GET /displays/{id}", () -> get("/api/v1/displays/100"), budget(3, 5, 2, 100)),
+                call("GET /camera-sensors/", () -> get("/api/v1/camera-sensors/"), budget(2, 200, 8, 200)),
+                call("GET /cameras/", () -> get("/api/v1/cameras/"), budget(6, 2000, 48, 750)),
+                call("GET /variants/", () -> get("/api/v1/variants/"), budget(2, 600, 16, 250)),
+                call("GET /specifications/{id}", () -> get("/api/v1/specifications/1000"), budget(12, 40, 8, 150)),
+                call("GET /specifications/?ids", () -> get("/api/v1/specifications/?ids=" + phoneIds),
+                        budget(14, 800, 32, 400)),
+                call("GET /phones/{id}", () -> get("/api/v1/phones/1000"), budget(16, 80, 8, 150)),
+                call("GET /phones/{id}?fields", () -> get("/api/v1/phones/1000?fields=id,model,minPrice"),
+                        budget(3, 10, 2, 100)),
+                call("GET /phones/?ids", () -> get("/api/v1/phones/?ids=" + phoneIds), budget(20, 1500, 48, 500)),
+                call("GET /changes/", () -> get("/api/v1/changes/?after=0&limit=100"), budget(2, 100, 4, 100)),
+                call("PATCH /processors/{id}", () -> patch("/api/v1/processors/12")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"maxFrequency\": %d.%02d}".formatted(2, ThreadLocalRandom.current().nextInt(100))),
+                        budget(10, 20, 4, 200)),
+                call("PATCH /phones/{id}", () -> patch("/api/v1/phones/1500")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"model\": \"Budget check %d\"}".formatted(EDITS.incrementAndGet())),
+                        budget(30, 150, 16, 300)));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("budgets")
+    void callStaysWithinBudget(String name, Supplier<RequestBuilder> request, CallBudget budget) throws Exception {
+        for (int i = 0; i < WARMUP_CALLS; i++) {
+            mvc.perform(request.get()).andExpect(status().is2xxSuccessful());
+        }
+
+        var costs = new ArrayList<CallCost>();
+        for (int i = 0; i < MEASURED_CALLS; i++) {
+            costs.add(measure(request.get()));
+        }
+        var cost = new CallCost(
+                costs.stream().mapToLong(CallCost::statements).max().orElseThrow(),
+                costs.stream().mapToLong(CallCost::rows).max().orElseThrow(),
+                median(costs, Comparator.comparingLong(CallCost::allocatedBytes)).allocatedBytes(),
+                median(costs, Comparator.comparing(CallCost::time)).time());
+        System.out.printf("[perftest] %-30s %s%n", name, cost);
+
+        assertSoftly(softly -> {
+            softly.assertThat(cost.statements()).as("%s SQL statements", name)
+                    .isLessThanOrEqualTo(budget.statements());
+            softly.assertThat(cost.rows()).as("%s rows fetched", name)
+                    .isLessThanOrEqualTo(budget.rows());
+            softly.assertThat(cost.allocatedBytes()).as("%s bytes allocated", name)
+                    .isLessThanOrEqualTo(budget.allocated().toBytes());
+            softly.assertThat(cost.time()).as("%s wall time", name)
+                    .isLessThanOrEqualTo(budget.time());
+        });
+    }
+
+    private CallCost measure(RequestBuilder request) throws Exception {
+        secondLevelCacheEvictor.handleRemoteCatalogChanged(ALL_CACHES_STALE);
+        phoneQueryCache.handleRemoteCatalogChanged(ALL_CACHES_STALE);
+
+        SqlCountingDataSource.SqlCounts counts;
+        long allocatedBytes;
+        long elapsedNanos;
+        SqlCountingDataSource.start();
+        try {
+            var allocatedBefore = THREAD_MX_BEAN.getCurrentThreadAllocatedBytes();
+            var startedAt = System.nanoTime();
+            mvc.perform(request).andExpect(status().is2xxSuccessful());
+            elapsedNanos = System.nanoTime() - startedAt;
+            allocatedBytes = THREAD_MX_BEAN.getCurrentThreadAllocatedBytes() - allocatedBefore;
+        } finally {
+            counts = SqlCountingDataSource.stop();
+        }
+        return new CallCost(counts.statements(), counts.rows(), allocatedBytes, Duration.ofNanos(elapsedNanos));
+    }
+
+    private static CallCost median(List<CallCost> costs, Comparator<CallCost> comparator) {
+        return costs.stream().sorted(comparator).toList().get(costs.size() / 2);
+    }
+
+    private static Arguments call(String name, Supplier<RequestBuilder> request, CallBudget budget) {
+        return Arguments.of(name, request, budget);
+    }
+
+    private static CallBudget budget(long statements, long rows, long allocatedMegabytes, long timeMillis) {
+        return new CallBudget(statements, rows, DataSize.ofMegabytes(allocatedMegabytes),
+                Duration.ofMillis(timeMillis));
+    }
+
+    /**
+     * Оборачивает основной источник данных приложения в SqlCountingDataSource.
+     */
+    @TestConfiguration(proxyBeanMethods = false)
+    static class SqlCountingConfiguration {
+        @Bean
+        static BeanPostProcessor sqlCountingDataSourcePostProcessor() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return beanName.equals("dataSource") ? new SqlCountingDataSource((DataSource) bean) : bean;
+                }
+            };
+        }
+    }
+}
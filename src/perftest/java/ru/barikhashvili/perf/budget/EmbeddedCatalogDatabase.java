@@ -0,0 +1,56 @@
+package ru.barikhashvili.perf.budget;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import ru.barikhashvili.perf.data.CatalogDataGenerator;
+import ru.barikhashvili.perf.data.CatalogScale;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.SQLException;
+
+/**
+ * Встроенный сервер PostgreSQL, запускаемый в процессе тестов без Docker. Сервер запускается один раз
+ * на все тесты производительности, создает схему из schema.sql и загружает каталог генератором
+ * CatalogDataGenerator, поэтому все тесты измеряют одинаковые данные.
+ */
+final class EmbeddedCatalogDatabase {
+    static final String USERNAME = "postgres";
+    static final String PASSWORD = "postgres";
+    static final CatalogScale SCALE = new CatalogScale(2000, 4, 50, 42);
+
+    private static EmbeddedPostgres postgres;
+
+    private EmbeddedCatalogDatabase() {
+    }
+
+    static synchronized String jdbcUrl() {
+        if (postgres == null) {
+            postgres = start();
+        }
+        return postgres.getJdbcUrl(USERNAME, "postgres");
+    }
+
+    private static EmbeddedPostgres start() {
+        try {
+            var embeddedPostgres = EmbeddedPostgres.builder().start();
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    embeddedPostgres.close();
+                } catch (IOException ignored) {
+                    // сервер останавливается вместе с процессом тестов
+                }
+            }));
+            try (var connection = embeddedPostgres.getPostgresDatabase().getConnection()) {
+                ScriptUtils.executeSqlScript(connection, new ClassPathResource("schema.sql"));
+                new CatalogDataGenerator(SCALE).generate(connection, false);
+            }
+            return embeddedPostgres;
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        } catch (SQLException exception) {
+            throw new IllegalStateException("Failed to prepare the embedded catalog database", exception);
+        }
+    }
+}
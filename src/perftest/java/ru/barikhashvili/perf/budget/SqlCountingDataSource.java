@@ -0,0 +1,96 @@
+package ru.barikhashvili.perf.budget;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Set;
+
+/**
+ * Источник данных, подсчитывающий выполненные SQL запросы и прочитанные строки результатов в текущем потоке.
+ * Подсчет ведется только между вызовами {@link #start()} и {@link #stop()}, поэтому запросы фоновых задач
+ * приложения (ретрансляции outbox, пересборки снимка каталога) в измерения не попадают.
+ */
+final class SqlCountingDataSource extends DelegatingDataSource {
+    private static final Set<String> EXECUTE_METHODS = Set.of(
+            "execute", "executeQuery", "executeUpdate", "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+    private static final ThreadLocal<SqlCounts> COUNTS = new ThreadLocal<>();
+
+    SqlCountingDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    static void start() {
+        COUNTS.set(new SqlCounts());
+    }
+
+    static SqlCounts stop() {
+        var counts = COUNTS.get();
+        COUNTS.remove();
+        return counts;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return proxy(Connection.class, super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return proxy(Connection.class, super.getConnection(username, password));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, Object target) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> intercept(target, method, args));
+    }
+
+    private static Object intercept(Object target, Method method, Object[] args) throws Throwable {
+        Object result;
+        try {
+            result = method.invoke(target, args);
+        } catch (InvocationTargetException exception) {
+            throw exception.getTargetException();
+        }
+
+        var counts = COUNTS.get();
+        if (counts != null && target instanceof Statement && EXECUTE_METHODS.contains(method.getName())) {
+            counts.statements++;
+        }
+        if (counts != null && target instanceof ResultSet && method.getName().equals("next")
+                && Boolean.TRUE.equals(result)) {
+            counts.rows++;
+        }
+
+        if (result instanceof ResultSet resultSet && !(target instanceof ResultSet)) {
+            return proxy(ResultSet.class, resultSet);
+        }
+        if (result instanceof Statement statement && target instanceof Connection) {
+            return proxy(method.getReturnType().asSubclass(Statement.class), statement);
+        }
+        return result;
+    }
+
+    /**
+     * Количество выполненных SQL запросов и прочитанных строк результатов.
+     */
+    static final class SqlCounts {
+        private long statements;
+        private long rows;
+
+        long statements() {
+            return statements;
+        }
+
+        long rows() {
+            return rows;
+        }
+    }
+}
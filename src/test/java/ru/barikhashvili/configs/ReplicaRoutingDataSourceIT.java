@@ -0,0 +1,190 @@
+package ru.barikhashvili.configs;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.matchesPattern;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureMockMvc
+@Testcontainers
+@DisplayName("Replica routing data source integration tests")
+class ReplicaRoutingDataSourceIT {
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private ReplicaRoutingDataSource replicaRoutingDataSource;
+
+    private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>(DockerImageName.parse("postgres:15.6-alpine"));
+    private static final String APPLICATION_NAME_QUERY = "SELECT current_setting('application_name')";
+    private static final String PRIMARY_APPLICATION_NAME = "phone-store-primary";
+    private static final String REPLICA_APPLICATION_NAME = "phone-store-replica";
+
+    private HikariDataSource primaryDataSource;
+    private HikariDataSource replicaDataSource;
+
+    @BeforeAll
+    static void beforeAll() {
+        postgres.withInitScript("schema.sql");
+        postgres.start();
+    }
+
+    @AfterAll
+    static void afterAll() {
+        postgres.stop();
+    }
+
+    /**
+     * Реплика приложения указывает на тот же сервер. Сервер не находится в режиме восстановления,
+     * поэтому pg_last_wal_replay_lsn() возвращает NULL, и после первой записи чтения возвращаются
+     * на основной сервер.
+     */
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("phone-store.datasource.replica-urls", () -> jdbcUrl(REPLICA_APPLICATION_NAME));
+    }
+
+    /**
+     * Проверки маршрутизации используют отдельные пулы, в которых основной сервер и реплика различаются
+     * именем приложения соединения, и не зависят от позиции записи, запомненной пулом приложения.
+     */
+    @BeforeEach
+    void createDataSources() {
+        primaryDataSource = createDataSource(PRIMARY_APPLICATION_NAME);
+        replicaDataSource = createDataSource(REPLICA_APPLICATION_NAME);
+        replicaDataSource.setReadOnly(true);
+    }
+
+    @AfterEach
+    void closeDataSources() {
+        RequestContextHolder.resetRequestAttributes();
+        primaryDataSource.close();
+        replicaDataSource.close();
+    }
+
+    private static String jdbcUrl(String applicationName) {
+        var jdbcUrl = postgres.getJdbcUrl();
+        return jdbcUrl + (jdbcUrl.contains("?") ? "&" : "?") + "ApplicationName=" + applicationName;
+    }
+
+    private static HikariDataSource createDataSource(String applicationName) {
+        var dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(jdbcUrl(applicationName));
+        dataSource.setUsername(postgres.getUsername());
+        dataSource.setPassword(postgres.getPassword());
+        dataSource.setMaximumPoolSize(2);
+        dataSource.setConnectionTimeout(1000);
+        return dataSource;
+    }
+
+    /**
+     * Возвращает имя приложения соединения, на котором выполнена транзакция с указанным признаком readOnly.
+     */
+    private static String getApplicationNameOfTransaction(ReplicaRoutingDataSource routingDataSource, boolean readOnly) {
+        var dataSource = new LazyConnectionDataSourceProxy(routingDataSource);
+        var transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        transactionTemplate.setReadOnly(readOnly);
+        return transactionTemplate.execute(status ->
+                new JdbcTemplate(dataSource).queryForObject(APPLICATION_NAME_QUERY, String.class));
+    }
+
+    @Test
+    @DisplayName("Транзакция только для чтения должна выполняться на реплике, а изменяющая транзакция - на основном сервере")
+    void getConnection_shouldRouteReadOnlyTransactionsToReplica() {
+        var routingDataSource = new ReplicaRoutingDataSource(primaryDataSource, List.of(replicaDataSource));
+
+        assertThat(getApplicationNameOfTransaction(routingDataSource, true)).isEqualTo(REPLICA_APPLICATION_NAME);
+        assertThat(getApplicationNameOfTransaction(routingDataSource, false)).isEqualTo(PRIMARY_APPLICATION_NAME);
+    }
+
+    @Test
+    @DisplayName("Транзакция только для чтения должна выполняться на основном сервере, когда реплика не применила последнюю запись")
+    void getConnection_shouldRouteReadOnlyTransactionsToPrimary_whenReplicaIsBehindLastWrite() {
+        var routingDataSource = new ReplicaRoutingDataSource(primaryDataSource, List.of(replicaDataSource));
+
+        routingDataSource.observeWriteLsn(1);
+
+        assertThat(getApplicationNameOfTransaction(routingDataSource, true)).isEqualTo(PRIMARY_APPLICATION_NAME);
+    }
+
+    @Test
+    @DisplayName("Транзакция только для чтения должна выполняться на основном сервере, когда реплика не применила позицию из заголовка запроса")
+    void getConnection_shouldRouteReadOnlyTransactionsToPrimary_whenReplicaIsBehindRequiredLsn() {
+        var routingDataSource = new ReplicaRoutingDataSource(primaryDataSource, List.of(replicaDataSource));
+        var request = new MockHttpServletRequest();
+        request.addHeader(ReadConsistency.LSN_HEADER, "0/1");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+        assertThat(getApplicationNameOfTransaction(routingDataSource, true)).isEqualTo(PRIMARY_APPLICATION_NAME);
+    }
+
+    @Test
+    @DisplayName("Транзакция только для чтения должна выполняться на основном сервере, когда реплика недоступна")
+    void getConnection_shouldRouteReadOnlyTransactionsToPrimary_whenReplicaIsUnavailable() {
+        replicaDataSource.setJdbcUrl("jdbc:postgresql://localhost:1/unavailable");
+        var routingDataSource = new ReplicaRoutingDataSource(primaryDataSource, List.of(replicaDataSource));
+
+        assertThat(getApplicationNameOfTransaction(routingDataSource, true)).isEqualTo(PRIMARY_APPLICATION_NAME);
+    }
+
+    @Test
+    @DisplayName("POST /api/v1/countries/ должен вернуть позицию WAL записи в заголовке, а чтение не должно его возвращать")
+    @Sql(scripts = "/clear-tables.sql")
+    @SneakyThrows
+    void handleAddCountry_shouldReturnLsnOfWrite_whenReplicasAreConfigured() {
+        var lsnHeader = mvc.perform(post("/api/v1/countries/")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"Poland\"}"))
+                .andExpectAll(
+                        status().isCreated(),
+                        header().string(ReadConsistency.LSN_HEADER, matchesPattern("[0-9A-F]{1,8}/[0-9A-F]{1,8}"))
+                )
+                .andReturn()
+                .getResponse()
+                .getHeader(ReadConsistency.LSN_HEADER);
+
+        assertThat(ReadConsistency.parseLsn(lsnHeader))
+                .isPositive()
+                .isLessThanOrEqualTo(replicaRoutingDataSource.getLastWriteLsn());
+
+        mvc.perform(get("/api/v1/countries/1").header(ReadConsistency.LSN_HEADER, lsnHeader))
+                .andExpectAll(
+                        status().isOk(),
+                        jsonPath("$.name").value("Poland"),
+                        header().doesNotExist(ReadConsistency.LSN_HEADER)
+                );
+    }
+}
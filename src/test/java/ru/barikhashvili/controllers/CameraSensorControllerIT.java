@@ -0,0 +1,179 @@
+package ru.barikhashvili.controllers;
+
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.MockMvc;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import static org.hamcrest.Matchers.contains;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureMockMvc
+@Testcontainers
+@DisplayName("Camera sensor controller integration tests")
+class CameraSensorControllerIT {
+    @Autowired
+    private MockMvc mvc;
+
+    private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>(DockerImageName.parse("postgres:15.6-alpine"));
+    private static final String INSUFFICIENT_DATA_MESSAGE = "{\"error\": \"Insufficient data\"}";
+
+    @BeforeAll
+    static void beforeAll() {
+        postgres.withInitScript("schema.sql");
+        postgres.start();
+    }
+
+    @AfterAll
+    static void afterAll() {
+        postgres.stop();
+    }
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/camera-sensors/search должен вернуть страницы сенсоров по возрастанию мегапикселей, разделяя сенсоры с равными мегапикселями по идентификатору")
+    @Sql(scripts = "/clear-tables.sql")
+    @Sql(scripts = "/test-data.sql")
+    @SneakyThrows
+    void handleSearchCameraSensors_shouldReturnAscendingPages_whenKeyOfPreviousPageIsPassed() {
+        mvc.perform(get("/api/v1/camera-sensors/search").param("limit", "3"))
+                .andExpectAll(
+                        status().isOk(),
+                        content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON),
+                        jsonPath("$.sensors[*].id").value(contains(4, 3, 6)),
+                        jsonPath("$.nextAfterMegapixels").value(12.0),
+                        jsonPath("$.nextAfterId").value(6)
+                );
+
+        mvc.perform(get("/api/v1/camera-sensors/search")
+                        .param("limit", "3")
+                        .param("afterMegapixels", "12.00")
+                        .param("afterId", "6"))
+                .andExpectAll(
+                        status().isOk(),
+                        jsonPath("$.sensors[*].id").value(contains(7, 8, 11)),
+                        jsonPath("$.nextAfterMegapixels").value(32.0),
+                        jsonPath("$.nextAfterId").value(11)
+                );
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/camera-sensors/search должен вернуть последнюю страницу без ключа следующей страницы, когда сенсоров ровно limit")
+    @Sql(scripts = "/clear-tables.sql")
+    @Sql(scripts = "/test-data.sql")
+    @SneakyThrows
+    void handleSearchCameraSensors_shouldReturnPageWithoutNextKey_whenPageIsLast() {
+        mvc.perform(get("/api/v1/camera-sensors/search")
+                        .param("limit", "3")
+                        .param("afterMegapixels", "48.00")
+                        .param("afterId", "5"))
+                .andExpectAll(
+                        status().isOk(),
+                        jsonPath("$.sensors[*].id").value(contains(1, 9, 10)),
+                        jsonPath("$.nextAfterId").value(10)
+                );
+
+        mvc.perform(get("/api/v1/camera-sensors/search")
+                        .param("limit", "3")
+                        .param("afterMegapixels", "50.00")
+                        .param("afterId", "1"))
+                .andExpectAll(
+                        status().isOk(),
+                        jsonPath("$.sensors[*].id").value(contains(9, 10, 12)),
+                        jsonPath("$.nextAfterMegapixels").doesNotExist(),
+                        jsonPath("$.nextAfterId").doesNotExist()
+                );
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/camera-sensors/search?direction=DESC должен вернуть страницы сенсоров по убыванию мегапикселей и идентификаторов")
+    @Sql(scripts = "/clear-tables.sql")
+    @Sql(scripts = "/test-data.sql")
+    @SneakyThrows
+    void handleSearchCameraSensors_shouldReturnDescendingPages_whenDirectionIsDesc() {
+        mvc.perform(get("/api/v1/camera-sensors/search")
+                        .param("direction", "DESC")
+                        .param("limit", "3"))
+                .andExpectAll(
+                        status().isOk(),
+                        jsonPath("$.sensors[*].id").value(contains(12, 10, 9)),
+                        jsonPath("$.nextAfterMegapixels").value(50.0),
+                        jsonPath("$.nextAfterId").value(9)
+                );
+
+        mvc.perform(get("/api/v1/camera-sensors/search")
+                        .param("direction", "DESC")
+                        .param("limit", "3")
+                        .param("afterMegapixels", "50.00")
+                        .param("afterId", "9"))
+                .andExpectAll(
+                        status().isOk(),
+                        jsonPath("$.sensors[*].id").value(contains(1, 5, 2)),
+                        jsonPath("$.nextAfterMegapixels").value(48.0),
+                        jsonPath("$.nextAfterId").value(2)
+                );
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/camera-sensors/search должен вернуть только сенсоры из диапазона мегапикселей")
+    @Sql(scripts = "/clear-tables.sql")
+    @Sql(scripts = "/test-data.sql")
+    @SneakyThrows
+    void handleSearchCameraSensors_shouldReturnSensorsInRange_whenRangeIsSpecified() {
+        mvc.perform(get("/api/v1/camera-sensors/search")
+                        .param("minMegapixels", "12")
+                        .param("maxMegapixels", "48"))
+                .andExpectAll(
+                        status().isOk(),
+                        jsonPath("$.sensors[*].id").value(contains(3, 6, 7, 8, 11, 2, 5)),
+                        jsonPath("$.nextAfterId").doesNotExist()
+                );
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/camera-sensors/search должен вернуть 400 BAD REQUEST, когда указан только один параметр ключа страницы")
+    @Sql(scripts = "/clear-tables.sql")
+    @Sql(scripts = "/test-data.sql")
+    @SneakyThrows
+    void handleSearchCameraSensors_shouldReturnBadRequest_whenKeyIsIncomplete() {
+        mvc.perform(get("/api/v1/camera-sensors/search").param("afterId", "6"))
+                .andExpectAll(
+                        status().isBadRequest(),
+                        content().json(INSUFFICIENT_DATA_MESSAGE)
+                );
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/camera-sensors/specification-counts должен вернуть количество характеристик для каждого сенсора в порядке запроса")
+    @Sql(scripts = "/clear-tables.sql")
+    @Sql(scripts = "/test-data.sql")
+    @SneakyThrows
+    void handleGetSpecificationCounts_shouldReturnCountsInRequestedOrder() {
+        mvc.perform(get("/api/v1/camera-sensors/specification-counts").param("ids", "9,100,12,1"))
+                .andExpectAll(
+                        status().isOk(),
+                        jsonPath("$[*].sensorId").value(contains(9, 100, 12, 1)),
+                        jsonPath("$[*].specificationCount").value(contains(2, 0, 1, 1))
+                );
+    }
+}
@@ -0,0 +1,189 @@
+package ru.barikhashvili.controllers;
+
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.MockMvc;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+import ru.barikhashvili.services.outbox.CatalogOutboxRelay;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureMockMvc
+@Testcontainers
+@DisplayName("Catalog change controller integration tests")
+class CatalogChangeControllerIT {
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private CatalogOutboxRelay catalogOutboxRelay;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>(DockerImageName.parse("postgres:15.6-alpine"));
+
+    @BeforeAll
+    static void beforeAll() {
+        postgres.withInitScript("schema.sql");
+        postgres.start();
+    }
+
+    @AfterAll
+    static void afterAll() {
+        postgres.stop();
+    }
+
+    /**
+     * Записи публикуются в тестах явным вызовом {@link CatalogOutboxRelay#publishPending()},
+     * поэтому запуск по расписанию откладывается, чтобы смещения назначались предсказуемо.
+     */
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("phone-store.outbox.relay-interval-ms", () -> "3600000");
+        registry.add("phone-store.outbox.cleanup-interval-ms", () -> "3600000");
+    }
+
+    @SneakyThrows
+    private void addCountry(String name) {
+        mvc.perform(post("/api/v1/countries/")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"" + name + "\"}"))
+                .andExpect(status().isCreated());
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/changes/ должен вернуть опубликованные изменения страницами по смещению в порядке фиксации")
+    @Sql(scripts = "/clear-tables.sql")
+    @SneakyThrows
+    void handleGetChanges_shouldReturnPagesOfChanges_whenOffsetOfPreviousPageIsPassed() {
+        addCountry("Poland");
+        addCountry("Spain");
+        addCountry("Italy");
+        mvc.perform(delete("/api/v1/countries/2")).andExpect(status().isOk());
+        catalogOutboxRelay.publishPending();
+
+        mvc.perform(get("/api/v1/changes/").param("limit", "2"))
+                .andExpectAll(
+                        status().isOk(),
+                        content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON),
+                        jsonPath("$.changes[*].offset").value(contains(1, 2)),
+                        jsonPath("$.changes[*].entityType").value(contains("countries", "countries")),
+                        jsonPath("$.changes[*].entityId").value(contains(1, 2)),
+                        jsonPath("$.changes[*].changeType").value(contains("CREATED", "CREATED")),
+                        jsonPath("$.nextOffset").value(2)
+                );
+
+        mvc.perform(get("/api/v1/changes/")
+                        .param("after", "2")
+                        .param("limit", "2"))
+                .andExpectAll(
+                        status().isOk(),
+                        jsonPath("$.changes[*].offset").value(contains(3, 4)),
+                        jsonPath("$.changes[*].entityId").value(contains(3, 2)),
+                        jsonPath("$.changes[*].changeType").value(contains("CREATED", "REMOVED")),
+                        jsonPath("$.nextOffset").value(4)
+                );
+
+        mvc.perform(get("/api/v1/changes/").param("after", "4"))
+                .andExpectAll(
+                        status().isOk(),
+                        jsonPath("$.changes").value(empty()),
+                        jsonPath("$.nextOffset").value(4)
+                );
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/changes/ не должен возвращать изменения до их публикации, а смещения новых записей должны продолжать ленту")
+    @Sql(scripts = "/clear-tables.sql")
+    @SneakyThrows
+    void handleGetChanges_shouldReturnOnlyPublishedChanges_andContinueOffsets() {
+        addCountry("Poland");
+        catalogOutboxRelay.publishPending();
+        addCountry("Spain");
+
+        mvc.perform(get("/api/v1/changes/"))
+                .andExpectAll(
+                        status().isOk(),
+                        jsonPath("$.changes[*].offset").value(contains(1)),
+                        jsonPath("$.nextOffset").value(1)
+                );
+
+        catalogOutboxRelay.publishPending();
+
+        mvc.perform(get("/api/v1/changes/").param("after", "1"))
+                .andExpectAll(
+                        status().isOk(),
+                        jsonPath("$.changes[*].offset").value(contains(2)),
+                        jsonPath("$.changes[*].entityId").value(contains(2)),
+                        jsonPath("$.nextOffset").value(2)
+                );
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/changes/ не должен содержать удаление, транзакция которого была отменена из-за отсутствующей страны")
+    @Sql(scripts = "/clear-tables.sql")
+    @SneakyThrows
+    void handleGetChanges_shouldNotContainChanges_whenTransactionIsRolledBack() {
+        addCountry("Poland");
+        mvc.perform(delete("/api/v1/countries/").param("ids", "1,1000"))
+                .andExpect(status().isNotFound());
+        catalogOutboxRelay.publishPending();
+
+        mvc.perform(get("/api/v1/changes/"))
+                .andExpectAll(
+                        status().isOk(),
+                        jsonPath("$.changes[*].offset").value(contains(1)),
+                        jsonPath("$.changes[*].changeType").value(contains("CREATED"))
+                );
+        assertThat(jdbcTemplate.queryForObject("select count(*) from countries", Integer.class)).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Удаление устаревших записей должно сохранять последнюю опубликованную запись, от которой продолжаются смещения")
+    @Sql(scripts = "/clear-tables.sql")
+    @SneakyThrows
+    void deleteExpired_shouldKeepLastPublishedChange_soThatOffsetsContinue() {
+        jdbcTemplate.update("""
+                insert into catalog_outbox (entity_type, entity_id, change_type, created_at, feed_offset)
+                values ('countries', 10, 0, '2000-01-01', 1),
+                       ('countries', 11, 0, '2000-01-01', 2),
+                       ('countries', 12, 0, '2000-01-01', 3)""");
+
+        catalogOutboxRelay.deleteExpired();
+
+        assertThat(jdbcTemplate.queryForList("select feed_offset from catalog_outbox", Long.class))
+                .containsExactly(3L);
+
+        addCountry("Poland");
+        catalogOutboxRelay.publishPending();
+
+        mvc.perform(get("/api/v1/changes/").param("after", "3"))
+                .andExpectAll(
+                        status().isOk(),
+                        jsonPath("$.changes[*].offset").value(contains(4)),
+                        jsonPath("$.nextOffset").value(4)
+                );
+    }
+}
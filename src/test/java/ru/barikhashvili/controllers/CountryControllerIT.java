@@ -1,8 +1,13 @@
 package ru.barikhashvili.controllers;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import jakarta.persistence.EntityManagerFactory;
 import lombok.SneakyThrows;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -37,6 +42,9 @@ class CountryControllerIT {
     @Autowired
     CountryRepository countryRepository;
 
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
     @Autowired
     private MockMvc mvc;
 
@@ -47,6 +55,7 @@ class CountryControllerIT {
     public static final String REQUEST_BODY_IS_MISSING_MESSAGE = "{\"error\": \"Request body is missing\"}";
 
     private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final MediaType APPLICATION_SMILE = MediaType.parseMediaType("application/x-jackson-smile");
 
     @BeforeAll
     static void beforeAll() {
@@ -66,6 +75,15 @@ class CountryControllerIT {
         registry.add("spring.datasource.password", postgres::getPassword);
     }
 
+    /**
+     * Скрипты @Sql изменяют таблицы в обход Hibernate, поэтому страны, сохраненные в кэше второго уровня
+     * предыдущими тестами, удаляются перед каждым тестом.
+     */
+    @BeforeEach
+    void evictSecondLevelCache() {
+        entityManagerFactory.getCache().evictAll();
+    }
+
     @SneakyThrows
     public List<CountryDTO> getAllCountriesSortedByName() {
         return countryRepository.findAll().stream()
@@ -133,6 +151,35 @@ class CountryControllerIT {
                 );
     }
 
+    @Test
+    @DisplayName("PUT /api/v1/countries/ должен вернуть 201 CREATED для новой страны и 200 OK с тем же id при повторной отправке")
+    @Sql(scripts = "/clear-tables.sql")
+    @SneakyThrows
+    void handleUpsertCountry_shouldAddCountryOnceAndReturnExistingCountry_whenCountryIsSentAgain() {
+        var newCountryName = "Poland";
+        var requestJsonBody = "{\"name\": \"" + newCountryName + "\"}";
+
+        mvc.perform(put("/api/v1/countries/")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestJsonBody))
+                .andExpectAll(
+                        status().isCreated(),
+                        header().stringValues("Location", "/api/v1/countries/1"),
+                        content().json("{\"id\": 1, \"name\": \"Poland\"}")
+                );
+
+        mvc.perform(put("/api/v1/countries/")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestJsonBody))
+                .andExpectAll(
+                        status().isOk(),
+                        content().contentType(MediaType.APPLICATION_JSON),
+                        content().json("{\"id\": 1, \"name\": \"Poland\"}")
+                );
+
+        assertThat(countryRepository.count()).isEqualTo(1);
+    }
+
     @SneakyThrows
     public CountryDTO getCountryDTOById(Integer existingCountryId) {
         return countryRepository.findById(existingCountryId)
@@ -158,6 +205,37 @@ class CountryControllerIT {
                 );
     }
 
+    @Test
+    @DisplayName("GET /api/v1/countries/?ids= должен вернуть 200 OK и страны в порядке перечисления id, когда все страны существуют")
+    @Sql(scripts = "/clear-tables.sql")
+    @Sql(scripts = "/test-data.sql")
+    @SneakyThrows
+    void handleGetCountriesByIds_shouldReturnCountriesInRequestedOrder_whenAllCountriesExist() {
+        var requestedCountries = List.of(getCountryDTOById(3), getCountryDTOById(1), getCountryDTOById(2));
+        var correctJsonResponseBody = objectMapper.writeValueAsString(requestedCountries);
+
+        mvc.perform(get("/api/v1/countries/").param("ids", "3,1,2"))
+                .andExpectAll(
+                        status().isOk(),
+                        content().contentType(MediaType.APPLICATION_JSON),
+                        content().json(correctJsonResponseBody, true)
+                );
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/countries/?ids= должен вернуть 404 NOT FOUND и список отсутствующих id, когда часть стран не существует")
+    @Sql(scripts = "/clear-tables.sql")
+    @Sql(scripts = "/test-data.sql")
+    @SneakyThrows
+    void handleGetCountriesByIds_shouldReturnStatusCodeNotFoundAndMissingIds_whenSomeCountriesNotFound() {
+        mvc.perform(get("/api/v1/countries/").param("ids", "1,1000,2,2000"))
+                .andExpectAll(
+                        status().isNotFound(),
+                        content().contentType(MediaType.APPLICATION_JSON),
+                        content().json("{\"error\": \"Not found\", \"missingIds\": [1000, 2000]}")
+                );
+    }
+
     @Test
     @DisplayName("DELETE /api/v1/countries/{id} должен вернуть 200 OK и страну, которая была удалена, когда страна с указанным id существует")
     @Sql(scripts = "/clear-tables.sql")
@@ -179,6 +257,42 @@ class CountryControllerIT {
         assertThat(numberOfCountriesAfterDeleting).isEqualTo(countryRepository.count());
     }
 
+    @Test
+    @DisplayName("DELETE /api/v1/countries/?ids= должен вернуть 200 OK и удаленные страны в порядке перечисления id, когда все страны существуют")
+    @Sql(scripts = "/clear-tables.sql")
+    @Sql(scripts = "/test-data.sql")
+    @SneakyThrows
+    void handleDeleteCountriesByIds_shouldDeleteCountriesAndReturnThemInRequestedOrder_whenAllCountriesExist() {
+        var removedCountries = List.of(getCountryDTOById(3), getCountryDTOById(1));
+        var correctJsonResponseBody = objectMapper.writeValueAsString(removedCountries);
+        var numberOfCountriesAfterDeleting = countryRepository.count() - 2;
+
+        mvc.perform(delete("/api/v1/countries/").param("ids", "3,1"))
+                .andExpectAll(
+                        status().isOk(),
+                        content().contentType(MediaType.APPLICATION_JSON),
+                        content().json(correctJsonResponseBody, true));
+
+        assertThat(numberOfCountriesAfterDeleting).isEqualTo(countryRepository.count());
+    }
+
+    @Test
+    @DisplayName("DELETE /api/v1/countries/?ids= должен вернуть 404 NOT FOUND и не удалять страны, когда часть стран не существует")
+    @Sql(scripts = "/clear-tables.sql")
+    @Sql(scripts = "/test-data.sql")
+    @SneakyThrows
+    void handleDeleteCountriesByIds_shouldNotDeleteAnyCountry_whenSomeCountriesNotFound() {
+        var numberOfCountries = countryRepository.count();
+
+        mvc.perform(delete("/api/v1/countries/").param("ids", "1,1000"))
+                .andExpectAll(
+                        status().isNotFound(),
+                        content().contentType(MediaType.APPLICATION_JSON),
+                        content().json("{\"error\": \"Not found\", \"missingIds\": [1000]}"));
+
+        assertThat(numberOfCountries).isEqualTo(countryRepository.count());
+    }
+
     @Test
     @DisplayName("PUT /api/v1/countries/{id} должен вернуть 200 ОК и страну с измененными данными, когда страна существует")
     @Sql(scripts = "/clear-tables.sql")
@@ -390,4 +504,94 @@ class CountryControllerIT {
                         content().json(NOT_FOUND_MESSAGE)
                 );
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("GET /api/v1/countries/ должен вернуть 200 OK и список стран в формате CBOR, когда он указан в заголовке Accept")
+    @Sql(scripts = "/clear-tables.sql")
+    @Sql(scripts = "/test-data.sql")
+    @SneakyThrows
+    void handleGetAllCountries_shouldReturnCborResponseBody_whenAcceptHeaderIsCbor() {
+        var responseBody = mvc.perform(get("/api/v1/countries/").accept(MediaType.APPLICATION_CBOR))
+                .andExpectAll(
+                        status().isOk(),
+                        content().contentTypeCompatibleWith(MediaType.APPLICATION_CBOR)
+                )
+                .andReturn()
+                .getResponse()
+                .getContentAsByteArray();
+
+        var receivedCountries = new CBORMapper().readValue(responseBody, new TypeReference<List<CountryDTO>>() {
+        });
+        assertThat(receivedCountries).isEqualTo(getAllCountriesSortedByName());
+    }
+
+    @Test
+    @DisplayName("POST /api/v1/countries/ должен принять тело запроса в формате Smile, а GET /api/v1/countries/{id} вернуть страну в формате Smile")
+    @Sql(scripts = "/clear-tables.sql")
+    @SneakyThrows
+    void handleAddCountry_shouldAcceptSmileBody_whenContentTypeIsSmile() {
+        var smileMapper = new SmileMapper();
+        var requestBody = smileMapper.writeValueAsBytes(CountryDTO.of(null, "Poland"));
+
+        mvc.perform(post("/api/v1/countries/")
+                        .contentType(APPLICATION_SMILE)
+                        .content(requestBody))
+                .andExpectAll(
+                        status().isCreated(),
+                        content().contentType(MediaType.APPLICATION_JSON),
+                        jsonPath("$.name").value("Poland")
+                );
+
+        var responseBody = mvc.perform(get("/api/v1/countries/1")
+                        .accept(APPLICATION_SMILE))
+                .andExpectAll(
+                        status().isOk(),
+                        content().contentTypeCompatibleWith(APPLICATION_SMILE)
+                )
+                .andReturn()
+                .getResponse()
+                .getContentAsByteArray();
+
+        assertThat(smileMapper.readValue(responseBody, CountryDTO.class)).isEqualTo(CountryDTO.of(1, "Poland"));
+    }
+
+    @Test
+    @DisplayName("POST /api/v1/countries/ должен вернуть 400 BAD REQUEST и ошибку поля, когда название страны длиннее ограничения базы данных")
+    @Sql(scripts = "/clear-tables.sql")
+    @SneakyThrows
+    void handleAddCountry_shouldReturnBadRequestAndFieldError_whenCountryNameIsTooLong() {
+        var requestJsonBody = objectMapper.writeValueAsString(CountryDTO.of(null, "A".repeat(61)));
+
+        mvc.perform(post("/api/v1/countries/")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestJsonBody))
+                .andExpectAll(
+                        status().isBadRequest(),
+                        content().contentType(MediaType.APPLICATION_JSON),
+                        jsonPath("$.error").value("Request contains incorrect values"),
+                        jsonPath("$.fieldErrors.name").isNotEmpty()
+                );
+
+        assertThat(countryRepository.count()).isZero();
+    }
+
+    @Test
+    @DisplayName("PATCH /api/v1/countries/{id} должен вернуть 400 BAD REQUEST и не изменять страну, когда название страны пустое")
+    @Sql(scripts = "/clear-tables.sql")
+    @Sql(scripts = "/test-data.sql")
+    @SneakyThrows
+    void handleEditPartOfCountry_shouldReturnBadRequestAndFieldError_whenCountryNameIsEmpty() {
+        mvc.perform(patch("/api/v1/countries/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"\"}"))
+                .andExpectAll(
+                        status().isBadRequest(),
+                        jsonPath("$.error").value("Request contains incorrect values"),
+                        jsonPath("$.fieldErrors.name").isNotEmpty()
+                );
+
+        assertThat(countryRepository.findById(1)).get()
+                .extracting(CountryEntity::getName)
+                .isEqualTo("USA");
+    }
+}
@@ -0,0 +1,205 @@
+package ru.barikhashvili.controllers;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.MockMvc;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import static org.hamcrest.Matchers.contains;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureMockMvc
+@Testcontainers
+@DisplayName("Display controller integration tests")
+class DisplayControllerIT {
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MockMvc mvc;
+
+    private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>(DockerImageName.parse("postgres:15.6-alpine"));
+    private static final String INSUFFICIENT_DATA_MESSAGE = "{\"error\": \"Insufficient data\"}";
+
+    @BeforeAll
+    static void beforeAll() {
+        postgres.withInitScript("schema.sql");
+        postgres.start();
+    }
+
+    @AfterAll
+    static void afterAll() {
+        postgres.stop();
+    }
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    /**
+     * Скрипты @Sql изменяют таблицы в обход Hibernate, поэтому дисплеи и разрешения экрана, сохраненные
+     * в кэше второго уровня предыдущими тестами, удаляются перед каждым тестом.
+     */
+    @BeforeEach
+    void evictSecondLevelCache() {
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/displays/search должен вернуть страницы дисплеев по возрастанию плотности пикселей с ключом следующей страницы")
+    @Sql(scripts = "/clear-tables.sql")
+    @Sql(scripts = "/test-data.sql")
+    @SneakyThrows
+    void handleSearchDisplays_shouldReturnAscendingPages_whenKeyOfPreviousPageIsPassed() {
+        mvc.perform(get("/api/v1/displays/search").param("limit", "2"))
+                .andExpectAll(
+                        status().isOk(),
+                        content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON),
+                        jsonPath("$.displays[*].id").value(contains(4, 3)),
+                        jsonPath("$.nextAfterPpi").value(394.57),
+                        jsonPath("$.nextAfterId").value(3)
+                );
+
+        mvc.perform(get("/api/v1/displays/search")
+                        .param("limit", "2")
+                        .param("afterPpi", "394.57")
+                        .param("afterId", "3"))
+                .andExpectAll(
+                        status().isOk(),
+                        jsonPath("$.displays[*].id").value(contains(2, 1)),
+                        jsonPath("$.nextAfterPpi").doesNotExist(),
+                        jsonPath("$.nextAfterId").doesNotExist()
+                );
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/displays/search?direction=DESC должен вернуть страницы дисплеев по убыванию плотности пикселей")
+    @Sql(scripts = "/clear-tables.sql")
+    @Sql(scripts = "/test-data.sql")
+    @SneakyThrows
+    void handleSearchDisplays_shouldReturnDescendingPages_whenDirectionIsDesc() {
+        mvc.perform(get("/api/v1/displays/search")
+                        .param("direction", "DESC")
+                        .param("limit", "3"))
+                .andExpectAll(
+                        status().isOk(),
+                        jsonPath("$.displays[*].id").value(contains(1, 2, 3)),
+                        jsonPath("$.displays[*].ppi").value(contains(512.11, 456.77, 394.57)),
+                        jsonPath("$.nextAfterPpi").value(394.57),
+                        jsonPath("$.nextAfterId").value(3)
+                );
+
+        mvc.perform(get("/api/v1/displays/search")
+                        .param("direction", "DESC")
+                        .param("limit", "3")
+                        .param("afterPpi", "394.57")
+                        .param("afterId", "3"))
+                .andExpectAll(
+                        status().isOk(),
+                        jsonPath("$.displays[*].id").value(contains(4)),
+                        jsonPath("$.nextAfterId").doesNotExist()
+                );
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/displays/search должен вернуть только дисплеи из диапазона плотности пикселей включительно")
+    @Sql(scripts = "/clear-tables.sql")
+    @Sql(scripts = "/test-data.sql")
+    @SneakyThrows
+    void handleSearchDisplays_shouldReturnDisplaysInRange_whenRangeIsSpecified() {
+        mvc.perform(get("/api/v1/displays/search")
+                        .param("minPpi", "394.57")
+                        .param("maxPpi", "500"))
+                .andExpectAll(
+                        status().isOk(),
+                        jsonPath("$.displays[*].id").value(contains(3, 2))
+                );
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/displays/search должен вернуть 400 BAD REQUEST, когда указан только один параметр ключа страницы")
+    @Sql(scripts = "/clear-tables.sql")
+    @Sql(scripts = "/test-data.sql")
+    @SneakyThrows
+    void handleSearchDisplays_shouldReturnBadRequest_whenKeyIsIncomplete() {
+        mvc.perform(get("/api/v1/displays/search").param("afterPpi", "394.57"))
+                .andExpectAll(
+                        status().isBadRequest(),
+                        content().json(INSUFFICIENT_DATA_MESSAGE)
+                );
+    }
+
+    @Test
+    @DisplayName("PATCH /api/v1/screen-resolutions/{id} должен пересчитать плотность пикселей всех дисплеев с этим разрешением")
+    @Sql(scripts = "/clear-tables.sql")
+    @Sql(scripts = "/test-data.sql")
+    @SneakyThrows
+    void handleEditPartOfScreenResolution_shouldRecalculatePpiOfDisplays() {
+        mvc.perform(get("/api/v1/displays/4"))
+                .andExpectAll(
+                        status().isOk(),
+                        jsonPath("$.ppi").value(166.67)
+                );
+
+        mvc.perform(patch("/api/v1/screen-resolutions/4")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"horizontalPixels\": 480, \"verticalPixels\": 640}"))
+                .andExpect(status().isOk());
+
+        mvc.perform(get("/api/v1/displays/4"))
+                .andExpectAll(
+                        status().isOk(),
+                        jsonPath("$.ppi").value(333.33)
+                );
+
+        mvc.perform(get("/api/v1/displays/search")
+                        .param("minPpi", "300")
+                        .param("maxPpi", "400"))
+                .andExpectAll(
+                        status().isOk(),
+                        jsonPath("$.displays[*].id").value(contains(4, 3))
+                );
+    }
+
+    @Test
+    @DisplayName("PATCH /api/v1/displays/{id} должен пересчитать плотность пикселей дисплея при изменении диагонали")
+    @Sql(scripts = "/clear-tables.sql")
+    @Sql(scripts = "/test-data.sql")
+    @SneakyThrows
+    void handleEditPartOfDisplay_shouldRecalculatePpi_whenDiagonalChanges() {
+        mvc.perform(patch("/api/v1/displays/4")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"diagonal\": 2.0}"))
+                .andExpectAll(
+                        status().isOk(),
+                        jsonPath("$.ppi").value(200.0)
+                );
+
+        mvc.perform(get("/api/v1/displays/search")
+                        .param("maxPpi", "200"))
+                .andExpectAll(
+                        status().isOk(),
+                        jsonPath("$.displays[*].id").value(contains(4)),
+                        jsonPath("$.displays[0].ppi").value(200.0)
+                );
+    }
+}
@@ -1,8 +1,11 @@
 package ru.barikhashvili.controllers;
 
+import jakarta.persistence.EntityManagerFactory;
 import lombok.SneakyThrows;
+import org.hibernate.SessionFactory;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -21,6 +24,8 @@ import org.testcontainers.shaded.com.fasterxml.jackson.databind.ObjectMapper;
 import org.testcontainers.utility.DockerImageName;
 import ru.barikhashvili.dto.specs.CountryDTO;
 import ru.barikhashvili.dto.specs.ManufacturerDTO;
+import ru.barikhashvili.entities.CacheRegions;
+import ru.barikhashvili.entities.specs.CountryEntity;
 import ru.barikhashvili.entities.specs.ManufacturerEntity;
 import ru.barikhashvili.repositories.CountryRepository;
 import ru.barikhashvili.repositories.ManufacturerRepository;
@@ -48,6 +53,9 @@ class ManufacturerControllerIT {
     @Autowired
     private TransactionTemplate transactionTemplate;
 
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
     @Autowired
     private MockMvc mvc;
 
@@ -77,6 +85,16 @@ class ManufacturerControllerIT {
         registry.add("spring.datasource.password", postgres::getPassword);
     }
 
+    /**
+     * Скрипты @Sql изменяют таблицы в обход Hibernate, поэтому производители и страны, сохраненные
+     * в кэше второго уровня предыдущими тестами, удаляются перед каждым тестом.
+     */
+    @BeforeEach
+    void evictSecondLevelCache() {
+        entityManagerFactory.getCache().evictAll();
+        entityManagerFactory.unwrap(SessionFactory.class).getStatistics().clear();
+    }
+
     public ManufacturerDTO convertManufacturerEntityToDTO(ManufacturerEntity manufacturer) {
         var countryEntity = manufacturer.getCountry();
         var countryDTO = CountryDTO.of(countryEntity.getId(), countryEntity.getName());
@@ -786,4 +804,63 @@ class ManufacturerControllerIT {
         var manufacturersNumberAfterEditing = manufacturerRepository.count();
         assertThat(manufacturersNumberAfterEditing).isEqualTo(manufacturersNumberBeforeEditing);
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("GET /api/v1/manufacturers/{id} должен при повторном запросе читать производителя и страну из их собственных регионов кэша второго уровня")
+    @Sql(scripts = "/clear-tables.sql")
+    @Sql(scripts = "/test-data.sql")
+    @SneakyThrows
+    void handleGetManufacturer_shouldReadManufacturerAndCountryFromSecondLevelCache_whenRequestedAgain() {
+        var statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        mvc.perform(get("/api/v1/manufacturers/1")).andExpect(status().isOk());
+        var manufacturerHits = statistics.getDomainDataRegionStatistics(CacheRegions.MANUFACTURERS).getHitCount();
+        var countryHits = statistics.getDomainDataRegionStatistics(CacheRegions.COUNTRIES).getHitCount();
+
+        mvc.perform(get("/api/v1/manufacturers/1"))
+                .andExpectAll(
+                        status().isOk(),
+                        jsonPath("$.name").value("Google"),
+                        jsonPath("$.country.name").value("USA")
+                );
+
+        assertAll(
+                () -> assertThat(statistics.getEntityStatistics(ManufacturerEntity.class.getName()).getCacheRegionName())
+                        .isEqualTo(CacheRegions.MANUFACTURERS),
+                () -> assertThat(statistics.getEntityStatistics(CountryEntity.class.getName()).getCacheRegionName())
+                        .isEqualTo(CacheRegions.COUNTRIES),
+                () -> assertThat(statistics.getDomainDataRegionStatistics(CacheRegions.MANUFACTURERS).getHitCount())
+                        .isGreaterThan(manufacturerHits),
+                () -> assertThat(statistics.getDomainDataRegionStatistics(CacheRegions.COUNTRIES).getHitCount())
+                        .isGreaterThan(countryHits)
+        );
+    }
+
+    @Test
+    @DisplayName("Очистка региона стран не должна удалять производителей из кэша второго уровня, а изменение производителя должно обновлять его запись")
+    @Sql(scripts = "/clear-tables.sql")
+    @Sql(scripts = "/test-data.sql")
+    @SneakyThrows
+    void handleEditPartOfManufacturer_shouldUpdateCachedManufacturer_andCountryEvictionShouldNotAffectManufacturers() {
+        var cache = entityManagerFactory.getCache();
+        mvc.perform(get("/api/v1/manufacturers/1")).andExpect(status().isOk());
+
+        cache.evict(CountryEntity.class);
+
+        assertAll(
+                () -> assertThat(cache.contains(ManufacturerEntity.class, 1)).isTrue(),
+                () -> assertThat(cache.contains(CountryEntity.class, 1)).isFalse()
+        );
+
+        mvc.perform(patch("/api/v1/manufacturers/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"Google LLC\"}"))
+                .andExpect(status().isOk());
+
+        mvc.perform(get("/api/v1/manufacturers/1"))
+                .andExpectAll(
+                        status().isOk(),
+                        jsonPath("$.name").value("Google LLC")
+                );
+    }
+}
@@ -0,0 +1,932 @@
+package ru.barikhashvili.controllers;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.SneakyThrows;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+import ru.barikhashvili.entities.PhoneEntity;
+import ru.barikhashvili.events.CatalogChangedEvent;
+import ru.barikhashvili.services.catalog.PhoneQueryCache;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.hasKey;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureMockMvc
+@Testcontainers
+@DisplayName("Phone controller integration tests")
+class PhoneControllerIT {
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PhoneQueryCache phoneQueryCache;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>(DockerImageName.parse("postgres:15.6-alpine"));
+    private static final String RESOURCE_HAS_BEEN_MODIFIED_MESSAGE = "{\"error\": \"Resource has been modified\"}";
+    private static final String INSUFFICIENT_DATA_MESSAGE = "{\"error\": \"Insufficient data\"}";
+    private static final String UNKNOWN_FIELDS_MESSAGE = "{\"error\": \"Unknown fields requested\"}";
+    private static final String IMPORT_CSV_FILE = """
+            phone_variant_id,model,manufacturer,manufacturer_country,release_date,ram_size,rom_size,color,price,quantity,\
+            network_type,sim_count,has_wifi,has_nfc,has_bluetooth,height,width,thickness,weight,material,charger_type,\
+            operating_system,operating_system_version,display_diagonal,display_horizontal_pixels,display_vertical_pixels,\
+            display_refresh_rate,display_type,processor,processor_cores,processor_max_frequency,processor_technology_node,\
+            battery_capacity,battery_type,camera_modules
+            1,Pixel 8 Pro,Google,USA,2023-10-04T00:00,12,256,WHITE,84990,7,\
+            FREQUENCY_5G,1,true,true,true,163.9,75.9,8.7,210,ALUMINUM,USB_TYPE_C,\
+            Android,13,6.71,1440,3120,120,AMOLED,Google Tensor G3,8,2.8,5,5000,LI_ION,
+            ,Fairphone 5,Fairphone,Netherlands,2023-08-30T00:00,12,256,BLACK,59990,20,\
+            FREQUENCY_5G,2,true,true,true,162.1,76.4,8.6,201.2,ALUMINUM,USB_TYPE_C,\
+            Android,13,6.71,1440,3120,120,AMOLED,Google Tensor G3,8,2.8,5,5000,LI_ION,\
+            STANDARD:true:Samsung GN2;WIDE_ANGLE:false:Sony IMX999
+            """;
+
+    @BeforeAll
+    static void beforeAll() {
+        postgres.withInitScript("schema.sql");
+        postgres.start();
+    }
+
+    @AfterAll
+    static void afterAll() {
+        postgres.stop();
+    }
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.jpa.properties.hibernate.session_factory.statement_inspector",
+                RecordingStatementInspector.class::getName);
+    }
+
+    /**
+     * Запоминает SQL запросы, которые Hibernate отправляет в базу данных из потока теста. Запросы фоновых
+     * задач, например перестройки снимка каталога, не запоминаются.
+     */
+    public static class RecordingStatementInspector implements StatementInspector {
+        static final List<String> statements = new CopyOnWriteArrayList<>();
+        static volatile Thread recordedThread;
+
+        @Override
+        public String inspect(String sql) {
+            if (Thread.currentThread() == recordedThread) {
+                statements.add(sql.toLowerCase(Locale.ROOT));
+            }
+            return sql;
+        }
+    }
+
+    /**
+     * Очищает кэш второго уровня и кэш результатов запросов списка телефонов и начинает запоминать
+     * SQL запросы потока теста, чтобы количество запросов не зависело от предыдущих тестов.
+     */
+    private void recordStatements() {
+        entityManagerFactory.getCache().evictAll();
+        phoneQueryCache.handleCatalogChanged(CatalogChangedEvent.updated(PhoneEntity.class, null));
+        RecordingStatementInspector.statements.clear();
+        RecordingStatementInspector.recordedThread = Thread.currentThread();
+    }
+
+    /**
+     * Возвращает строки phones_variants телефона в виде "id:variant_id:price:quantity:version",
+     * упорядоченные по идентификатору вариации.
+     */
+    public List<String> getPhoneVariantRows(long phoneId) {
+        return jdbcTemplate.query(
+                "select id, variant_id, price, quantity, version from phones_variants where phone_id = ? order by variant_id",
+                (resultSet, rowNumber) -> resultSet.getLong("id") + ":" + resultSet.getInt("variant_id") + ":"
+                        + resultSet.getBigDecimal("price").toPlainString() + ":" + resultSet.getInt("quantity") + ":"
+                        + resultSet.getLong("version"),
+                phoneId);
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/phones/top-by-processor-performance должен вернуть 200 OK и телефоны в порядке убывания оценки производительности процессора")
+    @Sql(scripts = "/clear-tables.sql")
+    @Sql(scripts = "/test-data.sql")
+    @SneakyThrows
+    void handleGetTopPhonesByProcessorPerformance_shouldReturnPhonesOrderedByPerformanceScore() {
+        mvc.perform(get("/api/v1/phones/top-by-processor-performance"))
+                .andExpectAll(
+                        status().isOk(),
+                        content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON),
+                        jsonPath("$[*].id").value(contains(3, 4, 2, 1, 5)),
+                        jsonPath("$[*].specification.processor.performanceScore")
+                                .value(contains(12800, 12800, 11986, 10018, 89))
+                );
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/phones/top-by-processor-performance?limit= должен вернуть 200 OK и не больше limit телефонов, при равной оценке упорядоченных по идентификатору")
+    @Sql(scripts = "/clear-tables.sql")
+    @Sql(scripts = "/test-data.sql")
+    @SneakyThrows
+    void handleGetTopPhonesByProcessorPerformance_shouldReturnLimitedPhones_whenLimitIsSpecified() {
+        mvc.perform(get("/api/v1/phones/top-by-processor-performance").param("limit", "3"))
+                .andExpectAll(
+                        status().isOk(),
+                        content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON),
+                        jsonPath("$", hasSize(3)),
+                        jsonPath("$[*].id").value(contains(3, 4, 2))
+                );
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/phones/top-by-processor-performance?limit=0 должен вернуть 200 OK и один телефон")
+    @Sql(scripts = "/clear-tables.sql")
+    @Sql(scripts = "/test-data.sql")
+    @SneakyThrows
+    void handleGetTopPhonesByProcessorPerformance_shouldReturnOnePhone_whenLimitIsNotPositive() {
+        mvc.perform(get("/api/v1/phones/top-by-processor-performance").param("limit", "0"))
+                .andExpectAll(
+                        status().isOk(),
+                        jsonPath("$", hasSize(1)),
+                        jsonPath("$[0].id").value(3)
+                );
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/phones/search должен вернуть телефоны с плотностью пикселей дисплея из диапазона по возрастанию плотности")
+    @Sql(scripts = "/clear-tables.sql")
+    @Sql(scripts = "/test-data.sql")
+    @SneakyThrows
+    void handleSearchPhonesByDisplayPpi_shouldReturnPhonesInRangeOrderedByPpi() {
+        mvc.perform(get("/api/v1/phones/search").param("minPpi", "300"))
+                .andExpectAll(
+                        status().isOk(),
+                        content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON),
+                        jsonPath("$[*].id").value(contains(3, 4, 2, 1))
+                );
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/phones/search?direction=DESC должен вернуть телефоны по убыванию плотности пикселей, при равной плотности - по идентификатору")
+    @Sql(scripts = "/clear-tables.sql")
+    @Sql(scripts = "/test-data.sql")
+    @SneakyThrows
+    void handleSearchPhonesByDisplayPpi_shouldReturnPhonesInDescendingOrder_whenDirectionIsDesc() {
+        mvc.perform(get("/api/v1/phones/search")
+                        .param("direction", "DESC")
+                        .param("maxPpi", "456.77")
+                        .param("limit", "3"))
+                .andExpectAll(
+                        status().isOk(),
+                        jsonPath("$", hasSize(3)),
+                        jsonPath("$[*].id").value(contains(2, 3, 4)),
+                        jsonPath("$[*].specification.display.ppi").value(contains(456.77, 394.57, 394.57))
+                );
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/phones/ должен вернуть одинаковый ETag снимка каталога и 304 NOT MODIFIED при совпадении If-None-Match")
+    @Sql(scripts = "/clear-tables.sql")
+    @Sql(scripts = "/test-data.sql")
+    @SneakyThrows
+    void handleGetPhoneCatalogSnapshot_shouldReturnNotModified_whenETagMatches() {
+        var eTag = mvc.perform(get("/api/v1/phones/").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getHeader(HttpHeaders.ETAG);
+        assertThat(eTag).startsWith("\"catalog-");
+
+        mvc.perform(get("/api/v1/phones/").accept(MediaType.APPLICATION_JSON))
+                .andExpectAll(
+                        status().isOk(),
+                        header().string(HttpHeaders.ETAG, eTag)
+                );
+
+        mvc.perform(get("/api/v1/phones/")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/phones/ должен вернуть ответ, сжатый gzip, только если Accept-Encoding разрешает gzip с ненулевым весом")
+    @Sql(scripts = "/clear-tables.sql")
+    @Sql(scripts = "/test-data.sql")
+    @SneakyThrows
+    void handleGetPhoneCatalogSnapshot_shouldRespectGzipWeight() {
+        mvc.perform(get("/api/v1/phones/")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.ACCEPT_ENCODING, "br, gzip;q=0.5"))
+                .andExpectAll(
+                        status().isOk(),
+                        header().string(HttpHeaders.CONTENT_ENCODING, "gzip")
+                );
+
+        mvc.perform(get("/api/v1/phones/")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0, deflate"))
+                .andExpectAll(
+                        status().isOk(),
+                        header().doesNotExist(HttpHeaders.CONTENT_ENCODING)
+                );
+
+        mvc.perform(get("/api/v1/phones/")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.ACCEPT_ENCODING, "*;q=0"))
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING));
+    }
+
+    @Test
+    @DisplayName("PATCH /api/v1/phones/{id} должен вернуть 200 OK и новый ETag, когда If-Match совпадает с текущей версией телефона")
+    @Sql(scripts = "/clear-tables.sql")
+    @Sql(scripts = "/test-data.sql")
+    @SneakyThrows
+    void handleEditPartOfPhone_shouldReturnNewETag_whenIfMatchIsCurrent() {
+        mvc.perform(patch("/api/v1/phones/1")
+                        .header(HttpHeaders.IF_MATCH, "\"0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"model\": \"Pixel 8 Pro 5G\"}"))
+                .andExpectAll(
+                        status().isOk(),
+                        header().string(HttpHeaders.ETAG, "\"1\""),
+                        jsonPath("$.model").value("Pixel 8 Pro 5G")
+                );
+
+        mvc.perform(get("/api/v1/phones/1"))
+                .andExpectAll(
+                        status().isOk(),
+                        header().string(HttpHeaders.ETAG, "\"1\"")
+                );
+    }
+
+    @Test
+    @DisplayName("PATCH /api/v1/phones/{id} должен вернуть 412 PRECONDITION FAILED и не изменять телефон, когда If-Match содержит устаревшую версию")
+    @Sql(scripts = "/clear-tables.sql")
+    @Sql(scripts = "/test-data.sql")
+    @SneakyThrows
+    void handleEditPartOfPhone_shouldReturnPreconditionFailed_whenIfMatchIsStale() {
+        mvc.perform(patch("/api/v1/phones/1")
+                        .header(HttpHeaders.IF_MATCH, "\"0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"model\": \"Pixel 8 Pro 5G\"}"))
+                .andExpect(status().isOk());
+
+        mvc.perform(patch("/api/v1/phones/1")
+                        .header(HttpHeaders.IF_MATCH, "\"0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"model\": \"Pixel 8\"}"))
+                .andExpectAll(
+                        status().isPreconditionFailed(),
+                        content().json(RESOURCE_HAS_BEEN_MODIFIED_MESSAGE)
+                );
+
+        mvc.perform(get("/api/v1/phones/1"))
+                .andExpectAll(
+                        status().isOk(),
+                        header().string(HttpHeaders.ETAG, "\"1\""),
+                        jsonPath("$.model").value("Pixel 8 Pro 5G")
+                );
+    }
+
+    @Test
+    @DisplayName("PATCH /api/v1/phones/{id} должен вернуть 412 PRECONDITION FAILED, когда If-Match содержит слабый ETag")
+    @Sql(scripts = "/clear-tables.sql")
+    @Sql(scripts = "/test-data.sql")
+    @SneakyThrows
+    void handleEditPartOfPhone_shouldReturnPreconditionFailed_whenIfMatchIsWeak() {
+        mvc.perform(patch("/api/v1/phones/1")
+                        .header(HttpHeaders.IF_MATCH, "W/\"0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"model\": \"Pixel 8 Pro 5G\"}"))
+                .andExpectAll(
+                        status().isPreconditionFailed(),
+                        content().json(RESOURCE_HAS_BEEN_MODIFIED_MESSAGE)
+                );
+    }
+
+    @Test
+    @DisplayName("PUT /api/v1/phones/{id} должен вернуть 412 PRECONDITION FAILED, когда If-Match содержит устаревшую версию")
+    @Sql(scripts = "/clear-tables.sql")
+    @Sql(scripts = "/test-data.sql")
+    @SneakyThrows
+    void handleEditPhone_shouldReturnPreconditionFailed_whenIfMatchIsStale() {
+        var requestJsonBody = """
+                {
+                    "manufacturer": {"id": 1},
+                    "model": "Pixel 8",
+                    "specification": {"id": 1},
+                    "releaseDate": "2023-10-04T00:00:00",
+                    "phoneVariants": [{"variant": {"id": 1}, "price": 69990, "quantity": 3}]
+                }""";
+
+        mvc.perform(put("/api/v1/phones/1")
+                        .header(HttpHeaders.IF_MATCH, "\"5\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestJsonBody))
+                .andExpectAll(
+                        status().isPreconditionFailed(),
+                        content().json(RESOURCE_HAS_BEEN_MODIFIED_MESSAGE)
+                );
+
+        mvc.perform(get("/api/v1/phones/1"))
+                .andExpectAll(
+                        status().isOk(),
+                        header().string(HttpHeaders.ETAG, "\"0\""),
+                        jsonPath("$.model").value("Pixel 8 Pro"),
+                        jsonPath("$.phoneVariants", hasSize(2))
+                );
+    }
+
+    @Test
+    @DisplayName("PATCH /api/v1/phones/{id} должен увеличить версию телефона, когда изменилась только цена варианта, и отклонить запись по старому ETag")
+    @Sql(scripts = "/clear-tables.sql")
+    @Sql(scripts = "/test-data.sql")
+    @SneakyThrows
+    void handleEditPartOfPhone_shouldIncrementVersion_whenOnlyVariantPriceChanges() {
+        var requestJsonBody = """
+                {
+                    "phoneVariants": [
+                        {"variant": {"id": 1}, "price": 84990, "quantity": 12},
+                        {"variant": {"id": 2}, "price": 92990, "quantity": 78}
+                    ]
+                }""";
+
+        mvc.perform(patch("/api/v1/phones/1")
+                        .header(HttpHeaders.IF_MATCH, "\"0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestJsonBody))
+                .andExpectAll(
+                        status().isOk(),
+                        header().string(HttpHeaders.ETAG, "\"1\"")
+                );
+
+        mvc.perform(get("/api/v1/phones/1"))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""));
+
+        mvc.perform(patch("/api/v1/phones/1")
+                        .header(HttpHeaders.IF_MATCH, "\"0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestJsonBody))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    @DisplayName("PATCH /api/v1/phones/{id} должен изменить существующий вариант на месте, добавить новый и удалить отсутствующий в запросе")
+    @Sql(scripts = "/clear-tables.sql")
+    @Sql(scripts = "/test-data.sql")
+    @SneakyThrows
+    void handleEditPartOfPhone_shouldMergeVariantsByVariantId() {
+        var requestJsonBody = """
+                {
+                    "phoneVariants": [
+                        {"variant": {"id": 1}, "price": 84990, "quantity": 12},
+                        {"variant": {"id": 3}, "price": 99990, "quantity": 5}
+                    ]
+                }""";
+
+        mvc.perform(patch("/api/v1/phones/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestJsonBody))
+                .andExpectAll(
+                        status().isOk(),
+                        jsonPath("$.phoneVariants", hasSize(2)),
+                        jsonPath("$.phoneVariants[*].variant.id").value(contains(1, 3))
+                );
+
+        assertThat(getPhoneVariantRows(1)).containsExactly(
+                "1:1:84990.00:12:1",
+                "35:3:99990.00:5:0");
+        assertThat(getPhoneVariantRows(2)).hasSize(15);
+    }
+
+    @Test
+    @DisplayName("PATCH /api/v1/phones/{id} не должен изменять строки вариантов и версию телефона, когда варианты в запросе совпадают с текущими")
+    @Sql(scripts = "/clear-tables.sql")
+    @Sql(scripts = "/test-data.sql")
+    @SneakyThrows
+    void handleEditPartOfPhone_shouldNotRewriteVariants_whenVariantsAreUnchanged() {
+        var requestJsonBody = """
+                {
+                    "phoneVariants": [
+                        {"variant": {"id": 2}, "price": 92990.00, "quantity": 78},
+                        {"variant": {"id": 1}, "price": 89990, "quantity": 12}
+                    ]
+                }""";
+
+        mvc.perform(patch("/api/v1/phones/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestJsonBody))
+                .andExpectAll(
+                        status().isOk(),
+                        header().string(HttpHeaders.ETAG, "\"0\"")
+                );
+
+        assertThat(getPhoneVariantRows(1)).containsExactly(
+                "1:1:89990.00:12:0",
+                "2:2:92990.00:78:0");
+    }
+
+    @Test
+    @DisplayName("PATCH /api/v1/phones/{id} должен использовать последнее значение, когда вариация указана в запросе несколько раз")
+    @Sql(scripts = "/clear-tables.sql")
+    @Sql(scripts = "/test-data.sql")
+    @SneakyThrows
+    void handleEditPartOfPhone_shouldUseLastValue_whenVariantIsRepeated() {
+        var requestJsonBody = """
+                {
+                    "phoneVariants": [
+                        {"variant": {"id": 2}, "price": 90000, "quantity": 1},
+                        {"variant": {"id": 2}, "price": 91000, "quantity": 2}
+                    ]
+                }""";
+
+        mvc.perform(patch("/api/v1/phones/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestJsonBody))
+                .andExpect(status().isOk());
+
+        assertThat(getPhoneVariantRows(1)).containsExactly("2:2:91000.00:2:1");
+    }
+
+    @Test
+    @DisplayName("PATCH /api/v1/phones/{id} должен вернуть 400 BAD REQUEST и не изменять варианты, когда у варианта не указана цена")
+    @Sql(scripts = "/clear-tables.sql")
+    @Sql(scripts = "/test-data.sql")
+    @SneakyThrows
+    void handleEditPartOfPhone_shouldReturnBadRequest_whenVariantPriceIsMissing() {
+        mvc.perform(patch("/api/v1/phones/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"phoneVariants\": [{\"variant\": {\"id\": 1}, \"quantity\": 12}]}"))
+                .andExpectAll(
+                        status().isBadRequest(),
+                        content().json("{\"error\": \"Insufficient data\"}")
+                );
+
+        assertThat(getPhoneVariantRows(1)).containsExactly(
+                "1:1:89990.00:12:0",
+                "2:2:92990.00:78:0");
+    }
+
+    @Test
+    @DisplayName("POST /api/v1/phones/import должен добавить новые телефоны и обновить цену и количество вариантов существующих телефонов")
+    @Sql(scripts = "/clear-tables.sql")
+    @Sql(scripts = "/test-data.sql")
+    @SneakyThrows
+    void handleImportPhones_shouldCreateNewPhonesAndMergeExistingPhones() {
+        mvc.perform(post("/api/v1/phones/import")
+                        .contentType("text/csv")
+                        .content(IMPORT_CSV_FILE))
+                .andExpectAll(
+                        status().isOk(),
+                        content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON),
+                        jsonPath("$.importedRows").value(2),
+                        jsonPath("$.createdPhones").value(1),
+                        jsonPath("$.updatedPhones").value(1),
+                        jsonPath("$.savedPhoneVariants").value(2),
+                        jsonPath("$.unknownCameraSensors").value(contains("Sony IMX999"))
+                );
+
+        assertThat(getPhoneVariantRows(1)).containsExactly(
+                "1:1:84990.00:7:1",
+                "2:2:92990.00:78:0");
+        assertThat(getSpecificationCameraIds("Pixel 8 Pro")).containsExactly(1L, 2L, 3L, 4L);
+
+        var importedPhoneId = jdbcTemplate.queryForObject(
+                "select p.id from phones p join manufacturers m on m.id = p.manufacturer_id "
+                        + "join countries c on c.id = m.country_id "
+                        + "where p.model = 'Fairphone 5' and m.name = 'Fairphone' and c.name = 'Netherlands'",
+                Long.class);
+        assertThat(jdbcTemplate.queryForList(
+                "select pv.price || ':' || pv.quantity || ':' || v.ram_size || ':' || v.rom_size "
+                        + "from phones_variants pv join variants v on v.id = pv.variant_id where pv.phone_id = ?",
+                String.class, importedPhoneId)).containsExactly("59990.00:20:12:256");
+        assertThat(getSpecificationCameraIds("Fairphone 5")).containsExactly(1L);
+    }
+
+    @Test
+    @DisplayName("POST /api/v1/phones/import не должен создавать дубликаты при повторной загрузке того же файла")
+    @Sql(scripts = "/clear-tables.sql")
+    @Sql(scripts = "/test-data.sql")
+    @SneakyThrows
+    void handleImportPhones_shouldBeIdempotent_whenSameFileIsImportedTwice() {
+        mvc.perform(post("/api/v1/phones/import")
+                        .contentType("text/csv")
+                        .content(IMPORT_CSV_FILE))
+                .andExpect(status().isOk());
+        var phoneVariantCount = countRows("phones_variants");
+
+        mvc.perform(post("/api/v1/phones/import")
+                        .contentType("text/csv")
+                        .content(IMPORT_CSV_FILE))
+                .andExpectAll(
+                        status().isOk(),
+                        jsonPath("$.importedRows").value(2),
+                        jsonPath("$.createdPhones").value(0),
+                        jsonPath("$.updatedPhones").value(2),
+                        jsonPath("$.savedPhoneVariants").value(2)
+                );
+
+        assertThat(countRows("phones")).isEqualTo(6);
+        assertThat(countRows("phone_specs")).isEqualTo(6);
+        assertThat(countRows("phones_variants")).isEqualTo(phoneVariantCount);
+        assertThat(jdbcTemplate.queryForObject(
+                "select count(*) from manufacturers where name = 'Fairphone'", Integer.class)).isEqualTo(1);
+        assertThat(getPhoneVariantRows(1)).containsExactly(
+                "1:1:84990.00:7:2",
+                "2:2:92990.00:78:0");
+        assertThat(getSpecificationCameraIds("Fairphone 5")).containsExactly(1L);
+    }
+
+    @Test
+    @DisplayName("POST /api/v1/phones/import должен вернуть 400 BAD REQUEST и не сохранять строки, когда в строке файла нет обязательного значения")
+    @Sql(scripts = "/clear-tables.sql")
+    @Sql(scripts = "/test-data.sql")
+    @SneakyThrows
+    void handleImportPhones_shouldReturnBadRequestAndSaveNothing_whenRequiredValueIsMissing() {
+        var importFile = IMPORT_CSV_FILE.replace(",84990,7,", ",,7,");
+
+        mvc.perform(post("/api/v1/phones/import")
+                        .contentType("text/csv")
+                        .content(importFile))
+                .andExpectAll(
+                        status().isBadRequest(),
+                        jsonPath("$.error").value("Invalid import file")
+                );
+
+        assertThat(countRows("phones")).isEqualTo(5);
+        assertThat(jdbcTemplate.queryForObject(
+                "select count(*) from manufacturers where name = 'Fairphone'", Integer.class)).isZero();
+        assertThat(getPhoneVariantRows(1)).containsExactly(
+                "1:1:89990.00:12:0",
+                "2:2:92990.00:78:0");
+    }
+
+    private int countRows(String table) {
+        return jdbcTemplate.queryForObject("select count(*) from " + table, Integer.class);
+    }
+
+    private List<Long> getSpecificationCameraIds(String model) {
+        return jdbcTemplate.queryForList(
+                "select sc.camera_id from specifications_cameras sc join phones p on p.specification_id = sc.specification_id "
+                        + "where p.model = ? order by sc.camera_id",
+                Long.class, model);
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/phones/{id} должен вернуть 200 OK и телефон в формате CBOR с точными ценами вариантов")
+    @Sql(scripts = "/clear-tables.sql")
+    @Sql(scripts = "/test-data.sql")
+    @SneakyThrows
+    void handleGetPhone_shouldReturnCborResponseBody_whenAcceptHeaderIsCbor() {
+        var responseBody = mvc.perform(get("/api/v1/phones/1").accept(MediaType.APPLICATION_CBOR))
+                .andExpectAll(
+                        status().isOk(),
+                        content().contentTypeCompatibleWith(MediaType.APPLICATION_CBOR),
+                        header().string(HttpHeaders.ETAG, "\"0\"")
+                )
+                .andReturn()
+                .getResponse()
+                .getContentAsByteArray();
+
+        var receivedPhone = new CBORMapper().readTree(responseBody);
+        assertThat(receivedPhone.get("model").asText()).isEqualTo("Pixel 8 Pro");
+        assertThat(receivedPhone.get("phoneVariants").findValues("price"))
+                .extracting(JsonNode::decimalValue)
+                .usingElementComparator(BigDecimal::compareTo)
+                .containsExactlyInAnyOrder(new BigDecimal("89990"), new BigDecimal("92990"));
+    }
+
+    @SneakyThrows
+    private MvcResult exportPhoneVariants(String format) {
+        var asyncResult = mvc.perform(get("/api/v1/phones/export").param("format", format))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mvc.perform(asyncDispatch(asyncResult))
+                .andExpect(status().isOk())
+                .andReturn();
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/phones/export должен выгрузить все варианты телефонов в формате NDJSON в порядке идентификаторов")
+    @Sql(scripts = "/clear-tables.sql")
+    @Sql(scripts = "/test-data.sql")
+    @SneakyThrows
+    void handleExportPhoneVariants_shouldStreamAllPhoneVariantsAsNdjson() {
+        var response = exportPhoneVariants("NDJSON").getResponse();
+
+        assertThat(response.getContentType()).startsWith("application/x-ndjson");
+        assertThat(response.getHeader(HttpHeaders.CONTENT_DISPOSITION)).contains("phone-variants.ndjson");
+        var objectMapper = new ObjectMapper();
+        var rows = response.getContentAsString(StandardCharsets.UTF_8).lines()
+                .map(line -> {
+                    try {
+                        return objectMapper.readTree(line);
+                    } catch (JsonProcessingException exception) {
+                        throw new IllegalStateException(exception);
+                    }
+                })
+                .toList();
+        assertThat(rows).hasSize(countRows("phones_variants"));
+        assertThat(rows).extracting(row -> row.get("phone_variant_id").asLong()).isSorted();
+
+        var firstRow = rows.get(0);
+        assertThat(firstRow.get("phone_variant_id").asLong()).isEqualTo(1);
+        assertThat(firstRow.get("model").asText()).isEqualTo("Pixel 8 Pro");
+        assertThat(firstRow.get("manufacturer").asText()).isEqualTo("Google");
+        assertThat(firstRow.get("manufacturer_country").asText()).isEqualTo("USA");
+        assertThat(firstRow.get("color").asText()).isEqualTo("WHITE");
+        assertThat(firstRow.get("price").decimalValue()).isEqualByComparingTo("89990");
+        assertThat(firstRow.get("quantity").asInt()).isEqualTo(12);
+        assertThat(firstRow.get("display_type").asText()).isEqualTo("AMOLED");
+        assertThat(firstRow.get("processor").asText()).isEqualTo("Google Tensor G3");
+        assertThat(firstRow.get("camera_modules").asText()).isEqualTo(
+                "STANDARD:true:Samsung GN2;TELEPHOTO:true:Sony IMX566;ULTRA_WIDE_ANGLE:false:Sony IMX386;"
+                        + "FRONT_FACING:false:Samsung S5K3T2");
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/phones/export?format=CSV должен выгрузить только строку заголовка, когда вариантов телефонов нет")
+    @Sql(scripts = "/clear-tables.sql")
+    @SneakyThrows
+    void handleExportPhoneVariants_shouldStreamCsvHeader_whenThereAreNoPhoneVariants() {
+        var response = exportPhoneVariants("CSV").getResponse();
+
+        assertThat(response.getContentAsString(StandardCharsets.UTF_8).lines().toList())
+                .singleElement()
+                .satisfies(header -> assertThat(header)
+                        .startsWith("phone_variant_id,phone_id,model,manufacturer,manufacturer_country,")
+                        .endsWith(",camera_modules"));
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/phones/export?format=CSV должен выгрузить варианты телефонов в формате CSV, который можно загрузить повторно")
+    @Sql(scripts = "/clear-tables.sql")
+    @Sql(scripts = "/test-data.sql")
+    @SneakyThrows
+    void handleExportPhoneVariants_shouldStreamCsvThatCanBeImportedAgain() {
+        var cameraIds = getSpecificationCameraIds("Pixel 8 Pro");
+        var cameraCount = countRows("cameras");
+        var response = exportPhoneVariants("CSV").getResponse();
+
+        assertThat(response.getContentType()).startsWith("text/csv");
+        var exportedFile = response.getContentAsString(StandardCharsets.UTF_8);
+        var lines = exportedFile.lines().toList();
+        assertThat(lines).hasSize(countRows("phones_variants") + 1);
+        assertThat(lines.get(0)).startsWith("phone_variant_id,phone_id,model,manufacturer,manufacturer_country,");
+        assertThat(lines.get(1)).startsWith("1,1,Pixel 8 Pro,Google,USA,");
+
+        mvc.perform(post("/api/v1/phones/import")
+                        .contentType("text/csv")
+                        .content(exportedFile))
+                .andExpectAll(
+                        status().isOk(),
+                        jsonPath("$.importedRows").value(lines.size() - 1),
+                        jsonPath("$.createdPhones").value(0),
+                        jsonPath("$.updatedPhones").value(5),
+                        jsonPath("$.savedPhoneVariants").value(lines.size() - 1)
+                );
+
+        assertThat(countRows("phones")).isEqualTo(5);
+        assertThat(countRows("phones_variants")).isEqualTo(lines.size() - 1);
+        assertThat(getPhoneVariantRows(1)).containsExactly(
+                "1:1:89990.00:12:1",
+                "2:2:92990.00:78:1");
+        assertThat(getSpecificationCameraIds("Pixel 8 Pro")).isNotEmpty().isEqualTo(cameraIds);
+        assertThat(countRows("cameras")).isEqualTo(cameraCount);
+    }
+
+    @Test
+    @DisplayName("PATCH /api/v1/phones/{id} должен вернуть 400 BAD REQUEST с ошибками вложенных полей и не изменять варианты, когда цена и количество некорректны")
+    @Sql(scripts = "/clear-tables.sql")
+    @Sql(scripts = "/test-data.sql")
+    @SneakyThrows
+    void handleEditPartOfPhone_shouldReturnBadRequestWithNestedFieldErrors_whenVariantValuesAreInvalid() {
+        mvc.perform(patch("/api/v1/phones/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"phoneVariants\": [{\"variant\": {\"id\": 1}, \"price\": 1.001, \"quantity\": -1}]}"))
+                .andExpectAll(
+                        status().isBadRequest(),
+                        jsonPath("$.error").value("Request contains incorrect values"),
+                        jsonPath("$.fieldErrors['phoneVariants[0].price']").isNotEmpty(),
+                        jsonPath("$.fieldErrors['phoneVariants[0].quantity']").isNotEmpty()
+                );
+
+        assertThat(getPhoneVariantRows(1)).containsExactly(
+                "1:1:89990.00:12:0",
+                "2:2:92990.00:78:0");
+    }
+
+    @Test
+    @DisplayName("POST /api/v1/phones/import должен вернуть 409 CONFLICT и не сохранять строки, когда значение нарушает ограничение базы данных")
+    @Sql(scripts = "/clear-tables.sql")
+    @Sql(scripts = "/test-data.sql")
+    @SneakyThrows
+    void handleImportPhones_shouldReturnConflictAndSaveNothing_whenCheckConstraintIsViolated() {
+        var importFile = IMPORT_CSV_FILE.replace("2023-08-30T00:00,12,256,", "2023-08-30T00:00,0,256,");
+
+        mvc.perform(post("/api/v1/phones/import")
+                        .contentType("text/csv")
+                        .content(importFile))
+                .andExpectAll(
+                        status().isConflict(),
+                        content().json("{\"error\": \"Request contains incorrect values\"}")
+                );
+
+        assertThat(countRows("phones")).isEqualTo(5);
+        assertThat(getPhoneVariantRows(1)).containsExactly(
+                "1:1:89990.00:12:0",
+                "2:2:92990.00:78:0");
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/phones/?ids=... должен возвращать результат из кэша до изменения каталога и перечитывать его после фиксации изменения")
+    @Sql(scripts = "/clear-tables.sql")
+    @Sql(scripts = "/test-data.sql")
+    @SneakyThrows
+    void handleGetPhonesByIds_shouldServeCachedResultUntilCatalogChanges() {
+        phoneQueryCache.handleCatalogChanged(CatalogChangedEvent.updated(PhoneEntity.class, null));
+        var cacheHits = meterRegistry.get("cache.gets")
+                .tag("cache", "phone-query-cache")
+                .tag("result", "hit")
+                .functionCounter();
+        var initialHitCount = cacheHits.count();
+
+        mvc.perform(get("/api/v1/phones/").param("ids", "1,3"))
+                .andExpectAll(
+                        status().isOk(),
+                        jsonPath("$[*].model").value(contains("Pixel 8 Pro", "Nothing Phone 2"))
+                );
+
+        jdbcTemplate.update("update phones set model = 'Pixel 8 Pro (2023)' where id = 1");
+
+        mvc.perform(get("/api/v1/phones/").param("ids", "1,3"))
+                .andExpectAll(
+                        status().isOk(),
+                        jsonPath("$[*].model").value(contains("Pixel 8 Pro", "Nothing Phone 2"))
+                );
+        assertThat(cacheHits.count()).isEqualTo(initialHitCount + 1);
+
+        mvc.perform(patch("/api/v1/phones/2")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"model\": \"iPhone 15 Pro Max\"}"))
+                .andExpect(status().isOk());
+
+        mvc.perform(get("/api/v1/phones/").param("ids", "1,3"))
+                .andExpectAll(
+                        status().isOk(),
+                        jsonPath("$[*].model").value(contains("Pixel 8 Pro (2023)", "Nothing Phone 2"))
+                );
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/phones/?ids=... должен вернуть ошибку 400, если список ID содержит пустое значение")
+    @SneakyThrows
+    void handleGetPhonesByIds_shouldReturnBadRequest_whenIdsContainEmptyValue() {
+        mvc.perform(get("/api/v1/phones/").param("ids", "1,,2"))
+                .andExpectAll(
+                        status().isBadRequest(),
+                        content().json(INSUFFICIENT_DATA_MESSAGE)
+                );
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/phones/{id}?fields= должен вернуть только запрошенные поля телефона")
+    @Sql(scripts = "/clear-tables.sql")
+    @Sql(scripts = "/test-data.sql")
+    @SneakyThrows
+    void handleGetPhoneById_shouldReturnOnlyRequestedFields_whenFieldsAreSpecified() {
+        mvc.perform(get("/api/v1/phones/1").param("fields", "id,model,minPrice"))
+                .andExpectAll(
+                        status().isOk(),
+                        jsonPath("$.id").value(1),
+                        jsonPath("$.model").value("Pixel 8 Pro"),
+                        jsonPath("$.minPrice").value(89990.0),
+                        jsonPath("$.releaseDate").doesNotExist(),
+                        jsonPath("$.manufacturer").doesNotExist(),
+                        jsonPath("$.specification").doesNotExist(),
+                        jsonPath("$.phoneVariants").doesNotExist()
+                );
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/phones/?fields= должен прочитать телефоны проекцией и вычислить minPrice одним агрегирующим запросом")
+    @Sql(scripts = "/clear-tables.sql")
+    @Sql(scripts = "/test-data.sql")
+    @SneakyThrows
+    void handleGetAllPhones_shouldReadProjectionAndAggregateMinPrice_whenVariantsAreNotRequested() {
+        recordStatements();
+
+        mvc.perform(get("/api/v1/phones/").param("fields", "model,minPrice"))
+                .andExpectAll(
+                        status().isOk(),
+                        jsonPath("$[*].model").value(contains("BQ 2400 Classic", "Iphone 15 Pro Max",
+                                "Motorola Edge 30 Ultra", "Nothing Phone 2", "Pixel 8 Pro")),
+                        jsonPath("$[*].minPrice").value(contains(1299.0, 12790.0, 41990.0, 61990.0, 89990.0)),
+                        jsonPath("$[*]").value(everyItem(not(hasKey("id")))),
+                        jsonPath("$[*]").value(everyItem(not(hasKey("phoneVariants"))))
+                );
+
+        assertThat(RecordingStatementInspector.statements)
+                .hasSize(2)
+                .noneSatisfy(sql -> assertThat(sql).containsAnyOf(" manufacturers ", " phone_specs ", " variants "))
+                .anySatisfy(sql -> assertThat(sql).contains("min(").contains(" phones_variants "));
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/phones/?fields= должен загрузить запрошенных производителей и их страны по одному запросу и не загружать незапрошенные связи")
+    @Sql(scripts = "/clear-tables.sql")
+    @Sql(scripts = "/test-data.sql")
+    @SneakyThrows
+    void handleGetAllPhones_shouldLoadOnlyRequestedAssociations_whenFieldsAreSpecified() {
+        recordStatements();
+
+        mvc.perform(get("/api/v1/phones/").param("fields", "id,manufacturer"))
+                .andExpectAll(
+                        status().isOk(),
+                        jsonPath("$[*].id").value(contains(5, 2, 4, 3, 1)),
+                        jsonPath("$[*].manufacturer.name").value(contains("BQ", "Apple", "Motorola", "Nothing", "Google")),
+                        jsonPath("$[*]").value(everyItem(not(hasKey("model")))),
+                        jsonPath("$[*]").value(everyItem(not(hasKey("specification"))))
+                );
+
+        assertThat(RecordingStatementInspector.statements)
+                .hasSize(3)
+                .noneSatisfy(sql -> assertThat(sql).containsAnyOf(" phone_specs ", " phones_variants "))
+                .anySatisfy(sql -> assertThat(sql).contains(" manufacturers "))
+                .anySatisfy(sql -> assertThat(sql).contains(" countries "));
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/phones/{id}?fields= должен вычислить minPrice по загруженным вариантам телефона без агрегирующего запроса")
+    @Sql(scripts = "/clear-tables.sql")
+    @Sql(scripts = "/test-data.sql")
+    @SneakyThrows
+    void handleGetPhoneById_shouldCalculateMinPriceFromVariants_whenVariantsAreRequested() {
+        recordStatements();
+
+        mvc.perform(get("/api/v1/phones/2").param("fields", "id,phoneVariants,minPrice"))
+                .andExpectAll(
+                        status().isOk(),
+                        jsonPath("$.minPrice").value(12790.0),
+                        jsonPath("$.phoneVariants", hasSize(15)),
+                        jsonPath("$.model").doesNotExist()
+                );
+
+        assertThat(RecordingStatementInspector.statements).noneSatisfy(sql -> assertThat(sql).contains("min("));
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/phones/?fields= должен вернуть 400 BAD REQUEST, если запрошено неизвестное поле")
+    @SneakyThrows
+    void handleGetAllPhones_shouldReturnBadRequest_whenUnknownFieldIsRequested() {
+        mvc.perform(get("/api/v1/phones/").param("fields", "id,color"))
+                .andExpectAll(
+                        status().isBadRequest(),
+                        content().json(UNKNOWN_FIELDS_MESSAGE)
+                );
+        mvc.perform(get("/api/v1/phones/1").param("fields", "model,price"))
+                .andExpectAll(
+                        status().isBadRequest(),
+                        content().json(UNKNOWN_FIELDS_MESSAGE)
+                );
+    }
+}
@@ -0,0 +1,230 @@
+package ru.barikhashvili.controllers;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.SneakyThrows;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.MockMvc;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.hasKey;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureMockMvc
+@Testcontainers
+@DisplayName("Phone specification controller integration tests")
+class PhoneSpecificationControllerIT {
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MockMvc mvc;
+
+    private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>(DockerImageName.parse("postgres:15.6-alpine"));
+    private static final String UNKNOWN_FIELDS_MESSAGE = "{\"error\": \"Unknown fields requested\"}";
+    private static final String[] SPECIFICATION_ASSOCIATION_TABLES =
+            {" operating_systems ", " displays ", " processors ", " batteries ", " specifications_cameras "};
+
+    @BeforeAll
+    static void beforeAll() {
+        postgres.withInitScript("schema.sql");
+        postgres.start();
+    }
+
+    @AfterAll
+    static void afterAll() {
+        postgres.stop();
+    }
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.jpa.properties.hibernate.session_factory.statement_inspector",
+                RecordingStatementInspector.class::getName);
+    }
+
+    /**
+     * Скрипты @Sql изменяют таблицы в обход Hibernate, поэтому сущности, сохраненные в кэше второго уровня
+     * предыдущими тестами, удаляются перед каждым тестом.
+     */
+    @BeforeEach
+    void evictSecondLevelCache() {
+        entityManagerFactory.getCache().evictAll();
+        RecordingStatementInspector.statements.clear();
+        RecordingStatementInspector.recordedThread = Thread.currentThread();
+    }
+
+    /**
+     * Запоминает SQL запросы, которые Hibernate отправляет в базу данных из потока теста. Запросы фоновых
+     * задач, например перестройки снимка каталога, не запоминаются.
+     */
+    public static class RecordingStatementInspector implements StatementInspector {
+        static final List<String> statements = new CopyOnWriteArrayList<>();
+        static volatile Thread recordedThread;
+
+        @Override
+        public String inspect(String sql) {
+            if (Thread.currentThread() == recordedThread) {
+                statements.add(sql);
+            }
+            return sql;
+        }
+    }
+
+    /**
+     * Возвращает столбцы, перечисленные в SET выполненных запросов UPDATE указанной таблицы.
+     */
+    private static List<List<String>> getUpdatedColumns(String table) {
+        return RecordingStatementInspector.statements.stream()
+                .map(sql -> sql.toLowerCase(Locale.ROOT))
+                .filter(sql -> sql.startsWith("update " + table + " "))
+                .map(sql -> sql.substring(sql.indexOf(" set ") + 5, sql.indexOf(" where ")))
+                .map(setClause -> Arrays.stream(setClause.split(","))
+                        .map(assignment -> assignment.substring(0, assignment.indexOf('=')).trim())
+                        .toList())
+                .toList();
+    }
+
+    @Test
+    @DisplayName("PATCH /api/v1/specifications/{id} должен обновить в базе данных только измененный столбец и версию")
+    @Sql(scripts = "/clear-tables.sql")
+    @Sql(scripts = "/test-data.sql")
+    @SneakyThrows
+    void handleEditPartOfPhoneSpecification_shouldUpdateOnlyModifiedColumns() {
+        mvc.perform(patch("/api/v1/specifications/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"weight\": 215}"))
+                .andExpectAll(
+                        status().isOk(),
+                        header().string(HttpHeaders.ETAG, "\"1\""),
+                        jsonPath("$.weight").value(215),
+                        jsonPath("$.height").value(163.9)
+                );
+
+        assertThat(getUpdatedColumns("phone_specs"))
+                .singleElement()
+                .satisfies(columns -> assertThat(columns).containsExactlyInAnyOrder("weight", "version"));
+    }
+
+    @Test
+    @DisplayName("PATCH /api/v1/specifications/{id} не должен выполнять UPDATE, когда значения полей не изменились")
+    @Sql(scripts = "/clear-tables.sql")
+    @Sql(scripts = "/test-data.sql")
+    @SneakyThrows
+    void handleEditPartOfPhoneSpecification_shouldNotUpdate_whenValuesAreUnchanged() {
+        mvc.perform(patch("/api/v1/specifications/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"simCount\": 1, \"hasNfc\": true}"))
+                .andExpectAll(
+                        status().isOk(),
+                        header().string(HttpHeaders.ETAG, "\"0\"")
+                );
+
+        assertThat(getUpdatedColumns("phone_specs")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("PATCH /api/v1/displays/{id} должен обновить частоту обновления дисплея, не перечисляя неизмененные столбцы")
+    @Sql(scripts = "/clear-tables.sql")
+    @Sql(scripts = "/test-data.sql")
+    @SneakyThrows
+    void handleEditPartOfDisplay_shouldUpdateOnlyModifiedColumns() {
+        mvc.perform(patch("/api/v1/displays/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"refreshRate\": 60}"))
+                .andExpectAll(
+                        status().isOk(),
+                        jsonPath("$.refreshRate").value(60)
+                );
+
+        assertThat(getUpdatedColumns("displays"))
+                .singleElement()
+                .satisfies(columns -> assertThat(columns)
+                        .contains("refresh_rate")
+                        .doesNotContain("diagonal", "resolution_id", "display_type"));
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/specifications/{id}?fields= должен вернуть только запрошенные поля и не загружать связанные сущности")
+    @Sql(scripts = "/clear-tables.sql")
+    @Sql(scripts = "/test-data.sql")
+    @SneakyThrows
+    void handleGetPhoneSpecificationById_shouldReturnOnlyRequestedFields_whenFieldsAreSpecified() {
+        mvc.perform(get("/api/v1/specifications/1").param("fields", "id,weight"))
+                .andExpectAll(
+                        status().isOk(),
+                        jsonPath("$.id").value(1),
+                        jsonPath("$.weight").value(210.0),
+                        jsonPath("$.height").doesNotExist(),
+                        jsonPath("$.display").doesNotExist(),
+                        jsonPath("$.cameras").doesNotExist()
+                );
+
+        assertThat(RecordingStatementInspector.statements)
+                .isNotEmpty()
+                .noneSatisfy(sql -> assertThat(sql.toLowerCase(Locale.ROOT)).containsAnyOf(SPECIFICATION_ASSOCIATION_TABLES));
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/specifications/?fields= должен вернуть все характеристики только с запрошенными полями")
+    @Sql(scripts = "/clear-tables.sql")
+    @Sql(scripts = "/test-data.sql")
+    @SneakyThrows
+    void handleGetAllPhoneSpecifications_shouldReturnOnlyRequestedFields_whenFieldsAreSpecified() {
+        mvc.perform(get("/api/v1/specifications/").param("fields", "id,processor"))
+                .andExpectAll(
+                        status().isOk(),
+                        jsonPath("$[*].id").value(contains(1, 2, 3, 4, 5)),
+                        jsonPath("$[0].processor.model").value("Google Tensor G3"),
+                        jsonPath("$[*]").value(everyItem(not(hasKey("weight")))),
+                        jsonPath("$[*]").value(everyItem(not(hasKey("display"))))
+                );
+
+        assertThat(RecordingStatementInspector.statements)
+                .noneSatisfy(sql -> assertThat(sql.toLowerCase(Locale.ROOT))
+                        .containsAnyOf(" operating_systems ", " displays ", " batteries ", " specifications_cameras "));
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/specifications/?fields= должен вернуть 400 BAD REQUEST, если запрошено неизвестное поле")
+    @SneakyThrows
+    void handleGetAllPhoneSpecifications_shouldReturnBadRequest_whenUnknownFieldIsRequested() {
+        mvc.perform(get("/api/v1/specifications/").param("fields", "id,color"))
+                .andExpectAll(
+                        status().isBadRequest(),
+                        content().json(UNKNOWN_FIELDS_MESSAGE)
+                );
+        mvc.perform(get("/api/v1/specifications/1").param("fields", "weight,price"))
+                .andExpectAll(
+                        status().isBadRequest(),
+                        content().json(UNKNOWN_FIELDS_MESSAGE)
+                );
+    }
+}
@@ -0,0 +1,221 @@
+package ru.barikhashvili.controllers;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.MockMvc;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+import ru.barikhashvili.events.PhoneVariantStockChangedEvent;
+import ru.barikhashvili.services.stream.PhoneStockStreamService;
+
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureMockMvc
+@Testcontainers
+@DisplayName("Phone stock stream controller integration tests")
+class PhoneStockStreamControllerIT {
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private PhoneStockStreamService phoneStockStreamService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @LocalServerPort
+    private int port;
+
+    private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>(DockerImageName.parse("postgres:15.6-alpine"));
+    private static final long EVENT_TIMEOUT_SECONDS = 10;
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+    private Stream<String> streamLines;
+
+    @BeforeAll
+    static void beforeAll() {
+        postgres.withInitScript("schema.sql");
+        postgres.start();
+    }
+
+    @AfterAll
+    static void afterAll() {
+        postgres.stop();
+    }
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("phone-store.stock-stream.heartbeat-interval-ms", () -> "500");
+        registry.add("phone-store.stock-stream.write-timeout-ms", () -> "1000");
+        registry.add("phone-store.stock-stream.buffer-size", () -> "1000000");
+        registry.add("phone-store.stock-stream.sender-threads", () -> "1");
+    }
+
+    @AfterEach
+    void closeStream() {
+        if (streamLines != null) {
+            streamLines.close();
+        }
+    }
+
+    /**
+     * Подписывается на поток изменений через HTTP соединение с запущенным сервером и возвращает очередь
+     * полученных строк потока. Подписчик зарегистрирован к моменту получения заголовков ответа, которые
+     * отправляются вместе с первым событием или комментарием heartbeat.
+     */
+    @SneakyThrows
+    private BlockingQueue<String> subscribe(String query) {
+        var request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/v1/phones/stock-stream" + query))
+                .header(HttpHeaders.ACCEPT, MediaType.TEXT_EVENT_STREAM_VALUE)
+                .timeout(Duration.ofSeconds(EVENT_TIMEOUT_SECONDS))
+                .GET()
+                .build();
+        var response = httpClient.send(request, HttpResponse.BodyHandlers.ofLines());
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.headers().firstValue(HttpHeaders.CONTENT_TYPE)).hasValueSatisfying(
+                contentType -> assertThat(contentType).startsWith(MediaType.TEXT_EVENT_STREAM_VALUE));
+
+        var lines = new LinkedBlockingQueue<String>();
+        streamLines = response.body();
+        CompletableFuture.runAsync(() -> streamLines.forEach(lines::add));
+        return lines;
+    }
+
+    /**
+     * Возвращает первую строку потока, начинающуюся с указанного префикса, пропуская остальные строки.
+     */
+    @SneakyThrows
+    private static String awaitLine(BlockingQueue<String> lines, String prefix) {
+        var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(EVENT_TIMEOUT_SECONDS);
+        while (System.nanoTime() < deadline) {
+            var line = lines.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+            if (line != null && line.startsWith(prefix)) {
+                return line;
+            }
+        }
+        throw new AssertionError("The stream did not receive a line starting with " + prefix);
+    }
+
+    @SneakyThrows
+    private static void await(BooleanSupplier condition) {
+        var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(EVENT_TIMEOUT_SECONDS);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("The condition was not met in " + EVENT_TIMEOUT_SECONDS + " seconds");
+            }
+            Thread.sleep(50);
+        }
+    }
+
+    private double countSubscribers() {
+        return meterRegistry.get("phone.stock.stream.subscribers").gauge().value();
+    }
+
+    /**
+     * Подписывается на поток изменений через соединение, из которого не читаются данные, поэтому после
+     * заполнения буферов TCP запись в него блокирует поток отправки.
+     */
+    @SneakyThrows
+    private Socket subscribeWithoutReading() {
+        var socket = new Socket();
+        socket.setReceiveBufferSize(1024);
+        socket.connect(new InetSocketAddress("localhost", port));
+        socket.getOutputStream().write(("GET /api/v1/phones/stock-stream HTTP/1.1\r\n"
+                + "Host: localhost\r\n"
+                + "Accept: " + MediaType.TEXT_EVENT_STREAM_VALUE + "\r\n\r\n").getBytes());
+        socket.getOutputStream().flush();
+        return socket;
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/phones/stock-stream?phoneId={id} должен отправить событие об изменении цены только выбранного телефона")
+    @Sql(scripts = "/clear-tables.sql")
+    @Sql(scripts = "/test-data.sql")
+    @SneakyThrows
+    void handleSubscribeToStockChanges_shouldSendStockEventsOfSelectedPhoneOnly() {
+        var lines = subscribe("?phoneId=1");
+
+        mvc.perform(patch("/api/v1/phones/2")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"phoneVariants\": [{\"variant\": {\"id\": 1}, \"price\": 1000, \"quantity\": 1}]}"))
+                .andExpect(status().isOk());
+        mvc.perform(patch("/api/v1/phones/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"phoneVariants\": [{\"variant\": {\"id\": 1}, \"price\": 84990, \"quantity\": 14}]}"))
+                .andExpect(status().isOk());
+
+        assertThat(awaitLine(lines, "event:")).isEqualTo("event:stock");
+        assertThat(awaitLine(lines, "data:"))
+                .contains("\"phoneId\":1", "\"manufacturerId\":1", "\"variantId\":1", "\"price\":84990", "\"quantity\":14");
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/phones/stock-stream должен периодически отправлять комментарий heartbeat")
+    @SneakyThrows
+    void handleSubscribeToStockChanges_shouldSendHeartbeatComments() {
+        var lines = subscribe("");
+
+        assertThat(awaitLine(lines, ":")).isEqualTo(":heartbeat");
+    }
+
+    @Test
+    @DisplayName("Зависшая запись в соединение клиента, который не читает данные, должна завершаться и освобождать поток отправки")
+    @Sql(scripts = "/clear-tables.sql")
+    @Sql(scripts = "/test-data.sql")
+    @SneakyThrows
+    void handleStockChanged_shouldReleaseSenderThread_whenSubscriberStopsReading() {
+        await(() -> countSubscribers() == 0);
+        try (var stalledSocket = subscribeWithoutReading()) {
+            await(() -> countSubscribers() == 1);
+            var event = new PhoneVariantStockChangedEvent(1L, 1, 1, new BigDecimal("84990.00"), 14);
+            for (var i = 0; i < 500_000 && countSubscribers() == 1; i++) {
+                phoneStockStreamService.handleStockChanged(event);
+            }
+            await(() -> countSubscribers() == 0);
+
+            var lines = subscribe("?phoneId=1");
+            mvc.perform(patch("/api/v1/phones/1")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"phoneVariants\": [{\"variant\": {\"id\": 1}, \"price\": 79990, \"quantity\": 3}]}"))
+                    .andExpect(status().isOk());
+
+            assertThat(awaitLine(lines, "data:")).contains("\"price\":79990", "\"quantity\":3");
+        }
+    }
+}
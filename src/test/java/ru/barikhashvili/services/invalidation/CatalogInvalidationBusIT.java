@@ -0,0 +1,242 @@
+package ru.barikhashvili.services.invalidation;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+import ru.barikhashvili.entities.specs.CountryEntity;
+import ru.barikhashvili.entities.specs.ManufacturerEntity;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureMockMvc
+@Testcontainers
+@DisplayName("Catalog invalidation bus integration tests")
+class CatalogInvalidationBusIT {
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private CatalogInvalidationBus catalogInvalidationBus;
+
+    private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>(DockerImageName.parse("postgres:15.6-alpine"));
+    private static final String CHANNEL = "catalog_invalidation";
+    private static final String OTHER_NODE_ID = "other-node";
+    private static final long TIMEOUT_SECONDS = 10;
+    private static final int POLAND_ID = 4;
+    private static final int SPAIN_ID = 5;
+    private static final int FAIRPHONE_ID = 6;
+
+    @BeforeAll
+    static void beforeAll() {
+        postgres.withInitScript("schema.sql");
+        postgres.start();
+    }
+
+    @AfterAll
+    static void afterAll() {
+        postgres.stop();
+    }
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    /**
+     * Скрипты @Sql изменяют таблицы в обход Hibernate, поэтому кэш второго уровня очищается перед каждым тестом.
+     * Шина начинает получать уведомления после запуска приложения в отдельном потоке, поэтому тесты ожидают,
+     * пока соединение шины не выполнит LISTEN, иначе отправленные до этого уведомления не будут получены.
+     */
+    @BeforeEach
+    void prepare() {
+        entityManagerFactory.getCache().evictAll();
+        await(() -> jdbcTemplate.queryForObject("select count(*) from pg_stat_activity where query = ?",
+                Integer.class, "LISTEN " + CHANNEL) > 0);
+    }
+
+    @SneakyThrows
+    private static void await(BooleanSupplier condition) {
+        var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("The condition was not met in " + TIMEOUT_SECONDS + " seconds");
+            }
+            Thread.sleep(50);
+        }
+    }
+
+    private void sendNotification(String payload) {
+        jdbcTemplate.query("SELECT pg_notify(?, ?)", resultSet -> null, CHANNEL, payload);
+    }
+
+    private static String notification(String nodeId, String type, long id) {
+        return "{\"node\": \"" + nodeId + "\", \"changes\": [{\"type\": \"" + type + "\", \"id\": " + id
+                + ", \"change\": \"UPDATED\"}]}";
+    }
+
+    /**
+     * Добавляет страны, на которые не ссылаются телефоны. Уведомление другого экземпляра запускает перестройку
+     * снимка каталога, которая снова загружает в кэш второго уровня все связанные с телефонами сущности,
+     * поэтому удаление из кэша проверяется на записях, которые перестройка не читает.
+     */
+    private void addUnusedCountries() {
+        jdbcTemplate.update("insert into countries(name) values ('Poland'), ('Spain')");
+    }
+
+    @SneakyThrows
+    private void getCountry(int id) {
+        mvc.perform(get("/api/v1/countries/" + id)).andExpect(status().isOk());
+    }
+
+    /**
+     * Открывает отдельное соединение, получающее уведомления шины, как соединение другого экземпляра приложения.
+     */
+    @SneakyThrows
+    private static Connection listen() {
+        var connection = DriverManager.getConnection(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+        try (var statement = connection.createStatement()) {
+            statement.execute("LISTEN " + CHANNEL);
+        }
+        return connection;
+    }
+
+    @SneakyThrows
+    private static List<String> receiveNotifications(Connection connection) {
+        var notifications = connection.unwrap(PGConnection.class).getNotifications(2000);
+        return notifications == null ? List.of() : Arrays.stream(notifications)
+                .map(PGNotification::getParameter)
+                .toList();
+    }
+
+    @Test
+    @DisplayName("Изменение страны должно отправить другим экземплярам уведомление об изменении после фиксации транзакции")
+    @Sql(scripts = "/clear-tables.sql")
+    @Sql(scripts = "/test-data.sql")
+    @SneakyThrows
+    void handleCatalogChanged_shouldNotifyOtherNodes_whenTransactionIsCommitted() {
+        try (var connection = listen()) {
+            mvc.perform(patch("/api/v1/countries/1")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"name\": \"United States\"}"))
+                    .andExpect(status().isOk());
+
+            assertThat(receiveNotifications(connection))
+                    .singleElement()
+                    .satisfies(payload -> assertThat(payload)
+                            .contains("\"node\":\"" + ReflectionTestUtils.getField(catalogInvalidationBus, "nodeId") + "\"")
+                            .contains("{\"type\":\"countries\",\"id\":1,\"change\":\"UPDATED\"}"));
+        }
+    }
+
+    @Test
+    @DisplayName("Отмененная транзакция не должна отправлять уведомление об изменении")
+    @Sql(scripts = "/clear-tables.sql")
+    @Sql(scripts = "/test-data.sql")
+    @SneakyThrows
+    void handleCatalogChanged_shouldNotNotifyOtherNodes_whenTransactionIsRolledBack() {
+        try (var connection = listen()) {
+            mvc.perform(delete("/api/v1/countries/").param("ids", "1,1000"))
+                    .andExpect(status().isNotFound());
+
+            assertThat(receiveNotifications(connection)).isEmpty();
+        }
+    }
+
+    @Test
+    @DisplayName("Уведомление другого экземпляра должно удалить измененную страну из кэша второго уровня")
+    @Sql(scripts = "/clear-tables.sql")
+    @Sql(scripts = "/test-data.sql")
+    @SneakyThrows
+    void handleNotifications_shouldEvictChangedEntity_whenNotificationIsReceivedFromOtherNode() {
+        var cache = entityManagerFactory.getCache();
+        addUnusedCountries();
+        getCountry(POLAND_ID);
+        getCountry(SPAIN_ID);
+        jdbcTemplate.update("update countries set name = 'Republic of Poland' where id = ?", POLAND_ID);
+
+        sendNotification(notification(OTHER_NODE_ID, "countries", POLAND_ID));
+
+        await(() -> !cache.contains(CountryEntity.class, POLAND_ID));
+        assertThat(cache.contains(CountryEntity.class, SPAIN_ID)).isTrue();
+        mvc.perform(get("/api/v1/countries/" + POLAND_ID))
+                .andExpectAll(
+                        status().isOk(),
+                        jsonPath("$.name").value("Republic of Poland")
+                );
+    }
+
+    @Test
+    @DisplayName("Шина должна пропускать собственные уведомления экземпляра")
+    @Sql(scripts = "/clear-tables.sql")
+    @Sql(scripts = "/test-data.sql")
+    void handleNotifications_shouldSkipNotification_whenItIsSentByTheSameNode() {
+        var cache = entityManagerFactory.getCache();
+        var nodeId = (String) ReflectionTestUtils.getField(catalogInvalidationBus, "nodeId");
+        addUnusedCountries();
+        getCountry(POLAND_ID);
+        getCountry(SPAIN_ID);
+
+        sendNotification(notification(nodeId, "countries", POLAND_ID));
+        sendNotification(notification(OTHER_NODE_ID, "countries", SPAIN_ID));
+
+        // Уведомления доставляются в порядке отправки, поэтому после обработки второго уведомления
+        // первое уже было получено и пропущено.
+        await(() -> !cache.contains(CountryEntity.class, SPAIN_ID));
+        assertThat(cache.contains(CountryEntity.class, POLAND_ID)).isTrue();
+    }
+
+    @Test
+    @DisplayName("Нераспознанное уведомление должно очистить все области кэша второго уровня")
+    @Sql(scripts = "/clear-tables.sql")
+    @Sql(scripts = "/test-data.sql")
+    @SneakyThrows
+    void handleNotifications_shouldEvictAllRegions_whenNotificationIsMalformed() {
+        var cache = entityManagerFactory.getCache();
+        addUnusedCountries();
+        jdbcTemplate.update("insert into manufacturers(name, country_id) values ('Fairphone', ?)", POLAND_ID);
+        getCountry(SPAIN_ID);
+        mvc.perform(get("/api/v1/manufacturers/" + FAIRPHONE_ID)).andExpect(status().isOk());
+        assertThat(cache.contains(ManufacturerEntity.class, FAIRPHONE_ID)).isTrue();
+
+        sendNotification("not a notification");
+
+        await(() -> !cache.contains(CountryEntity.class, SPAIN_ID) && !cache.contains(ManufacturerEntity.class, FAIRPHONE_ID));
+    }
+}